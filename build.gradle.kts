@@ -6,12 +6,18 @@ plugins {
   `maven-publish`
   signing
   id("checkstyle")
+  alias(libs.plugins.jmh)
   alias(libs.plugins.spotless)
   alias(libs.plugins.nexus)
 }
 
 group = "io.github.shiruka"
 
+val loadgen: SourceSet by sourceSets.creating {
+  compileClasspath += sourceSets.main.get().output
+  runtimeClasspath += sourceSets.main.get().output
+}
+
 configurations {
   testImplementation.get().extendsFrom(compileOnlyApi.get())
   testAnnotationProcessor.get().extendsFrom(annotationProcessor.get())
@@ -21,6 +27,16 @@ checkstyle {
   configFile = file("checkstyle.xml")
 }
 
+val jmhResultsFile = layout.buildDirectory.file("results/jmh/results.json")
+val jmhBaselineFile = file("src/jmh/results/baseline.json")
+
+jmh {
+  jmhVersion.set("1.36")
+  resultFormat.set("JSON")
+  resultsFile.set(jmhResultsFile)
+  profilers.set(listOf("gc"))
+}
+
 repositories {
   mavenCentral()
   maven("https://oss.sonatype.org/content/repositories/snapshots/")
@@ -30,9 +46,17 @@ repositories {
 dependencies {
   compileOnlyApi(libs.api)
   compileOnlyApi(libs.commonsmath)
+  compileOnly(project(":processor"))
 
   annotationProcessor(libs.lombok)
   annotationProcessor(libs.annotations)
+  annotationProcessor(project(":processor"))
+
+  jmh(libs.api)
+  jmh(libs.commonsmath)
+
+  "loadgenImplementation"(libs.api)
+  "loadgenImplementation"(libs.commonsmath)
 }
 
 java {
@@ -81,6 +105,77 @@ tasks {
   checkstyleTest {
     isEnabled = false
   }
+
+  "checkstyleJmh" {
+    isEnabled = false
+  }
+
+  register<Copy>("jmhBaseline") {
+    group = "benchmark"
+    description = "Stores the last jmh results as the baseline of jmhCompare."
+    doFirst {
+      if (!jmhResultsFile.get().asFile.isFile) {
+        throw GradleException("No jmh results at ${jmhResultsFile.get().asFile}, run the jmh task first.")
+      }
+    }
+    from(jmhResultsFile)
+    into(jmhBaselineFile.parentFile)
+    rename { jmhBaselineFile.name }
+  }
+
+  register("jmhCompare") {
+    group = "benchmark"
+    description = "Compares the last jmh results with the stored baseline."
+    doLast {
+      @Suppress("UNCHECKED_CAST")
+      fun scores(file: File) = (groovy.json.JsonSlurper().parse(file) as List<Map<String, Any?>>).associate { run ->
+        val params = (run["params"] as Map<String, Any?>?)
+          ?.entries
+          ?.joinToString(",", "(", ")") { "${it.key}=${it.value}" }
+          .orEmpty()
+        val primary = run["primaryMetric"] as Map<String, Any?>
+        val secondary = run["secondaryMetrics"] as Map<String, Map<String, Any?>>?
+        val alloc = secondary?.entries?.firstOrNull { it.key.endsWith("gc.alloc.rate.norm") }?.value
+        "${run["benchmark"]}$params" to listOf(primary["score"] as Number, alloc?.get("score") as Number?)
+      }
+      if (!jmhBaselineFile.isFile) {
+        throw GradleException("No jmh baseline at $jmhBaselineFile, run the jmh and jmhBaseline tasks to store one.")
+      }
+      if (!jmhResultsFile.get().asFile.isFile) {
+        throw GradleException("No jmh results at ${jmhResultsFile.get().asFile}, run the jmh task first.")
+      }
+      val baseline = scores(jmhBaselineFile)
+      if (baseline.isEmpty()) {
+        println("The jmh baseline is empty, run the jmhBaseline task to store the current results as the baseline.")
+      }
+      val current = scores(jmhResultsFile.get().asFile)
+      current.toSortedMap().forEach { (name, score) ->
+        val before = baseline[name]
+        if (before == null) {
+          println("%-110s %14.3f (new)".format(name, score[0]!!.toDouble()))
+          return@forEach
+        }
+        val delta = (score[0]!!.toDouble() / before[0]!!.toDouble() - 1.0) * 100.0
+        println(
+          "%-110s %14.3f -> %14.3f %+7.1f%%  alloc %s -> %s B/op".format(
+            name, before[0]!!.toDouble(), score[0]!!.toDouble(), delta, before[1], score[1]
+          )
+        )
+      }
+    }
+  }
+
+  "checkstyleLoadgen" {
+    isEnabled = false
+  }
+
+  register<JavaExec>("loadgen") {
+    group = "application"
+    description = "Runs the loopback load generator, pass options with -Pargs=\"--sessions=2000 --rate=30\"."
+    classpath = loadgen.runtimeClasspath
+    mainClass.set("io.github.shiruka.network.loadgen.LoadGenerator")
+    args = project.findProperty("args")?.toString()?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+  }
 }
 
 val spotlessApply = rootProject.property("spotless.apply").toString().toBoolean()
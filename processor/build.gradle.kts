@@ -0,0 +1,18 @@
+plugins {
+  java
+  `java-library`
+}
+
+group = "io.github.shiruka"
+
+java {
+  toolchain {
+    languageVersion.set(JavaLanguageVersion.of(17))
+  }
+}
+
+tasks {
+  compileJava {
+    options.encoding = Charsets.UTF_8.name()
+  }
+}
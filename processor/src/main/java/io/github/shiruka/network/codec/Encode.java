@@ -0,0 +1,27 @@
+package io.github.shiruka.network.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * an annotation to determine encoded fields of {@link GenerateCodec} packets.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Encode {
+  /**
+   * obtains the order of the field on the wire.
+   *
+   * @return order.
+   */
+  int order();
+
+  /**
+   * obtains the encoding.
+   *
+   * @return encoding, {@link Encoding#INFER} to pick the encoding from the field type.
+   */
+  Encoding value() default Encoding.INFER;
+}
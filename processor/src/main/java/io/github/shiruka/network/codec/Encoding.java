@@ -0,0 +1,72 @@
+package io.github.shiruka.network.codec;
+
+/**
+ * an enum class that contains wire encodings of {@link Encode} fields.
+ */
+public enum Encoding {
+  /**
+   * picks the encoding from the field type, {@code boolean}, {@code byte}, {@code short}, {@code int}, {@code long},
+   * {@code InetSocketAddress}, {@code RakNetMagic} and {@code String} fields are supported.
+   */
+  INFER,
+  /**
+   * a single byte flag, 1 byte.
+   */
+  BOOLEAN,
+  /**
+   * a signed byte, 1 byte.
+   */
+  BYTE,
+  /**
+   * an unsigned byte of an {@code int} field, 1 byte.
+   */
+  UNSIGNED_BYTE,
+  /**
+   * a big-endian short of a {@code short} or an {@code int} field, 2 bytes.
+   */
+  SHORT,
+  /**
+   * a big-endian unsigned short of an {@code int} field, 2 bytes.
+   */
+  UNSIGNED_SHORT,
+  /**
+   * a little-endian unsigned triad of an {@code int} field, 3 bytes.
+   */
+  TRIAD_LE,
+  /**
+   * a big-endian int, 4 bytes.
+   */
+  INT,
+  /**
+   * a big-endian long, 8 bytes.
+   */
+  LONG,
+  /**
+   * a zigzag var int, up to 5 bytes.
+   */
+  VAR_INT,
+  /**
+   * an unsigned var int, up to 5 bytes.
+   */
+  UNSIGNED_VAR_INT,
+  /**
+   * a zigzag var long, up to 10 bytes.
+   */
+  VAR_LONG,
+  /**
+   * an unsigned var long, up to 10 bytes.
+   */
+  UNSIGNED_VAR_LONG,
+  /**
+   * an {@code InetSocketAddress}, 7 bytes for IPv4 and 29 bytes for IPv6.
+   */
+  ADDRESS,
+  /**
+   * a {@code RakNetMagic}, 16 bytes.
+   */
+  MAGIC,
+  /**
+   * a var int length prefixed UTF-8 string, sized from its UTF-8 length.
+   */
+  STRING,
+}
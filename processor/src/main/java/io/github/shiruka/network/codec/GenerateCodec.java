@@ -0,0 +1,32 @@
+package io.github.shiruka.network.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * an annotation to generate the codec of a packet.
+ * <p>
+ * the processor generates a package-private {@code <Packet>Codec} class next to the packet with static
+ * {@code encode}, {@code decode} and {@code size} methods built from the {@link Encode} fields of the packet. the fields
+ * are read and written through their fluent accessors, so the packet has to expose a getter and a setter for each of
+ * them.
+ * <pre>{@code
+ * @GenerateCodec
+ * public final class ConnectedPing extends FramedPacket.Base {
+ *
+ *   @Encode(order = 0)
+ *   private long timestamp;
+ *
+ *   @Override
+ *   public void encode(@NotNull final PacketBuffer buffer) {
+ *     ConnectedPingCodec.encode(this, buffer);
+ *   }
+ * }
+ * }</pre>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateCodec {
+}
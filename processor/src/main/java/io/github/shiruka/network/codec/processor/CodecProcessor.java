@@ -0,0 +1,446 @@
+package io.github.shiruka.network.codec.processor;
+
+import io.github.shiruka.network.codec.Encode;
+import io.github.shiruka.network.codec.Encoding;
+import io.github.shiruka.network.codec.GenerateCodec;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * a class that represents annotation processors of {@link GenerateCodec} packets.
+ * <p>
+ * the generated methods are straight-line calls to {@code PacketBuffer}, one statement per field in the wire order, and
+ * the size is a constant sum of the field sizes so the packet can allocate its buffer once.
+ */
+@SupportedAnnotationTypes("io.github.shiruka.network.codec.GenerateCodec")
+public final class CodecProcessor extends AbstractProcessor {
+
+  /**
+   * the address type.
+   */
+  private static final String ADDRESS = "java.net.InetSocketAddress";
+
+  /**
+   * the fixed sizes, variable encodings are sized by their upper bound.
+   */
+  private static final Map<Encoding, Integer> SIZES = CodecProcessor.sizes();
+
+  /**
+   * the magic type.
+   */
+  private static final String MAGIC =
+    "io.github.shiruka.network.options.RakNetMagic";
+
+  /**
+   * the packet id size.
+   */
+  private static final int PACKET_ID_SIZE = 1;
+
+  /**
+   * the string type.
+   */
+  private static final String STRING = "java.lang.String";
+
+  /**
+   * the accepted field types.
+   */
+  private static final Map<Encoding, Set<String>> TYPES = CodecProcessor.types();
+
+  /**
+   * creates the sizes.
+   *
+   * @return sizes.
+   */
+  private static Map<Encoding, Integer> sizes() {
+    final var sizes = new EnumMap<Encoding, Integer>(Encoding.class);
+    sizes.put(Encoding.BOOLEAN, 1);
+    sizes.put(Encoding.BYTE, 1);
+    sizes.put(Encoding.UNSIGNED_BYTE, 1);
+    sizes.put(Encoding.SHORT, 2);
+    sizes.put(Encoding.UNSIGNED_SHORT, 2);
+    sizes.put(Encoding.TRIAD_LE, 3);
+    sizes.put(Encoding.INT, 4);
+    sizes.put(Encoding.LONG, 8);
+    sizes.put(Encoding.VAR_INT, 5);
+    sizes.put(Encoding.UNSIGNED_VAR_INT, 5);
+    sizes.put(Encoding.VAR_LONG, 10);
+    sizes.put(Encoding.UNSIGNED_VAR_LONG, 10);
+    sizes.put(Encoding.ADDRESS, 29);
+    sizes.put(Encoding.MAGIC, 16);
+    // strings are sized at runtime.
+    sizes.put(Encoding.STRING, 0);
+    return sizes;
+  }
+
+  /**
+   * creates the accepted field types.
+   *
+   * @return types.
+   */
+  private static Map<Encoding, Set<String>> types() {
+    final var types = new EnumMap<Encoding, Set<String>>(Encoding.class);
+    types.put(Encoding.BOOLEAN, Set.of("boolean"));
+    types.put(Encoding.BYTE, Set.of("byte"));
+    types.put(Encoding.UNSIGNED_BYTE, Set.of("short", "int"));
+    types.put(Encoding.SHORT, Set.of("short", "int"));
+    types.put(Encoding.UNSIGNED_SHORT, Set.of("int"));
+    types.put(Encoding.TRIAD_LE, Set.of("int"));
+    types.put(Encoding.INT, Set.of("int"));
+    types.put(Encoding.LONG, Set.of("long"));
+    types.put(Encoding.VAR_INT, Set.of("int"));
+    types.put(Encoding.UNSIGNED_VAR_INT, Set.of("int"));
+    types.put(Encoding.VAR_LONG, Set.of("long"));
+    types.put(Encoding.UNSIGNED_VAR_LONG, Set.of("long"));
+    types.put(Encoding.ADDRESS, Set.of(CodecProcessor.ADDRESS));
+    types.put(Encoding.MAGIC, Set.of(CodecProcessor.MAGIC));
+    types.put(Encoding.STRING, Set.of(CodecProcessor.STRING));
+    return types;
+  }
+
+  /**
+   * infers the encoding from the type name.
+   *
+   * @param type the type to infer.
+   *
+   * @return encoding, {@code null} if the type is not supported.
+   */
+  private static Encoding infer(final String type) {
+    return switch (type) {
+      case "boolean" -> Encoding.BOOLEAN;
+      case "byte" -> Encoding.BYTE;
+      case "short" -> Encoding.SHORT;
+      case "int" -> Encoding.INT;
+      case "long" -> Encoding.LONG;
+      case CodecProcessor.ADDRESS -> Encoding.ADDRESS;
+      case CodecProcessor.MAGIC -> Encoding.MAGIC;
+      case CodecProcessor.STRING -> Encoding.STRING;
+      default -> null;
+    };
+  }
+
+  /**
+   * creates the read expression of the encoding.
+   *
+   * @param encoding the encoding to create.
+   *
+   * @return read expression.
+   */
+  private static String read(final Encoding encoding) {
+    return switch (encoding) {
+      case BOOLEAN -> "buffer.readBoolean()";
+      case BYTE -> "buffer.readByte()";
+      case UNSIGNED_BYTE -> "buffer.readUnsignedByte()";
+      case SHORT -> "buffer.readShort()";
+      case UNSIGNED_SHORT -> "buffer.readUnsignedShort()";
+      case TRIAD_LE -> "buffer.readUnsignedTriadLE()";
+      case INT -> "buffer.readInt()";
+      case LONG -> "buffer.readLong()";
+      case VAR_INT -> "buffer.readVarInt()";
+      case UNSIGNED_VAR_INT -> "buffer.readUnsignedVarInt()";
+      case VAR_LONG -> "buffer.readVarLong()";
+      case UNSIGNED_VAR_LONG -> "buffer.readUnsignedVarLong()";
+      case ADDRESS -> "buffer.readAddress()";
+      case MAGIC -> "RakNetMagic.from(buffer)";
+      case STRING -> "buffer.readString()";
+      case INFER -> throw new IllegalArgumentException("Encoding is not resolved");
+    };
+  }
+
+  /**
+   * creates the write statement of the encoding.
+   *
+   * @param encoding the encoding to create.
+   * @param value the value to write.
+   *
+   * @return write statement.
+   */
+  private static String write(final Encoding encoding, final String value) {
+    final var method =
+      switch (encoding) {
+        case BOOLEAN -> "writeBoolean";
+        case BYTE, UNSIGNED_BYTE -> "writeByte";
+        case SHORT, UNSIGNED_SHORT -> "writeShort";
+        case TRIAD_LE -> "writeTriadLE";
+        case INT -> "writeInt";
+        case LONG -> "writeLong";
+        case VAR_INT -> "writeVarInt";
+        case UNSIGNED_VAR_INT -> "writeUnsignedVarInt";
+        case VAR_LONG -> "writeVarLong";
+        case UNSIGNED_VAR_LONG -> "writeUnsignedVarLong";
+        case ADDRESS -> "writeAddress";
+        case STRING -> "writeString";
+        case MAGIC -> null;
+        case INFER -> throw new IllegalArgumentException(
+          "Encoding is not resolved"
+        );
+      };
+    if (method == null) {
+      return value + ".write(buffer);";
+    }
+    return "buffer." + method + "(" + value + ");";
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(
+    final Set<? extends TypeElement> annotations,
+    final RoundEnvironment roundEnv
+  ) {
+    for (final var element : roundEnv.getElementsAnnotatedWith(
+      GenerateCodec.class
+    )) {
+      if (
+        element.getKind() != ElementKind.CLASS ||
+        ((TypeElement) element).getNestingKind() != NestingKind.TOP_LEVEL
+      ) {
+        this.error(element, "@GenerateCodec needs a top level class");
+        continue;
+      }
+      final var packet = (TypeElement) element;
+      final var fields = this.fields(packet);
+      if (fields != null) {
+        this.generate(packet, fields);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * prints the error.
+   *
+   * @param element the element to print.
+   * @param message the message to print.
+   */
+  private void error(final Element element, final String message) {
+    this.processingEnv.getMessager()
+      .printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  /**
+   * collects the encoded fields of the packet in the wire order.
+   *
+   * @param packet the packet to collect.
+   *
+   * @return fields, {@code null} if the packet has invalid fields.
+   */
+  private List<Field> fields(final TypeElement packet) {
+    final var fields = new ArrayList<Field>();
+    var valid = true;
+    for (final var field : ElementFilter.fieldsIn(
+      packet.getEnclosedElements()
+    )) {
+      final var encode = field.getAnnotation(Encode.class);
+      if (encode == null) {
+        continue;
+      }
+      if (field.getModifiers().contains(Modifier.STATIC)) {
+        this.error(field, "@Encode fields can not be static");
+        valid = false;
+        continue;
+      }
+      final var type = this.typeName(field.asType());
+      final var encoding = encode.value() == Encoding.INFER
+        ? CodecProcessor.infer(type)
+        : encode.value();
+      if (
+        encoding == null || !CodecProcessor.TYPES.get(encoding).contains(type)
+      ) {
+        this.error(
+            field,
+            "Can not encode " + type + " with " + encode.value()
+          );
+        valid = false;
+        continue;
+      }
+      fields.add(new Field(field, encoding, encode.order()));
+    }
+    fields.sort(Comparator.comparingInt(Field::order));
+    for (var index = 1; index < fields.size(); index++) {
+      final var field = fields.get(index);
+      if (field.order() == fields.get(index - 1).order()) {
+        this.error(field.element(), "Duplicate order " + field.order());
+        valid = false;
+      }
+    }
+    return valid ? fields : null;
+  }
+
+  /**
+   * generates the codec of the packet.
+   *
+   * @param packet the packet to generate.
+   * @param fields the fields to generate.
+   */
+  private void generate(final TypeElement packet, final List<Field> fields) {
+    final var packageName =
+      this.processingEnv.getElementUtils().getPackageOf(packet).getQualifiedName();
+    final var packetName = packet.getSimpleName().toString();
+    final var codecName = packetName + "Codec";
+    final var out = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      out.append("package ").append(packageName).append(";\n\n");
+    }
+    out.append("import io.github.shiruka.network.PacketBuffer;\n");
+    if (fields.stream().anyMatch(field -> field.encoding() == Encoding.MAGIC)) {
+      out.append("import ").append(CodecProcessor.MAGIC).append(";\n");
+    }
+    out
+      .append("import javax.annotation.processing.Generated;\n")
+      .append("import org.jetbrains.annotations.NotNull;\n\n")
+      .append("/**\n * the generated codec of {@link ")
+      .append(packetName)
+      .append("}.\n */\n")
+      .append("@Generated(\"")
+      .append(CodecProcessor.class.getName())
+      .append("\")\nfinal class ")
+      .append(codecName)
+      .append(" {\n\n")
+      .append("  /**\n   * ctor.\n   */\n  private ")
+      .append(codecName)
+      .append("() {}\n\n");
+    this.method(out, "decodes the packet.", "decode", packetName);
+    for (final var field : fields) {
+      out
+        .append("    packet.")
+        .append(field.name())
+        .append('(')
+        .append(CodecProcessor.read(field.encoding()))
+        .append(");\n");
+    }
+    out.append("  }\n\n");
+    this.method(out, "encodes the packet.", "encode", packetName);
+    for (final var field : fields) {
+      out
+        .append("    ")
+        .append(
+          CodecProcessor.write(field.encoding(), "packet." + field.name() + "()")
+        )
+        .append('\n');
+    }
+    out.append("  }\n\n");
+    var fixed = CodecProcessor.PACKET_ID_SIZE;
+    final var variable = new StringBuilder();
+    for (final var field : fields) {
+      fixed += CodecProcessor.SIZES.get(field.encoding());
+      if (field.encoding() == Encoding.STRING) {
+        variable
+          .append(" +\n      PacketBuffer.stringSize(packet.")
+          .append(field.name())
+          .append("())");
+      }
+    }
+    out
+      .append("  /**\n")
+      .append("   * computes the upper bound of the encoded size, including the packet id.\n")
+      .append("   *\n")
+      .append("   * @param packet the packet to compute.\n")
+      .append("   *\n")
+      .append("   * @return encoded size.\n")
+      .append("   */\n")
+      .append("  static int size(@NotNull final ")
+      .append(packetName)
+      .append(" packet) {\n")
+      .append("    return ")
+      .append(fixed)
+      .append(variable)
+      .append(";\n  }\n}\n");
+    try (
+      final var writer = this.processingEnv.getFiler()
+        .createSourceFile(packageName + "." + codecName, packet)
+        .openWriter()
+    ) {
+      writer.write(out.toString());
+    } catch (final IOException e) {
+      this.error(packet, "Failed to generate " + codecName + ": " + e);
+    }
+  }
+
+  /**
+   * appends the header of a decode or an encode method.
+   *
+   * @param out the out to append.
+   * @param doc the doc to append.
+   * @param name the name to append.
+   * @param packetName the packet name to append.
+   */
+  private void method(
+    final StringBuilder out,
+    final String doc,
+    final String name,
+    final String packetName
+  ) {
+    out
+      .append("  /**\n   * ")
+      .append(doc)
+      .append("\n   *\n   * @param packet the packet to ")
+      .append(name)
+      .append(".\n   * @param buffer the buffer to ")
+      .append(name)
+      .append(".\n   */\n  static void ")
+      .append(name)
+      .append("(\n    @NotNull final ")
+      .append(packetName)
+      .append(" packet,\n    @NotNull final PacketBuffer buffer\n  ) {\n");
+  }
+
+  /**
+   * obtains the name of the type, without type annotations.
+   *
+   * @param type the type to obtain.
+   *
+   * @return type name.
+   */
+  private String typeName(final TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return type.getKind().name().toLowerCase(Locale.ROOT);
+    }
+    if (type.getKind() == TypeKind.DECLARED) {
+      final var element =
+        (TypeElement) this.processingEnv.getTypeUtils().asElement(type);
+      return element.getQualifiedName().toString();
+    }
+    return type.toString();
+  }
+
+  /**
+   * a record class that represents encoded fields.
+   *
+   * @param element the element.
+   * @param encoding the encoding.
+   * @param order the order.
+   */
+  private record Field(VariableElement element, Encoding encoding, int order) {
+    /**
+     * obtains the name.
+     *
+     * @return name.
+     */
+    private String name() {
+      return this.element.getSimpleName().toString();
+    }
+  }
+}
@@ -0,0 +1,4 @@
+/**
+ * the package that contains the annotation processor of generated packet codecs.
+ */
+package io.github.shiruka.network.codec.processor;
@@ -1,3 +1,5 @@
 rootProject.name = "network"
 
+include("processor")
+
 enableFeaturePreview("VERSION_CATALOGS")
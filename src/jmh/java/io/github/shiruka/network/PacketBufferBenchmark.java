@@ -0,0 +1,639 @@
+package io.github.shiruka.network;
+
+import io.github.shiruka.api.base.Vector2f;
+import io.github.shiruka.api.base.Vector3f;
+import io.github.shiruka.api.base.Vector3i;
+import io.netty.buffer.Unpooled;
+import io.netty.util.AsciiString;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that represents benchmarks of {@link PacketBuffer} read and write pairs.
+ * <p>
+ * every benchmark writes a value at the start of a direct buffer and reads it back.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketBufferBenchmark {
+
+  /**
+   * the ascii.
+   */
+  private final String ascii = "MCPE;Shiruka;560;1.19.50;0;100;1;Shiruka;Survival";
+
+  /**
+   * the ascii string.
+   */
+  private final AsciiString asciiString = AsciiString.of(this.ascii);
+
+  /**
+   * the buffer.
+   */
+  private final PacketBuffer buffer = new PacketBuffer(
+    Unpooled.directBuffer(1024)
+  );
+
+  /**
+   * the bytes.
+   */
+  private final byte[] bytes = new byte[64];
+
+  /**
+   * the ints.
+   */
+  private final int[] ints = new int[128];
+
+  /**
+   * the ipv4.
+   */
+  private final InetSocketAddress ipv4 = new InetSocketAddress(
+    "127.0.0.1",
+    19132
+  );
+
+  /**
+   * the ipv6.
+   */
+  private final InetSocketAddress ipv6 = new InetSocketAddress(
+    "::1",
+    19133
+  );
+
+  /**
+   * the utf8.
+   */
+  private final String utf8 = "Şiruka sunucusuna hoş geldiniz, 日本語";
+
+  /**
+   * the uuid.
+   */
+  private final UUID uuid = new UUID(Long.MAX_VALUE, Long.MIN_VALUE);
+
+  /**
+   * the var int, 3 bytes once encoded.
+   */
+  private final int varInt = 0x1FFFF;
+
+  /**
+   * the var long, 6 bytes once encoded.
+   */
+  private final long varLong = 0x3FFFFFFFFFL;
+
+  /**
+   * the vector 2f.
+   */
+  private final Vector2f vector2f = Vector2f.of(1.0f, 2.0f);
+
+  /**
+   * the vector 3f.
+   */
+  private final Vector3f vector3f = Vector3f.of(1.0f, 2.0f, 3.0f);
+
+  /**
+   * the vector 3i.
+   */
+  private final Vector3i vector3i = Vector3i.of(1, 2, 3);
+
+  /**
+   * writes and reads an IPv4 address.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public InetSocketAddress roundTripAddress() {
+    this.buffer.clear();
+    this.buffer.writeAddress(this.ipv4);
+    return this.buffer.readAddress();
+  }
+
+  /**
+   * writes and reads an IPv6 address.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public InetSocketAddress roundTripAddressIpv6() {
+    this.buffer.clear();
+    this.buffer.writeAddress(this.ipv6);
+    return this.buffer.readAddress();
+  }
+
+  /**
+   * writes and reads a little-endian ascii string.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public AsciiString roundTripAsciiStringLE() {
+    this.buffer.clear();
+    this.buffer.writeLEAsciiString(this.asciiString);
+    return this.buffer.readLEAsciiString();
+  }
+
+  /**
+   * writes and reads a boolean.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public boolean roundTripBoolean() {
+    this.buffer.clear();
+    this.buffer.writeBoolean(true);
+    return this.buffer.readBoolean();
+  }
+
+  /**
+   * writes and reads a byte.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public byte roundTripByte() {
+    this.buffer.clear();
+    this.buffer.writeByte(0x7F);
+    return this.buffer.readByte();
+  }
+
+  /**
+   * writes and reads a byte angle.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public float roundTripByteAngle() {
+    this.buffer.clear();
+    this.buffer.writeByteAngle(90.0f);
+    return this.buffer.readByteAngle();
+  }
+
+  /**
+   * writes and reads a byte array.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public byte[] roundTripByteArray() {
+    this.buffer.clear();
+    this.buffer.writeByteArray(this.bytes);
+    return this.buffer.readByteArray();
+  }
+
+  /**
+   * writes and reads a byte rotation.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public Vector3f roundTripByteRotation() {
+    this.buffer.clear();
+    this.buffer.writeByteRotation(this.vector3f);
+    return this.buffer.readByteRotation();
+  }
+
+  /**
+   * writes and reads a double.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public double roundTripDouble() {
+    this.buffer.clear();
+    this.buffer.writeDouble(Math.PI);
+    return this.buffer.readDouble();
+  }
+
+  /**
+   * writes and reads a double LE.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public double roundTripDoubleLE() {
+    this.buffer.clear();
+    this.buffer.writeDoubleLE(Math.PI);
+    return this.buffer.readDoubleLE();
+  }
+
+  /**
+   * writes and reads a float.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public float roundTripFloat() {
+    this.buffer.clear();
+    this.buffer.writeFloat(Math.E);
+    return this.buffer.readFloat();
+  }
+
+  /**
+   * writes and reads a float LE.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public float roundTripFloatLE() {
+    this.buffer.clear();
+    this.buffer.writeFloatLE(Math.E);
+    return this.buffer.readFloatLE();
+  }
+
+  /**
+   * writes and reads an int.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public int roundTripInt() {
+    this.buffer.clear();
+    this.buffer.writeInt(Integer.MAX_VALUE);
+    return this.buffer.readInt();
+  }
+
+  /**
+   * writes and reads an int LE.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public int roundTripIntLE() {
+    this.buffer.clear();
+    this.buffer.writeIntLE(Integer.MAX_VALUE);
+    return this.buffer.readIntLE();
+  }
+
+  /**
+   * writes and reads little-endian ints in bulk.
+   *
+   * @return read values.
+   */
+  @Benchmark
+  public int[] roundTripIntsLE() {
+    this.buffer.clear();
+    this.buffer.writeIntsLE(this.ints, 0, this.ints.length);
+    this.buffer.readIntsLE(this.ints, 0, this.ints.length);
+    return this.ints;
+  }
+
+  /**
+   * writes and reads a long.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public long roundTripLong() {
+    this.buffer.clear();
+    this.buffer.writeLong(Long.MAX_VALUE);
+    return this.buffer.readLong();
+  }
+
+  /**
+   * writes and reads a long LE.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public long roundTripLongLE() {
+    this.buffer.clear();
+    this.buffer.writeLongLE(Long.MAX_VALUE);
+    return this.buffer.readLongLE();
+  }
+
+  /**
+   * writes and reads a medium.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public int roundTripMedium() {
+    this.buffer.clear();
+    this.buffer.writeMedium(0x7FFFFF);
+    return this.buffer.readMedium();
+  }
+
+  /**
+   * writes and reads a medium LE.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public int roundTripMediumLE() {
+    this.buffer.clear();
+    this.buffer.writeMediumLE(0x7FFFFF);
+    return this.buffer.readMediumLE();
+  }
+
+  /**
+   * writes and reads a short.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public short roundTripShort() {
+    this.buffer.clear();
+    this.buffer.writeShort(Short.MAX_VALUE);
+    return this.buffer.readShort();
+  }
+
+  /**
+   * writes and reads a short LE.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public short roundTripShortLE() {
+    this.buffer.clear();
+    this.buffer.writeShortLE(Short.MAX_VALUE);
+    return this.buffer.readShortLE();
+  }
+
+  /**
+   * writes and reads an ascii string.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public String roundTripStringAscii() {
+    this.buffer.clear();
+    this.buffer.writeString(this.ascii);
+    return this.buffer.readString();
+  }
+
+  /**
+   * writes and reads a UTF-8 string.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public String roundTripStringUtf8() {
+    this.buffer.clear();
+    this.buffer.writeString(this.utf8);
+    return this.buffer.readString();
+  }
+
+  /**
+   * writes and reads a triad.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public int roundTripTriad() {
+    this.buffer.clear();
+    this.buffer.writeTriad(0x7FFFFF);
+    return this.buffer.readTriad();
+  }
+
+  /**
+   * writes and reads a triad LE.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public int roundTripTriadLE() {
+    this.buffer.clear();
+    this.buffer.writeTriadLE(0x7FFFFF);
+    return this.buffer.readTriadLE();
+  }
+
+  /**
+   * writes and reads an unsigned byte.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public short roundTripUnsignedByte() {
+    this.buffer.clear();
+    this.buffer.writeUnsignedByte(0xFF);
+    return this.buffer.readUnsignedByte();
+  }
+
+  /**
+   * writes and reads an unsigned int.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public long roundTripUnsignedInt() {
+    this.buffer.clear();
+    this.buffer.writeUnsignedInt(0xFFFFFFFFL);
+    return this.buffer.readUnsignedInt();
+  }
+
+  /**
+   * writes and reads an unsigned int LE.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public long roundTripUnsignedIntLE() {
+    this.buffer.clear();
+    this.buffer.writeUnsignedIntLE(0xFFFFFFFFL);
+    return this.buffer.readUnsignedIntLE();
+  }
+
+  /**
+   * writes and reads an unsigned long.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public BigInteger roundTripUnsignedLong() {
+    this.buffer.clear();
+    this.buffer.writeUnsignedLong(Long.MAX_VALUE);
+    return this.buffer.readUnsignedLong();
+  }
+
+  /**
+   * writes and reads an unsigned long LE.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public BigInteger roundTripUnsignedLongLE() {
+    this.buffer.clear();
+    this.buffer.writeUnsignedLongLE(Long.MAX_VALUE);
+    return this.buffer.readUnsignedLongLE();
+  }
+
+  /**
+   * writes and reads an unsigned short.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public int roundTripUnsignedShort() {
+    this.buffer.clear();
+    this.buffer.writeUnsignedShort(0xFFFF);
+    return this.buffer.readUnsignedShort();
+  }
+
+  /**
+   * writes and reads an unsigned short LE.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public int roundTripUnsignedShortLE() {
+    this.buffer.clear();
+    this.buffer.writeUnsignedShortLE(0xFFFF);
+    return this.buffer.readUnsignedShortLE();
+  }
+
+  /**
+   * writes and reads an unsigned triad.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public int roundTripUnsignedTriad() {
+    this.buffer.clear();
+    this.buffer.writeUnsignedTriad(0xFFFFFF);
+    return this.buffer.readUnsignedTriad();
+  }
+
+  /**
+   * writes and reads an unsigned triad LE.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public int roundTripUnsignedTriadLE() {
+    this.buffer.clear();
+    this.buffer.writeUnsignedTriadLE(0xFFFFFF);
+    return this.buffer.readUnsignedTriadLE();
+  }
+
+  /**
+   * writes and reads an unsigned var int.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public int roundTripUnsignedVarInt() {
+    this.buffer.clear();
+    this.buffer.writeUnsignedVarInt(this.varInt);
+    return this.buffer.readUnsignedVarInt();
+  }
+
+  /**
+   * writes and reads an unsigned var long.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public long roundTripUnsignedVarLong() {
+    this.buffer.clear();
+    this.buffer.writeUnsignedVarLong(this.varLong);
+    return this.buffer.readUnsignedVarLong();
+  }
+
+  /**
+   * writes and reads a UUID.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public UUID roundTripUuid() {
+    this.buffer.clear();
+    this.buffer.writeUUID(this.uuid);
+    return this.buffer.readUUID();
+  }
+
+  /**
+   * writes and reads a var int.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public int roundTripVarInt() {
+    this.buffer.clear();
+    this.buffer.writeVarInt(this.varInt);
+    return this.buffer.readVarInt();
+  }
+
+  /**
+   * writes and reads a var int array.
+   *
+   * @return read values.
+   */
+  @Benchmark
+  public int[] roundTripVarIntArray() {
+    this.buffer.clear();
+    this.buffer.writeVarIntArray(this.ints, this.ints.length);
+    this.buffer.readVarIntArray(this.ints);
+    return this.ints;
+  }
+
+  /**
+   * writes and reads a var long.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public long roundTripVarLong() {
+    this.buffer.clear();
+    this.buffer.writeVarLong(this.varLong);
+    return this.buffer.readVarLong();
+  }
+
+  /**
+   * writes and reads a vector 2f.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public Vector2f roundTripVector2f() {
+    this.buffer.clear();
+    this.buffer.writeVector2f(this.vector2f);
+    return this.buffer.readVector2f();
+  }
+
+  /**
+   * writes and reads a vector 3f.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public Vector3f roundTripVector3f() {
+    this.buffer.clear();
+    this.buffer.writeVector3f(this.vector3f);
+    return this.buffer.readVector3f();
+  }
+
+  /**
+   * writes and reads a vector 3i.
+   *
+   * @return read value.
+   */
+  @Benchmark
+  public Vector3i roundTripVector3i() {
+    this.buffer.clear();
+    this.buffer.writeVector3i(this.vector3i);
+    return this.buffer.readVector3i();
+  }
+
+  /**
+   * releases the buffer.
+   */
+  @TearDown
+  public void tearDown() {
+    this.buffer.release();
+  }
+}
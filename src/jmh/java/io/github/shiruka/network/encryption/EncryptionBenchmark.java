@@ -0,0 +1,172 @@
+package io.github.shiruka.network.encryption;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that represents benchmarks of encryption handlers against a plaintext baseline.
+ * <p>
+ * each operation encrypts a batch of messages on one channel and decrypts them as a single read on another, the
+ * allocations of the modes can be compared with {@code -prof gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncryptionBenchmark {
+
+  /**
+   * the plaintext mode.
+   */
+  private static final String PLAINTEXT = "PLAINTEXT";
+
+  /**
+   * the messages in a batch.
+   */
+  @Param({ "1", "8" })
+  private int batch;
+
+  /**
+   * the message.
+   */
+  private ByteBuf message;
+
+  /**
+   * the mode.
+   */
+  @Param({ EncryptionBenchmark.PLAINTEXT, "GCM", "CTR" })
+  private String mode;
+
+  /**
+   * the receiver.
+   */
+  private EmbeddedChannel receiver;
+
+  /**
+   * the sender.
+   */
+  private EmbeddedChannel sender;
+
+  /**
+   * the message size.
+   */
+  @Param({ "64", "1200" })
+  private int size;
+
+  /**
+   * creates the handler of the mode.
+   *
+   * @param mode the mode to create.
+   * @param inboundKey the inbound key to create.
+   * @param outboundKey the outbound key to create.
+   *
+   * @return handler.
+   *
+   * @throws Exception if the runtime does not support the mode.
+   */
+  private static ChannelHandler handler(
+    final String mode,
+    final SecretKeySpec inboundKey,
+    final SecretKeySpec outboundKey
+  ) throws Exception {
+    if (EncryptionBenchmark.PLAINTEXT.equals(mode)) {
+      return new ChannelInboundHandlerAdapter();
+    }
+    return new EncryptionHandler(
+      EncryptionMode.valueOf(mode),
+      inboundKey,
+      outboundKey
+    );
+  }
+
+  /**
+   * creates a random key.
+   *
+   * @return key.
+   */
+  private static SecretKeySpec key() {
+    final var key = new byte[16];
+    ThreadLocalRandom.current().nextBytes(key);
+    return new SecretKeySpec(key, "AES");
+  }
+
+  /**
+   * sends the batch from the sender to the receiver.
+   *
+   * @return received bytes.
+   */
+  @Benchmark
+  public int roundTrip() {
+    for (var index = 0; index < this.batch; index++) {
+      this.sender.write(this.message.retainedDuplicate());
+    }
+    this.sender.flushOutbound();
+    ByteBuf encrypted;
+    while ((encrypted = this.sender.readOutbound()) != null) {
+      this.receiver.pipeline().fireChannelRead(encrypted);
+    }
+    this.receiver.pipeline().fireChannelReadComplete();
+    var received = 0;
+    ByteBuf decrypted;
+    while ((decrypted = this.receiver.readInbound()) != null) {
+      received += decrypted.readableBytes();
+      decrypted.release();
+    }
+    return received;
+  }
+
+  /**
+   * creates the channels and the message.
+   *
+   * @throws Exception if the runtime does not support the mode.
+   */
+  @Setup
+  public void setup() throws Exception {
+    final var senderKey = EncryptionBenchmark.key();
+    final var receiverKey = EncryptionBenchmark.key();
+    this.sender =
+      new EmbeddedChannel(
+        EncryptionBenchmark.handler(this.mode, receiverKey, senderKey)
+      );
+    this.receiver =
+      new EmbeddedChannel(
+        EncryptionBenchmark.handler(this.mode, senderKey, receiverKey)
+      );
+    this.sender.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+    this.receiver.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+    this.message = PooledByteBufAllocator.DEFAULT.directBuffer(this.size);
+    final var bytes = new byte[this.size];
+    ThreadLocalRandom.current().nextBytes(bytes);
+    this.message.writeBytes(bytes);
+  }
+
+  /**
+   * closes the channels and releases the message.
+   */
+  @TearDown
+  public void tearDown() {
+    this.sender.finishAndReleaseAll();
+    this.receiver.finishAndReleaseAll();
+    this.message.release();
+  }
+}
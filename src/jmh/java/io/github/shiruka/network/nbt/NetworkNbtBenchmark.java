@@ -0,0 +1,185 @@
+package io.github.shiruka.network.nbt;
+
+import io.github.shiruka.nbt.CompoundTag;
+import io.github.shiruka.network.PacketBuffer;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that represents benchmarks of network nbt decoding, skipping and cached encoding.
+ * <p>
+ * the tag is an item definition like compound with ints, strings and a list of nested compounds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkNbtBenchmark {
+
+  /**
+   * the compound tag id.
+   */
+  private static final int COMPOUND = 10;
+
+  /**
+   * the int tag id.
+   */
+  private static final int INT = 3;
+
+  /**
+   * the list tag id.
+   */
+  private static final int LIST = 9;
+
+  /**
+   * the string tag id.
+   */
+  private static final int STRING = 8;
+
+  /**
+   * the encoded.
+   */
+  private PacketBuffer encoded;
+
+  /**
+   * the encoded tag.
+   */
+  private EncodedTag encodedTag;
+
+  /**
+   * the output.
+   */
+  private PacketBuffer output;
+
+  /**
+   * the tag.
+   */
+  private CompoundTag tag;
+
+  /**
+   * writes a name.
+   *
+   * @param buffer the buffer to write.
+   * @param name the name to write.
+   */
+  private static void writeName(
+    final PacketBuffer buffer,
+    final String name
+  ) {
+    final var bytes = name.getBytes(StandardCharsets.UTF_8);
+    buffer.writeUnsignedVarInt(bytes.length);
+    buffer.writeBytes(bytes);
+  }
+
+  /**
+   * writes the entries of an item compound.
+   *
+   * @param buffer the buffer to write.
+   * @param id the id to write.
+   */
+  private static void writeItem(final PacketBuffer buffer, final int id) {
+    buffer.writeByte(NetworkNbtBenchmark.STRING);
+    NetworkNbtBenchmark.writeName(buffer, "name");
+    NetworkNbtBenchmark.writeName(buffer, "minecraft:item_" + id);
+    buffer.writeByte(NetworkNbtBenchmark.INT);
+    NetworkNbtBenchmark.writeName(buffer, "id");
+    buffer.writeVarInt(id);
+    buffer.writeByte(NetworkNbtBenchmark.INT);
+    NetworkNbtBenchmark.writeName(buffer, "damage");
+    buffer.writeVarInt(0);
+    buffer.writeByte(0);
+  }
+
+  /**
+   * decodes the tag.
+   *
+   * @return tag.
+   */
+  @Benchmark
+  public CompoundTag decode() {
+    this.encoded.buffer().readerIndex(0);
+    return this.encoded.readCompoundTag();
+  }
+
+  /**
+   * encodes the tag.
+   *
+   * @return output.
+   */
+  @Benchmark
+  public PacketBuffer encode() {
+    this.output.clear();
+    this.output.writeCompoundTag(this.tag);
+    return this.output;
+  }
+
+  /**
+   * writes the cached encoding of the tag.
+   *
+   * @return output.
+   */
+  @Benchmark
+  public PacketBuffer encodeCached() {
+    this.output.clear();
+    this.output.writeCompoundTag(this.encodedTag);
+    return this.output;
+  }
+
+  /**
+   * sets up the tag.
+   */
+  @Setup
+  public void setup() {
+    this.encoded = new PacketBuffer(Unpooled.directBuffer());
+    this.encoded.writeByte(NetworkNbtBenchmark.COMPOUND);
+    NetworkNbtBenchmark.writeName(this.encoded, "");
+    NetworkNbtBenchmark.writeItem(this.encoded, 0);
+    this.encoded.writeByte(NetworkNbtBenchmark.LIST);
+    NetworkNbtBenchmark.writeName(this.encoded, "items");
+    this.encoded.writeByte(NetworkNbtBenchmark.COMPOUND);
+    this.encoded.writeVarInt(32);
+    for (var id = 1; id <= 32; id++) {
+      NetworkNbtBenchmark.writeItem(this.encoded, id);
+    }
+    this.encoded.writeByte(0);
+    this.output =
+      new PacketBuffer(Unpooled.directBuffer(this.encoded.remaining()));
+    this.tag = this.decode();
+    this.encodedTag = EncodedTag.of(this.tag);
+  }
+
+  /**
+   * skips the tag without decoding it.
+   *
+   * @return skipped bytes.
+   */
+  @Benchmark
+  public int skip() {
+    this.encoded.buffer().readerIndex(0);
+    this.encoded.skipCompoundTag();
+    return this.encoded.readerIndex();
+  }
+
+  /**
+   * releases the buffers.
+   */
+  @TearDown
+  public void tearDown() {
+    this.encoded.release();
+    this.output.release();
+  }
+}
@@ -0,0 +1,175 @@
+package io.github.shiruka.network.options;
+
+import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.packets.ConnectedPing;
+import io.github.shiruka.network.packets.Frame;
+import io.github.shiruka.network.packets.FramedPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.ReferenceCountUtil;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that represents benchmarks of the datagram and the framed paths of {@link RakNetCodec#simple()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RakNetCodecBenchmark {
+
+  /**
+   * the frames in the datagram.
+   */
+  private static final int FRAMES = 8;
+
+  /**
+   * the packet id of the user data.
+   */
+  private static final int PACKET_ID = 0xFE;
+
+  /**
+   * the allocator.
+   */
+  private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+
+  /**
+   * the codec.
+   */
+  private final RakNetCodec codec = RakNetCodec.simple();
+
+  /**
+   * the ping.
+   */
+  private final ConnectedPing ping = new ConnectedPing(1L);
+
+  /**
+   * the encoded datagram of a frame set.
+   */
+  private ByteBuf datagram;
+
+  /**
+   * the frame data of the ping.
+   */
+  private Frame.Data pingData;
+
+  /**
+   * the frame set.
+   */
+  private Frame.Set set;
+
+  /**
+   * decodes the frame set datagram.
+   *
+   * @return decoded packet id.
+   */
+  @Benchmark
+  public int decodeDatagram() {
+    final var buffer = new PacketBuffer(this.datagram.retainedDuplicate());
+    try {
+      final var packet = this.codec.decode(buffer);
+      try {
+        return packet.initialSizeHint();
+      } finally {
+        ReferenceCountUtil.release(packet);
+      }
+    } finally {
+      buffer.release();
+    }
+  }
+
+  /**
+   * decodes the frame data of the ping.
+   *
+   * @return decoded packet.
+   */
+  @Benchmark
+  public FramedPacket decodeFramed() {
+    final var packet = this.codec.decode(this.pingData);
+    ReferenceCountUtil.release(packet);
+    return packet;
+  }
+
+  /**
+   * encodes the frame set into a datagram.
+   *
+   * @return encoded size.
+   */
+  @Benchmark
+  public int encodeDatagram() {
+    final var encoded = this.codec.produceEncoded(this.set, this.allocator);
+    try {
+      return encoded.remaining();
+    } finally {
+      encoded.release();
+    }
+  }
+
+  /**
+   * encodes the ping into a frame data.
+   *
+   * @return encoded size.
+   */
+  @Benchmark
+  public int encodeFramed() {
+    final var data = this.codec.encode(this.ping, this.allocator);
+    try {
+      return data.dataSize();
+    } finally {
+      data.release();
+    }
+  }
+
+  /**
+   * creates the frame set, the datagram and the ping data.
+   */
+  @Setup
+  public void setup() {
+    final var payload = this.allocator.directBuffer(64).writeZero(64);
+    this.set = Frame.Set.create();
+    for (var index = 0; index < RakNetCodecBenchmark.FRAMES; index++) {
+      final var data = Frame.Data
+        .create(
+          this.allocator,
+          RakNetCodecBenchmark.PACKET_ID,
+          new PacketBuffer(payload)
+        )
+        .reliability(FramedPacket.Reliability.RELIABLE);
+      final var frame = Frame.create(data);
+      data.release();
+      frame.reliableIndex(index);
+      this.set.addPacket(frame);
+    }
+    payload.release();
+    final var produced = this.codec.produceEncoded(this.set, this.allocator);
+    this.datagram =
+      this.allocator.directBuffer(produced.remaining())
+        .writeBytes(produced.buffer());
+    produced.release();
+    this.pingData = this.codec.encode(this.ping, this.allocator);
+  }
+
+  /**
+   * releases the buffers.
+   */
+  @TearDown
+  public void tearDown() {
+    this.set.release();
+    this.datagram.release();
+    this.pingData.release();
+  }
+}
@@ -0,0 +1,93 @@
+package io.github.shiruka.network.packets;
+
+import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.utils.Integers;
+import io.netty.buffer.PooledByteBufAllocator;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that represents benchmarks of ack range building and encoding.
+ * <p>
+ * contiguous ids collapse into one range, every other id missing produces one range per id.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AckBenchmark {
+
+  /**
+   * the acknowledged sequence ids.
+   */
+  private final IntSortedSet ids = new IntRBTreeSet(Integers.B3.COMPARATOR);
+
+  /**
+   * the count of ids.
+   */
+  @Param({ "16", "256" })
+  private int count;
+
+  /**
+   * the output.
+   */
+  private PacketBuffer output;
+
+  /**
+   * the step between two ids.
+   */
+  @Param({ "1", "2" })
+  private int step;
+
+  /**
+   * builds the ranges of the ids and encodes them.
+   *
+   * @return output.
+   */
+  @Benchmark
+  public PacketBuffer encode() {
+    this.output.clear();
+    new Ack(this.ids).encode(this.output);
+    return this.output;
+  }
+
+  /**
+   * creates the ids and the output.
+   */
+  @Setup
+  public void setup() {
+    // starts near the wrap around of the triad ids.
+    var id = Integers.B3.plus(0, -this.count / 2);
+    for (var index = 0; index < this.count; index++) {
+      this.ids.add(id);
+      id = Integers.B3.plus(id, this.step);
+    }
+    this.output =
+      new PacketBuffer(
+        PooledByteBufAllocator.DEFAULT.directBuffer(this.count * 7 + 2)
+      );
+  }
+
+  /**
+   * releases the output.
+   */
+  @TearDown
+  public void tearDown() {
+    this.output.release();
+  }
+}
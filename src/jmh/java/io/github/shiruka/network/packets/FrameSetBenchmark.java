@@ -0,0 +1,139 @@
+package io.github.shiruka.network.packets;
+
+import io.github.shiruka.network.PacketBuffer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that represents benchmarks of {@link Frame.Set#read(PacketBuffer)} and
+ * {@link Frame.Set#produce(ByteBufAllocator)} with reliable user data frames.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameSetBenchmark {
+
+  /**
+   * the packet id of the user data.
+   */
+  private static final int PACKET_ID = 0xFE;
+
+  /**
+   * the allocator.
+   */
+  private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+
+  /**
+   * the encoded frame set.
+   */
+  private ByteBuf encoded;
+
+  /**
+   * the frames in the set.
+   */
+  @Param({ "1", "8", "32" })
+  private int frames;
+
+  /**
+   * the frame set.
+   */
+  private Frame.Set set;
+
+  /**
+   * the user data size of each frame.
+   */
+  @Param({ "64", "512" })
+  private int size;
+
+  /**
+   * reads the encoded frame set.
+   *
+   * @return rough size.
+   */
+  @Benchmark
+  public int read() {
+    final var buffer = new PacketBuffer(this.encoded.retainedDuplicate());
+    try {
+      final var read = Frame.Set.read(buffer);
+      try {
+        return read.roughSize();
+      } finally {
+        read.release();
+      }
+    } finally {
+      buffer.release();
+    }
+  }
+
+  /**
+   * produces the datagram of the frame set.
+   *
+   * @return produced size.
+   */
+  @Benchmark
+  public int produce() {
+    final var produced = this.set.produce(this.allocator);
+    try {
+      return produced.remaining();
+    } finally {
+      produced.release();
+    }
+  }
+
+  /**
+   * creates the frame set and its encoded form.
+   */
+  @Setup
+  public void setup() {
+    final var payload = this.allocator
+      .directBuffer(this.size)
+      .writeZero(this.size);
+    this.set = Frame.Set.create();
+    this.set.sequenceId(1);
+    for (var index = 0; index < this.frames; index++) {
+      final var data = Frame.Data
+        .create(
+          this.allocator,
+          FrameSetBenchmark.PACKET_ID,
+          new PacketBuffer(payload)
+        )
+        .reliability(FramedPacket.Reliability.RELIABLE);
+      final var frame = Frame.create(data);
+      data.release();
+      frame.reliableIndex(index);
+      this.set.addPacket(frame);
+    }
+    payload.release();
+    final var produced = this.set.produce(this.allocator);
+    this.encoded =
+      this.allocator.directBuffer(produced.remaining())
+        .writeBytes(produced.buffer());
+    produced.release();
+  }
+
+  /**
+   * releases the frame set.
+   */
+  @TearDown
+  public void tearDown() {
+    this.set.release();
+    this.encoded.release();
+  }
+}
@@ -0,0 +1,190 @@
+package io.github.shiruka.network.packets;
+
+import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.options.RakNetMagic;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that represents benchmarks of generated packet codecs against the hand-written versions they replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketCodecBenchmark {
+
+  /**
+   * the default size hint of packets.
+   */
+  private static final int DEFAULT_SIZE_HINT = 128;
+
+  /**
+   * the allocator.
+   */
+  private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+
+  /**
+   * the decoded ping.
+   */
+  private final UnconnectedPing decoded = new UnconnectedPing();
+
+  /**
+   * the ping.
+   */
+  private final UnconnectedPing ping = new UnconnectedPing(
+    RakNetMagic.simple(),
+    1L,
+    2L
+  );
+
+  /**
+   * the encoded ping.
+   */
+  private PacketBuffer encoded;
+
+  /**
+   * the output.
+   */
+  private PacketBuffer output;
+
+  /**
+   * encodes the ping with the hand-written codec.
+   *
+   * @param packet the packet to encode.
+   * @param buffer the buffer to encode.
+   */
+  private static void encodeHandWritten(
+    final UnconnectedPing packet,
+    final PacketBuffer buffer
+  ) {
+    buffer.writeLong(packet.timestamp());
+    packet.magic().write(buffer);
+    buffer.writeLong(packet.clientId());
+  }
+
+  /**
+   * allocates with the default size hint and encodes the ping.
+   *
+   * @return encoded size.
+   */
+  @Benchmark
+  public int allocateDefaultHint() {
+    final var buffer = new PacketBuffer(
+      this.allocator.ioBuffer(PacketCodecBenchmark.DEFAULT_SIZE_HINT)
+    );
+    try {
+      PacketCodecBenchmark.encodeHandWritten(this.ping, buffer);
+      return buffer.size();
+    } finally {
+      buffer.release();
+    }
+  }
+
+  /**
+   * allocates with the generated size hint and encodes the ping.
+   *
+   * @return encoded size.
+   */
+  @Benchmark
+  public int allocateGeneratedHint() {
+    final var buffer = new PacketBuffer(
+      this.allocator.ioBuffer(this.ping.initialSizeHint())
+    );
+    try {
+      this.ping.encode(buffer);
+      return buffer.size();
+    } finally {
+      buffer.release();
+    }
+  }
+
+  /**
+   * decodes the ping with the generated codec.
+   *
+   * @return decoded ping.
+   */
+  @Benchmark
+  public UnconnectedPing decodeGenerated() {
+    this.encoded.buffer().readerIndex(0);
+    this.decoded.decode(this.encoded);
+    return this.decoded;
+  }
+
+  /**
+   * decodes the ping with the hand-written codec.
+   *
+   * @return decoded ping.
+   */
+  @Benchmark
+  public UnconnectedPing decodeHandWritten() {
+    this.encoded.buffer().readerIndex(0);
+    this.decoded.timestamp(this.encoded.readLong());
+    this.decoded.magic(RakNetMagic.from(this.encoded));
+    this.decoded.clientId(this.encoded.readLong());
+    return this.decoded;
+  }
+
+  /**
+   * encodes the ping with the generated codec.
+   *
+   * @return output.
+   */
+  @Benchmark
+  public PacketBuffer encodeGenerated() {
+    this.output.clear();
+    this.ping.encode(this.output);
+    return this.output;
+  }
+
+  /**
+   * encodes the ping with the hand-written codec.
+   *
+   * @return output.
+   */
+  @Benchmark
+  public PacketBuffer encodeHandWritten() {
+    this.output.clear();
+    PacketCodecBenchmark.encodeHandWritten(this.ping, this.output);
+    return this.output;
+  }
+
+  /**
+   * sets up the buffers.
+   */
+  @Setup
+  public void setup() {
+    this.output =
+      new PacketBuffer(
+        this.allocator.directBuffer(PacketCodecBenchmark.DEFAULT_SIZE_HINT)
+      );
+    this.encoded =
+      new PacketBuffer(
+        this.allocator.directBuffer(PacketCodecBenchmark.DEFAULT_SIZE_HINT)
+      );
+    this.ping.encode(this.encoded);
+  }
+
+  /**
+   * releases the buffers.
+   */
+  @TearDown
+  public void tearDown() {
+    this.output.release();
+    this.encoded.release();
+  }
+}
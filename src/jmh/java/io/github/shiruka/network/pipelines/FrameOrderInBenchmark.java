@@ -0,0 +1,141 @@
+package io.github.shiruka.network.pipelines;
+
+import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.packets.Frame;
+import io.github.shiruka.network.packets.FramedPacket;
+import io.github.shiruka.network.utils.Integers;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.ReferenceCountUtil;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that represents benchmarks of {@link FrameOrderIn} when ordered frames arrive out of order.
+ * <p>
+ * each operation delivers a window of consecutive order indices in a fixed shuffled order, a window of 1 is the in
+ * order path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameOrderInBenchmark {
+
+  /**
+   * the mtu.
+   */
+  private static final int MTU = 1400;
+
+  /**
+   * the packet id of the user data.
+   */
+  private static final int PACKET_ID = 0xFE;
+
+  /**
+   * the channel.
+   */
+  private RakNetEmbeddedChannel channel;
+
+  /**
+   * the first order index of the next window.
+   */
+  private int nextOrderIndex;
+
+  /**
+   * the delivery order of the window.
+   */
+  private int[] order;
+
+  /**
+   * the user data.
+   */
+  private ByteBuf payload;
+
+  /**
+   * the ordered frames in a window.
+   */
+  @Param({ "1", "8", "64" })
+  private int window;
+
+  /**
+   * delivers the window out of order.
+   *
+   * @return released frames.
+   */
+  @Benchmark
+  public int reorder() {
+    final var alloc = this.channel.alloc();
+    for (final var offset : this.order) {
+      final var data = Frame.Data
+        .create(
+          alloc,
+          FrameOrderInBenchmark.PACKET_ID,
+          new PacketBuffer(this.payload)
+        )
+        .reliability(FramedPacket.Reliability.RELIABLE_ORDERED);
+      final var frame = Frame.createOrdered(
+        data,
+        Integers.B3.plus(this.nextOrderIndex, offset),
+        0
+      );
+      data.release();
+      this.channel.writeInbound(frame);
+    }
+    this.nextOrderIndex = Integers.B3.plus(this.nextOrderIndex, this.window);
+    var released = 0;
+    Object data;
+    while ((data = this.channel.readInbound()) != null) {
+      ReferenceCountUtil.release(data);
+      released++;
+    }
+    return released;
+  }
+
+  /**
+   * creates the channel, the user data and the delivery order.
+   *
+   * @throws Exception if something goes wrong when registering.
+   */
+  @Setup
+  public void setup() throws Exception {
+    this.channel =
+      new RakNetEmbeddedChannel(FrameOrderInBenchmark.MTU, new FrameOrderIn());
+    this.payload =
+      PooledByteBufAllocator.DEFAULT.directBuffer(64).writeZero(64);
+    this.order = new int[this.window];
+    for (var index = 0; index < this.window; index++) {
+      this.order[index] = index;
+    }
+    final var random = new Random(0L);
+    for (var index = this.window - 1; index > 0; index--) {
+      final var swap = random.nextInt(index + 1);
+      final var value = this.order[index];
+      this.order[index] = this.order[swap];
+      this.order[swap] = value;
+    }
+  }
+
+  /**
+   * closes the channel and releases the user data.
+   */
+  @TearDown
+  public void tearDown() {
+    this.channel.finishAndReleaseAll();
+    this.payload.release();
+  }
+}
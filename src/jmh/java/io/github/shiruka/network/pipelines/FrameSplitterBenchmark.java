@@ -0,0 +1,150 @@
+package io.github.shiruka.network.pipelines;
+
+import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.packets.Frame;
+import io.github.shiruka.network.packets.FramedPacket;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.ReferenceCountUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that represents benchmarks of {@link FrameSplitter} fragmentation and {@link FrameJoiner} reassembly of
+ * frames larger than the mtu.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameSplitterBenchmark {
+
+  /**
+   * the mtu.
+   */
+  private static final int MTU = 1400;
+
+  /**
+   * the packet id of the user data.
+   */
+  private static final int PACKET_ID = 0xFE;
+
+  /**
+   * the fragments of the frame.
+   */
+  private final List<Frame> fragments = new ArrayList<>();
+
+  /**
+   * the frame.
+   */
+  private Frame frame;
+
+  /**
+   * the joiner.
+   */
+  private RakNetEmbeddedChannel joiner;
+
+  /**
+   * the user data size of the frame.
+   */
+  @Param({ "1200", "4096", "65536" })
+  private int size;
+
+  /**
+   * the splitter.
+   */
+  private RakNetEmbeddedChannel splitter;
+
+  /**
+   * reassembles the fragments.
+   *
+   * @return joined data size.
+   */
+  @Benchmark
+  public int join() {
+    for (final var fragment : this.fragments) {
+      this.joiner.writeInbound(fragment.retain());
+    }
+    final Frame joined = this.joiner.readInbound();
+    try {
+      return joined.dataSize();
+    } finally {
+      joined.release();
+    }
+  }
+
+  /**
+   * splits the frame.
+   *
+   * @return fragments.
+   */
+  @Benchmark
+  public int split() {
+    this.splitter.writeOutbound(this.frame.retain());
+    var count = 0;
+    Object fragment;
+    while ((fragment = this.splitter.readOutbound()) != null) {
+      ReferenceCountUtil.release(fragment);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * creates the channels, the frame and its fragments.
+   *
+   * @throws Exception if something goes wrong when registering.
+   */
+  @Setup
+  public void setup() throws Exception {
+    this.splitter =
+      new RakNetEmbeddedChannel(
+        FrameSplitterBenchmark.MTU,
+        new FrameSplitter()
+      );
+    this.joiner =
+      new RakNetEmbeddedChannel(FrameSplitterBenchmark.MTU, new FrameJoiner());
+    final var alloc = PooledByteBufAllocator.DEFAULT;
+    final var payload = alloc.directBuffer(this.size).writeZero(this.size);
+    final var data = Frame.Data
+      .create(
+        alloc,
+        FrameSplitterBenchmark.PACKET_ID,
+        new PacketBuffer(payload)
+      )
+      .reliability(FramedPacket.Reliability.RELIABLE);
+    payload.release();
+    this.frame = Frame.create(data);
+    data.release();
+    this.splitter.writeOutbound(this.frame.retain());
+    Frame fragment;
+    while ((fragment = this.splitter.readOutbound()) != null) {
+      this.fragments.add(fragment);
+    }
+  }
+
+  /**
+   * closes the channels and releases the frames.
+   */
+  @TearDown
+  public void tearDown() {
+    this.splitter.finishAndReleaseAll();
+    this.joiner.finishAndReleaseAll();
+    this.fragments.forEach(Frame::release);
+    this.frame.release();
+  }
+}
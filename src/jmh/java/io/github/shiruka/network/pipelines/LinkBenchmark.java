@@ -0,0 +1,378 @@
+package io.github.shiruka.network.pipelines;
+
+import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.impairment.LinkEmulator;
+import io.github.shiruka.network.impairment.LinkProfile;
+import io.github.shiruka.network.impairment.LossModel;
+import io.github.shiruka.network.options.RakNetConfig;
+import io.github.shiruka.network.options.VirtualClock;
+import io.github.shiruka.network.packets.Frame;
+import io.github.shiruka.network.packets.FramedPacket;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that represents end-to-end benchmarks of the reliability pipelines over emulated links.
+ * <p>
+ * a client and a server run the raw codec and the reliable frame handling on embedded channels, the datagrams between
+ * them go through a {@link LinkEmulator} in each direction. each operation delivers {@value #MESSAGES} reliable
+ * ordered messages, the messages larger than the mtu exercise the joiner. the goodput, the delivery latency
+ * percentiles and the retransmission overhead of every iteration are printed next to the jmh score.
+ * <p>
+ * the channels and the links share a {@link VirtualClock} which advances one tick per loop, so an iteration replays
+ * the same events on every run, the report is in simulated time and the score is only the cost of processing them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LinkBenchmark {
+
+  /**
+   * the messages of each operation.
+   */
+  private static final int MESSAGES = 2000;
+
+  /**
+   * the messages that the client writes on each tick.
+   */
+  private static final int MESSAGES_PER_TICK = 20;
+
+  /**
+   * the mtu.
+   */
+  private static final int MTU = 1400;
+
+  /**
+   * the packet id of the user data.
+   */
+  private static final int PACKET_ID = 0xFE;
+
+  /**
+   * the seed of the links.
+   */
+  private static final long SEED = 0x5EEDL;
+
+  /**
+   * the tick of the flushes.
+   */
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10L);
+
+  /**
+   * the operation timeout in simulated time.
+   */
+  private static final long TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(2L);
+
+  /**
+   * the delivery latencies.
+   */
+  private final long[] latencies = new long[LinkBenchmark.MESSAGES];
+
+  /**
+   * the client.
+   */
+  private RakNetEmbeddedChannel client;
+
+  /**
+   * the clock.
+   */
+  private VirtualClock clock;
+
+  /**
+   * the delivered messages.
+   */
+  private int delivered;
+
+  /**
+   * the delivered bytes.
+   */
+  private long deliveredBytes;
+
+  /**
+   * the link from the server to the client.
+   */
+  private LinkEmulator down;
+
+  /**
+   * the elapsed nanos of the operation.
+   */
+  private long elapsedNanos;
+
+  /**
+   * the link profile.
+   */
+  @Param({ "perfect", "lossy", "burst", "reorder", "congested" })
+  private String profile;
+
+  /**
+   * the server.
+   */
+  private RakNetEmbeddedChannel server;
+
+  /**
+   * the user data size of each message.
+   */
+  @Param({ "256", "4096" })
+  private int size;
+
+  /**
+   * the link from the client to the server.
+   */
+  private LinkEmulator up;
+
+  /**
+   * creates the link profile.
+   *
+   * @param name the name to create.
+   * @param seed the seed to create.
+   *
+   * @return link profile.
+   */
+  private static LinkProfile profile(final String name, final long seed) {
+    final var base = LinkProfile.perfect(seed);
+    return switch (name) {
+      case "perfect" -> base.withDelay(Duration.ofMillis(20L), Duration.ZERO);
+      case "lossy" -> base
+        .withDelay(Duration.ofMillis(50L), Duration.ofMillis(10L))
+        .withLoss(LossModel.bernoulli(0.02d));
+      case "burst" -> base
+        .withDelay(Duration.ofMillis(50L), Duration.ofMillis(10L))
+        .withLoss(LossModel.gilbertElliott(0.01d, 0.3d, 0.0d, 0.5d));
+      case "reorder" -> base
+        .withDelay(Duration.ofMillis(30L), Duration.ofMillis(5L))
+        .withReordering(0.05d, Duration.ofMillis(30L))
+        .withDuplication(0.01d);
+      case "congested" -> base
+        .withDelay(Duration.ofMillis(40L), Duration.ZERO)
+        .withBottleneck(256L * 1024L, 32 * 1024);
+      default -> throw new IllegalArgumentException(
+        "Unknown profile %s".formatted(name)
+      );
+    };
+  }
+
+  /**
+   * moves the datagrams that the channel wrote into the link.
+   *
+   * @param channel the channel to move.
+   * @param link the link to move.
+   * @param now the now to move.
+   */
+  private static void transmit(
+    final EmbeddedChannel channel,
+    final LinkEmulator link,
+    final long now
+  ) {
+    Object datagram;
+    while ((datagram = channel.readOutbound()) != null) {
+      link.offer(datagram, now);
+    }
+  }
+
+  /**
+   * delivers the due datagrams of the link to the channel.
+   *
+   * @param link the link to deliver.
+   * @param channel the channel to deliver.
+   * @param now the now to deliver.
+   */
+  private static void deliver(
+    final LinkEmulator link,
+    final EmbeddedChannel channel,
+    final long now
+  ) {
+    Object datagram;
+    while ((datagram = link.poll(now)) != null) {
+      channel.writeInbound(datagram);
+    }
+  }
+
+  /**
+   * obtains the value at the quantile of the sorted values.
+   *
+   * @param sorted the sorted to obtain.
+   * @param quantile the quantile to obtain.
+   *
+   * @return value.
+   */
+  private static long percentile(final long[] sorted, final double quantile) {
+    if (sorted.length == 0) {
+      return 0L;
+    }
+    final var index = (int) Math.ceil(quantile * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+  }
+
+  /**
+   * prints the report of the operation and closes the channels.
+   */
+  @TearDown(Level.Iteration)
+  public void report() {
+    final var reliability = this.client
+      .pipeline()
+      .get(ReliabilityHandler.class);
+    final var sorted = Arrays.copyOf(this.latencies, this.delivered);
+    Arrays.sort(sorted);
+    System.out.printf(
+      "%n%s/%d: goodput %.1f KiB/s, latency p50 %.1f ms p99 %.1f ms max %.1f " +
+      "ms, resent %d of %d frames, wire %.2fx user bytes%n  up %s%n  down %s%n",
+      this.profile,
+      this.size,
+      this.deliveredBytes / 1024.0 / (this.elapsedNanos / 1.0e9),
+      LinkBenchmark.percentile(sorted, 0.5) / 1.0e6,
+      LinkBenchmark.percentile(sorted, 0.99) / 1.0e6,
+      LinkBenchmark.percentile(sorted, 1.0) / 1.0e6,
+      reliability.resentFrames(),
+      reliability.frames(),
+      (double) this.up.offeredBytes() / Math.max(1L, this.deliveredBytes),
+      this.up,
+      this.down
+    );
+    this.client.finishAndReleaseAll();
+    this.server.finishAndReleaseAll();
+    this.up.clear();
+    this.down.clear();
+  }
+
+  /**
+   * sends the messages until the server received every one of them.
+   *
+   * @return delivered bytes.
+   */
+  @Benchmark
+  public long run() {
+    final var start = this.clock.nanoTime();
+    var sent = 0;
+    while (this.delivered < LinkBenchmark.MESSAGES) {
+      final var now = this.clock.nanoTime();
+      if (now - start > LinkBenchmark.TIMEOUT_NANOS) {
+        throw new IllegalStateException(
+          "Delivered %d of %d messages in time, up %s, down %s".formatted(
+              this.delivered,
+              LinkBenchmark.MESSAGES,
+              this.up,
+              this.down
+            )
+        );
+      }
+      final var burst = Math.min(
+        LinkBenchmark.MESSAGES_PER_TICK,
+        LinkBenchmark.MESSAGES - sent
+      );
+      for (var index = 0; index < burst; index++) {
+        this.client.write(this.message(now));
+      }
+      sent += burst;
+      this.client.flush();
+      this.server.flush();
+      LinkBenchmark.transmit(this.client, this.up, now);
+      LinkBenchmark.transmit(this.server, this.down, now);
+      LinkBenchmark.deliver(this.up, this.server, now);
+      LinkBenchmark.deliver(this.down, this.client, now);
+      this.receive(now);
+      this.clock.advance(LinkBenchmark.TICK_NANOS, TimeUnit.NANOSECONDS);
+    }
+    this.elapsedNanos = this.clock.nanoTime() - start;
+    return this.deliveredBytes;
+  }
+
+  /**
+   * creates the channels and the links, every iteration starts from the same seed.
+   *
+   * @throws Exception if something goes wrong when registering.
+   */
+  @Setup(Level.Iteration)
+  public void setup() throws Exception {
+    this.clock = new VirtualClock();
+    this.client =
+      new RakNetEmbeddedChannel(
+        LinkBenchmark.MTU,
+        RawPacketCodec.INSTANCE,
+        ReliableFrameHandling.INSTANCE
+      );
+    this.server =
+      new RakNetEmbeddedChannel(
+        LinkBenchmark.MTU,
+        RawPacketCodec.INSTANCE,
+        ReliableFrameHandling.INSTANCE
+      );
+    RakNetConfig.cast(this.client).clock(this.clock);
+    RakNetConfig.cast(this.server).clock(this.clock);
+    this.up =
+      new LinkEmulator(LinkBenchmark.profile(this.profile, LinkBenchmark.SEED));
+    this.down =
+      new LinkEmulator(
+        LinkBenchmark.profile(this.profile, ~LinkBenchmark.SEED)
+      );
+    this.delivered = 0;
+    this.deliveredBytes = 0L;
+  }
+
+  /**
+   * creates a message that carries its send time.
+   *
+   * @param now the now to create.
+   *
+   * @return message.
+   */
+  private Frame.Data message(final long now) {
+    final var content = this.client
+      .alloc()
+      .ioBuffer(this.size)
+      .writeLong(now)
+      .writeZero(this.size - Long.BYTES);
+    try {
+      return Frame.Data
+        .create(
+          this.client.alloc(),
+          LinkBenchmark.PACKET_ID,
+          new PacketBuffer(content)
+        )
+        .reliability(FramedPacket.Reliability.RELIABLE_ORDERED);
+    } finally {
+      content.release();
+    }
+  }
+
+  /**
+   * reads the messages that the server received.
+   *
+   * @param now the now to read.
+   */
+  private void receive(final long now) {
+    Object msg;
+    while ((msg = this.server.readInbound()) != null) {
+      try {
+        if (
+          msg instanceof Frame.Data data &&
+          data.packetId() == LinkBenchmark.PACKET_ID
+        ) {
+          final var buffer = data.data().buffer();
+          final var sendTime = buffer.getLong(buffer.readerIndex() + 1);
+          this.latencies[this.delivered++] = now - sendTime;
+          this.deliveredBytes += data.dataSize() - 1;
+        }
+      } finally {
+        ReferenceCountUtil.release(msg);
+      }
+    }
+  }
+}
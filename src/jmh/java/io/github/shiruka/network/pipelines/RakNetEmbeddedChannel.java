@@ -0,0 +1,43 @@
+package io.github.shiruka.network.pipelines;
+
+import io.github.shiruka.network.options.RakNetConfig;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents embedded channels with a {@link RakNetConfig}, so the pipelines which cast the config can be
+ * driven without sockets.
+ */
+final class RakNetEmbeddedChannel extends EmbeddedChannel {
+
+  /**
+   * the config.
+   */
+  @NotNull
+  private final RakNetConfig config;
+
+  /**
+   * ctor.
+   *
+   * @param mtu the mtu.
+   * @param handlers the handlers.
+   *
+   * @throws Exception if something goes wrong when registering.
+   */
+  RakNetEmbeddedChannel(final int mtu, final ChannelHandler... handlers)
+    throws Exception {
+    // registers after the config exists, the pipeline reads it on register.
+    super(false, false);
+    this.config = RakNetConfig.simple(this);
+    this.config.mtu(mtu);
+    this.pipeline().addLast(handlers);
+    this.register();
+  }
+
+  @Override
+  public ChannelConfig config() {
+    return this.config;
+  }
+}
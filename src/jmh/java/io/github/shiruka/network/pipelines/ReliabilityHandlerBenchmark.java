@@ -0,0 +1,128 @@
+package io.github.shiruka.network.pipelines;
+
+import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.packets.Ack;
+import io.github.shiruka.network.packets.Frame;
+import io.github.shiruka.network.packets.FramedPacket;
+import io.github.shiruka.network.utils.Integers;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that represents benchmarks of {@link ReliabilityHandler#flush} with different frame queue depths.
+ * <p>
+ * each operation queues the frames, flushes them into frame sets and acknowledges every produced set, so the pending
+ * map is empty again when the next operation starts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReliabilityHandlerBenchmark {
+
+  /**
+   * the mtu.
+   */
+  private static final int MTU = 1400;
+
+  /**
+   * the packet id of the user data.
+   */
+  private static final int PACKET_ID = 0xFE;
+
+  /**
+   * the acknowledged sequence ids.
+   */
+  private final IntSortedSet acked = new IntRBTreeSet(Integers.B3.COMPARATOR);
+
+  /**
+   * the channel.
+   */
+  private RakNetEmbeddedChannel channel;
+
+  /**
+   * the frames queued before each flush.
+   */
+  @Param({ "1", "16", "256" })
+  private int depth;
+
+  /**
+   * the user data.
+   */
+  private ByteBuf payload;
+
+  /**
+   * queues the frames, flushes and acknowledges them.
+   *
+   * @return produced frame sets.
+   */
+  @Benchmark
+  public int flush() {
+    final var alloc = this.channel.alloc();
+    for (var index = 0; index < this.depth; index++) {
+      final var data = Frame.Data
+        .create(
+          alloc,
+          ReliabilityHandlerBenchmark.PACKET_ID,
+          new PacketBuffer(this.payload)
+        )
+        .reliability(FramedPacket.Reliability.RELIABLE);
+      final var frame = Frame.create(data);
+      data.release();
+      this.channel.write(frame);
+    }
+    this.channel.flush();
+    var produced = 0;
+    Frame.Set set;
+    while ((set = this.channel.readOutbound()) != null) {
+      this.acked.add(set.sequenceId());
+      set.release();
+      produced++;
+    }
+    this.channel.writeInbound(new Ack(this.acked));
+    this.acked.clear();
+    return produced;
+  }
+
+  /**
+   * creates the channel and the user data.
+   *
+   * @throws Exception if something goes wrong when registering.
+   */
+  @Setup
+  public void setup() throws Exception {
+    this.channel =
+      new RakNetEmbeddedChannel(
+        ReliabilityHandlerBenchmark.MTU,
+        new ReliabilityHandler()
+      );
+    this.payload =
+      PooledByteBufAllocator.DEFAULT.directBuffer(64).writeZero(64);
+  }
+
+  /**
+   * closes the channel and releases the user data.
+   */
+  @TearDown
+  public void tearDown() {
+    this.channel.finishAndReleaseAll();
+    this.payload.release();
+  }
+}
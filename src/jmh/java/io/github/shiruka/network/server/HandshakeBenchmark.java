@@ -0,0 +1,249 @@
+package io.github.shiruka.network.server;
+
+import io.github.shiruka.network.Packet;
+import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.options.RakNetChannelOptions;
+import io.github.shiruka.network.options.RakNetCodec;
+import io.github.shiruka.network.options.RakNetMagic;
+import io.github.shiruka.network.options.RateLimit;
+import io.github.shiruka.network.packets.ConnectionReply1;
+import io.github.shiruka.network.packets.ConnectionReply2;
+import io.github.shiruka.network.packets.ConnectionRequest1;
+import io.github.shiruka.network.packets.ConnectionRequest2;
+import io.github.shiruka.network.server.channels.RakNetServerChannel;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that represents benchmarks of offline handshakes against a server on loopback.
+ * <p>
+ * each operation sends a padded connection request 1 and a connection request 2 from the same client address, waits
+ * for both replies and closes the child, so the next operation connects again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandshakeBenchmark {
+
+  /**
+   * the client id.
+   */
+  private static final long CLIENT_ID = 1L;
+
+  /**
+   * the mtu.
+   */
+  private static final int MTU = 1400;
+
+  /**
+   * the protocol version.
+   */
+  private static final int PROTOCOL_VERSION = 10;
+
+  /**
+   * the reply timeout in seconds.
+   */
+  private static final long TIMEOUT = 5L;
+
+  /**
+   * the codec.
+   */
+  private final RakNetCodec codec = RakNetCodec.simple();
+
+  /**
+   * the replies.
+   */
+  private final BlockingQueue<Packet> replies = new ArrayBlockingQueue<>(16);
+
+  /**
+   * the client.
+   */
+  private Channel client;
+
+  /**
+   * the group.
+   */
+  private EventLoopGroup group;
+
+  /**
+   * the server.
+   */
+  private RakNetServerChannel server;
+
+  /**
+   * the server address.
+   */
+  private InetSocketAddress serverAddress;
+
+  /**
+   * runs an offline handshake.
+   *
+   * @return the second reply.
+   *
+   * @throws Exception if the server does not reply in time.
+   */
+  @Benchmark
+  public Packet handshake() throws Exception {
+    this.send(
+      new ConnectionRequest1(
+        RakNetMagic.simple(),
+        HandshakeBenchmark.PROTOCOL_VERSION,
+        HandshakeBenchmark.MTU
+      )
+    );
+    this.await(ConnectionReply1.class);
+    this.send(
+      new ConnectionRequest2(
+        this.serverAddress,
+        HandshakeBenchmark.CLIENT_ID,
+        RakNetMagic.simple(),
+        HandshakeBenchmark.MTU
+      )
+    );
+    final var reply = this.await(ConnectionReply2.class);
+    final var child = this.server.getChildChannel(
+      (InetSocketAddress) this.client.localAddress()
+    );
+    if (child != null) {
+      child.close().sync();
+      // the child is removed from the server on its event loop.
+      this.server.eventLoop().submit(() -> {}).sync();
+    }
+    this.replies.clear();
+    return reply;
+  }
+
+  /**
+   * binds the server and the client.
+   *
+   * @throws Exception if something goes wrong when binding.
+   */
+  @Setup
+  public void setup() throws Exception {
+    this.group = new NioEventLoopGroup(2);
+    final var loopback = InetAddress.getLoopbackAddress();
+    this.server =
+      (RakNetServerChannel) new ServerBootstrap()
+        .group(this.group)
+        .channel(RakNetServer.CHANNEL)
+        .option(RakNetChannelOptions.RATE_LIMIT, RateLimit.disabled())
+        // the server and the children install the default pipelines.
+        .childHandler(
+          new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(final Channel ch) {}
+          }
+        )
+        .bind(loopback, 0)
+        .sync()
+        .channel();
+    this.serverAddress = (InetSocketAddress) this.server.localAddress();
+    this.client =
+      new Bootstrap()
+        .group(this.group)
+        .channel(NioDatagramChannel.class)
+        .handler(new ReplyHandler())
+        .bind(loopback, 0)
+        .sync()
+        .channel();
+  }
+
+  /**
+   * closes the server, the client and the group.
+   *
+   * @throws Exception if something goes wrong when closing.
+   */
+  @TearDown
+  public void tearDown() throws Exception {
+    this.client.close().sync();
+    this.server.close().sync();
+    this.group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+  }
+
+  /**
+   * waits the reply, skips the replies that the child resends while waiting.
+   *
+   * @param type the type to wait.
+   *
+   * @return reply.
+   *
+   * @throws Exception if the server does not reply in time.
+   */
+  private Packet await(final Class<? extends Packet> type) throws Exception {
+    final var deadline =
+      System.nanoTime() + TimeUnit.SECONDS.toNanos(HandshakeBenchmark.TIMEOUT);
+    while (true) {
+      final var reply = this.replies.poll(
+          deadline - System.nanoTime(),
+          TimeUnit.NANOSECONDS
+        );
+      if (reply == null) {
+        throw new IllegalStateException(
+          "No %s in time".formatted(type.getSimpleName())
+        );
+      }
+      if (type.isInstance(reply)) {
+        return reply;
+      }
+    }
+  }
+
+  /**
+   * sends the packet to the server.
+   *
+   * @param packet the packet to send.
+   */
+  private void send(final Packet packet) {
+    final var buffer = new PacketBuffer(
+      this.client.alloc().ioBuffer(packet.initialSizeHint())
+    );
+    this.codec.encode(packet, buffer);
+    this.client.writeAndFlush(
+        new DatagramPacket(buffer.buffer(), this.serverAddress)
+      );
+  }
+
+  /**
+   * a class that represents reply handlers which decode the server replies into the queue.
+   */
+  private final class ReplyHandler
+    extends SimpleChannelInboundHandler<DatagramPacket> {
+
+    @Override
+    protected void channelRead0(
+      final ChannelHandlerContext ctx,
+      final DatagramPacket msg
+    ) {
+      HandshakeBenchmark.this.replies.offer(
+          HandshakeBenchmark.this.codec.decode(new PacketBuffer(msg.content()))
+        );
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package io.github.shiruka.network.loadgen;
+
+import com.google.common.base.Preconditions;
+import io.github.shiruka.network.packets.FramedPacket;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a record class that represents load generator configurations.
+ *
+ * @param sessions the simulated client sessions.
+ * @param clientLoops the event loops that drive the sessions.
+ * @param serverLoops the event loops of the server.
+ * @param messageSize the user data bytes of each message, the send time takes the first 8 bytes.
+ * @param rate the messages that each session sends per second.
+ * @param mix the reliability mix of the messages.
+ * @param orderChannels the order channels that the messages are spread over.
+ * @param connectConcurrency the handshakes that may run at the same time.
+ * @param warmup the warmup before measuring.
+ * @param duration the measurement duration.
+ */
+record LoadConfig(
+  int sessions,
+  int clientLoops,
+  int serverLoops,
+  int messageSize,
+  int rate,
+  @NotNull ReliabilityMix mix,
+  int orderChannels,
+  int connectConcurrency,
+  @NotNull Duration warmup,
+  @NotNull Duration duration
+) {
+  /**
+   * the usage.
+   */
+  static final String USAGE =
+    """
+    options, all are optional:
+      --sessions=1000          simulated client sessions
+      --client-loops=2         event loops that drive the sessions
+      --server-loops=1         event loops of the server
+      --size=64                user data bytes of each message, at least 8
+      --rate=20                messages per second of each session
+      --mix=RELIABLE_ORDERED   reliability weights, e.g. RELIABLE:7,UNRELIABLE:3
+      --channels=1             order channels to spread messages over, 1 to 8
+      --connect-concurrency=64 handshakes in flight at the same time
+      --warmup=5               warmup seconds
+      --duration=30            measured seconds
+    """;
+
+  /**
+   * ctor.
+   */
+  LoadConfig {
+    Preconditions.checkArgument(sessions > 0, "sessions must be positive");
+    Preconditions.checkArgument(
+      clientLoops > 0,
+      "client loops must be positive"
+    );
+    Preconditions.checkArgument(
+      serverLoops > 0,
+      "server loops must be positive"
+    );
+    Preconditions.checkArgument(
+      messageSize >= Long.BYTES,
+      "size must be at least %s",
+      Long.BYTES
+    );
+    Preconditions.checkArgument(rate > 0, "rate must be positive");
+    Preconditions.checkArgument(
+      orderChannels > 0 && orderChannels <= 8,
+      "channels must be between 1 and 8"
+    );
+    Preconditions.checkArgument(
+      connectConcurrency > 0,
+      "connect concurrency must be positive"
+    );
+  }
+
+  /**
+   * parses the arguments.
+   *
+   * @param args the args to parse.
+   *
+   * @return load config.
+   *
+   * @throws IllegalArgumentException if an argument is unknown or malformed.
+   */
+  @NotNull
+  static LoadConfig parse(@NotNull final String @NotNull [] args) {
+    final Map<String, String> options = new HashMap<>();
+    for (final var arg : args) {
+      final var separator = arg.indexOf('=');
+      Preconditions.checkArgument(
+        arg.startsWith("--") && separator > 2,
+        "Malformed option %s",
+        arg
+      );
+      options.put(
+        arg.substring(2, separator).toLowerCase(Locale.ROOT),
+        arg.substring(separator + 1)
+      );
+    }
+    final var config = new LoadConfig(
+      LoadConfig.integer(options, "sessions", 1000),
+      LoadConfig.integer(options, "client-loops", 2),
+      LoadConfig.integer(options, "server-loops", 1),
+      LoadConfig.integer(options, "size", 64),
+      LoadConfig.integer(options, "rate", 20),
+      ReliabilityMix.parse(options.getOrDefault("mix", "RELIABLE_ORDERED")),
+      LoadConfig.integer(options, "channels", 1),
+      LoadConfig.integer(options, "connect-concurrency", 64),
+      Duration.ofSeconds(LoadConfig.integer(options, "warmup", 5)),
+      Duration.ofSeconds(LoadConfig.integer(options, "duration", 30))
+    );
+    options.remove("mix");
+    Preconditions.checkArgument(
+      options.isEmpty(),
+      "Unknown options %s",
+      options.keySet()
+    );
+    return config;
+  }
+
+  /**
+   * removes and parses an integer option.
+   *
+   * @param options the options to parse.
+   * @param key the key to parse.
+   * @param def the def to parse.
+   *
+   * @return integer option.
+   */
+  private static int integer(
+    @NotNull final Map<String, String> options,
+    @NotNull final String key,
+    final int def
+  ) {
+    final var value = options.remove(key);
+    if (value == null) {
+      return def;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (final NumberFormatException e) {
+      throw new IllegalArgumentException(
+        "Option %s is not a number: %s".formatted(key, value),
+        e
+      );
+    }
+  }
+
+  /**
+   * obtains the nanoseconds between two messages of a session.
+   *
+   * @return send period.
+   */
+  long periodNanos() {
+    return Duration.ofSeconds(1L).toNanos() / this.rate;
+  }
+
+  /**
+   * a record class that represents weighted reliability mixes.
+   *
+   * @param reliabilities the reliabilities.
+   * @param bounds the cumulative weights of the reliabilities.
+   */
+  record ReliabilityMix(
+    @NotNull FramedPacket.Reliability @NotNull [] reliabilities,
+    int @NotNull [] bounds
+  ) {
+    /**
+     * parses the mix.
+     *
+     * @param value the value to parse, comma separated {@code RELIABILITY[:weight]} entries.
+     *
+     * @return reliability mix.
+     */
+    @NotNull
+    static ReliabilityMix parse(@NotNull final String value) {
+      final var entries = value.split(",");
+      final var reliabilities = new FramedPacket.Reliability[entries.length];
+      final var bounds = new int[entries.length];
+      var total = 0;
+      for (var index = 0; index < entries.length; index++) {
+        final var entry = entries[index].trim().split(":");
+        Preconditions.checkArgument(
+          entry.length <= 2,
+          "Malformed mix entry %s",
+          entries[index]
+        );
+        reliabilities[index] =
+          FramedPacket.Reliability.valueOf(entry[0].toUpperCase(Locale.ROOT));
+        final var weight = entry.length == 2 ? Integer.parseInt(entry[1]) : 1;
+        Preconditions.checkArgument(
+          weight > 0,
+          "Mix weight of %s must be positive",
+          entry[0]
+        );
+        total += weight;
+        bounds[index] = total;
+      }
+      return new ReliabilityMix(reliabilities, bounds);
+    }
+
+    /**
+     * describes the mix.
+     *
+     * @return description.
+     */
+    @NotNull
+    String describe() {
+      final var builder = new StringBuilder();
+      var previous = 0;
+      for (var index = 0; index < this.bounds.length; index++) {
+        if (index > 0) {
+          builder.append(',');
+        }
+        builder
+          .append(this.reliabilities[index])
+          .append(':')
+          .append(this.bounds[index] - previous);
+        previous = this.bounds[index];
+      }
+      return builder.toString();
+    }
+
+    /**
+     * picks a reliability.
+     *
+     * @param roll the roll to pick, between 0 and {@link #total()}.
+     *
+     * @return reliability.
+     */
+    @NotNull
+    FramedPacket.Reliability pick(final int roll) {
+      for (var index = 0; index < this.bounds.length; index++) {
+        if (roll < this.bounds[index]) {
+          return this.reliabilities[index];
+        }
+      }
+      return this.reliabilities[this.reliabilities.length - 1];
+    }
+
+    /**
+     * obtains the total weight.
+     *
+     * @return total weight.
+     */
+    int total() {
+      return this.bounds[this.bounds.length - 1];
+    }
+  }
+}
@@ -0,0 +1,294 @@
+package io.github.shiruka.network.loadgen;
+
+import io.github.shiruka.network.client.RakNetClient;
+import io.github.shiruka.network.options.RakNetChannelOptions;
+import io.github.shiruka.network.options.RateLimit;
+import io.github.shiruka.network.pipelines.ReliabilityHandler;
+import io.github.shiruka.network.server.RakNetServer;
+import io.github.shiruka.network.server.channels.RakNetServerChannel;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents loopback load generators.
+ * <p>
+ * binds a {@link RakNetServerChannel} on loopback, connects the configured sessions to it from a few client event
+ * loops and sends user data frames at a fixed rate. after the warmup it measures for the configured duration and
+ * prints the throughput, the one-way latency percentiles, the retransmit rate and the server cpu per message.
+ * <p>
+ * usage: {@code ./gradlew loadgen -Pargs="--sessions=2000 --rate=30 --mix=RELIABLE_ORDERED:80,UNRELIABLE:20"}, see
+ * {@link LoadConfig#USAGE} for all options.
+ */
+public final class LoadGenerator {
+
+  /**
+   * the config.
+   */
+  @NotNull
+  private final LoadConfig config;
+
+  /**
+   * the sessions.
+   */
+  private final List<Channel> sessions = new ArrayList<>();
+
+  /**
+   * the stats.
+   */
+  private final LoadStats stats = new LoadStats();
+
+  /**
+   * ctor.
+   *
+   * @param config the config.
+   */
+  private LoadGenerator(@NotNull final LoadConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * runs the load generator.
+   *
+   * @param args the args to run.
+   *
+   * @throws Exception if something goes wrong when running.
+   */
+  public static void main(final String[] args) throws Exception {
+    final LoadConfig config;
+    try {
+      config = LoadConfig.parse(args);
+    } catch (final IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.print(LoadConfig.USAGE);
+      System.exit(2);
+      return;
+    }
+    new LoadGenerator(config).run();
+  }
+
+  /**
+   * obtains the thread ids of the event loops.
+   *
+   * @param group the group to obtain.
+   *
+   * @return thread ids.
+   *
+   * @throws Exception if an event loop does not answer.
+   */
+  private static long[] threadIds(@NotNull final EventLoopGroup group)
+    throws Exception {
+    final var ids = new ArrayList<Long>();
+    for (final EventExecutor executor : group) {
+      ids.add(executor.submit(() -> Thread.currentThread().getId()).get());
+    }
+    return ids.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /**
+   * sums the cpu time of the threads.
+   *
+   * @param threadIds the thread ids to sum.
+   *
+   * @return cpu nanos, {@code -1} if the jvm does not measure thread cpu time.
+   */
+  private static long cpuNanos(final long @NotNull [] threadIds) {
+    final var threads = ManagementFactory.getThreadMXBean();
+    if (!threads.isThreadCpuTimeSupported()) {
+      return -1L;
+    }
+    var total = 0L;
+    for (final var id : threadIds) {
+      total += Math.max(0L, threads.getThreadCpuTime(id));
+    }
+    return total;
+  }
+
+  /**
+   * connects the sessions, at most {@link LoadConfig#connectConcurrency()} handshakes at the same time.
+   *
+   * @param bootstrap the bootstrap to connect.
+   * @param address the address to connect.
+   *
+   * @throws InterruptedException if the thread is interrupted while waiting.
+   */
+  private void connect(
+    @NotNull final Bootstrap bootstrap,
+    @NotNull final InetSocketAddress address
+  ) throws InterruptedException {
+    final var permits = new Semaphore(this.config.connectConcurrency());
+    final var failed = new AtomicInteger();
+    for (var index = 0; index < this.config.sessions(); index++) {
+      permits.acquire();
+      final var future = bootstrap.connect(address);
+      this.sessions.add(future.channel());
+      future.addListener(result -> {
+        if (!result.isSuccess()) {
+          failed.incrementAndGet();
+        }
+        permits.release();
+      });
+    }
+    permits.acquire(this.config.connectConcurrency());
+    System.out.printf(
+      "connected %d of %d sessions%n",
+      this.config.sessions() - failed.get(),
+      this.config.sessions()
+    );
+  }
+
+  /**
+   * prints the report of the measurement.
+   *
+   * @param seconds the measured seconds.
+   * @param retransmits the frames and the resent frames of the clients.
+   * @param cpuNanos the server cpu nanos.
+   */
+  private void report(
+    final double seconds,
+    final long @NotNull [] retransmits,
+    final long cpuNanos
+  ) {
+    final var received = this.stats.received.sum();
+    final var latency = this.stats.latency;
+    System.out.printf(
+      """
+      sessions      %d, %d msg/s each, %d bytes, mix %s, %d order channels
+      sent          %d msg, %d skipped while not writable
+      throughput    %.0f msg/s, %.2f MiB/s
+      latency       p50 %.1f us, p99 %.1f us, p999 %.1f us
+      retransmits   %.3f%% of %d frames
+      server cpu    %s%n""",
+      this.config.sessions(),
+      this.config.rate(),
+      this.config.messageSize(),
+      this.config.mix().describe(),
+      this.config.orderChannels(),
+      this.stats.sent.sum(),
+      this.stats.blocked.sum(),
+      received / seconds,
+      this.stats.receivedBytes.sum() / seconds / (1024.0 * 1024.0),
+      latency.percentile(50.0) / 1000.0,
+      latency.percentile(99.0) / 1000.0,
+      latency.percentile(99.9) / 1000.0,
+      retransmits[0] == 0L ? 0.0 : retransmits[1] * 100.0 / retransmits[0],
+      retransmits[0],
+      cpuNanos < 0L || received == 0L
+        ? "unavailable"
+        : "%.0f ns/msg".formatted((double) cpuNanos / received)
+    );
+  }
+
+  /**
+   * sums the frames and the resent frames of the sessions.
+   *
+   * @return frames and resent frames.
+   *
+   * @throws ExecutionException if a session fails while reading.
+   * @throws InterruptedException if the thread is interrupted while waiting.
+   */
+  private long[] retransmits() throws ExecutionException, InterruptedException {
+    final var totals = new long[2];
+    for (final var session : this.sessions) {
+      final var handler = session.pipeline().get(ReliabilityHandler.class);
+      if (handler == null) {
+        continue;
+      }
+      // the counters belong to the event loop of the session.
+      final var counts = session
+        .eventLoop()
+        .submit(() -> new long[] { handler.frames(), handler.resentFrames() })
+        .get();
+      totals[0] += counts[0];
+      totals[1] += counts[1];
+    }
+    return totals;
+  }
+
+  /**
+   * runs the load.
+   *
+   * @throws Exception if something goes wrong when running.
+   */
+  private void run() throws Exception {
+    final var serverGroup = new NioEventLoopGroup(this.config.serverLoops());
+    final var clientGroup = new NioEventLoopGroup(this.config.clientLoops());
+    try {
+      final var sink = new LoadSink(this.stats);
+      final var server = (RakNetServerChannel) new ServerBootstrap()
+        .group(serverGroup)
+        .channel(RakNetServer.CHANNEL)
+        .option(RakNetChannelOptions.RATE_LIMIT, RateLimit.disabled())
+        .option(RakNetChannelOptions.MAX_CONNECTIONS, this.config.sessions())
+        .childHandler(
+          new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(final Channel ch) {
+              ch.pipeline().addLast(sink);
+            }
+          }
+        )
+        .bind(InetAddress.getLoopbackAddress(), 0)
+        .sync()
+        .channel();
+      final var bootstrap = new Bootstrap()
+        .group(clientGroup)
+        .channel(RakNetClient.CHANNEL)
+        .handler(
+          new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(final Channel ch) {
+              ch
+                .pipeline()
+                .addLast(
+                  new LoadSession(
+                    LoadGenerator.this.config,
+                    LoadGenerator.this.stats
+                  )
+                );
+            }
+          }
+        );
+      this.connect(bootstrap, (InetSocketAddress) server.localAddress());
+      final var serverThreads = LoadGenerator.threadIds(serverGroup);
+      TimeUnit.MILLISECONDS.sleep(this.config.warmup().toMillis());
+      this.stats.reset();
+      final var retransmitsBefore = this.retransmits();
+      final var cpuBefore = LoadGenerator.cpuNanos(serverThreads);
+      final var start = System.nanoTime();
+      TimeUnit.MILLISECONDS.sleep(this.config.duration().toMillis());
+      final var cpuAfter = LoadGenerator.cpuNanos(serverThreads);
+      final var seconds = (System.nanoTime() - start) / 1.0e9;
+      final var retransmitsAfter = this.retransmits();
+      this.report(
+        seconds,
+        new long[] {
+          retransmitsAfter[0] - retransmitsBefore[0],
+          retransmitsAfter[1] - retransmitsBefore[1],
+        },
+        cpuBefore < 0L ? -1L : cpuAfter - cpuBefore
+      );
+      for (final var session : this.sessions) {
+        session.close();
+      }
+      server.close().sync();
+    } finally {
+      clientGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+      serverGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package io.github.shiruka.network.loadgen;
+
+import io.github.shiruka.network.Constants;
+import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.packets.Frame;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents client handlers which send load messages at a fixed rate once connected.
+ * <p>
+ * each message is a user data frame that starts with its send time, the reliability is rolled from the mix and the
+ * order channels are used round-robin.
+ */
+final class LoadSession extends ChannelInboundHandlerAdapter {
+
+  /**
+   * the packet id of the load messages.
+   */
+  static final int PACKET_ID = 0xFE;
+
+  /**
+   * the config.
+   */
+  @NotNull
+  private final LoadConfig config;
+
+  /**
+   * the stats.
+   */
+  @NotNull
+  private final LoadStats stats;
+
+  /**
+   * the next order channel.
+   */
+  private int nextChannel;
+
+  /**
+   * the send timer.
+   */
+  @Nullable
+  private ScheduledFuture<?> sendTimer;
+
+  /**
+   * ctor.
+   *
+   * @param config the config.
+   * @param stats the stats.
+   */
+  LoadSession(
+    @NotNull final LoadConfig config,
+    @NotNull final LoadStats stats
+  ) {
+    this.config = config;
+    this.stats = stats;
+  }
+
+  @Override
+  public void channelActive(final ChannelHandlerContext ctx) {
+    final var period = this.config.periodNanos();
+    this.sendTimer =
+      ctx
+        .channel()
+        .eventLoop()
+        .scheduleAtFixedRate(
+          () -> this.send(ctx),
+          // spreads the sessions over the period, not in lockstep.
+          ThreadLocalRandom.current().nextLong(period),
+          period,
+          TimeUnit.NANOSECONDS
+        );
+    ctx.fireChannelActive();
+  }
+
+  @Override
+  public void channelInactive(final ChannelHandlerContext ctx) {
+    if (this.sendTimer != null) {
+      this.sendTimer.cancel(false);
+    }
+    ctx.fireChannelInactive();
+  }
+
+  @Override
+  public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+    ReferenceCountUtil.release(msg);
+  }
+
+  /**
+   * sends a message.
+   *
+   * @param ctx the ctx to send.
+   */
+  private void send(@NotNull final ChannelHandlerContext ctx) {
+    if (!ctx.channel().isWritable()) {
+      this.stats.blocked.increment();
+      return;
+    }
+    final var random = ThreadLocalRandom.current();
+    final var size = this.config.messageSize();
+    final var payload = ctx
+      .alloc()
+      .ioBuffer(size)
+      .writeLong(System.nanoTime())
+      .writeZero(size - Long.BYTES);
+    final Frame.Data data;
+    try {
+      data =
+        Frame.Data.create(
+          ctx.alloc(),
+          LoadSession.PACKET_ID,
+          new PacketBuffer(payload)
+        );
+    } finally {
+      payload.release();
+    }
+    final var mix = this.config.mix();
+    data
+      .reliability(mix.pick(random.nextInt(mix.total())))
+      .orderChannel(this.nextChannel);
+    this.nextChannel = (this.nextChannel + 1) % this.config.orderChannels();
+    ctx.writeAndFlush(data).addListener(Constants.INTERNAL_WRITE_LISTENER);
+    this.stats.sent.increment();
+  }
+}
@@ -0,0 +1,48 @@
+package io.github.shiruka.network.loadgen;
+
+import io.github.shiruka.network.packets.Frame;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.ReferenceCountUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents server handlers which consume the load messages and record their one-way latency.
+ * <p>
+ * the clients run in the same process, so the send time in the message and {@link System#nanoTime()} share a clock.
+ */
+@ChannelHandler.Sharable
+final class LoadSink extends ChannelInboundHandlerAdapter {
+
+  /**
+   * the stats.
+   */
+  @NotNull
+  private final LoadStats stats;
+
+  /**
+   * ctor.
+   *
+   * @param stats the stats.
+   */
+  LoadSink(@NotNull final LoadStats stats) {
+    this.stats = stats;
+  }
+
+  @Override
+  public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+    try {
+      if (
+        msg instanceof Frame.Data data &&
+        data.packetId() == LoadSession.PACKET_ID
+      ) {
+        final var buffer = data.data().buffer();
+        final var sendTime = buffer.getLong(buffer.readerIndex() + 1);
+        this.stats.receive(data.dataSize() - 1, System.nanoTime() - sendTime);
+      }
+    } finally {
+      ReferenceCountUtil.release(msg);
+    }
+  }
+}
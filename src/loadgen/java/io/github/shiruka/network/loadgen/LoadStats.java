@@ -0,0 +1,69 @@
+package io.github.shiruka.network.loadgen;
+
+import io.github.shiruka.network.stats.LogLinearHistogram;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents counters which the sessions and the server sink share.
+ */
+final class LoadStats {
+
+  /**
+   * the sends that are skipped since the session was not writable.
+   */
+  final LongAdder blocked = new LongAdder();
+
+  /**
+   * the one-way latencies.
+   */
+  final LogLinearHistogram latency = new LogLinearHistogram();
+
+  /**
+   * the messages that the server received.
+   */
+  final LongAdder received = new LongAdder();
+
+  /**
+   * the user data bytes that the server received.
+   */
+  final LongAdder receivedBytes = new LongAdder();
+
+  /**
+   * the messages that the sessions wrote.
+   */
+  final LongAdder sent = new LongAdder();
+
+  /**
+   * records a message that the server received.
+   *
+   * @param bytes the bytes to record.
+   * @param latencyNanos the latency nanos to record.
+   */
+  void receive(final int bytes, final long latencyNanos) {
+    this.received.increment();
+    this.receivedBytes.add(bytes);
+    this.latency.record(latencyNanos);
+  }
+
+  /**
+   * clears the counters, called when the warmup ends.
+   */
+  void reset() {
+    this.blocked.reset();
+    this.latency.reset();
+    this.received.reset();
+    this.receivedBytes.reset();
+    this.sent.reset();
+  }
+
+  @NotNull
+  @Override
+  public String toString() {
+    return "sent=%d received=%d blocked=%d".formatted(
+        this.sent.sum(),
+        this.received.sum(),
+        this.blocked.sum()
+      );
+  }
+}
@@ -0,0 +1,4 @@
+/**
+ * the package that contains loopback load generator classes.
+ */
+package io.github.shiruka.network.loadgen;
@@ -0,0 +1,581 @@
+package io.github.shiruka.network;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents prefix tries of blocked addresses.
+ * <p>
+ * IPv4 and IPv6 addresses are kept in separate binary tries, every node of a trie can hold a port wildcard entry and
+ * port specific entries. lookups walk the bits of the sender and do not allocate for IPv4 senders, expired entries
+ * are removed by {@link #tick()} through a hashed timer wheel instead of checking the clock per lookup.
+ * <p>
+ * {@link #remove(BlockedAddress)} removes the entry of a single prefix and port, {@link #removeAll(InetAddress, int)}
+ * removes every entry inside a prefix, whatever its port or its own prefix length is.
+ * <p>
+ * the class is not thread-safe, it must be used from the event loop of the server.
+ */
+@Accessors(fluent = true)
+public final class BlockList {
+
+  /**
+   * the tick duration.
+   */
+  public static final long TICK_MILLIS = TimeUnit.SECONDS.toMillis(1L);
+
+  /**
+   * the wheel size, must be a power of two.
+   */
+  private static final int WHEEL_SIZE = 64;
+
+  /**
+   * the IPv4 root.
+   */
+  private final Node ipv4 = new Node();
+
+  /**
+   * the IPv6 root.
+   */
+  private final Node ipv6 = new Node();
+
+  /**
+   * the wheel.
+   */
+  private final ObjectList<Expiry>[] wheel;
+
+  /**
+   * the size.
+   */
+  @Getter
+  private int size;
+
+  /**
+   * the tick.
+   */
+  private long tick;
+
+  /**
+   * ctor.
+   */
+  @SuppressWarnings("unchecked")
+  public BlockList() {
+    this.wheel = new ObjectList[BlockList.WHEEL_SIZE];
+    for (var index = 0; index < this.wheel.length; index++) {
+      this.wheel[index] = new ObjectArrayList<>();
+    }
+  }
+
+  /**
+   * obtains the bit of the address.
+   *
+   * @param address the address to obtain.
+   * @param index the index to obtain.
+   *
+   * @return bit.
+   */
+  private static int bit(final byte[] address, final int index) {
+    return address[index >>> 3] >>> 7 - (index & 7) & 1;
+  }
+
+  /**
+   * walks the trie and finds the first entry which matches the IPv4 address.
+   *
+   * @param root the root to walk.
+   * @param address the address to find.
+   * @param port the port to find.
+   *
+   * @return matched entry.
+   */
+  @Nullable
+  private static BlockedAddress find(
+    @NotNull final Node root,
+    final int address,
+    final int port
+  ) {
+    var node = root;
+    for (var index = 0; node != null; index++) {
+      final var match = node.match(port);
+      if (match != null || index == Integer.SIZE) {
+        return match;
+      }
+      node = node.child(address >>> Integer.SIZE - 1 - index & 1);
+    }
+    return null;
+  }
+
+  /**
+   * walks the trie and finds the first entry which matches the address.
+   *
+   * @param root the root to walk.
+   * @param address the address to find.
+   * @param port the port to find.
+   *
+   * @return matched entry.
+   */
+  @Nullable
+  private static BlockedAddress find(
+    @NotNull final Node root,
+    final byte@NotNull[] address,
+    final int port
+  ) {
+    final var bits = address.length * Byte.SIZE;
+    var node = root;
+    for (var index = 0; node != null; index++) {
+      final var match = node.match(port);
+      if (match != null || index == bits) {
+        return match;
+      }
+      node = node.child(BlockList.bit(address, index));
+    }
+    return null;
+  }
+
+  /**
+   * adds the entry, replaces the entry which has the same prefix and port.
+   *
+   * @param entry the entry to add.
+   * @param now the current time millis to add.
+   */
+  public void add(@NotNull final BlockedAddress entry, final long now) {
+    final var address = entry.address().getAddress().getAddress();
+    var node = this.root(address);
+    for (var index = 0; index < entry.prefixLength(); index++) {
+      node = node.childOrCreate(BlockList.bit(address, index));
+    }
+    if (node.put(entry) == null) {
+      this.size++;
+    }
+    if (!entry.isPermanent()) {
+      final var remaining =
+        entry.blockedTime() + entry.expireTime() - now;
+      final var ticks = Math.max(
+        1L,
+        (remaining + BlockList.TICK_MILLIS - 1) / BlockList.TICK_MILLIS
+      );
+      final var deadline = this.tick + ticks;
+      this.wheel[(int) (deadline & BlockList.WHEEL_SIZE - 1)].add(
+          new Expiry(entry, deadline)
+        );
+    }
+  }
+
+  /**
+   * clears the entries.
+   */
+  public void clear() {
+    this.ipv4.clear();
+    this.ipv6.clear();
+    for (final var slot : this.wheel) {
+      slot.clear();
+    }
+    this.size = 0;
+  }
+
+  /**
+   * finds the entry which blocks the address.
+   *
+   * @param address the address to find.
+   *
+   * @return blocked address entry, {@code null} if the address is not blocked.
+   */
+  @Nullable
+  public BlockedAddress find(@NotNull final InetSocketAddress address) {
+    if (this.size == 0) {
+      return null;
+    }
+    final var inetAddress = address.getAddress();
+    if (inetAddress instanceof Inet4Address) {
+      // Inet4Address#hashCode is the address itself,
+      // so it skips the array copy of getAddress.
+      return BlockList.find(
+        this.ipv4,
+        inetAddress.hashCode(),
+        address.getPort()
+      );
+    }
+    if (inetAddress == null) {
+      return null;
+    }
+    return BlockList.find(
+      this.ipv6,
+      inetAddress.getAddress(),
+      address.getPort()
+    );
+  }
+
+  /**
+   * checks if the address is blocked.
+   *
+   * @param address the address to check.
+   *
+   * @return {@code true} if the address is blocked.
+   */
+  public boolean isBlocked(@NotNull final InetSocketAddress address) {
+    return this.find(address) != null;
+  }
+
+  /**
+   * removes the entry which has the same prefix and port with the given entry.
+   * <p>
+   * an any port entry only removes the any port entry of the prefix, the port specific entries are kept.
+   *
+   * @param entry the entry to remove.
+   *
+   * @return removed entry.
+   */
+  @Nullable
+  public BlockedAddress remove(@NotNull final BlockedAddress entry) {
+    final var address = entry.address().getAddress().getAddress();
+    final var removed = this.root(address)
+      .remove(address, 0, entry.prefixLength(), entry, false);
+    if (removed != null) {
+      this.size--;
+    }
+    return removed;
+  }
+
+  /**
+   * removes every entry which is inside the prefix.
+   *
+   * @param address the address to remove.
+   * @param prefixLength the prefix length to remove.
+   *
+   * @return removed entry count.
+   */
+  public int removeAll(
+    @NotNull final InetAddress address,
+    final int prefixLength
+  ) {
+    final var bytes = address.getAddress();
+    Preconditions.checkArgument(
+      prefixLength >= 0 && prefixLength <= bytes.length * Byte.SIZE,
+      "Prefix length must be in between 0-%s",
+      bytes.length * Byte.SIZE
+    );
+    final var removed = this.root(bytes).removeAll(bytes, 0, prefixLength);
+    this.size -= removed;
+    return removed;
+  }
+
+  /**
+   * advances the wheel by one tick and removes the expired entries.
+   * <p>
+   * must be called once every {@link #TICK_MILLIS}.
+   */
+  public void tick() {
+    this.tick++;
+    final var slot = this.wheel[(int) (this.tick & BlockList.WHEEL_SIZE - 1)];
+    if (slot.isEmpty()) {
+      return;
+    }
+    final var iterator = slot.iterator();
+    while (iterator.hasNext()) {
+      final var expiry = iterator.next();
+      if (expiry.deadline() > this.tick) {
+        continue;
+      }
+      iterator.remove();
+      final var entry = expiry.entry();
+      final var address = entry.address().getAddress().getAddress();
+      // the entry may be replaced or removed since, then the expiry is stale.
+      final var removed = this.root(address)
+        .remove(address, 0, entry.prefixLength(), entry, true);
+      if (removed != null) {
+        this.size--;
+      }
+    }
+  }
+
+  /**
+   * obtains the root for the address.
+   *
+   * @param address the address to obtain.
+   *
+   * @return root.
+   */
+  @NotNull
+  private Node root(final byte@NotNull[] address) {
+    return address.length == Constants.IPV4_ADDRESS_LENGTH
+      ? this.ipv4
+      : this.ipv6;
+  }
+
+  /**
+   * a record class that represents wheel entries.
+   *
+   * @param entry the entry.
+   * @param deadline the deadline tick.
+   */
+  private record Expiry(@NotNull BlockedAddress entry, long deadline) {}
+
+  /**
+   * a class that represents trie nodes.
+   */
+  private static final class Node {
+
+    /**
+     * the any port entry.
+     */
+    @Nullable
+    private BlockedAddress anyPort;
+
+    /**
+     * the one child.
+     */
+    @Nullable
+    private Node one;
+
+    /**
+     * the port entries.
+     */
+    @Nullable
+    private Int2ObjectMap<BlockedAddress> ports;
+
+    /**
+     * the zero child.
+     */
+    @Nullable
+    private Node zero;
+
+    /**
+     * obtains the child.
+     *
+     * @param bit the bit to obtain.
+     *
+     * @return child.
+     */
+    @Nullable
+    private Node child(final int bit) {
+      return bit == 0 ? this.zero : this.one;
+    }
+
+    /**
+     * obtains or creates the child.
+     *
+     * @param bit the bit to obtain.
+     *
+     * @return child.
+     */
+    @NotNull
+    private Node childOrCreate(final int bit) {
+      if (bit == 0) {
+        if (this.zero == null) {
+          this.zero = new Node();
+        }
+        return this.zero;
+      }
+      if (this.one == null) {
+        this.one = new Node();
+      }
+      return this.one;
+    }
+
+    /**
+     * clears the node.
+     */
+    private void clear() {
+      this.anyPort = null;
+      this.ports = null;
+      this.zero = null;
+      this.one = null;
+    }
+
+    /**
+     * counts the entries of the node and its children.
+     *
+     * @return entry count.
+     */
+    private int count() {
+      var count = this.anyPort == null ? 0 : 1;
+      if (this.ports != null) {
+        count += this.ports.size();
+      }
+      if (this.zero != null) {
+        count += this.zero.count();
+      }
+      if (this.one != null) {
+        count += this.one.count();
+      }
+      return count;
+    }
+
+    /**
+     * checks if the node is empty.
+     *
+     * @return {@code true} if the node is empty.
+     */
+    private boolean isEmpty() {
+      return (
+        this.anyPort == null &&
+        (this.ports == null || this.ports.isEmpty()) &&
+        this.zero == null &&
+        this.one == null
+      );
+    }
+
+    /**
+     * matches the port.
+     *
+     * @param port the port to match.
+     *
+     * @return matched entry.
+     */
+    @Nullable
+    private BlockedAddress match(final int port) {
+      if (this.anyPort != null) {
+        return this.anyPort;
+      }
+      return this.ports == null ? null : this.ports.get(port);
+    }
+
+    /**
+     * prunes the child.
+     *
+     * @param bit the bit to prune.
+     */
+    private void prune(final int bit) {
+      if (bit == 0) {
+        this.zero = null;
+      } else {
+        this.one = null;
+      }
+    }
+
+    /**
+     * puts the entry.
+     *
+     * @param entry the entry to put.
+     *
+     * @return replaced entry.
+     */
+    @Nullable
+    private BlockedAddress put(@NotNull final BlockedAddress entry) {
+      if (entry.anyPort()) {
+        final var old = this.anyPort;
+        this.anyPort = entry;
+        return old;
+      }
+      if (this.ports == null) {
+        this.ports = new Int2ObjectOpenHashMap<>(2);
+      }
+      return this.ports.put(entry.address().getPort(), entry);
+    }
+
+    /**
+     * removes the entry and prunes the empty children.
+     *
+     * @param address the address to remove.
+     * @param index the bit index.
+     * @param prefixLength the prefix length.
+     * @param entry the entry to remove.
+     * @param exact the exact, {@code true} to remove only the given entry instance.
+     *
+     * @return removed entry.
+     */
+    @Nullable
+    private BlockedAddress remove(
+      final byte@NotNull[] address,
+      final int index,
+      final int prefixLength,
+      @NotNull final BlockedAddress entry,
+      final boolean exact
+    ) {
+      if (index == prefixLength) {
+        return this.removeEntry(entry, exact);
+      }
+      final var bit = BlockList.bit(address, index);
+      final var child = this.child(bit);
+      if (child == null) {
+        return null;
+      }
+      final var removed = child.remove(
+        address,
+        index + 1,
+        prefixLength,
+        entry,
+        exact
+      );
+      if (removed != null && child.isEmpty()) {
+        this.prune(bit);
+      }
+      return removed;
+    }
+
+    /**
+     * removes every entry under the prefix and prunes the empty children.
+     *
+     * @param address the address to remove.
+     * @param index the bit index.
+     * @param prefixLength the prefix length.
+     *
+     * @return removed entry count.
+     */
+    private int removeAll(
+      final byte@NotNull[] address,
+      final int index,
+      final int prefixLength
+    ) {
+      if (index == prefixLength) {
+        final var removed = this.count();
+        this.clear();
+        return removed;
+      }
+      final var bit = BlockList.bit(address, index);
+      final var child = this.child(bit);
+      if (child == null) {
+        return 0;
+      }
+      final var removed = child.removeAll(address, index + 1, prefixLength);
+      if (removed > 0 && child.isEmpty()) {
+        this.prune(bit);
+      }
+      return removed;
+    }
+
+    /**
+     * removes the entry from the node.
+     * <p>
+     * an exact removal only removes the given instance, so the expiry of a replaced entry does not remove the entry
+     * which replaced it, even if both are created in the same millisecond.
+     *
+     * @param entry the entry to remove.
+     * @param exact the exact, {@code true} to remove only the given entry instance.
+     *
+     * @return removed entry.
+     */
+    @Nullable
+    private BlockedAddress removeEntry(
+      @NotNull final BlockedAddress entry,
+      final boolean exact
+    ) {
+      if (entry.anyPort()) {
+        final var old = this.anyPort;
+        if (old != null && (!exact || old == entry)) {
+          this.anyPort = null;
+          return old;
+        }
+        return null;
+      }
+      if (this.ports == null) {
+        return null;
+      }
+      final var port = entry.address().getPort();
+      final var old = this.ports.get(port);
+      if (old != null && (!exact || old == entry)) {
+        return this.ports.remove(port);
+      }
+      return null;
+    }
+  }
+}
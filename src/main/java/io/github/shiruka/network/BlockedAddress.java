@@ -1,7 +1,9 @@
 package io.github.shiruka.network;
 
 import com.google.common.base.Preconditions;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.Objects;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
@@ -10,6 +12,9 @@ import org.jetbrains.annotations.NotNull;
 
 /**
  * a class that represents blocked addresses.
+ * <p>
+ * the blocked time of a timed block must be read from the clock of the server, {@code RakNetConfig#clock()}, since
+ * the block list expires the entries against that clock. the blocked time of a permanent block is not used.
  */
 @Accessors(fluent = true)
 @ToString(doNotUseGetters = true, onlyExplicitlyIncluded = true)
@@ -19,7 +24,7 @@ public final class BlockedAddress {
   /**
    * the permanent block time.
    */
-  private static final long PERMANENT_BLOCK = -1L;
+  public static final long PERMANENT_BLOCK = -1L;
 
   /**
    * the address.
@@ -30,6 +35,14 @@ public final class BlockedAddress {
   @EqualsAndHashCode.Include
   private final InetSocketAddress address;
 
+  /**
+   * the any port.
+   */
+  @Getter
+  @ToString.Include
+  @EqualsAndHashCode.Include
+  private final boolean anyPort;
+
   /**
    * the blocked time.
    */
@@ -46,6 +59,14 @@ public final class BlockedAddress {
   @EqualsAndHashCode.Include
   private final long expireTime;
 
+  /**
+   * the prefix length.
+   */
+  @Getter
+  @ToString.Include
+  @EqualsAndHashCode.Include
+  private final int prefixLength;
+
   /**
    * the reason.
    */
@@ -59,12 +80,16 @@ public final class BlockedAddress {
    * ctor.
    *
    * @param address the address.
+   * @param prefixLength the prefix length.
+   * @param anyPort the any port.
    * @param reason the reason.
    * @param blockedTime the blocked time.
    * @param expireTime the expire time.
    */
   public BlockedAddress(
     @NotNull final InetSocketAddress address,
+    final int prefixLength,
+    final boolean anyPort,
     @NotNull final String reason,
     final long blockedTime,
     final long expireTime
@@ -74,7 +99,16 @@ public final class BlockedAddress {
       "Block time must be greater than 0 or equal to %s for a permanent block",
       BlockedAddress.PERMANENT_BLOCK
     );
+    Objects.requireNonNull(address.getAddress(), "address");
+    final var maxPrefixLength = address.getAddress().getAddress().length * 8;
+    Preconditions.checkArgument(
+      prefixLength >= 0 && prefixLength <= maxPrefixLength,
+      "Prefix length must be in between 0-%s",
+      maxPrefixLength
+    );
     this.address = address;
+    this.prefixLength = prefixLength;
+    this.anyPort = anyPort;
     this.reason = reason;
     this.blockedTime = blockedTime;
     this.expireTime = expireTime;
@@ -85,14 +119,23 @@ public final class BlockedAddress {
    *
    * @param address the address.
    * @param reason the reason.
+   * @param blockedTime the blocked time.
    * @param expireTime the expire time.
    */
   public BlockedAddress(
     @NotNull final InetSocketAddress address,
     @NotNull final String reason,
+    final long blockedTime,
     final long expireTime
   ) {
-    this(address, reason, System.currentTimeMillis(), expireTime);
+    this(
+      address,
+      address.getAddress().getAddress().length * 8,
+      false,
+      reason,
+      blockedTime,
+      expireTime
+    );
   }
 
   /**
@@ -105,18 +148,108 @@ public final class BlockedAddress {
     @NotNull final InetSocketAddress address,
     @NotNull final String reason
   ) {
-    this(address, reason, BlockedAddress.PERMANENT_BLOCK);
+    this(address, reason, 0L, BlockedAddress.PERMANENT_BLOCK);
+  }
+
+  /**
+   * creates a blocked address which blocks every port of the host.
+   *
+   * @param address the address to create.
+   * @param reason the reason to create.
+   * @param blockedTime the blocked time to create.
+   * @param expireTime the expire time to create.
+   *
+   * @return blocked address.
+   */
+  @NotNull
+  public static BlockedAddress host(
+    @NotNull final InetAddress address,
+    @NotNull final String reason,
+    final long blockedTime,
+    final long expireTime
+  ) {
+    return BlockedAddress.subnet(
+      address,
+      address.getAddress().length * 8,
+      reason,
+      blockedTime,
+      expireTime
+    );
+  }
+
+  /**
+   * creates a blocked address which blocks every port of the subnet.
+   *
+   * @param address the address to create.
+   * @param prefixLength the prefix length to create.
+   * @param reason the reason to create.
+   * @param blockedTime the blocked time to create.
+   * @param expireTime the expire time to create.
+   *
+   * @return blocked address.
+   */
+  @NotNull
+  public static BlockedAddress subnet(
+    @NotNull final InetAddress address,
+    final int prefixLength,
+    @NotNull final String reason,
+    final long blockedTime,
+    final long expireTime
+  ) {
+    return new BlockedAddress(
+      new InetSocketAddress(address, 0),
+      prefixLength,
+      true,
+      reason,
+      blockedTime,
+      expireTime
+    );
+  }
+
+  /**
+   * creates a permanently blocked address which blocks every port of the subnet.
+   *
+   * @param address the address to create.
+   * @param prefixLength the prefix length to create.
+   * @param reason the reason to create.
+   *
+   * @return blocked address.
+   */
+  @NotNull
+  public static BlockedAddress subnet(
+    @NotNull final InetAddress address,
+    final int prefixLength,
+    @NotNull final String reason
+  ) {
+    return BlockedAddress.subnet(
+      address,
+      prefixLength,
+      reason,
+      0L,
+      BlockedAddress.PERMANENT_BLOCK
+    );
+  }
+
+  /**
+   * checks if the block is permanent.
+   *
+   * @return {@code true} if the block is permanent.
+   */
+  public boolean isPermanent() {
+    return this.expireTime == BlockedAddress.PERMANENT_BLOCK;
   }
 
   /**
    * checks if the address should unblock.
    *
+   * @param now the current time millis to check.
+   *
    * @return {@code true} if the address should unblock.
    */
-  public boolean shouldUnblock() {
+  public boolean shouldUnblock(final long now) {
     return (
       this.expireTime > BlockedAddress.PERMANENT_BLOCK &&
-      System.currentTimeMillis() - this.blockedTime >= this.expireTime
+      now - this.blockedTime >= this.expireTime
     );
   }
 }
@@ -1,5 +1,6 @@
 package io.github.shiruka.network;
 
+import io.github.shiruka.network.jfr.ConnectionCloseEvent;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.util.internal.SystemPropertyUtil;
 import java.net.InetSocketAddress;
@@ -29,6 +30,10 @@ public final class Constants {
     if (
       !future.isSuccess() && !(future.cause() instanceof ClosedChannelException)
     ) {
+      ConnectionCloseEvent.cause(
+        future.channel(),
+        ConnectionCloseEvent.Cause.WRITE_FAILED
+      );
       future.channel().pipeline().fireExceptionCaught(future.cause());
       future.channel().close();
     }
@@ -5,10 +5,10 @@ import io.github.shiruka.api.base.Vector2f;
 import io.github.shiruka.api.base.Vector3f;
 import io.github.shiruka.api.base.Vector3i;
 import io.github.shiruka.nbt.CompoundTag;
-import io.github.shiruka.nbt.Tag;
+import io.github.shiruka.network.nbt.EncodedTag;
+import io.github.shiruka.network.nbt.NetworkNbt;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufInputStream;
-import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.util.AsciiString;
@@ -19,6 +19,8 @@ import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
@@ -29,9 +31,9 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.experimental.Accessors;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * a class that contains helper methods to encode and decode buffers.
@@ -86,6 +88,64 @@ public class PacketBuffer {
     return PacketBuffer.getAddressVersion(address.getAddress());
   }
 
+  /**
+   * computes the encoded size of the string, without encoding it.
+   *
+   * @param data the data to compute.
+   *
+   * @return encoded size.
+   */
+  public static int stringSize(@NotNull final String data) {
+    final var length = ByteBufUtil.utf8Bytes(data);
+    return PacketBuffer.varIntSize(length) + length;
+  }
+
+  /**
+   * computes the encoded size of the unsigned var int.
+   *
+   * @param value the value to compute.
+   *
+   * @return encoded size.
+   */
+  public static int unsignedVarIntSize(final int value) {
+    return PacketBuffer.unsignedVarLongSize(value & 0xFFFFFFFFL);
+  }
+
+  /**
+   * computes the encoded size of the unsigned var long.
+   *
+   * @param value the value to compute.
+   *
+   * @return encoded size, between 1 and 10.
+   */
+  public static int unsignedVarLongSize(final long value) {
+    return (63 - Long.numberOfLeadingZeros(value | 1L)) / 7 + 1;
+  }
+
+  /**
+   * computes the encoded size of the var int.
+   *
+   * @param value the value to compute.
+   *
+   * @return encoded size.
+   */
+  public static int varIntSize(final int value) {
+    return PacketBuffer.unsignedVarLongSize(
+      ((long) value << 1 ^ value >> 31) & 0xFFFFFFFFL
+    );
+  }
+
+  /**
+   * computes the encoded size of the var long.
+   *
+   * @param value the value to compute.
+   *
+   * @return encoded size.
+   */
+  public static int varLongSize(final long value) {
+    return PacketBuffer.unsignedVarLongSize(value << 1 ^ value >> 63);
+  }
+
   /**
    * adds component.
    *
@@ -133,11 +193,32 @@ public class PacketBuffer {
 
   /**
    * decodes the var long.
+   * <p>
+   * var longs up to 8 bytes are decoded from a single little-endian long read, so the buffer is bounds-checked once
+   * and the 7-bit groups are packed without a loop.
    *
    * @return var long
    */
   public final long decodeVarLong() {
-    var result = 0;
+    final var index = this.buffer.readerIndex();
+    if (this.buffer.readableBytes() >= Long.BYTES) {
+      final var word = this.buffer.getLongLE(index);
+      final var stops = ~word & 0x8080808080808080L;
+      if (stops != 0L) {
+        final var length = (Long.numberOfTrailingZeros(stops) >>> 3) + 1;
+        var value =
+          word & 0x7F7F7F7F7F7F7F7FL & -1L >>> Long.SIZE - length * Byte.SIZE;
+        value =
+          value & 0x007F007F007F007FL | (value & 0x7F007F007F007F00L) >>> 1;
+        value =
+          value & 0x00003FFF00003FFFL | (value & 0x3FFF00003FFF0000L) >>> 2;
+        value =
+          value & 0x000000000FFFFFFFL | (value & 0x0FFFFFFF00000000L) >>> 4;
+        this.buffer.readerIndex(index + length);
+        return value;
+      }
+    }
+    var result = 0L;
     for (var shift = 0; shift < 64; shift += 7) {
       final var b = this.buffer.readByte();
       result |= (b & 0x7FL) << shift;
@@ -150,19 +231,50 @@ public class PacketBuffer {
 
   /**
    * encodes the value.
+   * <p>
+   * the size is computed first, so the buffer grows at most once and values up to 8 bytes are written with a single
+   * spread of the 7-bit groups.
    *
    * @param value the value to encode.
    */
   public final void encodeVarLong(final long value) {
-    var tempValue = value;
-    while (true) {
-      if ((tempValue & ~0x7FL) == 0) {
-        this.buffer.writeByte((int) tempValue);
-        return;
-      } else {
+    final var length = PacketBuffer.unsignedVarLongSize(value);
+    if (length == 1) {
+      this.buffer.writeByte((int) value);
+      return;
+    }
+    this.buffer.ensureWritable(length);
+    if (length > Long.BYTES) {
+      var tempValue = value;
+      while ((tempValue & ~0x7FL) != 0) {
         this.buffer.writeByte((byte) ((int) tempValue & 0x7F | 0x80));
         tempValue >>>= 7;
       }
+      this.buffer.writeByte((int) tempValue);
+      return;
+    }
+    var word = value;
+    word = word & 0x0FFFFFFFL | (word & 0x00FFFFFFF0000000L) << 4;
+    word = word & 0x00003FFF00003FFFL | (word & 0x0FFFC0000FFFC000L) << 2;
+    word = word & 0x007F007F007F007FL | (word & 0x3F803F803F803F80L) << 1;
+    word |= 0x8080808080808080L & (1L << (length - 1) * Byte.SIZE) - 1;
+    switch (length) {
+      case 2 -> this.buffer.writeShortLE((int) word);
+      case 3 -> this.buffer.writeMediumLE((int) word);
+      case 4 -> this.buffer.writeIntLE((int) word);
+      case 5 -> {
+        this.buffer.writeIntLE((int) word);
+        this.buffer.writeByte((int) (word >>> Integer.SIZE));
+      }
+      case 6 -> {
+        this.buffer.writeIntLE((int) word);
+        this.buffer.writeShortLE((int) (word >>> Integer.SIZE));
+      }
+      case 7 -> {
+        this.buffer.writeIntLE((int) word);
+        this.buffer.writeMediumLE((int) (word >>> Integer.SIZE));
+      }
+      default -> this.buffer.writeLongLE(word);
     }
   }
 
@@ -196,9 +308,7 @@ public class PacketBuffer {
    * @param length the amount of bytes to write.
    */
   public final void pad(final int length) {
-    for (var index = 0; index < length; index++) {
-      this.writeByte(0x00);
-    }
+    this.buffer.writeZero(length);
   }
 
   /**
@@ -207,9 +317,7 @@ public class PacketBuffer {
    * @param dest the byte[] to read the data into.
    */
   public final void read(final byte[] dest) {
-    for (var index = 0; index < dest.length; index++) {
-      dest[index] = this.readByte();
-    }
+    this.buffer.readBytes(dest);
   }
 
   /**
@@ -268,6 +376,31 @@ public class PacketBuffer {
     return list;
   }
 
+  /**
+   * reads the array with the given length.
+   * <p>
+   * the list is presized, capped by the readable bytes so a forged length can not allocate more than the packet.
+   *
+   * @param length the length to read.
+   * @param valueSupplier the value supplier to read.
+   * @param <T> type of the array element.
+   *
+   * @return array list.
+   */
+  @NotNull
+  public final <T> ObjectList<T> readArray(
+    final long length,
+    @NotNull final Supplier<T> valueSupplier
+  ) {
+    final var list = new ObjectArrayList<T>(
+      (int) Math.min(length, this.buffer.readableBytes())
+    );
+    for (var index = 0L; index < length; index++) {
+      list.add(valueSupplier.get());
+    }
+    return list;
+  }
+
   /**
    * reads the array shor le.
    *
@@ -280,7 +413,7 @@ public class PacketBuffer {
   public final <T> ObjectList<T> readArrayShortLE(
     @NotNull final Supplier<T> valueSupplier
   ) {
-    return this.readArray(this::readUnsignedShortLE, valueSupplier);
+    return this.readArray(this.readUnsignedShortLE(), valueSupplier);
   }
 
   /**
@@ -295,7 +428,7 @@ public class PacketBuffer {
   public final <T> ObjectList<T> readArrayUnsignedInt(
     @NotNull final Supplier<T> valueSupplier
   ) {
-    return this.readArray(this::readUnsignedInt, valueSupplier);
+    return this.readArray(this.readUnsignedInt(), valueSupplier);
   }
 
   /**
@@ -414,16 +547,19 @@ public class PacketBuffer {
    *
    * @return compound tag
    */
-  @SneakyThrows
   @NotNull
   public final CompoundTag readCompoundTag() {
-    try (
-      final var reader = Tag.createNetworkReader(
-        new ByteBufInputStream(this.buffer())
-      )
-    ) {
-      return reader.readCompoundTag();
-    }
+    return NetworkNbt.readCompound(this);
+  }
+
+  /**
+   * reads the encoded compound tag without decoding it.
+   *
+   * @return retained slice of the encoded tag.
+   */
+  @NotNull
+  public final PacketBuffer readCompoundTagBytes() {
+    return this.readRetainedSlice(NetworkNbt.measure(this.buffer));
   }
 
   /**
@@ -444,6 +580,50 @@ public class PacketBuffer {
     return this.buffer.readDoubleLE();
   }
 
+  /**
+   * reads the elements one by one with the reader, without collecting them.
+   *
+   * @param length the element count to read.
+   * @param reader the reader to read.
+   */
+  public final void readEach(
+    final int length,
+    @NotNull final ElementReader reader
+  ) {
+    for (var index = 0; index < length; index++) {
+      reader.read(this, index);
+    }
+  }
+
+  /**
+   * reads an unsigned little-endian short length and the elements with the reader.
+   *
+   * @param reader the reader to read.
+   *
+   * @return element count.
+   */
+  public final int readEachShortLE(@NotNull final ElementReader reader) {
+    final var length = this.readUnsignedShortLE();
+    this.readEach(length, reader);
+    return length;
+  }
+
+  /**
+   * reads an unsigned var int length and the elements with the reader.
+   *
+   * @param reader the reader to read.
+   *
+   * @return element count.
+   */
+  public final int readEachUnsignedVarInt(
+    @NotNull final ElementReader reader
+  ) {
+    final var length = this.readUnsignedVarInt();
+    Preconditions.checkArgument(length >= 0, "Negative length %s", length);
+    this.readEach(length, reader);
+    return length;
+  }
+
   /**
    * reads a float.
    *
@@ -462,6 +642,58 @@ public class PacketBuffer {
     return this.buffer.readFloatLE();
   }
 
+  /**
+   * reads big-endian floats into the destination.
+   *
+   * @param dest the dest to read.
+   * @param offset the offset of the dest.
+   * @param length the element count to read.
+   */
+  public final void readFloats(
+    final float@NotNull[] dest,
+    final int offset,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(offset, length, dest.length);
+    final var view = this.readView(
+      Math.multiplyExact(length, Float.BYTES),
+      ByteOrder.BIG_ENDIAN
+    );
+    if (view != null) {
+      view.asFloatBuffer().get(dest, offset, length);
+      return;
+    }
+    for (var index = offset; index < offset + length; index++) {
+      dest[index] = this.readFloat();
+    }
+  }
+
+  /**
+   * reads little-endian floats into the destination.
+   *
+   * @param dest the dest to read.
+   * @param offset the offset of the dest.
+   * @param length the element count to read.
+   */
+  public final void readFloatsLE(
+    final float@NotNull[] dest,
+    final int offset,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(offset, length, dest.length);
+    final var view = this.readView(
+      Math.multiplyExact(length, Float.BYTES),
+      ByteOrder.LITTLE_ENDIAN
+    );
+    if (view != null) {
+      view.asFloatBuffer().get(dest, offset, length);
+      return;
+    }
+    for (var index = offset; index < offset + length; index++) {
+      dest[index] = this.readFloatLE();
+    }
+  }
+
   /**
    * reads an int.
    *
@@ -480,6 +712,58 @@ public class PacketBuffer {
     return this.buffer.readIntLE();
   }
 
+  /**
+   * reads big-endian ints into the destination.
+   *
+   * @param dest the dest to read.
+   * @param offset the offset of the dest.
+   * @param length the element count to read.
+   */
+  public final void readInts(
+    final int@NotNull[] dest,
+    final int offset,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(offset, length, dest.length);
+    final var view = this.readView(
+      Math.multiplyExact(length, Integer.BYTES),
+      ByteOrder.BIG_ENDIAN
+    );
+    if (view != null) {
+      view.asIntBuffer().get(dest, offset, length);
+      return;
+    }
+    for (var index = offset; index < offset + length; index++) {
+      dest[index] = this.readInt();
+    }
+  }
+
+  /**
+   * reads little-endian ints into the destination.
+   *
+   * @param dest the dest to read.
+   * @param offset the offset of the dest.
+   * @param length the element count to read.
+   */
+  public final void readIntsLE(
+    final int@NotNull[] dest,
+    final int offset,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(offset, length, dest.length);
+    final var view = this.readView(
+      Math.multiplyExact(length, Integer.BYTES),
+      ByteOrder.LITTLE_ENDIAN
+    );
+    if (view != null) {
+      view.asIntBuffer().get(dest, offset, length);
+      return;
+    }
+    for (var index = offset; index < offset + length; index++) {
+      dest[index] = this.readIntLE();
+    }
+  }
+
   /**
    * reads ascii string.
    *
@@ -510,6 +794,58 @@ public class PacketBuffer {
     return this.buffer.readLongLE();
   }
 
+  /**
+   * reads big-endian longs into the destination.
+   *
+   * @param dest the dest to read.
+   * @param offset the offset of the dest.
+   * @param length the element count to read.
+   */
+  public final void readLongs(
+    final long@NotNull[] dest,
+    final int offset,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(offset, length, dest.length);
+    final var view = this.readView(
+      Math.multiplyExact(length, Long.BYTES),
+      ByteOrder.BIG_ENDIAN
+    );
+    if (view != null) {
+      view.asLongBuffer().get(dest, offset, length);
+      return;
+    }
+    for (var index = offset; index < offset + length; index++) {
+      dest[index] = this.readLong();
+    }
+  }
+
+  /**
+   * reads little-endian longs into the destination.
+   *
+   * @param dest the dest to read.
+   * @param offset the offset of the dest.
+   * @param length the element count to read.
+   */
+  public final void readLongsLE(
+    final long@NotNull[] dest,
+    final int offset,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(offset, length, dest.length);
+    final var view = this.readView(
+      Math.multiplyExact(length, Long.BYTES),
+      ByteOrder.LITTLE_ENDIAN
+    );
+    if (view != null) {
+      view.asLongBuffer().get(dest, offset, length);
+      return;
+    }
+    for (var index = offset; index < offset + length; index++) {
+      dest[index] = this.readLongLE();
+    }
+  }
+
   /**
    * reads retained slice.
    *
@@ -558,8 +894,11 @@ public class PacketBuffer {
   @NotNull
   public final String readString() {
     final var length = this.readVarInt();
-    final var bytes = this.readBytes(length);
-    return new String(bytes, StandardCharsets.UTF_8);
+    final var index = this.buffer.readerIndex();
+    final var string =
+      this.buffer.toString(index, length, StandardCharsets.UTF_8);
+    this.buffer.readerIndex(index + length);
+    return string;
   }
 
   /**
@@ -627,7 +966,7 @@ public class PacketBuffer {
   @NotNull
   public final BigInteger readUnsignedLong() {
     final var bytes = this.read(Long.BYTES);
-    return new BigInteger(bytes);
+    return new BigInteger(1, bytes);
   }
 
   /**
@@ -642,7 +981,26 @@ public class PacketBuffer {
     for (var index = 0; index < bytes.length; index++) {
       bytes[index] = reversed[reversed.length - index - 1];
     }
-    return new BigInteger(bytes);
+    return new BigInteger(1, bytes);
+  }
+
+  /**
+   * reads an unsigned long without boxing it into a {@link BigInteger}.
+   *
+   * @return the bits of the unsigned long, use {@link Long#compareUnsigned(long, long)} and
+   *   {@link Long#toUnsignedString(long)} to work with it.
+   */
+  public final long readUnsignedLongAsLong() {
+    return this.buffer.readLong();
+  }
+
+  /**
+   * reads an unsigned little-endian long without boxing it into a {@link BigInteger}.
+   *
+   * @return the bits of the unsigned little-endian long.
+   */
+  public final long readUnsignedLongLEAsLong() {
+    return this.buffer.readLongLE();
   }
 
   /**
@@ -709,6 +1067,29 @@ public class PacketBuffer {
     return decode >>> 1 ^ -(decode & 1);
   }
 
+  /**
+   * reads an unsigned var int length and the var ints into the destination.
+   *
+   * @param dest the dest to read.
+   *
+   * @return element count.
+   *
+   * @throws IllegalArgumentException if the length does not fit into the dest.
+   */
+  public final int readVarIntArray(final int@NotNull[] dest) {
+    final var length = this.readUnsignedVarInt();
+    Preconditions.checkArgument(
+      length >= 0 && length <= dest.length,
+      "Array length %s does not fit into %s",
+      length,
+      dest.length
+    );
+    for (var index = 0; index < length; index++) {
+      dest[index] = this.readVarInt();
+    }
+    return length;
+  }
+
   /**
    * reads the var long.
    *
@@ -719,6 +1100,29 @@ public class PacketBuffer {
     return decode >>> 1 ^ -(decode & 1);
   }
 
+  /**
+   * reads an unsigned var int length and the var longs into the destination.
+   *
+   * @param dest the dest to read.
+   *
+   * @return element count.
+   *
+   * @throws IllegalArgumentException if the length does not fit into the dest.
+   */
+  public final int readVarLongArray(final long@NotNull[] dest) {
+    final var length = this.readUnsignedVarInt();
+    Preconditions.checkArgument(
+      length >= 0 && length <= dest.length,
+      "Array length %s does not fit into %s",
+      length,
+      dest.length
+    );
+    for (var index = 0; index < length; index++) {
+      dest[index] = this.readVarLong();
+    }
+    return length;
+  }
+
   /**
    * reads the vector 2f.
    *
@@ -842,6 +1246,13 @@ public class PacketBuffer {
     this.buffer.skipBytes(Math.min(length, this.remaining()));
   }
 
+  /**
+   * skips the compound tag without decoding it.
+   */
+  public final void skipCompoundTag() {
+    this.buffer.skipBytes(NetworkNbt.measure(this.buffer));
+  }
+
   /**
    * touch to the buffer.
    *
@@ -1038,7 +1449,8 @@ public class PacketBuffer {
     @NotNull final Collection<T> array,
     @NotNull final Consumer<T> valueWriter
   ) {
-    this.writeArray(array, i -> this.writeShortLE(i.intValue()), valueWriter);
+    this.writeShortLE(array.size());
+    array.forEach(valueWriter);
   }
 
   /**
@@ -1052,11 +1464,10 @@ public class PacketBuffer {
     @NotNull final T[] array,
     @NotNull final Consumer<T> valueWriter
   ) {
-    this.writeArray(
-        array,
-        i -> this.writeUnsignedInt(i.longValue()),
-        valueWriter
-      );
+    this.writeUnsignedInt(array.length);
+    for (final var t : array) {
+      valueWriter.accept(t);
+    }
   }
 
   /**
@@ -1070,11 +1481,8 @@ public class PacketBuffer {
     @NotNull final Collection<T> array,
     @NotNull final Consumer<T> valueWriter
   ) {
-    this.writeArray(
-        array,
-        i -> this.writeUnsignedInt(i.longValue()),
-        valueWriter
-      );
+    this.writeUnsignedInt(array.size());
+    array.forEach(valueWriter);
   }
 
   /**
@@ -1169,15 +1577,17 @@ public class PacketBuffer {
    *
    * @param tag the tag to write.
    */
-  @SneakyThrows
   public final void writeCompoundTag(@NotNull final CompoundTag tag) {
-    try (
-      final var writer = Tag.createNetworkWriter(
-        new ByteBufOutputStream(this.buffer())
-      )
-    ) {
-      writer.writeCompoundTag(tag);
-    }
+    NetworkNbt.writeCompound(this, tag);
+  }
+
+  /**
+   * writes the encoded compound tag.
+   *
+   * @param tag the tag to write.
+   */
+  public final void writeCompoundTag(@NotNull final EncodedTag tag) {
+    tag.write(this);
   }
 
   /**
@@ -1216,6 +1626,58 @@ public class PacketBuffer {
     this.buffer.writeFloatLE((float) data);
   }
 
+  /**
+   * writes big-endian floats from the source.
+   *
+   * @param src the src to write.
+   * @param offset the offset of the src.
+   * @param length the element count to write.
+   */
+  public final void writeFloats(
+    final float@NotNull[] src,
+    final int offset,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(offset, length, src.length);
+    final var view = this.writeView(
+      Math.multiplyExact(length, Float.BYTES),
+      ByteOrder.BIG_ENDIAN
+    );
+    if (view != null) {
+      view.asFloatBuffer().put(src, offset, length);
+      return;
+    }
+    for (var index = offset; index < offset + length; index++) {
+      this.writeFloat(src[index]);
+    }
+  }
+
+  /**
+   * writes little-endian floats from the source.
+   *
+   * @param src the src to write.
+   * @param offset the offset of the src.
+   * @param length the element count to write.
+   */
+  public final void writeFloatsLE(
+    final float@NotNull[] src,
+    final int offset,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(offset, length, src.length);
+    final var view = this.writeView(
+      Math.multiplyExact(length, Float.BYTES),
+      ByteOrder.LITTLE_ENDIAN
+    );
+    if (view != null) {
+      view.asFloatBuffer().put(src, offset, length);
+      return;
+    }
+    for (var index = offset; index < offset + length; index++) {
+      this.writeFloatLE(src[index]);
+    }
+  }
+
   /**
    * writes an int to the packet.
    *
@@ -1234,6 +1696,58 @@ public class PacketBuffer {
     this.buffer.writeIntLE(data);
   }
 
+  /**
+   * writes big-endian ints from the source.
+   *
+   * @param src the src to write.
+   * @param offset the offset of the src.
+   * @param length the element count to write.
+   */
+  public final void writeInts(
+    final int@NotNull[] src,
+    final int offset,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(offset, length, src.length);
+    final var view = this.writeView(
+      Math.multiplyExact(length, Integer.BYTES),
+      ByteOrder.BIG_ENDIAN
+    );
+    if (view != null) {
+      view.asIntBuffer().put(src, offset, length);
+      return;
+    }
+    for (var index = offset; index < offset + length; index++) {
+      this.writeInt(src[index]);
+    }
+  }
+
+  /**
+   * writes little-endian ints from the source.
+   *
+   * @param src the src to write.
+   * @param offset the offset of the src.
+   * @param length the element count to write.
+   */
+  public final void writeIntsLE(
+    final int@NotNull[] src,
+    final int offset,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(offset, length, src.length);
+    final var view = this.writeView(
+      Math.multiplyExact(length, Integer.BYTES),
+      ByteOrder.LITTLE_ENDIAN
+    );
+    if (view != null) {
+      view.asIntBuffer().put(src, offset, length);
+      return;
+    }
+    for (var index = offset; index < offset + length; index++) {
+      this.writeIntLE(src[index]);
+    }
+  }
+
   /**
    * writes ascii string.
    *
@@ -1262,6 +1776,58 @@ public class PacketBuffer {
     this.buffer.writeLongLE(data);
   }
 
+  /**
+   * writes big-endian longs from the source.
+   *
+   * @param src the src to write.
+   * @param offset the offset of the src.
+   * @param length the element count to write.
+   */
+  public final void writeLongs(
+    final long@NotNull[] src,
+    final int offset,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(offset, length, src.length);
+    final var view = this.writeView(
+      Math.multiplyExact(length, Long.BYTES),
+      ByteOrder.BIG_ENDIAN
+    );
+    if (view != null) {
+      view.asLongBuffer().put(src, offset, length);
+      return;
+    }
+    for (var index = offset; index < offset + length; index++) {
+      this.writeLong(src[index]);
+    }
+  }
+
+  /**
+   * writes little-endian longs from the source.
+   *
+   * @param src the src to write.
+   * @param offset the offset of the src.
+   * @param length the element count to write.
+   */
+  public final void writeLongsLE(
+    final long@NotNull[] src,
+    final int offset,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(offset, length, src.length);
+    final var view = this.writeView(
+      Math.multiplyExact(length, Long.BYTES),
+      ByteOrder.LITTLE_ENDIAN
+    );
+    if (view != null) {
+      view.asLongBuffer().put(src, offset, length);
+      return;
+    }
+    for (var index = offset; index < offset + length; index++) {
+      this.writeLongLE(src[index]);
+    }
+  }
+
   /**
    * writes a short to the packet.
    *
@@ -1286,8 +1852,9 @@ public class PacketBuffer {
    * @param data the data to write.
    */
   public final void writeString(@NotNull final String data) {
-    this.writeVarInt(data.length());
-    this.writeBytes(data.getBytes(StandardCharsets.UTF_8));
+    final var length = ByteBufUtil.utf8Bytes(data);
+    this.writeVarInt(length);
+    ByteBufUtil.reserveAndWriteUtf8(this.buffer, data, length);
   }
 
   /**
@@ -1527,6 +2094,23 @@ public class PacketBuffer {
     this.encodeVarLong(((long) value << 1 ^ value >> 31) & 0xFFFFFFFFL);
   }
 
+  /**
+   * writes an unsigned var int length and the var ints of the source.
+   *
+   * @param src the src to write.
+   * @param length the element count to write.
+   */
+  public final void writeVarIntArray(
+    final int@NotNull[] src,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(0, length, src.length);
+    this.writeUnsignedVarInt(length);
+    for (var index = 0; index < length; index++) {
+      this.writeVarInt(src[index]);
+    }
+  }
+
   /**
    * writes the var long.
    *
@@ -1536,6 +2120,23 @@ public class PacketBuffer {
     this.encodeVarLong(value << 1 ^ value >> 63);
   }
 
+  /**
+   * writes an unsigned var int length and the var longs of the source.
+   *
+   * @param src the src to write.
+   * @param length the element count to write.
+   */
+  public final void writeVarLongArray(
+    final long@NotNull[] src,
+    final int length
+  ) {
+    Objects.checkFromIndexSize(0, length, src.length);
+    this.writeUnsignedVarInt(length);
+    for (var index = 0; index < length; index++) {
+      this.writeVarLong(src[index]);
+    }
+  }
+
   /**
    * writes the vector 2f.
    *
@@ -1635,4 +2236,73 @@ public class PacketBuffer {
       throw new IllegalArgumentException(e);
     }
   }
+
+  /**
+   * obtains a view of the next readable bytes and skips them.
+   *
+   * @param bytes the bytes to obtain.
+   * @param order the order of the view.
+   *
+   * @return view, {@code null} if the buffer is not backed by a single memory region.
+   *
+   * @throws IndexOutOfBoundsException if the buffer does not have enough readable bytes.
+   */
+  @Nullable
+  private ByteBuffer readView(
+    final int bytes,
+    @NotNull final ByteOrder order
+  ) {
+    if (this.buffer.readableBytes() < bytes) {
+      throw new IndexOutOfBoundsException(
+        "Needs %s readable bytes, has %s".formatted(
+            bytes,
+            this.buffer.readableBytes()
+          )
+      );
+    }
+    if (this.buffer.nioBufferCount() != 1) {
+      return null;
+    }
+    final var index = this.buffer.readerIndex();
+    final var view = this.buffer.nioBuffer(index, bytes).order(order);
+    this.buffer.readerIndex(index + bytes);
+    return view;
+  }
+
+  /**
+   * reserves the next writable bytes and obtains a view of them.
+   *
+   * @param bytes the bytes to reserve.
+   * @param order the order of the view.
+   *
+   * @return view, {@code null} if the buffer is not backed by a single memory region.
+   */
+  @Nullable
+  private ByteBuffer writeView(
+    final int bytes,
+    @NotNull final ByteOrder order
+  ) {
+    this.buffer.ensureWritable(bytes);
+    if (this.buffer.nioBufferCount() != 1) {
+      return null;
+    }
+    final var index = this.buffer.writerIndex();
+    final var view = this.buffer.nioBuffer(index, bytes).order(order);
+    this.buffer.writerIndex(index + bytes);
+    return view;
+  }
+
+  /**
+   * an interface to determine element readers of visitor-style array decoding.
+   */
+  @FunctionalInterface
+  public interface ElementReader {
+    /**
+     * reads the element.
+     *
+     * @param buffer the buffer to read.
+     * @param index the index of the element.
+     */
+    void read(@NotNull PacketBuffer buffer, int index);
+  }
 }
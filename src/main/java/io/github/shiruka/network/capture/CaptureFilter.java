@@ -0,0 +1,150 @@
+package io.github.shiruka.network.capture;
+
+import com.google.common.base.Preconditions;
+import com.google.common.net.InetAddresses;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ThreadLocalRandom;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a record class that represents filters of packet captures.
+ * <p>
+ * a datagram matches when the remote address is in the network and passes the sampling.
+ *
+ * @param network the network, {@code null} matches every address.
+ * @param prefixLength the prefix length of the network.
+ * @param sampleRate the rate of the matching datagrams to capture, between 0 and 1.
+ */
+public record CaptureFilter(
+  @Nullable InetAddress network,
+  int prefixLength,
+  double sampleRate
+) {
+  /**
+   * ctor.
+   *
+   * @param network the network.
+   * @param prefixLength the prefix length.
+   * @param sampleRate the sample rate.
+   */
+  public CaptureFilter {
+    Preconditions.checkArgument(
+      sampleRate >= 0.0d && sampleRate <= 1.0d,
+      "Sample rate must be between 0 and 1"
+    );
+    Preconditions.checkArgument(
+      prefixLength >= 0 &&
+      (network == null || prefixLength <= network.getAddress().length * 8),
+      "Invalid prefix length %s",
+      prefixLength
+    );
+  }
+
+  /**
+   * creates a filter that matches every address.
+   *
+   * @param sampleRate the sample rate to create.
+   *
+   * @return filter.
+   */
+  @NotNull
+  public static CaptureFilter all(final double sampleRate) {
+    return new CaptureFilter(null, 0, sampleRate);
+  }
+
+  /**
+   * creates a filter that matches a single address.
+   *
+   * @param address the address to create.
+   * @param sampleRate the sample rate to create.
+   *
+   * @return filter.
+   */
+  @NotNull
+  public static CaptureFilter address(
+    @NotNull final InetAddress address,
+    final double sampleRate
+  ) {
+    return new CaptureFilter(
+      address,
+      address.getAddress().length * 8,
+      sampleRate
+    );
+  }
+
+  /**
+   * creates a filter that matches a network, such as {@code 10.0.0.0/8}.
+   *
+   * @param cidr the cidr to create.
+   * @param sampleRate the sample rate to create.
+   *
+   * @return filter.
+   */
+  @NotNull
+  public static CaptureFilter cidr(
+    @NotNull final String cidr,
+    final double sampleRate
+  ) {
+    final var separator = cidr.indexOf('/');
+    Preconditions.checkArgument(separator > 0, "Invalid CIDR %s", cidr);
+    return new CaptureFilter(
+      InetAddresses.forString(cidr.substring(0, separator)),
+      Integer.parseInt(cidr.substring(separator + 1)),
+      sampleRate
+    );
+  }
+
+  /**
+   * checks if the datagram of the remote address should be captured.
+   *
+   * @param remote the remote to check.
+   *
+   * @return {@code true} if the datagram should be captured.
+   */
+  public boolean test(@NotNull final InetSocketAddress remote) {
+    if (
+      this.sampleRate < 1.0d &&
+      ThreadLocalRandom.current().nextDouble() >= this.sampleRate
+    ) {
+      return false;
+    }
+    if (this.network == null) {
+      return true;
+    }
+    final var address = remote.getAddress();
+    if (address == null) {
+      return false;
+    }
+    if (address instanceof Inet4Address) {
+      if (!(this.network instanceof Inet4Address)) {
+        return false;
+      }
+      // Inet4Address#hashCode is the address itself,
+      // so it skips the array copies of getAddress.
+      final var mask = this.prefixLength == 0
+        ? 0
+        : -1 << (32 - this.prefixLength);
+      return ((address.hashCode() ^ this.network.hashCode()) & mask) == 0;
+    }
+    final var bytes = address.getAddress();
+    final var networkBytes = this.network.getAddress();
+    if (bytes.length != networkBytes.length) {
+      return false;
+    }
+    final var fullBytes = this.prefixLength / 8;
+    for (var index = 0; index < fullBytes; index++) {
+      if (bytes[index] != networkBytes[index]) {
+        return false;
+      }
+    }
+    final var remainingBits = this.prefixLength % 8;
+    if (remainingBits == 0) {
+      return true;
+    }
+    final var mask = 0xFF << (8 - remainingBits);
+    return (bytes[fullBytes] & mask) == (networkBytes[fullBytes] & mask);
+  }
+}
@@ -0,0 +1,620 @@
+package io.github.shiruka.network.capture;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.socket.DatagramPacket;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents packet captures.
+ * <p>
+ * the datagrams which match the filter are copied into a preallocated off-heap ring by the event loops, a background
+ * thread drains the ring into a pcap file. a datagram is dropped and counted when the ring is full, so the memory of a
+ * capture is bounded by its ring and the files are bounded by the maximum file size.
+ * <p>
+ * the event loops reserve their records with a compare-and-set on the head and publish them by writing the record
+ * size last, so capturing never takes a lock. the writer thread drains the published records and zeroes them before
+ * it moves the tail.
+ * <p>
+ * set the capture to a {@link io.github.shiruka.network.channels.DatagramChannelProxy} to start capturing it:
+ * <pre>{@code
+ * channel.capture(new PacketCapture(Path.of("server.pcap"), CaptureFilter.cidr("10.0.0.0/8", 0.1d)));
+ * }</pre>
+ */
+@Accessors(fluent = true)
+public final class PacketCapture implements AutoCloseable {
+
+  /**
+   * the default max file size.
+   */
+  public static final long DEFAULT_MAX_FILE_SIZE = 64L * 1024L * 1024L;
+
+  /**
+   * the default ring capacity.
+   */
+  public static final int DEFAULT_RING_CAPACITY = 4 * 1024 * 1024;
+
+  /**
+   * the default snap length.
+   */
+  public static final int DEFAULT_SNAP_LENGTH = 1500;
+
+  /**
+   * the address size of records.
+   */
+  private static final int ADDRESS_SIZE = 16;
+
+  /**
+   * the alignment of records, no header field crosses the end of the ring.
+   */
+  private static final int ALIGNMENT = 8;
+
+  /**
+   * the offset of the destination address in records.
+   */
+  private static final int DESTINATION = 40;
+
+  /**
+   * the offset of the destination port in records.
+   */
+  private static final int DESTINATION_PORT = 36;
+
+  /**
+   * the idle park of the writer thread.
+   */
+  private static final long IDLE_PARK = TimeUnit.MILLISECONDS.toNanos(10L);
+
+  /**
+   * the int view of the ring, publishes the record sizes.
+   */
+  private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(
+    int[].class,
+    ByteOrder.BIG_ENDIAN
+  );
+
+  /**
+   * the offset of the ipv6 flag in records.
+   */
+  private static final int IPV6 = 56;
+
+  /**
+   * the long view of address bytes.
+   */
+  private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(
+    long[].class,
+    ByteOrder.BIG_ENDIAN
+  );
+
+  /**
+   * the offset of the micros in records.
+   */
+  private static final int MICROS = 8;
+
+  /**
+   * the offset of the original length in records.
+   */
+  private static final int ORIGINAL_LENGTH = 4;
+
+  /**
+   * the header size of records.
+   * <p>
+   * the padded record size, the original length, the micros, the source, the source port, the destination port, the
+   * destination and the ipv6 flag, every field is aligned to its own size.
+   */
+  private static final int RECORD_HEADER_SIZE = 64;
+
+  /**
+   * the offset of the source address in records.
+   */
+  private static final int SOURCE = 16;
+
+  /**
+   * the offset of the source port in records.
+   */
+  private static final int SOURCE_PORT = 32;
+
+  /**
+   * the wall clock micros when the capture started.
+   */
+  private final long baseMicros = TimeUnit.MILLISECONDS.toMicros(
+    System.currentTimeMillis()
+  );
+
+  /**
+   * the nano time when the capture started.
+   */
+  private final long baseNanos = System.nanoTime();
+
+  /**
+   * the capacity.
+   */
+  private final int capacity;
+
+  /**
+   * the captured datagrams.
+   */
+  @NotNull
+  private final LongAdder captured = new LongAdder();
+
+  /**
+   * the dropped datagrams.
+   */
+  @NotNull
+  private final LongAdder dropped = new LongAdder();
+
+  /**
+   * the filter.
+   */
+  @NotNull
+  @Getter
+  private final CaptureFilter filter;
+
+  /**
+   * the position of the next record.
+   */
+  @NotNull
+  private final AtomicLong head = new AtomicLong();
+
+  /**
+   * the ring.
+   */
+  @NotNull
+  private final ByteBuffer ring;
+
+  /**
+   * the copy of the drained records.
+   */
+  @NotNull
+  private final ByteBuffer scratch;
+
+  /**
+   * the snap length.
+   */
+  private final int snapLength;
+
+  /**
+   * the thread.
+   */
+  @NotNull
+  private final Thread thread;
+
+  /**
+   * the writer.
+   */
+  @NotNull
+  private final PcapWriter writer;
+
+  /**
+   * the failure of the writer thread.
+   */
+  @Nullable
+  @Getter
+  private volatile IOException failure;
+
+  /**
+   * the running.
+   */
+  private volatile boolean running = true;
+
+  /**
+   * the position of the first record which is not drained, written by the writer thread only.
+   */
+  private volatile long tail;
+
+  /**
+   * ctor.
+   *
+   * @param file the file.
+   * @param filter the filter.
+   *
+   * @throws IOException if the file can not be opened.
+   */
+  public PacketCapture(
+    @NotNull final Path file,
+    @NotNull final CaptureFilter filter
+  ) throws IOException {
+    this(
+      file,
+      filter,
+      PacketCapture.DEFAULT_RING_CAPACITY,
+      PacketCapture.DEFAULT_SNAP_LENGTH,
+      PacketCapture.DEFAULT_MAX_FILE_SIZE
+    );
+  }
+
+  /**
+   * ctor.
+   *
+   * @param file the file.
+   * @param filter the filter.
+   * @param ringCapacity the ring capacity, rounded down to a multiple of 8.
+   * @param snapLength the snap length.
+   * @param maxFileSize the max file size.
+   *
+   * @throws IOException if the file can not be opened.
+   */
+  public PacketCapture(
+    @NotNull final Path file,
+    @NotNull final CaptureFilter filter,
+    final int ringCapacity,
+    final int snapLength,
+    final long maxFileSize
+  ) throws IOException {
+    Preconditions.checkArgument(
+      snapLength > 0 && snapLength <= 0xFFFF,
+      "Snap length must be between 1 and 65535"
+    );
+    final var capacity = ringCapacity & -PacketCapture.ALIGNMENT;
+    Preconditions.checkArgument(
+      capacity >= PacketCapture.recordSize(snapLength),
+      "Ring capacity must fit a record of the snap length"
+    );
+    this.filter = filter;
+    this.capacity = capacity;
+    this.snapLength = snapLength;
+    this.ring =
+      ByteBuffer
+        .allocateDirect(capacity + PacketCapture.ALIGNMENT)
+        .alignedSlice(PacketCapture.ALIGNMENT)
+        .limit(capacity)
+        .slice();
+    this.scratch = ByteBuffer.allocateDirect(capacity);
+    this.writer = new PcapWriter(file, snapLength, maxFileSize);
+    this.thread = new Thread(this::run, "rn-capture");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * checks if the address is an ipv6 address.
+   *
+   * @param address the address to check.
+   *
+   * @return {@code true} if the address is an ipv6 address.
+   */
+  private static boolean isIpv6(@Nullable final SocketAddress address) {
+    return (
+      address instanceof InetSocketAddress inet &&
+      inet.getAddress() instanceof Inet6Address
+    );
+  }
+
+  /**
+   * obtains the port.
+   *
+   * @param address the address to obtain.
+   *
+   * @return port.
+   */
+  private static int port(@Nullable final SocketAddress address) {
+    return address instanceof InetSocketAddress inet ? inet.getPort() : 0;
+  }
+
+  /**
+   * obtains the padded size of a record.
+   *
+   * @param captured the captured payload length.
+   *
+   * @return record size.
+   */
+  private static int recordSize(final int captured) {
+    final var size = PacketCapture.RECORD_HEADER_SIZE + captured;
+    return (size + PacketCapture.ALIGNMENT - 1) & -PacketCapture.ALIGNMENT;
+  }
+
+  /**
+   * obtains the captured datagrams.
+   *
+   * @return captured datagrams.
+   */
+  public long captured() {
+    return this.captured.sum();
+  }
+
+  /**
+   * stops the capture, writes the remaining records and closes the file.
+   *
+   * @throws InterruptedException if the thread is interrupted while waiting the writer thread.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    this.running = false;
+    LockSupport.unpark(this.thread);
+    this.thread.join();
+  }
+
+  /**
+   * obtains the dropped datagrams.
+   *
+   * @return dropped datagrams.
+   */
+  public long dropped() {
+    return this.dropped.sum();
+  }
+
+  /**
+   * captures the inbound datagram if it matches the filter.
+   *
+   * @param datagram the datagram to capture.
+   * @param local the local address of the channel.
+   */
+  public void inbound(
+    @NotNull final DatagramPacket datagram,
+    @Nullable final SocketAddress local
+  ) {
+    final var sender = datagram.sender();
+    if (sender == null || !this.running || !this.filter.test(sender)) {
+      return;
+    }
+    final var recipient = datagram.recipient();
+    this.record(
+        sender,
+        recipient == null ? local : recipient,
+        datagram.content()
+      );
+  }
+
+  /**
+   * captures the outbound datagram if it matches the filter.
+   *
+   * @param datagram the datagram to capture.
+   * @param local the local address of the channel.
+   */
+  public void outbound(
+    @NotNull final DatagramPacket datagram,
+    @Nullable final SocketAddress local
+  ) {
+    final var recipient = datagram.recipient();
+    if (recipient == null || !this.running || !this.filter.test(recipient)) {
+      return;
+    }
+    final var sender = datagram.sender();
+    this.record(
+        sender == null ? local : sender,
+        recipient,
+        datagram.content()
+      );
+  }
+
+  /**
+   * copies the records between the positions into the scratch.
+   *
+   * @param start the start to copy.
+   * @param end the end to copy.
+   */
+  private void copy(final long start, final long end) {
+    final var length = (int) (end - start);
+    final var index = this.index(start);
+    final var first = Math.min(length, this.capacity - index);
+    this.scratch.clear();
+    this.scratch.put(0, this.ring, index, first);
+    if (first < length) {
+      this.scratch.put(first, this.ring, 0, length - first);
+    }
+    this.scratch.limit(length);
+  }
+
+  /**
+   * drains the published records of the ring into the file.
+   *
+   * @return {@code true} if any record is drained.
+   *
+   * @throws IOException if the records can not be written.
+   */
+  private boolean drain() throws IOException {
+    final var start = this.tail;
+    var end = start;
+    while (end - start < this.capacity) {
+      final var size = (int) PacketCapture.INTS.getAcquire(
+        this.ring,
+        this.index(end)
+      );
+      if (size == 0) {
+        break;
+      }
+      end += size;
+    }
+    if (start == end) {
+      return false;
+    }
+    this.copy(start, end);
+    // a zero size marks the space as unpublished when producers reuse it.
+    for (var position = start; position < end; position += 8L) {
+      this.ring.putLong(this.index(position), 0L);
+    }
+    this.tail = end;
+    final var source4 = new byte[4];
+    final var source6 = new byte[PacketCapture.ADDRESS_SIZE];
+    final var destination4 = new byte[4];
+    final var destination6 = new byte[PacketCapture.ADDRESS_SIZE];
+    var position = 0;
+    while (position < this.scratch.limit()) {
+      final var size = this.scratch.getInt(position);
+      final var original = this.scratch.getInt(
+        position + PacketCapture.ORIGINAL_LENGTH
+      );
+      final var ipv6 = this.scratch.get(position + PacketCapture.IPV6) != 0;
+      final var source = ipv6 ? source6 : source4;
+      final var destination = ipv6 ? destination6 : destination4;
+      this.scratch.get(position + PacketCapture.SOURCE, source);
+      this.scratch.get(position + PacketCapture.DESTINATION, destination);
+      this.writer.write(
+          this.scratch.getLong(position + PacketCapture.MICROS),
+          ipv6,
+          source,
+          this.scratch.getInt(position + PacketCapture.SOURCE_PORT),
+          destination,
+          this.scratch.getInt(position + PacketCapture.DESTINATION_PORT),
+          original,
+          this.scratch.slice(
+              position + PacketCapture.RECORD_HEADER_SIZE,
+              Math.min(original, this.snapLength)
+            )
+        );
+      position += size;
+    }
+    return true;
+  }
+
+  /**
+   * obtains the ring index of the position.
+   *
+   * @param position the position to obtain.
+   *
+   * @return ring index.
+   */
+  private int index(final long position) {
+    return (int) (position % this.capacity);
+  }
+
+  /**
+   * puts the address into the record as 16 bytes, maps ipv4 addresses when the record is ipv6.
+   * <p>
+   * ipv4 addresses are read from {@link Inet4Address#hashCode()}, which is the address itself, so they skip the array
+   * copy of {@link java.net.InetAddress#getAddress()}.
+   *
+   * @param position the position of the address.
+   * @param address the address to put.
+   * @param ipv6 the ipv6 to put.
+   */
+  private void putAddress(
+    final long position,
+    @Nullable final SocketAddress address,
+    final boolean ipv6
+  ) {
+    final var inet = address instanceof InetSocketAddress socket
+      ? socket.getAddress()
+      : null;
+    final long high;
+    final long low;
+    if (inet == null || inet instanceof Inet4Address) {
+      final var bits = inet == null ? 0L : inet.hashCode() & 0xFFFFFFFFL;
+      if (!ipv6) {
+        this.ring.putInt(this.index(position), (int) bits);
+        return;
+      }
+      high = 0L;
+      low = 0xFFFF_0000_0000L | bits;
+    } else {
+      final var bytes = inet.getAddress();
+      high = (long) PacketCapture.LONGS.get(bytes, 0);
+      low = (long) PacketCapture.LONGS.get(bytes, 8);
+    }
+    this.ring.putLong(this.index(position), high);
+    this.ring.putLong(this.index(position + 8L), low);
+  }
+
+  /**
+   * puts the buffer into the ring.
+   *
+   * @param position the position to put.
+   * @param buffer the buffer to put.
+   */
+  private void put(final long position, @NotNull final ByteBuffer buffer) {
+    final var length = buffer.remaining();
+    final var index = this.index(position);
+    final var first = Math.min(length, this.capacity - index);
+    this.ring.put(index, buffer, buffer.position(), first);
+    if (first < length) {
+      this.ring.put(0, buffer, buffer.position() + first, length - first);
+    }
+  }
+
+  /**
+   * copies the datagram into the ring.
+   *
+   * @param source the source to copy.
+   * @param destination the destination to copy.
+   * @param content the content to copy.
+   */
+  private void record(
+    @Nullable final SocketAddress source,
+    @Nullable final SocketAddress destination,
+    @NotNull final ByteBuf content
+  ) {
+    final var original = content.readableBytes();
+    final var captured = Math.min(original, this.snapLength);
+    final var size = PacketCapture.recordSize(captured);
+    final var ipv6 =
+      PacketCapture.isIpv6(source) || PacketCapture.isIpv6(destination);
+    final var micros =
+      this.baseMicros +
+      TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - this.baseNanos);
+    long position;
+    do {
+      position = this.head.get();
+      if (this.capacity - (position - this.tail) < size) {
+        this.dropped.increment();
+        return;
+      }
+    } while (!this.head.compareAndSet(position, position + size));
+    // the space is owned until the size is published below.
+    this.ring.putInt(
+        this.index(position + PacketCapture.ORIGINAL_LENGTH),
+        original
+      );
+    this.ring.putLong(this.index(position + PacketCapture.MICROS), micros);
+    this.putAddress(position + PacketCapture.SOURCE, source, ipv6);
+    this.ring.putInt(
+        this.index(position + PacketCapture.SOURCE_PORT),
+        PacketCapture.port(source)
+      );
+    this.ring.putInt(
+        this.index(position + PacketCapture.DESTINATION_PORT),
+        PacketCapture.port(destination)
+      );
+    this.putAddress(position + PacketCapture.DESTINATION, destination, ipv6);
+    this.ring.put(
+        this.index(position + PacketCapture.IPV6),
+        (byte) (ipv6 ? 1 : 0)
+      );
+    this.put(
+        position + PacketCapture.RECORD_HEADER_SIZE,
+        content.nioBuffer(content.readerIndex(), captured)
+      );
+    PacketCapture.INTS.setRelease(this.ring, this.index(position), size);
+    this.captured.increment();
+  }
+
+  /**
+   * drains the ring until the capture is closed.
+   */
+  private void run() {
+    try {
+      while (this.running) {
+        if (!this.drain()) {
+          LockSupport.parkNanos(this, PacketCapture.IDLE_PARK);
+        }
+      }
+      this.drain();
+    } catch (final IOException e) {
+      this.failure = e;
+      this.running = false;
+    } finally {
+      try {
+        this.writer.close();
+      } catch (final IOException e) {
+        if (this.failure == null) {
+          this.failure = e;
+        }
+      }
+    }
+  }
+}
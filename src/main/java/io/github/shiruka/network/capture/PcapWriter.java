@@ -0,0 +1,320 @@
+package io.github.shiruka.network.capture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents writers of pcap files with raw ip link types.
+ * <p>
+ * every datagram gets an ipv4 or an ipv6 header and a udp header, the udp checksum is computed over the pseudo-header
+ * when the whole payload is captured. the file is moved to {@code <file>.1} when it reaches the maximum size, so at
+ * most two files are kept.
+ */
+final class PcapWriter implements AutoCloseable {
+
+  /**
+   * the ipv4 header size.
+   */
+  static final int IPV4_HEADER_SIZE = 20;
+
+  /**
+   * the ipv6 header size.
+   */
+  static final int IPV6_HEADER_SIZE = 40;
+
+  /**
+   * the udp header size.
+   */
+  static final int UDP_HEADER_SIZE = 8;
+
+  /**
+   * the raw ip link type.
+   */
+  private static final int LINKTYPE_RAW = 101;
+
+  /**
+   * the pcap magic of microsecond timestamps.
+   */
+  private static final int MAGIC = 0xA1B2C3D4;
+
+  /**
+   * the record header size.
+   */
+  private static final int RECORD_HEADER_SIZE = 16;
+
+  /**
+   * the udp protocol number.
+   */
+  private static final int UDP = 17;
+
+  /**
+   * the file.
+   */
+  @NotNull
+  private final Path file;
+
+  /**
+   * the max file size.
+   */
+  private final long maxFileSize;
+
+  /**
+   * the packet buffer.
+   */
+  @NotNull
+  private final ByteBuffer packet;
+
+  /**
+   * the snap length.
+   */
+  private final int snapLength;
+
+  /**
+   * the channel.
+   */
+  @NotNull
+  private FileChannel channel;
+
+  /**
+   * the written bytes of the current file.
+   */
+  private long written;
+
+  /**
+   * ctor.
+   *
+   * @param file the file.
+   * @param snapLength the snap length.
+   * @param maxFileSize the max file size.
+   *
+   * @throws IOException if the file can not be opened.
+   */
+  PcapWriter(
+    @NotNull final Path file,
+    final int snapLength,
+    final long maxFileSize
+  ) throws IOException {
+    this.file = file;
+    this.snapLength = snapLength;
+    this.maxFileSize = maxFileSize;
+    this.packet =
+      ByteBuffer.allocate(
+        PcapWriter.RECORD_HEADER_SIZE +
+        PcapWriter.IPV6_HEADER_SIZE +
+        PcapWriter.UDP_HEADER_SIZE +
+        snapLength
+      );
+    this.channel = this.open();
+  }
+
+  /**
+   * adds the bytes to the ones' complement sum.
+   *
+   * @param sum the sum to add.
+   * @param buffer the buffer to add.
+   * @param offset the offset to add.
+   * @param length the length to add.
+   *
+   * @return sum.
+   */
+  private static long checksum(
+    final long sum,
+    @NotNull final ByteBuffer buffer,
+    final int offset,
+    final int length
+  ) {
+    var result = sum;
+    var index = offset;
+    final var end = offset + length;
+    for (; index + 1 < end; index += 2) {
+      result += buffer.getShort(index) & 0xFFFF;
+    }
+    if (index < end) {
+      result += (buffer.get(index) & 0xFF) << 8;
+    }
+    return result;
+  }
+
+  /**
+   * folds the ones' complement sum.
+   *
+   * @param sum the sum to fold.
+   *
+   * @return checksum.
+   */
+  private static int fold(final long sum) {
+    var result = sum;
+    while ((result >>> 16) != 0) {
+      result = (result & 0xFFFF) + (result >>> 16);
+    }
+    return (int) ~result & 0xFFFF;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  /**
+   * writes the datagram.
+   *
+   * @param micros the micros of the capture time.
+   * @param ipv6 the ipv6 to write.
+   * @param source the 4 or 16 bytes source address.
+   * @param sourcePort the source port.
+   * @param destination the 4 or 16 bytes destination address.
+   * @param destinationPort the destination port.
+   * @param originalLength the original payload length.
+   * @param payload the captured payload.
+   *
+   * @throws IOException if the datagram can not be written.
+   */
+  void write(
+    final long micros,
+    final boolean ipv6,
+    final byte@NotNull[] source,
+    final int sourcePort,
+    final byte@NotNull[] destination,
+    final int destinationPort,
+    final int originalLength,
+    @NotNull final ByteBuffer payload
+  ) throws IOException {
+    final var captured = Math.min(payload.remaining(), this.snapLength);
+    final var ipHeaderSize = ipv6
+      ? PcapWriter.IPV6_HEADER_SIZE
+      : PcapWriter.IPV4_HEADER_SIZE;
+    final var udpLength = PcapWriter.UDP_HEADER_SIZE + originalLength;
+    final var buffer = this.packet.clear().order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt((int) (micros / 1_000_000L));
+    buffer.putInt((int) (micros % 1_000_000L));
+    buffer.putInt(ipHeaderSize + PcapWriter.UDP_HEADER_SIZE + captured);
+    buffer.putInt(ipHeaderSize + udpLength);
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    final var ipStart = buffer.position();
+    if (ipv6) {
+      buffer.putInt(0x60000000);
+      buffer.putShort((short) udpLength);
+      buffer.put((byte) PcapWriter.UDP);
+      buffer.put((byte) 64);
+      buffer.put(source);
+      buffer.put(destination);
+    } else {
+      buffer.put((byte) 0x45);
+      buffer.put((byte) 0);
+      buffer.putShort(
+        (short) Math.min(0xFFFF, PcapWriter.IPV4_HEADER_SIZE + udpLength)
+      );
+      buffer.putInt(0x00004000);
+      buffer.put((byte) 64);
+      buffer.put((byte) PcapWriter.UDP);
+      buffer.putShort((short) 0);
+      buffer.put(source);
+      buffer.put(destination);
+      buffer.putShort(
+        ipStart + 10,
+        (short) PcapWriter.fold(
+          PcapWriter.checksum(0L, buffer, ipStart, PcapWriter.IPV4_HEADER_SIZE)
+        )
+      );
+    }
+    final var udpStart = buffer.position();
+    buffer.putShort((short) sourcePort);
+    buffer.putShort((short) destinationPort);
+    buffer.putShort((short) udpLength);
+    buffer.putShort((short) 0);
+    buffer.put(buffer.position(), payload, payload.position(), captured);
+    buffer.position(buffer.position() + captured);
+    if (captured == originalLength) {
+      final var addressOffset = ipv6 ? 8 : 12;
+      final var addressLength = source.length * 2;
+      var sum = PcapWriter.checksum(
+        0L,
+        buffer,
+        ipStart + addressOffset,
+        addressLength
+      );
+      sum += PcapWriter.UDP + udpLength;
+      sum =
+        PcapWriter.checksum(
+          sum,
+          buffer,
+          udpStart,
+          PcapWriter.UDP_HEADER_SIZE + captured
+        );
+      final var checksum = PcapWriter.fold(sum);
+      // a zero checksum means no checksum, so it is sent as all ones.
+      buffer.putShort(
+        udpStart + 6,
+        (short) (checksum == 0 ? 0xFFFF : checksum)
+      );
+    }
+    buffer.flip();
+    final var size = buffer.remaining();
+    if (this.written + size > this.maxFileSize) {
+      this.rotate();
+    }
+    while (buffer.hasRemaining()) {
+      this.channel.write(buffer);
+    }
+    this.written += size;
+  }
+
+  /**
+   * opens the file and writes the global header.
+   *
+   * @return channel.
+   *
+   * @throws IOException if the file can not be opened.
+   */
+  @NotNull
+  private FileChannel open() throws IOException {
+    final var opened = FileChannel.open(
+      this.file,
+      StandardOpenOption.CREATE,
+      StandardOpenOption.TRUNCATE_EXISTING,
+      StandardOpenOption.WRITE
+    );
+    final var header = ByteBuffer
+      .allocate(24)
+      .order(ByteOrder.LITTLE_ENDIAN)
+      .putInt(PcapWriter.MAGIC)
+      .putShort((short) 2)
+      .putShort((short) 4)
+      .putInt(0)
+      .putInt(0)
+      .putInt(
+        this.snapLength +
+        PcapWriter.IPV6_HEADER_SIZE +
+        PcapWriter.UDP_HEADER_SIZE
+      )
+      .putInt(PcapWriter.LINKTYPE_RAW)
+      .flip();
+    while (header.hasRemaining()) {
+      opened.write(header);
+    }
+    this.written = header.limit();
+    return opened;
+  }
+
+  /**
+   * moves the current file to the previous file and opens a new one.
+   *
+   * @throws IOException if the file can not be rotated.
+   */
+  private void rotate() throws IOException {
+    this.channel.close();
+    Files.move(
+      this.file,
+      this.file.resolveSibling(this.file.getFileName() + ".1"),
+      StandardCopyOption.REPLACE_EXISTING
+    );
+    this.channel = this.open();
+  }
+}
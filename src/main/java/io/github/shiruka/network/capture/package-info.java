@@ -0,0 +1,4 @@
+/**
+ * the package that contains packet capture classes.
+ */
+package io.github.shiruka.network.capture;
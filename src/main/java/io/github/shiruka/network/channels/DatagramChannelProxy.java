@@ -1,5 +1,6 @@
 package io.github.shiruka.network.channels;
 
+import io.github.shiruka.network.capture.PacketCapture;
 import io.github.shiruka.network.options.RakNetConfig;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
@@ -15,6 +16,7 @@ import io.netty.channel.ChannelPromise;
 import io.netty.channel.DefaultChannelPipeline;
 import io.netty.channel.EventLoop;
 import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.DatagramPacket;
 import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.util.Attribute;
 import io.netty.util.AttributeKey;
@@ -24,8 +26,10 @@ import java.net.SocketAddress;
 import java.nio.channels.ClosedChannelException;
 import java.util.function.Supplier;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * an abstract class that represents proxy datagram channels.
@@ -44,6 +48,14 @@ public abstract class DatagramChannelProxy implements Channel {
   @Getter
   private final RakNetConfig config;
 
+  /**
+   * the packet capture of the datagrams, {@code null} if the channel is not captured.
+   */
+  @Nullable
+  @Getter
+  @Setter
+  private volatile PacketCapture capture;
+
   /**
    * the parent.
    */
@@ -436,6 +448,10 @@ public abstract class DatagramChannelProxy implements Channel {
 
     @Override
     public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+      final var capture = this.channel.capture;
+      if (capture != null && msg instanceof DatagramPacket datagram) {
+        capture.inbound(datagram, this.channel.parent().localAddress());
+      }
       this.channel.pipeline().fireChannelRead(msg);
     }
 
@@ -539,6 +555,10 @@ public abstract class DatagramChannelProxy implements Channel {
       final Object msg,
       final ChannelPromise promise
     ) {
+      final var capture = this.channel.capture;
+      if (capture != null && msg instanceof DatagramPacket datagram) {
+        capture.outbound(datagram, this.channel.parent().localAddress());
+      }
       this.channel.parent().write(msg, this.channel.wrapPromise(promise));
     }
 
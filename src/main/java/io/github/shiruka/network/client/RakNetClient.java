@@ -0,0 +1,61 @@
+package io.github.shiruka.network.client;
+
+import io.github.shiruka.network.client.channels.RakNetClientChannel;
+import io.github.shiruka.network.pipelines.BaseConnectionInitializer;
+import io.github.shiruka.network.pipelines.FlushTickHandler;
+import io.github.shiruka.network.pipelines.PacketHandling;
+import io.github.shiruka.network.pipelines.RawPacketCodec;
+import io.github.shiruka.network.pipelines.ReliableFrameHandling;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * an interface to determine rak net clients.
+ */
+public interface RakNetClient {
+  /**
+   * the rak net client channel.
+   */
+  @NotNull
+  Class<RakNetClientChannel> CHANNEL = RakNetClientChannel.class;
+
+  /**
+   * casts the context's channel as rak net client channel.
+   *
+   * @param ctx the ctx to cast.
+   *
+   * @return context's channel as rak net client channel.
+   */
+  @NotNull
+  static RakNetClientChannel cast(@NotNull final ChannelHandlerContext ctx) {
+    return (RakNetClientChannel) ctx.channel();
+  }
+
+  /**
+   * a class that represents default client initializers.
+   */
+  final class DefaultClientInitializer extends ChannelInitializer<Channel> {
+
+    /**
+     * the instance.
+     */
+    public static final ChannelInitializer<Channel> INSTANCE = new DefaultClientInitializer();
+
+    @Override
+    protected void initChannel(final Channel channel) {
+      channel
+        .pipeline()
+        .addLast(FlushTickHandler.NAME, new FlushTickHandler())
+        .addLast(RawPacketCodec.NAME, RawPacketCodec.INSTANCE)
+        .addLast(ReliableFrameHandling.INSTANCE)
+        .addLast(PacketHandling.INSTANCE)
+        .addLast(
+          BaseConnectionInitializer.NAME,
+          new ChannelInboundHandlerAdapter()
+        );
+    }
+  }
+}
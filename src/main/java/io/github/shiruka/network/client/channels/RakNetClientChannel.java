@@ -0,0 +1,217 @@
+package io.github.shiruka.network.client.channels;
+
+import com.google.common.base.Preconditions;
+import io.github.shiruka.network.channels.DatagramChannelProxy;
+import io.github.shiruka.network.client.RakNetClient;
+import io.github.shiruka.network.client.pipelines.ConnectionInitializer;
+import io.github.shiruka.network.jfr.ConnectionCloseEvent;
+import io.github.shiruka.network.options.RakNetChannelOptions;
+import io.github.shiruka.network.pipelines.BaseConnectionInitializer;
+import io.github.shiruka.network.stats.ConnectionStats;
+import io.github.shiruka.network.stats.RakNetMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.function.Supplier;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents rak net client channels.
+ * <p>
+ * connecting the channel connects the datagram channel and runs the offline and the online handshakes, the connect
+ * future completes and the channel becomes active once the server handshake is answered.
+ */
+public class RakNetClientChannel extends DatagramChannelProxy {
+
+  /**
+   * the default protocol version.
+   */
+  public static final int DEFAULT_PROTOCOL_VERSION = 10;
+
+  /**
+   * the connect promise.
+   */
+  @NotNull
+  private final ChannelPromise connectPromise;
+
+  /**
+   * ctor.
+   */
+  public RakNetClientChannel() {
+    this(NioDatagramChannel.class);
+  }
+
+  /**
+   * ctor.
+   *
+   * @param supplier the supplier.
+   */
+  public RakNetClientChannel(
+    @NotNull final Supplier<? extends DatagramChannel> supplier
+  ) {
+    super(supplier);
+    this.connectPromise = this.newPromise();
+    this.addDefaultPipeline();
+  }
+
+  /**
+   * ctor.
+   *
+   * @param cls the cls.
+   */
+  public RakNetClientChannel(
+    @NotNull final Class<? extends DatagramChannel> cls
+  ) {
+    super(cls);
+    this.connectPromise = this.newPromise();
+    this.addDefaultPipeline();
+  }
+
+  @Override
+  public boolean isActive() {
+    return super.isActive() && this.connectPromise.isSuccess();
+  }
+
+  @Override
+  public boolean isWritable() {
+    final var result = this.attr(RakNetChannelOptions.WRITABLE).get();
+    return (result == null || result) && super.isWritable();
+  }
+
+  /**
+   * takes a snapshot of the connection statistics, can be called from any thread.
+   *
+   * @return connection stats.
+   */
+  @NotNull
+  public ConnectionStats.Snapshot stats() {
+    return this.config().stats().snapshot();
+  }
+
+  /**
+   * adds the default pipeline.
+   */
+  private void addDefaultPipeline() {
+    this.config()
+      .protocolVersion(RakNetClientChannel.DEFAULT_PROTOCOL_VERSION)
+      .metrics(RakNetMetrics.shared());
+    this.pipeline()
+      .addLast(new ClientHandler(this))
+      .addLast(RakNetClient.DefaultClientInitializer.INSTANCE);
+    this.connectPromise.addListener(future -> {
+        if (!future.isSuccess()) {
+          ConnectionCloseEvent.cause(
+            this,
+            future.cause() instanceof ConnectTimeoutException
+              ? ConnectionCloseEvent.Cause.HANDSHAKE_TIMEOUT
+              : ConnectionCloseEvent.Cause.HANDSHAKE_FAILED
+          );
+          this.close();
+        }
+      });
+    this.closeFuture().addListener(future -> ConnectionCloseEvent.commit(this));
+  }
+
+  /**
+   * a class that represents client handlers.
+   * <p>
+   * unwraps the datagrams of the server and wraps the outbound buffers into datagrams to the server.
+   */
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  private static final class ClientHandler extends ChannelDuplexHandler {
+
+    /**
+     * the channel.
+     */
+    @NotNull
+    private final RakNetClientChannel channel;
+
+    @Override
+    public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+      if (!(msg instanceof DatagramPacket datagram)) {
+        ctx.fireChannelRead(msg);
+        return;
+      }
+      try {
+        final var sender = datagram.sender();
+        if (sender == null || sender.equals(this.channel.remoteAddress())) {
+          ctx.fireChannelRead(datagram.content().retain());
+        }
+      } finally {
+        datagram.release();
+      }
+    }
+
+    @Override
+    public void connect(
+      final ChannelHandlerContext ctx,
+      final SocketAddress remoteAddress,
+      final SocketAddress localAddress,
+      final ChannelPromise promise
+    ) {
+      try {
+        Preconditions.checkArgument(
+          remoteAddress instanceof InetSocketAddress,
+          "Provided remote address is not an InetSocketAddress"
+        );
+        Preconditions.checkState(
+          !this.channel.parent().isActive(),
+          "Channel is already connected"
+        );
+      } catch (final RuntimeException e) {
+        promise.tryFailure(e);
+        return;
+      }
+      final var connectPromise = this.channel.connectPromise;
+      connectPromise.addListener(future -> {
+        if (future.isSuccess()) {
+          promise.trySuccess();
+        } else {
+          promise.tryFailure(future.cause());
+        }
+      });
+      ctx
+        .connect(remoteAddress, localAddress)
+        .addListener(future -> {
+          if (!future.isSuccess()) {
+            connectPromise.tryFailure(future.cause());
+            return;
+          }
+          this.channel.pipeline()
+            .replace(
+              BaseConnectionInitializer.NAME,
+              BaseConnectionInitializer.NAME,
+              new ConnectionInitializer(connectPromise)
+            );
+        });
+    }
+
+    @Override
+    public void write(
+      final ChannelHandlerContext ctx,
+      final Object msg,
+      final ChannelPromise promise
+    ) {
+      if (msg instanceof ByteBuf buffer) {
+        ctx.write(
+          new DatagramPacket(
+            buffer,
+            (InetSocketAddress) this.channel.remoteAddress()
+          ),
+          promise
+        );
+      } else {
+        ctx.write(msg, promise);
+      }
+    }
+  }
+}
@@ -0,0 +1,4 @@
+/**
+ * the package that contains client channel classes.
+ */
+package io.github.shiruka.network.client.channels;
@@ -0,0 +1,212 @@
+package io.github.shiruka.network.client.pipelines;
+
+import io.github.shiruka.network.Constants;
+import io.github.shiruka.network.Packet;
+import io.github.shiruka.network.jfr.ConnectionCloseEvent;
+import io.github.shiruka.network.options.RakNetConfig;
+import io.github.shiruka.network.packets.AlreadyConnected;
+import io.github.shiruka.network.packets.ClientHandshake;
+import io.github.shiruka.network.packets.ConnectionBanned;
+import io.github.shiruka.network.packets.ConnectionFailed;
+import io.github.shiruka.network.packets.ConnectionReply1;
+import io.github.shiruka.network.packets.ConnectionReply2;
+import io.github.shiruka.network.packets.ConnectionRequest;
+import io.github.shiruka.network.packets.ConnectionRequest1;
+import io.github.shiruka.network.packets.ConnectionRequest2;
+import io.github.shiruka.network.packets.InvalidVersion;
+import io.github.shiruka.network.packets.NoFreeConnections;
+import io.github.shiruka.network.packets.ServerHandshake;
+import io.github.shiruka.network.pipelines.BaseConnectionInitializer;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import java.net.InetSocketAddress;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents client connection initializer pipelines.
+ * <p>
+ * discovers the mtu by sending padded connection request 1 packets of descending sizes, a size is tried a few times
+ * before the next one. the reply of the server sets the mtu, then the connection request 2 and the connection request
+ * are sent and the connection finishes once the server handshake is answered.
+ */
+public final class ConnectionInitializer extends BaseConnectionInitializer {
+
+  /**
+   * the attempts of each mtu size.
+   */
+  private static final int MTU_ATTEMPTS = 4;
+
+  /**
+   * the mtu sizes to discover.
+   */
+  private static final int[] MTU_SIZES = { 1492, 1200, 576 };
+
+  /**
+   * the sent connection request 1 packets.
+   */
+  private int attempts;
+
+  /**
+   * the cookie of the stateless handshake, {@code -1} if the server does not use one.
+   */
+  private int cookie = -1;
+
+  /**
+   * the sent connection request.
+   */
+  private boolean requestSent;
+
+  /**
+   * ctor.
+   *
+   * @param connectPromise the connect promise.
+   */
+  public ConnectionInitializer(@NotNull final ChannelPromise connectPromise) {
+    super(connectPromise);
+  }
+
+  /**
+   * obtains the mtu of the connection request 1 attempt.
+   *
+   * @param config the config to obtain.
+   * @param attempt the attempt to obtain.
+   *
+   * @return mtu.
+   */
+  private static int discoveryMtu(
+    @NotNull final RakNetConfig config,
+    final int attempt
+  ) {
+    final var index = Math.min(
+      attempt / ConnectionInitializer.MTU_ATTEMPTS,
+      ConnectionInitializer.MTU_SIZES.length - 1
+    );
+    return Math.min(config.mtu(), ConnectionInitializer.MTU_SIZES[index]);
+  }
+
+  @Override
+  public void channelRead0(final ChannelHandlerContext ctx, final Packet msg) {
+    final var config = RakNetConfig.cast(ctx);
+    if (
+      msg instanceof InvalidVersion ||
+      msg instanceof NoFreeConnections ||
+      msg instanceof ConnectionBanned ||
+      msg instanceof AlreadyConnected ||
+      msg instanceof ConnectionFailed
+    ) {
+      ConnectionCloseEvent.cause(
+        ctx.channel(),
+        ConnectionCloseEvent.Cause.CONNECTION_FAILED
+      );
+      this.connectPromise()
+        .tryFailure(
+          new IllegalStateException(
+            "Connection refused with %s".formatted(
+                msg.getClass().getSimpleName()
+              )
+          )
+        );
+      return;
+    }
+    switch (this.state()) {
+      case CR1 -> {
+        if (msg instanceof ConnectionReply1 reply1) {
+          reply1.magic().verify(config.magic());
+          config.mtu(reply1.mtu());
+          config.serverId(reply1.serverId());
+          this.cookie = reply1.security() ? reply1.cookie() : -1;
+          this.state(ctx, State.CR2);
+        }
+      }
+      case CR2 -> {
+        if (msg instanceof ConnectionReply2 reply2) {
+          reply2.magic().verify(config.magic());
+          config.mtu(reply2.mtu());
+          this.state(ctx, State.CR3);
+        }
+      }
+      case CR3 -> {
+        if (msg instanceof ServerHandshake handshake) {
+          ctx
+            .writeAndFlush(
+              new ClientHandshake(
+                handshake.serverTimestamp(),
+                config.clock().nanoTime(),
+                (InetSocketAddress) ctx.channel().remoteAddress(),
+                handshake.nExtraAddresses()
+              )
+            )
+            .addListener(Constants.INTERNAL_WRITE_LISTENER);
+          BaseConnectionInitializer.startPing(ctx);
+          this.finish(ctx);
+          return;
+        }
+      }
+      default -> {}
+    }
+    this.sendRequest(ctx);
+  }
+
+  @Override
+  protected void removeHandler(@NotNull final ChannelHandlerContext ctx) {
+    ctx.channel().pipeline().remove(this);
+  }
+
+  @Override
+  protected void sendRequest(@NotNull final ChannelHandlerContext ctx) {
+    assert ctx.channel().eventLoop().inEventLoop();
+    final var config = RakNetConfig.cast(ctx);
+    switch (this.state()) {
+      case CR1 -> {
+        final var mtu = ConnectionInitializer.discoveryMtu(
+          config,
+          this.attempts++
+        );
+        ctx
+          .writeAndFlush(
+            new ConnectionRequest1(
+              config.magic(),
+              config.protocolVersion(),
+              mtu
+            )
+          )
+          .addListener(Constants.INTERNAL_WRITE_LISTENER);
+      }
+      case CR2 -> {
+        final var address = (InetSocketAddress) ctx.channel().remoteAddress();
+        final var request = this.cookie == -1
+          ? new ConnectionRequest2(
+            address,
+            config.clientId(),
+            config.magic(),
+            config.mtu()
+          )
+          : new ConnectionRequest2(
+            address,
+            config.clientId(),
+            config.magic(),
+            config.mtu(),
+            this.cookie
+          );
+        ctx
+          .writeAndFlush(request)
+          .addListener(Constants.INTERNAL_WRITE_LISTENER);
+      }
+      case CR3 -> {
+        // the connection request is framed and reliable, so it is sent once.
+        if (!this.requestSent) {
+          this.requestSent = true;
+          ctx
+            .writeAndFlush(
+              new ConnectionRequest(
+                config.clientId(),
+                config.clock().nanoTime()
+              )
+            )
+            .addListener(Constants.INTERNAL_WRITE_LISTENER);
+        }
+      }
+      default -> {}
+    }
+  }
+}
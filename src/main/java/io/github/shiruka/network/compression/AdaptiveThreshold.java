@@ -0,0 +1,223 @@
+package io.github.shiruka.network.compression;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * a class that represents compression thresholds which adapt to the payloads of a connection.
+ * <p>
+ * payloads which are smaller than the threshold are sent as is. every compressed payload is sampled, the compression
+ * ratio and the nanos spent on each byte are smoothed and checked once in a window of samples. the threshold doubles
+ * when compression saves too little or costs too much and halves when it pays off, within the minimum and the maximum.
+ * <p>
+ * every 16th payload which is between the minimum and the threshold is compressed as a probe,
+ * so the threshold still gets samples and comes back down when the payloads of the connection are all below it.
+ * <p>
+ * the class is not thread-safe, it belongs to the event loop of its connection.
+ */
+@Accessors(fluent = true)
+public final class AdaptiveThreshold {
+
+  /**
+   * the default maximum.
+   */
+  public static final int DEFAULT_MAXIMUM = 4096;
+
+  /**
+   * the default maximum nanos per byte.
+   */
+  public static final double DEFAULT_MAX_NANOS_PER_BYTE = 50.0d;
+
+  /**
+   * the default minimum.
+   */
+  public static final int DEFAULT_MINIMUM = 64;
+
+  /**
+   * the default target ratio.
+   */
+  public static final double DEFAULT_TARGET_RATIO = 0.9d;
+
+  /**
+   * the weight of a new sample in the smoothed values.
+   */
+  private static final double ALPHA = 0.125d;
+
+  /**
+   * the payloads below the threshold for each probe.
+   */
+  private static final int PROBE_INTERVAL = 16;
+
+  /**
+   * the samples in a window.
+   */
+  private static final int WINDOW = 32;
+
+  /**
+   * the maximum.
+   */
+  @Getter
+  private final int maximum;
+
+  /**
+   * the maximum nanos per byte.
+   */
+  @Getter
+  private final double maxNanosPerByte;
+
+  /**
+   * the minimum.
+   */
+  @Getter
+  private final int minimum;
+
+  /**
+   * the target ratio, the compressed size divided by the original size.
+   */
+  @Getter
+  private final double targetRatio;
+
+  /**
+   * the smoothed nanos per byte.
+   */
+  @Getter
+  private double nanosPerByte;
+
+  /**
+   * the payloads below the threshold since the last probe.
+   */
+  private int probeSkips;
+
+  /**
+   * the smoothed ratio.
+   */
+  @Getter
+  private double ratio = 1.0d;
+
+  /**
+   * the samples of the current window.
+   */
+  private int samples;
+
+  /**
+   * the threshold.
+   */
+  @Getter
+  private int threshold;
+
+  /**
+   * ctor.
+   */
+  public AdaptiveThreshold() {
+    this(
+      AdaptiveThreshold.DEFAULT_MINIMUM,
+      AdaptiveThreshold.DEFAULT_MAXIMUM,
+      AdaptiveThreshold.DEFAULT_TARGET_RATIO,
+      AdaptiveThreshold.DEFAULT_MAX_NANOS_PER_BYTE
+    );
+  }
+
+  /**
+   * ctor.
+   *
+   * @param minimum the minimum.
+   * @param maximum the maximum.
+   * @param targetRatio the target ratio.
+   * @param maxNanosPerByte the max nanos per byte.
+   */
+  public AdaptiveThreshold(
+    final int minimum,
+    final int maximum,
+    final double targetRatio,
+    final double maxNanosPerByte
+  ) {
+    Preconditions.checkArgument(
+      minimum >= 0 && minimum <= maximum,
+      "Minimum must be between 0 and the maximum"
+    );
+    Preconditions.checkArgument(
+      targetRatio > 0.0d && targetRatio <= 1.0d,
+      "Target ratio must be between 0 and 1"
+    );
+    Preconditions.checkArgument(
+      maxNanosPerByte > 0.0d,
+      "Max nanos per byte must be greater than 0"
+    );
+    this.minimum = minimum;
+    this.maximum = maximum;
+    this.targetRatio = targetRatio;
+    this.maxNanosPerByte = maxNanosPerByte;
+    this.threshold = minimum;
+  }
+
+  /**
+   * creates a threshold which never adapts.
+   *
+   * @param threshold the threshold to create.
+   *
+   * @return fixed threshold.
+   */
+  public static AdaptiveThreshold fixed(final int threshold) {
+    return new AdaptiveThreshold(
+      threshold,
+      threshold,
+      AdaptiveThreshold.DEFAULT_TARGET_RATIO,
+      AdaptiveThreshold.DEFAULT_MAX_NANOS_PER_BYTE
+    );
+  }
+
+  /**
+   * records a compressed payload.
+   *
+   * @param original the original size.
+   * @param compressed the compressed size.
+   * @param nanos the nanos spent on the compression.
+   */
+  public void record(
+    final int original,
+    final int compressed,
+    final long nanos
+  ) {
+    if (original <= 0) {
+      return;
+    }
+    this.ratio +=
+      AdaptiveThreshold.ALPHA * ((double) compressed / original - this.ratio);
+    this.nanosPerByte +=
+      AdaptiveThreshold.ALPHA * ((double) nanos / original - this.nanosPerByte);
+    if (++this.samples < AdaptiveThreshold.WINDOW) {
+      return;
+    }
+    this.samples = 0;
+    if (
+      this.ratio > this.targetRatio || this.nanosPerByte > this.maxNanosPerByte
+    ) {
+      this.threshold =
+        Math.min(this.maximum, Math.max(1, this.threshold) << 1);
+    } else {
+      this.threshold = Math.max(this.minimum, this.threshold >> 1);
+    }
+  }
+
+  /**
+   * checks if the payload should be compressed, the payload is expected to be compressed when it returns {@code true}.
+   *
+   * @param size the size to check.
+   *
+   * @return {@code true} if the payload is at least as big as the threshold or is picked as a probe.
+   */
+  public boolean test(final int size) {
+    if (size >= this.threshold) {
+      return true;
+    }
+    if (
+      size < this.minimum ||
+      ++this.probeSkips < AdaptiveThreshold.PROBE_INTERVAL
+    ) {
+      return false;
+    }
+    this.probeSkips = 0;
+    return true;
+  }
+}
@@ -0,0 +1,57 @@
+package io.github.shiruka.network.compression;
+
+import java.util.Optional;
+import java.util.ServiceLoader;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * an interface to determine compression algorithms.
+ * <p>
+ * implementations are found by their names through {@link ServiceLoader}, register one in
+ * {@code META-INF/services/io.github.shiruka.network.compression.Compression} to make it available to
+ * {@link #find(String)}.
+ */
+public interface Compression {
+  /**
+   * obtains the deflate compression with the default level.
+   *
+   * @return deflate compression.
+   */
+  @NotNull
+  static Compression deflate() {
+    return new DeflateCompression();
+  }
+
+  /**
+   * finds the compression which has the name.
+   *
+   * @param name the name to find.
+   *
+   * @return compression.
+   */
+  @NotNull
+  static Optional<Compression> find(@NotNull final String name) {
+    return ServiceLoader
+      .load(Compression.class)
+      .stream()
+      .map(ServiceLoader.Provider::get)
+      .filter(compression -> compression.name().equalsIgnoreCase(name))
+      .findFirst();
+  }
+
+  /**
+   * obtains the name.
+   *
+   * @return name.
+   */
+  @NotNull
+  String name();
+
+  /**
+   * creates a compressor for a single connection.
+   *
+   * @return compressor.
+   */
+  @NotNull
+  Compressor newCompressor();
+}
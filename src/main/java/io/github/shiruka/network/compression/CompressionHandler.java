@@ -0,0 +1,220 @@
+package io.github.shiruka.network.compression;
+
+import com.google.common.base.Preconditions;
+import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.pipelines.UserDataCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageCodec;
+import java.util.List;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents compression handler pipelines.
+ * <p>
+ * every payload starts with a header byte, {@link #RAW} payloads follow as is, {@link #COMPRESSED} payloads follow
+ * their decompressed length as an unsigned var int and the compressed bytes. payloads which are smaller than the
+ * threshold or which do not get smaller are sent as is.
+ * <p>
+ * add the handler after {@link UserDataCodec} on both ends of the connection:
+ * <pre>{@code
+ * channel.pipeline().addAfter(UserDataCodec.NAME, CompressionHandler.NAME, new CompressionHandler(Compression.deflate()));
+ * }</pre>
+ */
+@Accessors(fluent = true)
+public final class CompressionHandler
+  extends MessageToMessageCodec<ByteBuf, ByteBuf> {
+
+  /**
+   * the compressed header.
+   */
+  public static final int COMPRESSED = 0x01;
+
+  /**
+   * the default max decompressed size.
+   */
+  public static final int DEFAULT_MAX_DECOMPRESSED_SIZE = 8 * 1024 * 1024;
+
+  /**
+   * the name.
+   */
+  public static final String NAME = "rn-compression";
+
+  /**
+   * the raw header.
+   */
+  public static final int RAW = 0x00;
+
+  /**
+   * the compression.
+   */
+  @NotNull
+  @Getter
+  private final Compression compression;
+
+  /**
+   * the compressor.
+   */
+  @NotNull
+  private final Compressor compressor;
+
+  /**
+   * the max decompressed size.
+   */
+  private final int maxDecompressedSize;
+
+  /**
+   * the stats.
+   */
+  @NotNull
+  @Getter
+  private final CompressionStats stats = new CompressionStats();
+
+  /**
+   * the threshold.
+   */
+  @NotNull
+  @Getter
+  private final AdaptiveThreshold threshold;
+
+  /**
+   * ctor.
+   *
+   * @param compression the compression.
+   */
+  public CompressionHandler(@NotNull final Compression compression) {
+    this(
+      compression,
+      new AdaptiveThreshold(),
+      CompressionHandler.DEFAULT_MAX_DECOMPRESSED_SIZE
+    );
+  }
+
+  /**
+   * ctor.
+   *
+   * @param compression the compression.
+   * @param threshold the threshold.
+   * @param maxDecompressedSize the max decompressed size.
+   */
+  public CompressionHandler(
+    @NotNull final Compression compression,
+    @NotNull final AdaptiveThreshold threshold,
+    final int maxDecompressedSize
+  ) {
+    Preconditions.checkArgument(
+      maxDecompressedSize > 0,
+      "Max decompressed size must be greater than 0"
+    );
+    this.compression = compression;
+    this.threshold = threshold;
+    this.maxDecompressedSize = maxDecompressedSize;
+    this.compressor = compression.newCompressor();
+  }
+
+  /**
+   * prefixes the payload with the raw header.
+   *
+   * @param ctx the ctx to prefix.
+   * @param msg the msg to prefix.
+   *
+   * @return prefixed payload.
+   */
+  @NotNull
+  private static ByteBuf raw(
+    @NotNull final ChannelHandlerContext ctx,
+    @NotNull final ByteBuf msg
+  ) {
+    final var size = msg.readableBytes();
+    return ctx
+      .alloc()
+      .ioBuffer(size + 1)
+      .writeByte(CompressionHandler.RAW)
+      .writeBytes(msg, msg.readerIndex(), size);
+  }
+
+  @Override
+  public void handlerRemoved(final ChannelHandlerContext ctx)
+    throws Exception {
+    try {
+      super.handlerRemoved(ctx);
+    } finally {
+      this.compressor.close();
+    }
+  }
+
+  @Override
+  protected void decode(
+    final ChannelHandlerContext ctx,
+    final ByteBuf msg,
+    final List<Object> out
+  ) {
+    final var wireBytes = msg.readableBytes();
+    final var buffer = new PacketBuffer(msg);
+    final var header = buffer.readUnsignedByte();
+    if (header == CompressionHandler.RAW) {
+      this.stats.inbound(wireBytes, msg.readableBytes());
+      out.add(msg.retainedSlice());
+      return;
+    }
+    Preconditions.checkArgument(
+      header == CompressionHandler.COMPRESSED,
+      "Unknown compression header %s",
+      header
+    );
+    final var length = buffer.readUnsignedVarInt();
+    Preconditions.checkArgument(
+      length > 0 && length <= this.maxDecompressedSize,
+      "Decompressed length %s is out of bounds",
+      length
+    );
+    final var decompressed = ctx.alloc().ioBuffer(length + 1);
+    try {
+      this.compressor.decompress(msg, decompressed, length);
+    } catch (final RuntimeException e) {
+      decompressed.release();
+      throw e;
+    }
+    this.stats.inbound(wireBytes, length);
+    out.add(decompressed);
+  }
+
+  @Override
+  protected void encode(
+    final ChannelHandlerContext ctx,
+    final ByteBuf msg,
+    final List<Object> out
+  ) {
+    final var size = msg.readableBytes();
+    if (!this.threshold.test(size)) {
+      out.add(CompressionHandler.raw(ctx, msg));
+      this.stats.outbound(size, size + 1, false, 0L);
+      return;
+    }
+    final var start = System.nanoTime();
+    final var buffer = new PacketBuffer(
+      ctx.alloc().ioBuffer(PacketBuffer.unsignedVarIntSize(size) + 1 + size / 2)
+    );
+    try {
+      buffer.writeByte(CompressionHandler.COMPRESSED);
+      buffer.writeUnsignedVarInt(size);
+      this.compressor.compress(msg.duplicate(), buffer.buffer());
+    } catch (final RuntimeException e) {
+      buffer.release();
+      throw e;
+    }
+    final var nanos = System.nanoTime() - start;
+    final var wireBytes = buffer.remaining();
+    this.threshold.record(size, wireBytes, nanos);
+    if (wireBytes > size) {
+      buffer.release();
+      out.add(CompressionHandler.raw(ctx, msg));
+      this.stats.outbound(size, size + 1, false, nanos);
+      return;
+    }
+    out.add(buffer.buffer());
+    this.stats.outbound(size, wireBytes, true, nanos);
+  }
+}
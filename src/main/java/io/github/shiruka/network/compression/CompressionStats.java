@@ -0,0 +1,153 @@
+package io.github.shiruka.network.compression;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * a class that counts the compressed traffic of a connection.
+ * <p>
+ * the counters are written by the event loop of the connection and may be read from any thread.
+ */
+public final class CompressionStats {
+
+  /**
+   * the compressed payloads.
+   */
+  private final LongAdder compressed = new LongAdder();
+
+  /**
+   * the nanos spent on compression.
+   */
+  private final LongAdder compressionNanos = new LongAdder();
+
+  /**
+   * the decompressed bytes of the inbound payloads.
+   */
+  private final LongAdder inboundBytes = new LongAdder();
+
+  /**
+   * the wire bytes of the inbound payloads.
+   */
+  private final LongAdder inboundWireBytes = new LongAdder();
+
+  /**
+   * the original bytes of the outbound payloads.
+   */
+  private final LongAdder outboundBytes = new LongAdder();
+
+  /**
+   * the wire bytes of the outbound payloads.
+   */
+  private final LongAdder outboundWireBytes = new LongAdder();
+
+  /**
+   * the payloads which are sent as is.
+   */
+  private final LongAdder skipped = new LongAdder();
+
+  /**
+   * obtains the bytes that compression saved on outbound payloads, may be negative because of the headers.
+   *
+   * @return bytes saved.
+   */
+  public long bytesSaved() {
+    return this.outboundBytes() - this.outboundWireBytes();
+  }
+
+  /**
+   * obtains the compressed payloads.
+   *
+   * @return compressed payloads.
+   */
+  public long compressed() {
+    return this.compressed.sum();
+  }
+
+  /**
+   * obtains the nanos spent on compression.
+   *
+   * @return compression nanos.
+   */
+  public long compressionNanos() {
+    return this.compressionNanos.sum();
+  }
+
+  /**
+   * obtains the decompressed bytes of the inbound payloads.
+   *
+   * @return inbound bytes.
+   */
+  public long inboundBytes() {
+    return this.inboundBytes.sum();
+  }
+
+  /**
+   * obtains the wire bytes of the inbound payloads.
+   *
+   * @return inbound wire bytes.
+   */
+  public long inboundWireBytes() {
+    return this.inboundWireBytes.sum();
+  }
+
+  /**
+   * obtains the original bytes of the outbound payloads.
+   *
+   * @return outbound bytes.
+   */
+  public long outboundBytes() {
+    return this.outboundBytes.sum();
+  }
+
+  /**
+   * obtains the wire bytes of the outbound payloads.
+   *
+   * @return outbound wire bytes.
+   */
+  public long outboundWireBytes() {
+    return this.outboundWireBytes.sum();
+  }
+
+  /**
+   * obtains the payloads which are sent as is.
+   *
+   * @return skipped payloads.
+   */
+  public long skipped() {
+    return this.skipped.sum();
+  }
+
+  /**
+   * records an inbound payload.
+   *
+   * @param wireBytes the wire bytes to record.
+   * @param bytes the decompressed bytes to record.
+   */
+  void inbound(final int wireBytes, final int bytes) {
+    this.inboundWireBytes.add(wireBytes);
+    this.inboundBytes.add(bytes);
+  }
+
+  /**
+   * records an outbound payload.
+   *
+   * @param bytes the original bytes to record.
+   * @param wireBytes the wire bytes to record.
+   * @param compressed the compressed to record.
+   * @param nanos the nanos to record.
+   */
+  void outbound(
+    final int bytes,
+    final int wireBytes,
+    final boolean compressed,
+    final long nanos
+  ) {
+    this.outboundBytes.add(bytes);
+    this.outboundWireBytes.add(wireBytes);
+    if (compressed) {
+      this.compressed.increment();
+    } else {
+      this.skipped.increment();
+    }
+    this.compressionNanos.add(nanos);
+  }
+}
@@ -0,0 +1,35 @@
+package io.github.shiruka.network.compression;
+
+import io.netty.buffer.ByteBuf;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * an interface to determine compressors.
+ * <p>
+ * a compressor belongs to a single connection and is used from its event loop only, so implementations may keep and
+ * reuse their state between payloads.
+ */
+public interface Compressor extends AutoCloseable {
+  /**
+   * releases the resources of the compressor.
+   */
+  @Override
+  void close();
+
+  /**
+   * compresses the readable bytes of the input into the output.
+   *
+   * @param input the input to compress.
+   * @param output the output to compress.
+   */
+  void compress(@NotNull ByteBuf input, @NotNull ByteBuf output);
+
+  /**
+   * decompresses the readable bytes of the input into the output.
+   *
+   * @param input the input to decompress.
+   * @param output the output to decompress.
+   * @param length the decompressed length.
+   */
+  void decompress(@NotNull ByteBuf input, @NotNull ByteBuf output, int length);
+}
@@ -0,0 +1,170 @@
+package io.github.shiruka.network.compression;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.handler.codec.DecoderException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents raw deflate compressions.
+ * <p>
+ * each compressor keeps one {@link Deflater} and one {@link Inflater} which are reset between payloads, the streams
+ * work on the nio buffers of the payloads, so direct buffers are not copied to the heap.
+ */
+@Accessors(fluent = true)
+public final class DeflateCompression implements Compression {
+
+  /**
+   * the name.
+   */
+  public static final String NAME = "deflate";
+
+  /**
+   * the level.
+   */
+  @Getter
+  private final int level;
+
+  /**
+   * ctor.
+   */
+  public DeflateCompression() {
+    this(Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * ctor.
+   *
+   * @param level the level.
+   */
+  public DeflateCompression(final int level) {
+    Preconditions.checkArgument(
+      level == Deflater.DEFAULT_COMPRESSION ||
+      (level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION),
+      "Invalid deflate level %s",
+      level
+    );
+    this.level = level;
+  }
+
+  /**
+   * obtains a nio view of the readable bytes.
+   *
+   * @param buffer the buffer to obtain.
+   *
+   * @return nio view.
+   */
+  @NotNull
+  private static ByteBuffer readableView(@NotNull final ByteBuf buffer) {
+    if (buffer.nioBufferCount() == 1) {
+      return buffer.nioBuffer();
+    }
+    return ByteBuffer.wrap(
+      ByteBufUtil.getBytes(buffer, buffer.readerIndex(), buffer.readableBytes())
+    );
+  }
+
+  @NotNull
+  @Override
+  public String name() {
+    return DeflateCompression.NAME;
+  }
+
+  @NotNull
+  @Override
+  public Compressor newCompressor() {
+    return new DeflateCompressor(this.level);
+  }
+
+  /**
+   * a class that represents deflate compressors.
+   */
+  private static final class DeflateCompressor implements Compressor {
+
+    /**
+     * the deflater.
+     */
+    @NotNull
+    private final Deflater deflater;
+
+    /**
+     * the inflater.
+     */
+    @NotNull
+    private final Inflater inflater = new Inflater(true);
+
+    /**
+     * ctor.
+     *
+     * @param level the level.
+     */
+    private DeflateCompressor(final int level) {
+      this.deflater = new Deflater(level, true);
+    }
+
+    @Override
+    public void close() {
+      this.deflater.end();
+      this.inflater.end();
+    }
+
+    @Override
+    public void compress(
+      @NotNull final ByteBuf input,
+      @NotNull final ByteBuf output
+    ) {
+      final var chunk = Math.max(64, input.readableBytes() >> 1);
+      this.deflater.reset();
+      this.deflater.setInput(DeflateCompression.readableView(input));
+      this.deflater.finish();
+      while (!this.deflater.finished()) {
+        output.ensureWritable(chunk);
+        final var writerIndex = output.writerIndex();
+        final var view = output.nioBuffer(writerIndex, output.writableBytes());
+        output.writerIndex(writerIndex + this.deflater.deflate(view));
+      }
+      input.skipBytes(input.readableBytes());
+    }
+
+    @Override
+    public void decompress(
+      @NotNull final ByteBuf input,
+      @NotNull final ByteBuf output,
+      final int length
+    ) {
+      this.inflater.reset();
+      this.inflater.setInput(DeflateCompression.readableView(input));
+      // the spare byte lets the inflater reach the end of the stream and
+      // catches streams which are longer than the length.
+      output.ensureWritable(length + 1);
+      final var writerIndex = output.writerIndex();
+      final var view = output.nioBuffer(writerIndex, length + 1);
+      try {
+        while (view.hasRemaining() && !this.inflater.finished()) {
+          if (
+            this.inflater.inflate(view) == 0 &&
+            (this.inflater.needsInput() || this.inflater.needsDictionary())
+          ) {
+            break;
+          }
+        }
+      } catch (final DataFormatException e) {
+        throw new DecoderException(e);
+      }
+      Preconditions.checkArgument(
+        view.position() == length && this.inflater.finished(),
+        "Decompressed length does not match %s",
+        length
+      );
+      output.writerIndex(writerIndex + length);
+      input.skipBytes(input.readableBytes());
+    }
+  }
+}
@@ -0,0 +1,4 @@
+/**
+ * the package that contains compression classes.
+ */
+package io.github.shiruka.network.compression;
@@ -0,0 +1,377 @@
+package io.github.shiruka.network.encryption;
+
+import com.google.common.base.Preconditions;
+import io.github.shiruka.network.pipelines.UserDataCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.EncoderException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents encryption handler pipelines.
+ * <p>
+ * every message is sent as its big-endian sequence, the cipher text and the tag of the mode. the sequence of each
+ * direction starts from 0, so the keys of the directions must differ, the outbound key of one end is the inbound key of
+ * the other end.
+ * <p>
+ * in {@link EncryptionMode#GCM} the authenticated inbound sequences are checked against a sliding window of the last
+ * 960 sequences, the messages whose sequences are already accepted or older than the window are
+ * dropped and counted by {@link #replayed()}. {@link EncryptionMode#CTR} does not authenticate the sequences, so they
+ * are not checked.
+ * <p>
+ * the messages which are read from a datagram are collected and decrypted in one pass when the read completes. the
+ * ciphers of the connection are reused for every message and work on the nio buffers of the messages.
+ * <p>
+ * add the handler after {@link UserDataCodec}:
+ * <pre>{@code
+ * channel.pipeline().addAfter(UserDataCodec.NAME, EncryptionHandler.NAME, new EncryptionHandler(EncryptionMode.GCM, inboundKey, outboundKey));
+ * }</pre>
+ */
+@Accessors(fluent = true)
+public final class EncryptionHandler extends ChannelDuplexHandler {
+
+  /**
+   * the name.
+   */
+  public static final String NAME = "rn-encryption";
+
+  /**
+   * the words of the replay window bitmap, must be a power of two.
+   */
+  private static final int REPLAY_WINDOW_WORDS = 16;
+
+  /**
+   * the sequences in the replay window, the word of the highest sequence is only partly in the window.
+   */
+  private static final int REPLAY_WINDOW =
+    (EncryptionHandler.REPLAY_WINDOW_WORDS - 1) * Long.SIZE;
+
+  /**
+   * the sequence size.
+   */
+  private static final int SEQUENCE_SIZE = Long.BYTES;
+
+  /**
+   * the decryptor.
+   */
+  @NotNull
+  private final Cipher decryptor;
+
+  /**
+   * the encryptor.
+   */
+  @NotNull
+  private final Cipher encryptor;
+
+  /**
+   * the inbound key.
+   */
+  @NotNull
+  private final SecretKey inboundKey;
+
+  /**
+   * the accepted inbound sequences in the window, a ring of words which are indexed by the sequence.
+   */
+  private final long[] inboundWindow =
+    new long[EncryptionHandler.REPLAY_WINDOW_WORDS];
+
+  /**
+   * the mode.
+   */
+  @NotNull
+  @Getter
+  private final EncryptionMode mode;
+
+  /**
+   * the outbound key.
+   */
+  @NotNull
+  private final SecretKey outboundKey;
+
+  /**
+   * the messages of the current read.
+   */
+  private final List<ByteBuf> pending = new ArrayList<>();
+
+  /**
+   * the highest accepted inbound sequence.
+   */
+  private long inboundSequence = -1L;
+
+  /**
+   * the outbound sequence.
+   */
+  private long outboundSequence;
+
+  /**
+   * the dropped replays.
+   */
+  @Getter
+  private long replayed;
+
+  /**
+   * ctor.
+   *
+   * @param mode the mode.
+   * @param inboundKey the inbound key.
+   * @param outboundKey the outbound key.
+   *
+   * @throws GeneralSecurityException if the runtime does not support the mode.
+   */
+  public EncryptionHandler(
+    @NotNull final EncryptionMode mode,
+    @NotNull final SecretKey inboundKey,
+    @NotNull final SecretKey outboundKey
+  ) throws GeneralSecurityException {
+    Preconditions.checkArgument(
+      "AES".equalsIgnoreCase(inboundKey.getAlgorithm()) &&
+      "AES".equalsIgnoreCase(outboundKey.getAlgorithm()),
+      "Keys must be AES keys"
+    );
+    this.mode = mode;
+    this.inboundKey = inboundKey;
+    this.outboundKey = outboundKey;
+    this.decryptor = Cipher.getInstance(mode.transformation());
+    this.encryptor = Cipher.getInstance(mode.transformation());
+  }
+
+  /**
+   * obtains the index of the word in the replay window.
+   *
+   * @param word the word to obtain.
+   *
+   * @return word index.
+   */
+  private static int wordIndex(final long word) {
+    return (int) (word & EncryptionHandler.REPLAY_WINDOW_WORDS - 1);
+  }
+
+  @Override
+  public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+    if (msg instanceof ByteBuf buffer) {
+      this.pending.add(buffer);
+      return;
+    }
+    this.decryptPending(ctx);
+    ctx.fireChannelRead(msg);
+  }
+
+  @Override
+  public void channelReadComplete(final ChannelHandlerContext ctx) {
+    this.decryptPending(ctx);
+    ctx.fireChannelReadComplete();
+  }
+
+  @Override
+  public void handlerRemoved(final ChannelHandlerContext ctx) {
+    for (final var msg : this.pending) {
+      if (msg != null) {
+        msg.release();
+      }
+    }
+    this.pending.clear();
+  }
+
+  @Override
+  public void write(
+    final ChannelHandlerContext ctx,
+    final Object msg,
+    final ChannelPromise promise
+  ) {
+    if (!(msg instanceof ByteBuf buffer)) {
+      ctx.write(msg, promise);
+      return;
+    }
+    final ByteBuf encrypted;
+    try {
+      encrypted = this.encrypt(ctx, buffer);
+    } catch (final GeneralSecurityException | RuntimeException e) {
+      promise.setFailure(new EncoderException(e));
+      return;
+    } finally {
+      buffer.release();
+    }
+    ctx.write(encrypted, promise);
+  }
+
+  /**
+   * accepts the sequence and slides the window.
+   *
+   * @param sequence the sequence to accept.
+   */
+  private void accept(final long sequence) {
+    if (sequence > this.inboundSequence) {
+      // clears the words which the window slides over, at most once each.
+      final var words = Math.min(
+        (sequence >> 6) - (this.inboundSequence >> 6),
+        EncryptionHandler.REPLAY_WINDOW_WORDS
+      );
+      var word = this.inboundSequence >> 6;
+      for (var index = 0L; index < words; index++) {
+        word++;
+        this.inboundWindow[EncryptionHandler.wordIndex(word)] = 0L;
+      }
+      this.inboundSequence = sequence;
+    }
+    this.inboundWindow[EncryptionHandler.wordIndex(sequence >> 6)] |=
+      1L << (sequence & Long.SIZE - 1);
+  }
+
+  /**
+   * decrypts the message.
+   *
+   * @param ctx the ctx to decrypt.
+   * @param msg the msg to decrypt.
+   *
+   * @return decrypted message, {@code null} if the message is a replay.
+   *
+   * @throws GeneralSecurityException if the message can not be decrypted.
+   */
+  @Nullable
+  private ByteBuf decrypt(
+    @NotNull final ChannelHandlerContext ctx,
+    @NotNull final ByteBuf msg
+  ) throws GeneralSecurityException {
+    Preconditions.checkArgument(
+      msg.readableBytes() >= EncryptionHandler.SEQUENCE_SIZE +
+      this.mode.tagLength(),
+      "Encrypted message is too short"
+    );
+    final var sequence = msg.readLong();
+    final var checked = this.mode.tagLength() > 0;
+    if (checked && this.isReplay(sequence)) {
+      return null;
+    }
+    final var length = msg.readableBytes() - this.mode.tagLength();
+    this.decryptor.init(
+        Cipher.DECRYPT_MODE,
+        this.inboundKey,
+        this.mode.spec(sequence)
+      );
+    final var output = ctx.alloc().directBuffer(length);
+    try {
+      final var written =
+        this.decryptor.doFinal(msg.nioBuffer(), output.nioBuffer(0, length));
+      // only an authenticated sequence may move the window.
+      if (checked) {
+        this.accept(sequence);
+      }
+      return output.writerIndex(written);
+    } catch (final GeneralSecurityException | RuntimeException e) {
+      output.release();
+      throw e;
+    }
+  }
+
+  /**
+   * decrypts the messages of the current read and fires them.
+   * <p>
+   * a message which can not be decrypted is dropped and fired as an exception, a replay is dropped and counted, the
+   * rest of the messages are still fired.
+   *
+   * @param ctx the ctx to decrypt.
+   */
+  private void decryptPending(@NotNull final ChannelHandlerContext ctx) {
+    if (this.pending.isEmpty()) {
+      return;
+    }
+    try {
+      // a handler which closes the channel removes this one in the middle of
+      // the loop, so the messages are taken out of the list one by one.
+      for (var index = 0; index < this.pending.size(); index++) {
+        final var msg = this.pending.set(index, null);
+        final ByteBuf decrypted;
+        try {
+          decrypted = this.decrypt(ctx, msg);
+        } catch (final GeneralSecurityException | RuntimeException e) {
+          ctx.fireExceptionCaught(new DecoderException(e));
+          continue;
+        } finally {
+          msg.release();
+        }
+        if (decrypted == null) {
+          this.replayed++;
+          continue;
+        }
+        ctx.fireChannelRead(decrypted);
+      }
+    } finally {
+      this.pending.clear();
+    }
+  }
+
+  /**
+   * encrypts the message.
+   *
+   * @param ctx the ctx to encrypt.
+   * @param msg the msg to encrypt.
+   *
+   * @return encrypted message.
+   *
+   * @throws GeneralSecurityException if the message can not be encrypted.
+   */
+  @NotNull
+  private ByteBuf encrypt(
+    @NotNull final ChannelHandlerContext ctx,
+    @NotNull final ByteBuf msg
+  ) throws GeneralSecurityException {
+    final var sequence = this.outboundSequence++;
+    this.encryptor.init(
+        Cipher.ENCRYPT_MODE,
+        this.outboundKey,
+        this.mode.spec(sequence)
+      );
+    final var size =
+      EncryptionHandler.SEQUENCE_SIZE +
+      msg.readableBytes() +
+      this.mode.tagLength();
+    final var output = ctx.alloc().directBuffer(size);
+    try {
+      output.writeLong(sequence);
+      final var written = this.encryptor.doFinal(
+          msg.nioBuffer(),
+          output.nioBuffer(
+            EncryptionHandler.SEQUENCE_SIZE,
+            size - EncryptionHandler.SEQUENCE_SIZE
+          )
+        );
+      return output.writerIndex(EncryptionHandler.SEQUENCE_SIZE + written);
+    } catch (final GeneralSecurityException | RuntimeException e) {
+      output.release();
+      throw e;
+    }
+  }
+
+  /**
+   * checks if the sequence is already accepted or older than the window.
+   *
+   * @param sequence the sequence to check.
+   *
+   * @return {@code true} if the sequence is a replay.
+   */
+  private boolean isReplay(final long sequence) {
+    if (sequence < 0L) {
+      return true;
+    }
+    if (sequence > this.inboundSequence) {
+      return false;
+    }
+    if (this.inboundSequence - sequence >= EncryptionHandler.REPLAY_WINDOW) {
+      return true;
+    }
+    final var word =
+      this.inboundWindow[EncryptionHandler.wordIndex(sequence >> 6)];
+    return (word & 1L << (sequence & Long.SIZE - 1)) != 0L;
+  }
+}
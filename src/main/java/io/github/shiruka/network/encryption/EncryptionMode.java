@@ -0,0 +1,86 @@
+package io.github.shiruka.network.encryption;
+
+import java.security.spec.AlgorithmParameterSpec;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * an enum class that contains encryption modes.
+ * <p>
+ * the iv of a message starts with its big-endian sequence and continues with zeros.
+ */
+@Accessors(fluent = true)
+@RequiredArgsConstructor
+public enum EncryptionMode {
+  /**
+   * aes in galois/counter mode, authenticates every message with a 16 bytes tag.
+   */
+  GCM("AES/GCM/NoPadding", 12, 16) {
+    @NotNull
+    @Override
+    AlgorithmParameterSpec spec(final long sequence) {
+      return new GCMParameterSpec(
+        this.tagLength() * Byte.SIZE,
+        this.iv(sequence)
+      );
+    }
+  },
+  /**
+   * aes in counter mode, does not authenticate the messages.
+   */
+  CTR("AES/CTR/NoPadding", 16, 0) {
+    @NotNull
+    @Override
+    AlgorithmParameterSpec spec(final long sequence) {
+      return new IvParameterSpec(this.iv(sequence));
+    }
+  };
+
+  /**
+   * the transformation.
+   */
+  @NotNull
+  @Getter
+  private final String transformation;
+
+  /**
+   * the iv length.
+   */
+  @Getter
+  private final int ivLength;
+
+  /**
+   * the tag length.
+   */
+  @Getter
+  private final int tagLength;
+
+  /**
+   * creates the parameters of the message.
+   *
+   * @param sequence the sequence to create.
+   *
+   * @return parameters.
+   */
+  @NotNull
+  abstract AlgorithmParameterSpec spec(long sequence);
+
+  /**
+   * creates the iv of the message.
+   *
+   * @param sequence the sequence to create.
+   *
+   * @return iv.
+   */
+  final byte@NotNull[] iv(final long sequence) {
+    final var iv = new byte[this.ivLength];
+    for (var index = 0; index < Long.BYTES; index++) {
+      iv[index] = (byte) (sequence >>> (Long.SIZE - Byte.SIZE * (index + 1)));
+    }
+    return iv;
+  }
+}
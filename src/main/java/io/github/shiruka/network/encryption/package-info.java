@@ -0,0 +1,4 @@
+/**
+ * the package that contains encryption classes.
+ */
+package io.github.shiruka.network.encryption;
@@ -0,0 +1,263 @@
+package io.github.shiruka.network.impairment;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.util.ReferenceCountUtil;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents emulators of a single link direction.
+ * <p>
+ * the emulator does not read a clock, the caller passes the time of every call, so it runs on wall time as well as on
+ * simulated time. messages are {@link ByteBuf}s or {@link ByteBufHolder}s, the emulator owns them once they are
+ * offered. not thread-safe, every call must come from the same thread.
+ */
+@Accessors(fluent = true)
+public final class LinkEmulator {
+
+  /**
+   * the pending deliveries.
+   */
+  private final PriorityQueue<Delivery> deliveries = new PriorityQueue<>();
+
+  /**
+   * the profile.
+   */
+  @NotNull
+  @Getter
+  private final LinkProfile profile;
+
+  /**
+   * the loss process.
+   */
+  @NotNull
+  private final LossModel.Process loss;
+
+  /**
+   * the random.
+   */
+  @NotNull
+  private final Random random;
+
+  /**
+   * the delivered messages.
+   */
+  @Getter
+  private long delivered;
+
+  /**
+   * the duplicated messages.
+   */
+  @Getter
+  private long duplicated;
+
+  /**
+   * the time when the bottleneck finishes serializing the queued messages.
+   */
+  private long idleAt = Long.MIN_VALUE;
+
+  /**
+   * the lost messages.
+   */
+  @Getter
+  private long lost;
+
+  /**
+   * the offered messages.
+   */
+  @Getter
+  private long offered;
+
+  /**
+   * the offered bytes.
+   */
+  @Getter
+  private long offeredBytes;
+
+  /**
+   * the messages that are dropped since the bottleneck queue was full.
+   */
+  @Getter
+  private long overflowed;
+
+  /**
+   * the reordered messages.
+   */
+  @Getter
+  private long reordered;
+
+  /**
+   * the sequence of the deliveries, breaks the ties of the delivery times.
+   */
+  private long sequence;
+
+  /**
+   * ctor.
+   *
+   * @param profile the profile.
+   */
+  public LinkEmulator(@NotNull final LinkProfile profile) {
+    this.profile = profile;
+    this.loss = profile.loss().newProcess();
+    this.random = new Random(profile.seed());
+  }
+
+  /**
+   * duplicates the message.
+   *
+   * @param message the message to duplicate.
+   *
+   * @return retained duplicate.
+   */
+  @NotNull
+  private static Object duplicate(@NotNull final Object message) {
+    if (message instanceof ByteBuf buffer) {
+      return buffer.retainedDuplicate();
+    }
+    return ((ByteBufHolder) message).retainedDuplicate();
+  }
+
+  /**
+   * obtains the size of the message.
+   *
+   * @param message the message to obtain.
+   *
+   * @return size.
+   */
+  private static int size(@NotNull final Object message) {
+    if (message instanceof ByteBuf buffer) {
+      return buffer.readableBytes();
+    }
+    if (message instanceof ByteBufHolder holder) {
+      return holder.content().readableBytes();
+    }
+    throw new IllegalArgumentException(
+      "Unsupported message %s".formatted(message.getClass().getName())
+    );
+  }
+
+  /**
+   * releases the pending messages.
+   */
+  public void clear() {
+    Delivery delivery;
+    while ((delivery = this.deliveries.poll()) != null) {
+      ReferenceCountUtil.release(delivery.message);
+    }
+  }
+
+  /**
+   * obtains the time of the next delivery.
+   *
+   * @return next delivery nanos, {@link Long#MAX_VALUE} if nothing is pending.
+   */
+  public long nextDeliveryNanos() {
+    final var head = this.deliveries.peek();
+    return head == null ? Long.MAX_VALUE : head.time;
+  }
+
+  /**
+   * offers the message to the link.
+   *
+   * @param message the message to offer.
+   * @param nowNanos the now nanos to offer.
+   */
+  public void offer(@NotNull final Object message, final long nowNanos) {
+    final var size = LinkEmulator.size(message);
+    this.offered++;
+    this.offeredBytes += size;
+    var departure = nowNanos;
+    final var bandwidth = this.profile.bandwidth();
+    if (bandwidth > 0L) {
+      final var start = Math.max(nowNanos, this.idleAt);
+      final var queued = (start - nowNanos) * bandwidth / 1_000_000_000L;
+      final var queueBytes = this.profile.queueBytes();
+      if (queueBytes > 0 && queued + size > queueBytes) {
+        this.overflowed++;
+        ReferenceCountUtil.release(message);
+        return;
+      }
+      this.idleAt = start + size * 1_000_000_000L / bandwidth;
+      departure = this.idleAt;
+    }
+    if (this.loss.drop(this.random)) {
+      this.lost++;
+      ReferenceCountUtil.release(message);
+      return;
+    }
+    var delay = this.profile.latency().toNanos();
+    final var jitter = this.profile.jitter().toNanos();
+    if (jitter > 0L) {
+      delay += (long) (this.random.nextDouble() * jitter);
+    }
+    if (this.random.nextDouble() < this.profile.reorderRate()) {
+      this.reordered++;
+      delay += this.profile.reorderDelay().toNanos();
+    }
+    final var time = departure + delay;
+    if (this.random.nextDouble() < this.profile.duplicateRate()) {
+      this.duplicated++;
+      this.deliveries.add(
+          new Delivery(time, this.sequence++, LinkEmulator.duplicate(message))
+        );
+    }
+    this.deliveries.add(new Delivery(time, this.sequence++, message));
+  }
+
+  /**
+   * polls the next message that is due.
+   *
+   * @param nowNanos the now nanos to poll.
+   *
+   * @return message, {@code null} if nothing is due.
+   */
+  @Nullable
+  public Object poll(final long nowNanos) {
+    final var head = this.deliveries.peek();
+    if (head == null || head.time > nowNanos) {
+      return null;
+    }
+    this.deliveries.poll();
+    this.delivered++;
+    return head.message;
+  }
+
+  @NotNull
+  @Override
+  public String toString() {
+    return (
+      "offered=%d delivered=%d lost=%d overflowed=%d reordered=%d " +
+      "duplicated=%d pending=%d"
+    ).formatted(
+        this.offered,
+        this.delivered,
+        this.lost,
+        this.overflowed,
+        this.reordered,
+        this.duplicated,
+        this.deliveries.size()
+      );
+  }
+
+  /**
+   * a record class that represents pending deliveries.
+   *
+   * @param time the delivery time.
+   * @param sequence the sequence.
+   * @param message the message.
+   */
+  private record Delivery(long time, long sequence, @NotNull Object message)
+    implements Comparable<Delivery> {
+    @Override
+    public int compareTo(@NotNull final Delivery other) {
+      final var result = Long.compare(this.time, other.time);
+      return result != 0 ? result : Long.compare(this.sequence, other.sequence);
+    }
+  }
+}
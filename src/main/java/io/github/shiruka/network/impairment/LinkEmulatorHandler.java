@@ -0,0 +1,256 @@
+package io.github.shiruka.network.impairment;
+
+import io.github.shiruka.network.options.RakNetClock;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents link emulator pipelines.
+ * <p>
+ * impairs the datagrams in both directions of the pipeline with a {@link LinkEmulator} each and delivers them from the
+ * event loop when they are due. outbound writes succeed once the link accepts them, like a socket write. put it in
+ * front of the codecs of a channel, e.g. first in the pipeline of a {@code RakNetClientChannel}, to test a real
+ * connection over a bad link. with a {@code VirtualClock} the link delivers on virtual time.
+ */
+public final class LinkEmulatorHandler extends ChannelDuplexHandler {
+
+  /**
+   * the name.
+   */
+  public static final String NAME = "rn-link-emulator";
+
+  /**
+   * the clock.
+   */
+  @NotNull
+  private final RakNetClock clock;
+
+  /**
+   * the inbound direction.
+   */
+  @NotNull
+  private final Direction inbound;
+
+  /**
+   * the outbound direction.
+   */
+  @NotNull
+  private final Direction outbound;
+
+  /**
+   * ctor.
+   *
+   * @param inbound the inbound profile.
+   * @param outbound the outbound profile.
+   * @param clock the clock.
+   */
+  public LinkEmulatorHandler(
+    @NotNull final LinkProfile inbound,
+    @NotNull final LinkProfile outbound,
+    @NotNull final RakNetClock clock
+  ) {
+    this.clock = clock;
+    this.inbound = new Direction(new LinkEmulator(inbound), true);
+    this.outbound = new Direction(new LinkEmulator(outbound), false);
+  }
+
+  /**
+   * ctor.
+   *
+   * @param inbound the inbound profile.
+   * @param outbound the outbound profile.
+   */
+  public LinkEmulatorHandler(
+    @NotNull final LinkProfile inbound,
+    @NotNull final LinkProfile outbound
+  ) {
+    this(inbound, outbound, RakNetClock.system());
+  }
+
+  /**
+   * checks if the message is a datagram that the emulator handles.
+   *
+   * @param msg the msg to check.
+   *
+   * @return {@code true} if the message is a buffer or a buffer holder.
+   */
+  private static boolean isDatagram(@NotNull final Object msg) {
+    return msg instanceof ByteBuf || msg instanceof ByteBufHolder;
+  }
+
+  @Override
+  public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+    if (!LinkEmulatorHandler.isDatagram(msg)) {
+      ctx.fireChannelRead(msg);
+      return;
+    }
+    this.inbound.emulator.offer(msg, this.clock.nanoTime());
+    this.inbound.drain(ctx);
+  }
+
+  @Override
+  public void flush(final ChannelHandlerContext ctx) {
+    this.outbound.drain(ctx);
+    ctx.flush();
+  }
+
+  @Override
+  public void handlerRemoved(final ChannelHandlerContext ctx) {
+    this.inbound.close();
+    this.outbound.close();
+  }
+
+  /**
+   * obtains the emulator of the inbound datagrams.
+   *
+   * @return inbound emulator.
+   */
+  @NotNull
+  public LinkEmulator inboundEmulator() {
+    return this.inbound.emulator;
+  }
+
+  /**
+   * obtains the emulator of the outbound datagrams.
+   *
+   * @return outbound emulator.
+   */
+  @NotNull
+  public LinkEmulator outboundEmulator() {
+    return this.outbound.emulator;
+  }
+
+  @Override
+  public void write(
+    final ChannelHandlerContext ctx,
+    final Object msg,
+    final ChannelPromise promise
+  ) {
+    if (!LinkEmulatorHandler.isDatagram(msg)) {
+      ctx.write(msg, promise);
+      return;
+    }
+    final var now = this.clock.nanoTime();
+    this.outbound.emulator.offer(msg, now);
+    this.outbound.schedule(ctx, now);
+    promise.trySuccess();
+  }
+
+  /**
+   * a class that represents a direction of the link and its delivery timer.
+   */
+  private final class Direction {
+
+    /**
+     * the emulator.
+     */
+    @NotNull
+    private final LinkEmulator emulator;
+
+    /**
+     * the inbound.
+     */
+    private final boolean inbound;
+
+    /**
+     * the delivery timer.
+     */
+    @Nullable
+    private ScheduledFuture<?> timer;
+
+    /**
+     * the time that the timer runs at.
+     */
+    private long timerAt = Long.MAX_VALUE;
+
+    /**
+     * ctor.
+     *
+     * @param emulator the emulator.
+     * @param inbound the inbound.
+     */
+    private Direction(
+      @NotNull final LinkEmulator emulator,
+      final boolean inbound
+    ) {
+      this.emulator = emulator;
+      this.inbound = inbound;
+    }
+
+    /**
+     * cancels the timer and releases the pending datagrams.
+     */
+    private void close() {
+      if (this.timer != null) {
+        this.timer.cancel(false);
+        this.timer = null;
+      }
+      this.emulator.clear();
+    }
+
+    /**
+     * delivers the due datagrams and schedules the timer for the next one.
+     *
+     * @param ctx the ctx to drain.
+     */
+    private void drain(@NotNull final ChannelHandlerContext ctx) {
+      final var now = LinkEmulatorHandler.this.clock.nanoTime();
+      var delivered = false;
+      Object message;
+      while ((message = this.emulator.poll(now)) != null) {
+        if (this.inbound) {
+          ctx.fireChannelRead(message);
+        } else {
+          ctx.write(message, ctx.voidPromise());
+        }
+        delivered = true;
+      }
+      if (delivered) {
+        if (this.inbound) {
+          ctx.fireChannelReadComplete();
+        } else {
+          ctx.flush();
+        }
+      }
+      this.schedule(ctx, now);
+    }
+
+    /**
+     * schedules the timer for the next delivery unless it already runs earlier.
+     *
+     * @param ctx the ctx to schedule.
+     * @param now the now to schedule.
+     */
+    private void schedule(
+      @NotNull final ChannelHandlerContext ctx,
+      final long now
+    ) {
+      final var next = this.emulator.nextDeliveryNanos();
+      if (next == Long.MAX_VALUE || next >= this.timerAt) {
+        return;
+      }
+      if (this.timer != null) {
+        this.timer.cancel(false);
+      }
+      this.timerAt = next;
+      this.timer =
+        LinkEmulatorHandler.this.clock.schedule(
+          ctx.executor(),
+          () -> {
+            this.timerAt = Long.MAX_VALUE;
+            this.timer = null;
+            this.drain(ctx);
+          },
+          Math.max(0L, next - now),
+          TimeUnit.NANOSECONDS
+        );
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package io.github.shiruka.network.impairment;
+
+import com.google.common.base.Preconditions;
+import java.time.Duration;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a record class that represents impairments of a single link direction.
+ * <p>
+ * a datagram first waits in the bottleneck queue while the datagrams ahead of it are serialized at the bandwidth, the
+ * tail is dropped when the queue is full. it is then lost, or delayed by the latency plus a uniform jitter, held back
+ * further when it is reordered and delivered twice when it is duplicated. every decision comes from a random seeded
+ * with {@link #seed()}, so the same traffic sees the same impairments.
+ *
+ * @param loss the loss model.
+ * @param latency the one-way latency.
+ * @param jitter the upper bound of the uniform delay added to the latency.
+ * @param reorderRate the rate of the datagrams that are held back, between 0 and 1.
+ * @param reorderDelay the delay of the held back datagrams.
+ * @param duplicateRate the rate of the datagrams that are delivered twice, between 0 and 1.
+ * @param bandwidth the bytes per second of the bottleneck, 0 disables the bottleneck.
+ * @param queueBytes the bytes that the bottleneck queue holds, 0 is unbounded.
+ * @param seed the seed of the random.
+ */
+public record LinkProfile(
+  @NotNull LossModel loss,
+  @NotNull Duration latency,
+  @NotNull Duration jitter,
+  double reorderRate,
+  @NotNull Duration reorderDelay,
+  double duplicateRate,
+  long bandwidth,
+  int queueBytes,
+  long seed
+) {
+  /**
+   * ctor.
+   */
+  public LinkProfile {
+    Preconditions.checkArgument(
+      !latency.isNegative() &&
+      !jitter.isNegative() &&
+      !reorderDelay.isNegative(),
+      "Delays must not be negative"
+    );
+    Preconditions.checkArgument(
+      reorderRate >= 0.0d && reorderRate <= 1.0d,
+      "Reorder rate must be between 0 and 1"
+    );
+    Preconditions.checkArgument(
+      duplicateRate >= 0.0d && duplicateRate <= 1.0d,
+      "Duplicate rate must be between 0 and 1"
+    );
+    Preconditions.checkArgument(
+      bandwidth >= 0L && queueBytes >= 0,
+      "Bandwidth and queue bytes must be greater than or equal to 0"
+    );
+  }
+
+  /**
+   * creates a profile that delivers every datagram at once.
+   *
+   * @param seed the seed to create.
+   *
+   * @return perfect link profile.
+   */
+  @NotNull
+  public static LinkProfile perfect(final long seed) {
+    return new LinkProfile(
+      LossModel.none(),
+      Duration.ZERO,
+      Duration.ZERO,
+      0.0d,
+      Duration.ZERO,
+      0.0d,
+      0L,
+      0,
+      seed
+    );
+  }
+
+  /**
+   * creates a copy with the bottleneck.
+   *
+   * @param bandwidth the bandwidth to create.
+   * @param queueBytes the queue bytes to create.
+   *
+   * @return link profile.
+   */
+  @NotNull
+  public LinkProfile withBottleneck(
+    final long bandwidth,
+    final int queueBytes
+  ) {
+    return new LinkProfile(
+      this.loss,
+      this.latency,
+      this.jitter,
+      this.reorderRate,
+      this.reorderDelay,
+      this.duplicateRate,
+      bandwidth,
+      queueBytes,
+      this.seed
+    );
+  }
+
+  /**
+   * creates a copy with the delay.
+   *
+   * @param latency the latency to create.
+   * @param jitter the jitter to create.
+   *
+   * @return link profile.
+   */
+  @NotNull
+  public LinkProfile withDelay(
+    @NotNull final Duration latency,
+    @NotNull final Duration jitter
+  ) {
+    return new LinkProfile(
+      this.loss,
+      latency,
+      jitter,
+      this.reorderRate,
+      this.reorderDelay,
+      this.duplicateRate,
+      this.bandwidth,
+      this.queueBytes,
+      this.seed
+    );
+  }
+
+  /**
+   * creates a copy with the duplication.
+   *
+   * @param duplicateRate the duplicate rate to create.
+   *
+   * @return link profile.
+   */
+  @NotNull
+  public LinkProfile withDuplication(final double duplicateRate) {
+    return new LinkProfile(
+      this.loss,
+      this.latency,
+      this.jitter,
+      this.reorderRate,
+      this.reorderDelay,
+      duplicateRate,
+      this.bandwidth,
+      this.queueBytes,
+      this.seed
+    );
+  }
+
+  /**
+   * creates a copy with the loss model.
+   *
+   * @param loss the loss to create.
+   *
+   * @return link profile.
+   */
+  @NotNull
+  public LinkProfile withLoss(@NotNull final LossModel loss) {
+    return new LinkProfile(
+      loss,
+      this.latency,
+      this.jitter,
+      this.reorderRate,
+      this.reorderDelay,
+      this.duplicateRate,
+      this.bandwidth,
+      this.queueBytes,
+      this.seed
+    );
+  }
+
+  /**
+   * creates a copy with the reordering.
+   *
+   * @param reorderRate the reorder rate to create.
+   * @param reorderDelay the reorder delay to create.
+   *
+   * @return link profile.
+   */
+  @NotNull
+  public LinkProfile withReordering(
+    final double reorderRate,
+    @NotNull final Duration reorderDelay
+  ) {
+    return new LinkProfile(
+      this.loss,
+      this.latency,
+      this.jitter,
+      reorderRate,
+      reorderDelay,
+      this.duplicateRate,
+      this.bandwidth,
+      this.queueBytes,
+      this.seed
+    );
+  }
+}
@@ -0,0 +1,175 @@
+package io.github.shiruka.network.impairment;
+
+import com.google.common.base.Preconditions;
+import java.util.Random;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * an interface to determine loss models of emulated links.
+ * <p>
+ * the models are immutable, each link direction runs its own {@link Process} so burst states are not shared.
+ */
+public interface LossModel {
+  /**
+   * creates a model that drops each datagram independently.
+   *
+   * @param rate the rate to create, between 0 and 1.
+   *
+   * @return bernoulli loss model.
+   */
+  @NotNull
+  static LossModel bernoulli(final double rate) {
+    return new Bernoulli(rate);
+  }
+
+  /**
+   * creates a two state burst model.
+   *
+   * @param enterBad the probability of moving from the good state to the bad state after a datagram.
+   * @param leaveBad the probability of moving from the bad state to the good state after a datagram.
+   * @param goodLoss the loss rate in the good state.
+   * @param badLoss the loss rate in the bad state.
+   *
+   * @return gilbert-elliott loss model.
+   */
+  @NotNull
+  static LossModel gilbertElliott(
+    final double enterBad,
+    final double leaveBad,
+    final double goodLoss,
+    final double badLoss
+  ) {
+    return new GilbertElliott(enterBad, leaveBad, goodLoss, badLoss);
+  }
+
+  /**
+   * obtains the model that does not drop anything.
+   *
+   * @return lossless model.
+   */
+  @NotNull
+  static LossModel none() {
+    return Bernoulli.NONE;
+  }
+
+  /**
+   * checks the probability.
+   *
+   * @param probability the probability to check.
+   * @param name the name to check.
+   */
+  private static void checkProbability(
+    final double probability,
+    @NotNull final String name
+  ) {
+    Preconditions.checkArgument(
+      probability >= 0.0d && probability <= 1.0d,
+      "%s must be between 0 and 1",
+      name
+    );
+  }
+
+  /**
+   * creates a new loss process.
+   *
+   * @return loss process.
+   */
+  @NotNull
+  Process newProcess();
+
+  /**
+   * an interface to determine stateful loss processes of a single link direction.
+   */
+  interface Process {
+    /**
+     * decides whether the next datagram is dropped.
+     *
+     * @param random the random to decide.
+     *
+     * @return {@code true} if the datagram is dropped.
+     */
+    boolean drop(@NotNull Random random);
+  }
+
+  /**
+   * a record class that represents independent losses.
+   *
+   * @param rate the loss rate.
+   */
+  record Bernoulli(double rate) implements LossModel, Process {
+    /**
+     * the lossless model.
+     */
+    private static final Bernoulli NONE = new Bernoulli(0.0d);
+
+    /**
+     * ctor.
+     */
+    public Bernoulli {
+      LossModel.checkProbability(rate, "Loss rate");
+    }
+
+    @Override
+    public boolean drop(@NotNull final Random random) {
+      return this.rate > 0.0d && random.nextDouble() < this.rate;
+    }
+
+    @NotNull
+    @Override
+    public Process newProcess() {
+      return this;
+    }
+  }
+
+  /**
+   * a record class that represents gilbert-elliott burst losses.
+   *
+   * @param enterBad the probability of moving to the bad state.
+   * @param leaveBad the probability of moving to the good state.
+   * @param goodLoss the loss rate in the good state.
+   * @param badLoss the loss rate in the bad state.
+   */
+  record GilbertElliott(
+    double enterBad,
+    double leaveBad,
+    double goodLoss,
+    double badLoss
+  )
+    implements LossModel {
+    /**
+     * ctor.
+     */
+    public GilbertElliott {
+      LossModel.checkProbability(enterBad, "Enter bad probability");
+      LossModel.checkProbability(leaveBad, "Leave bad probability");
+      LossModel.checkProbability(goodLoss, "Good loss rate");
+      LossModel.checkProbability(badLoss, "Bad loss rate");
+    }
+
+    @NotNull
+    @Override
+    public Process newProcess() {
+      return new Process() {
+        /**
+         * the bad state.
+         */
+        private boolean bad;
+
+        @Override
+        public boolean drop(@NotNull final Random random) {
+          final var loss = this.bad
+            ? GilbertElliott.this.badLoss
+            : GilbertElliott.this.goodLoss;
+          final var dropped = random.nextDouble() < loss;
+          final var transition = this.bad
+            ? GilbertElliott.this.leaveBad
+            : GilbertElliott.this.enterBad;
+          if (random.nextDouble() < transition) {
+            this.bad = !this.bad;
+          }
+          return dropped;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,4 @@
+/**
+ * the package that contains link impairment emulator classes.
+ */
+package io.github.shiruka.network.impairment;
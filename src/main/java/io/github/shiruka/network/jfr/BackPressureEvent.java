@@ -0,0 +1,74 @@
+package io.github.shiruka.network.jfr;
+
+import io.netty.channel.Channel;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents flight recorder events of writability changes.
+ */
+@Name(RakNetEvents.PREFIX + "BackPressure")
+@Label("Back Pressure")
+@Category({ RakNetEvents.CATEGORY, "Reliability" })
+@Description(
+  "A connection whose frame queue crosses one of the write buffer water marks"
+)
+@StackTrace(false)
+public final class BackPressureEvent extends Event {
+
+  /**
+   * the address.
+   */
+  @Label("Remote Address")
+  private String address;
+
+  /**
+   * the queued bytes.
+   */
+  @Label("Queued Bytes")
+  @DataAmount
+  private long queuedBytes;
+
+  /**
+   * the queued frames.
+   */
+  @Label("Queued Frames")
+  private int queuedFrames;
+
+  /**
+   * the writable.
+   */
+  @Label("Writable")
+  private boolean writable;
+
+  /**
+   * commits the event if it is enabled.
+   *
+   * @param channel the channel to commit.
+   * @param writable the writable to commit.
+   * @param queuedFrames the queued frames to commit.
+   * @param queuedBytes the queued bytes to commit.
+   */
+  public static void commit(
+    @NotNull final Channel channel,
+    final boolean writable,
+    final int queuedFrames,
+    final long queuedBytes
+  ) {
+    final var event = new BackPressureEvent();
+    if (!event.isEnabled()) {
+      return;
+    }
+    event.address = RakNetEvents.address(channel);
+    event.writable = writable;
+    event.queuedFrames = queuedFrames;
+    event.queuedBytes = queuedBytes;
+    event.commit();
+  }
+}
@@ -0,0 +1,87 @@
+package io.github.shiruka.network.jfr;
+
+import io.netty.channel.Channel;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents flight recorder events of burst token changes.
+ * <p>
+ * the burst tokens may change on every flush of every connection, so the event is disabled by default and has to be
+ * enabled in the recording settings.
+ */
+@Name(RakNetEvents.PREFIX + "CongestionWindow")
+@Label("Congestion Window")
+@Category({ RakNetEvents.CATEGORY, "Reliability" })
+@Description("A change of the burst tokens of a connection")
+@Enabled(false)
+@StackTrace(false)
+public final class CongestionWindowEvent extends Event {
+
+  /**
+   * the address.
+   */
+  @Label("Remote Address")
+  private String address;
+
+  /**
+   * the burst tokens.
+   */
+  @Label("Burst Tokens")
+  private int burstTokens;
+
+  /**
+   * the in flight frame sets.
+   */
+  @Label("In Flight Frame Sets")
+  private int inFlightFrameSets;
+
+  /**
+   * the previous burst tokens.
+   */
+  @Label("Previous Burst Tokens")
+  private int previousBurstTokens;
+
+  /**
+   * the resend gauge.
+   */
+  @Label("Resend Gauge")
+  @Description(
+    "Positive while frame sets are acked, negative while they are lost"
+  )
+  private int resendGauge;
+
+  /**
+   * commits the event if it is enabled.
+   *
+   * @param channel the channel to commit.
+   * @param previousBurstTokens the previous burst tokens to commit.
+   * @param burstTokens the burst tokens to commit.
+   * @param inFlightFrameSets the in flight frame sets to commit.
+   * @param resendGauge the resend gauge to commit.
+   */
+  public static void commit(
+    @NotNull final Channel channel,
+    final int previousBurstTokens,
+    final int burstTokens,
+    final int inFlightFrameSets,
+    final int resendGauge
+  ) {
+    final var event = new CongestionWindowEvent();
+    if (!event.isEnabled()) {
+      return;
+    }
+    event.address = RakNetEvents.address(channel);
+    event.previousBurstTokens = previousBurstTokens;
+    event.burstTokens = burstTokens;
+    event.inFlightFrameSets = inFlightFrameSets;
+    event.resendGauge = resendGauge;
+    event.commit();
+  }
+}
@@ -0,0 +1,115 @@
+package io.github.shiruka.network.jfr;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents flight recorder events of closed connections.
+ * <p>
+ * the pipelines mark the cause with {@link #cause(Channel, Cause)} before they close the channel, the first marked
+ * cause wins and channels which are closed without a mark are reported as {@link Cause#LOCAL}.
+ */
+@Name(RakNetEvents.PREFIX + "ConnectionClose")
+@Label("Connection Close")
+@Category({ RakNetEvents.CATEGORY, "Connection" })
+@Description("A connection that is closed, with the cause of the close")
+@StackTrace(false)
+public final class ConnectionCloseEvent extends Event {
+
+  /**
+   * the cause key.
+   */
+  private static final AttributeKey<Cause> CAUSE = AttributeKey.valueOf(
+    "RN_CLOSE_CAUSE"
+  );
+
+  /**
+   * the address.
+   */
+  @Label("Remote Address")
+  private String address;
+
+  /**
+   * the cause.
+   */
+  @Label("Cause")
+  private String cause;
+
+  /**
+   * marks the cause of the upcoming close, does nothing if a cause is already marked.
+   *
+   * @param channel the channel to mark.
+   * @param cause the cause to mark.
+   */
+  public static void cause(
+    @NotNull final Channel channel,
+    @NotNull final Cause cause
+  ) {
+    channel.attr(ConnectionCloseEvent.CAUSE).setIfAbsent(cause);
+  }
+
+  /**
+   * commits the event with the marked cause if it is enabled.
+   *
+   * @param channel the channel to commit.
+   */
+  public static void commit(@NotNull final Channel channel) {
+    final var event = new ConnectionCloseEvent();
+    if (!event.isEnabled()) {
+      return;
+    }
+    final var cause = channel.attr(ConnectionCloseEvent.CAUSE).get();
+    event.address = RakNetEvents.address(channel);
+    event.cause = (cause == null ? Cause.LOCAL : cause).name();
+    event.commit();
+  }
+
+  /**
+   * an enum class that contains causes of closed connections.
+   */
+  public enum Cause {
+    /**
+     * the peer refused the connection or reported a failed connection.
+     */
+    CONNECTION_FAILED,
+    /**
+     * the handshake failed.
+     */
+    HANDSHAKE_FAILED,
+    /**
+     * the handshake did not finish in the connect timeout.
+     */
+    HANDSHAKE_TIMEOUT,
+    /**
+     * the channel is closed by the application.
+     */
+    LOCAL,
+    /**
+     * the frame queue grew over the max queued bytes.
+     */
+    QUEUE_OVERFLOW,
+    /**
+     * the peer sent a disconnect.
+     */
+    REMOTE_DISCONNECT,
+    /**
+     * the peer started a new handshake on the established connection.
+     */
+    RESTARTED,
+    /**
+     * the server channel is closed.
+     */
+    SERVER_CLOSED,
+    /**
+     * an internal write failed.
+     */
+    WRITE_FAILED,
+  }
+}
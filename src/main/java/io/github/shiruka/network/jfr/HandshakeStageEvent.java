@@ -0,0 +1,82 @@
+package io.github.shiruka.network.jfr;
+
+import io.netty.channel.Channel;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents flight recorder events of handshake stage changes.
+ */
+@Name(RakNetEvents.PREFIX + "HandshakeStage")
+@Label("Handshake Stage")
+@Category({ RakNetEvents.CATEGORY, "Handshake" })
+@Description("A connection that moves to the next stage of its handshake")
+@StackTrace(false)
+public final class HandshakeStageEvent extends Event {
+
+  /**
+   * the address.
+   */
+  @Label("Remote Address")
+  private String address;
+
+  /**
+   * the elapsed time since the handshake started.
+   */
+  @Label("Elapsed Time")
+  @Timespan
+  private long elapsedTime;
+
+  /**
+   * the next stage.
+   */
+  @Label("Next Stage")
+  private String nextStage;
+
+  /**
+   * the stage.
+   */
+  @Label("Stage")
+  private String stage;
+
+  /**
+   * the time spent in the stage.
+   */
+  @Label("Stage Time")
+  @Timespan
+  private long stageTime;
+
+  /**
+   * commits the event if it is enabled.
+   *
+   * @param channel the channel to commit.
+   * @param stage the stage to commit.
+   * @param nextStage the next stage to commit.
+   * @param stageTime the stage time nanos to commit.
+   * @param elapsedTime the elapsed time nanos to commit.
+   */
+  public static void commit(
+    @NotNull final Channel channel,
+    @NotNull final String stage,
+    @NotNull final String nextStage,
+    final long stageTime,
+    final long elapsedTime
+  ) {
+    final var event = new HandshakeStageEvent();
+    if (!event.isEnabled()) {
+      return;
+    }
+    event.address = RakNetEvents.address(channel);
+    event.stage = stage;
+    event.nextStage = nextStage;
+    event.stageTime = stageTime;
+    event.elapsedTime = elapsedTime;
+    event.commit();
+  }
+}
@@ -0,0 +1,37 @@
+package io.github.shiruka.network.jfr;
+
+import io.netty.channel.Channel;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that contains shared values of the flight recorder events.
+ */
+final class RakNetEvents {
+
+  /**
+   * the category.
+   */
+  static final String CATEGORY = "RakNet";
+
+  /**
+   * the prefix of the event names.
+   */
+  static final String PREFIX = "io.github.shiruka.network.";
+
+  /**
+   * ctor.
+   */
+  private RakNetEvents() {}
+
+  /**
+   * obtains the remote address of the channel as text.
+   *
+   * @param channel the channel to obtain.
+   *
+   * @return remote address.
+   */
+  @NotNull
+  static String address(@NotNull final Channel channel) {
+    return String.valueOf(channel.remoteAddress());
+  }
+}
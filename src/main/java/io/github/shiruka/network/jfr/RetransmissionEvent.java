@@ -0,0 +1,98 @@
+package io.github.shiruka.network.jfr;
+
+import io.github.shiruka.network.options.RakNetConfig;
+import io.netty.channel.Channel;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents flight recorder events of recalled frame sets.
+ */
+@Name(RakNetEvents.PREFIX + "Retransmission")
+@Label("Retransmission")
+@Category({ RakNetEvents.CATEGORY, "Reliability" })
+@Description("A frame set whose reliable frames are queued to be sent again")
+@StackTrace(false)
+public final class RetransmissionEvent extends Event {
+
+  /**
+   * the address.
+   */
+  @Label("Remote Address")
+  private String address;
+
+  /**
+   * the time since the frame set was sent.
+   */
+  @Label("Age")
+  @Timespan
+  private long age;
+
+  /**
+   * the rough size of the frame set.
+   */
+  @Label("Size")
+  @DataAmount
+  private int bytes;
+
+  /**
+   * the reason.
+   */
+  @Label("Reason")
+  private String reason;
+
+  /**
+   * the sequence id.
+   */
+  @Label("Sequence Id")
+  private int sequenceId;
+
+  /**
+   * commits the event if it is enabled.
+   *
+   * @param channel the channel to commit.
+   * @param reason the reason to commit.
+   * @param sequenceId the sequence id to commit.
+   * @param bytes the bytes to commit.
+   * @param sentTime the nano time that the frame set was sent.
+   */
+  public static void commit(
+    @NotNull final Channel channel,
+    @NotNull final Reason reason,
+    final int sequenceId,
+    final int bytes,
+    final long sentTime
+  ) {
+    final var event = new RetransmissionEvent();
+    if (!event.isEnabled()) {
+      return;
+    }
+    event.address = RakNetEvents.address(channel);
+    event.reason = reason.name();
+    event.sequenceId = sequenceId;
+    event.bytes = bytes;
+    event.age = RakNetConfig.cast(channel).clock().nanoTime() - sentTime;
+    event.commit();
+  }
+
+  /**
+   * an enum class that contains reasons of retransmissions.
+   */
+  public enum Reason {
+    /**
+     * the peer reported the frame set as missing.
+     */
+    NACK,
+    /**
+     * the ack of the frame set did not arrive in time.
+     */
+    TIMEOUT,
+  }
+}
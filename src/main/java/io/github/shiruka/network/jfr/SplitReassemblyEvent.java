@@ -0,0 +1,83 @@
+package io.github.shiruka.network.jfr;
+
+import io.netty.channel.Channel;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents flight recorder events of reassembled split packets.
+ */
+@Name(RakNetEvents.PREFIX + "SplitReassembly")
+@Label("Split Reassembly")
+@Category({ RakNetEvents.CATEGORY, "Reliability" })
+@Description("A split packet whose last fragment arrived")
+@StackTrace(false)
+public final class SplitReassemblyEvent extends Event {
+
+  /**
+   * the address.
+   */
+  @Label("Remote Address")
+  private String address;
+
+  /**
+   * the reassembled bytes.
+   */
+  @Label("Size")
+  @DataAmount
+  private int bytes;
+
+  /**
+   * the time in between the first and the last fragment.
+   */
+  @Label("Reassembly Time")
+  @Timespan
+  private long reassemblyTime;
+
+  /**
+   * the split count.
+   */
+  @Label("Split Count")
+  private int splitCount;
+
+  /**
+   * the split id.
+   */
+  @Label("Split Id")
+  private int splitId;
+
+  /**
+   * commits the event if it is enabled.
+   *
+   * @param channel the channel to commit.
+   * @param splitId the split id to commit.
+   * @param splitCount the split count to commit.
+   * @param bytes the bytes to commit.
+   * @param reassemblyTime the reassembly time nanos to commit.
+   */
+  public static void commit(
+    @NotNull final Channel channel,
+    final int splitId,
+    final int splitCount,
+    final int bytes,
+    final long reassemblyTime
+  ) {
+    final var event = new SplitReassemblyEvent();
+    if (!event.isEnabled()) {
+      return;
+    }
+    event.address = RakNetEvents.address(channel);
+    event.splitId = splitId;
+    event.splitCount = splitCount;
+    event.bytes = bytes;
+    event.reassemblyTime = reassemblyTime;
+    event.commit();
+  }
+}
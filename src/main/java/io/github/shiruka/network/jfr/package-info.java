@@ -0,0 +1,4 @@
+/**
+ * the package that contains flight recorder event classes.
+ */
+package io.github.shiruka.network.jfr;
@@ -0,0 +1,79 @@
+package io.github.shiruka.network.nbt;
+
+import io.github.shiruka.nbt.CompoundTag;
+import io.github.shiruka.network.PacketBuffer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents compound tags which are encoded once.
+ * <p>
+ * writing an encoded tag is a single buffer copy. the tag must not be modified after it is encoded, the encoded bytes
+ * are not updated. instances are immutable and can be shared between event loops.
+ * <p>
+ * only the bytes are kept, the tag is not referenced, so {@link EncodedTagCache} can collect its weak keys.
+ */
+public final class EncodedTag {
+
+  /**
+   * the encoded bytes.
+   */
+  @NotNull
+  private final ByteBuf encoded;
+
+  /**
+   * ctor.
+   *
+   * @param encoded the encoded.
+   */
+  private EncodedTag(@NotNull final ByteBuf encoded) {
+    this.encoded = encoded;
+  }
+
+  /**
+   * encodes the tag.
+   *
+   * @param tag the tag to encode.
+   *
+   * @return encoded tag.
+   */
+  @NotNull
+  public static EncodedTag of(@NotNull final CompoundTag tag) {
+    final var buffer = new PacketBuffer(Unpooled.buffer());
+    try {
+      buffer.writeCompoundTag(tag);
+      final var bytes = ByteBufUtil.getBytes(buffer.buffer());
+      return new EncodedTag(
+        Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(bytes).asReadOnly())
+      );
+    } finally {
+      buffer.release();
+    }
+  }
+
+  /**
+   * obtains the encoded size.
+   *
+   * @return encoded size.
+   */
+  public int size() {
+    return this.encoded.readableBytes();
+  }
+
+  /**
+   * writes the encoded bytes into the buffer.
+   *
+   * @param buffer the buffer to write.
+   */
+  public void write(@NotNull final PacketBuffer buffer) {
+    buffer
+      .buffer()
+      .writeBytes(
+        this.encoded,
+        this.encoded.readerIndex(),
+        this.encoded.readableBytes()
+      );
+  }
+}
@@ -0,0 +1,59 @@
+package io.github.shiruka.network.nbt;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import io.github.shiruka.nbt.CompoundTag;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents caches of encoded tags.
+ * <p>
+ * tags are keyed by identity and held weakly, so a tag which is sent repeatedly, such as an item definition, is encoded
+ * once for as long as it is referenced. the encoded tags do not reference their keys, so an entry is collected once
+ * its tag is unreachable or evicted when the cache is over its maximum size. the cached tags must not be modified,
+ * call {@link #invalidate(CompoundTag)} before changing one. the class is thread-safe.
+ */
+public final class EncodedTagCache {
+
+  /**
+   * the cache.
+   */
+  @NotNull
+  private final LoadingCache<CompoundTag, EncodedTag> cache;
+
+  /**
+   * ctor.
+   *
+   * @param maximumSize the maximum size.
+   */
+  public EncodedTagCache(final long maximumSize) {
+    this.cache =
+      CacheBuilder
+        .newBuilder()
+        .weakKeys()
+        .maximumSize(maximumSize)
+        .build(CacheLoader.from(EncodedTag::of));
+  }
+
+  /**
+   * obtains the encoded tag, encodes the tag if it is not cached yet.
+   *
+   * @param tag the tag to obtain.
+   *
+   * @return encoded tag.
+   */
+  @NotNull
+  public EncodedTag get(@NotNull final CompoundTag tag) {
+    return this.cache.getUnchecked(tag);
+  }
+
+  /**
+   * invalidates the encoded tag.
+   *
+   * @param tag the tag to invalidate.
+   */
+  public void invalidate(@NotNull final CompoundTag tag) {
+    this.cache.invalidate(tag);
+  }
+}
@@ -0,0 +1,468 @@
+package io.github.shiruka.network.nbt;
+
+import com.google.common.base.Preconditions;
+import io.github.shiruka.nbt.CompoundTag;
+import io.github.shiruka.nbt.Tag;
+import io.github.shiruka.network.PacketBuffer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that contains utility methods to read, write and walk network nbt directly on buffers.
+ * <p>
+ * the network format stores ints, longs and array lengths as zigzag var ints and string lengths as unsigned var ints.
+ * reading and writing go through the var int fast path of {@link PacketBuffer} and decode or encode strings in place,
+ * without any stream in between. the walker skips the payloads without creating any tag or string, so a tag can be
+ * measured, sliced or forwarded without decoding it.
+ */
+public final class NetworkNbt {
+
+  /**
+   * the max nesting depth of lists and compounds.
+   */
+  public static final int MAX_DEPTH = 512;
+
+  /**
+   * the byte tag id.
+   */
+  private static final int BYTE = 1;
+
+  /**
+   * the byte array tag id.
+   */
+  private static final int BYTE_ARRAY = 7;
+
+  /**
+   * the compound tag id.
+   */
+  private static final int COMPOUND = 10;
+
+  /**
+   * the double tag id.
+   */
+  private static final int DOUBLE = 6;
+
+  /**
+   * the end tag id.
+   */
+  private static final int END = 0;
+
+  /**
+   * the float tag id.
+   */
+  private static final int FLOAT = 5;
+
+  /**
+   * the int tag id.
+   */
+  private static final int INT = 3;
+
+  /**
+   * the int array tag id.
+   */
+  private static final int INT_ARRAY = 11;
+
+  /**
+   * the list tag id.
+   */
+  private static final int LIST = 9;
+
+  /**
+   * the long tag id.
+   */
+  private static final int LONG = 4;
+
+  /**
+   * the long array tag id.
+   */
+  private static final int LONG_ARRAY = 12;
+
+  /**
+   * the short tag id.
+   */
+  private static final int SHORT = 2;
+
+  /**
+   * the string tag id.
+   */
+  private static final int STRING = 8;
+
+  /**
+   * ctor.
+   */
+  private NetworkNbt() {}
+
+  /**
+   * measures the named root tag at the reader index of the buffer, the indexes of the buffer are not changed.
+   *
+   * @param buffer the buffer to measure.
+   *
+   * @return encoded length of the tag.
+   *
+   * @throws IllegalArgumentException if the tag has an unknown type, a negative length or is nested too deep.
+   * @throws IndexOutOfBoundsException if the tag is truncated.
+   */
+  public static int measure(@NotNull final ByteBuf buffer) {
+    final var reader = new PacketBuffer(buffer.duplicate());
+    final var start = reader.readerIndex();
+    final var type = reader.readUnsignedByte();
+    if (type != NetworkNbt.END) {
+      NetworkNbt.skipString(reader);
+      NetworkNbt.skipPayload(reader, type, 0);
+    }
+    return reader.readerIndex() - start;
+  }
+
+  /**
+   * reads the named root compound tag.
+   *
+   * @param reader the reader to read.
+   *
+   * @return compound tag.
+   *
+   * @throws IllegalArgumentException if the root is not a compound, or a tag has an unknown type, a negative or too
+   *   big length or is nested too deep.
+   * @throws IndexOutOfBoundsException if the tag is truncated.
+   */
+  @NotNull
+  public static CompoundTag readCompound(@NotNull final PacketBuffer reader) {
+    final var type = reader.readUnsignedByte();
+    Preconditions.checkArgument(
+      type == NetworkNbt.COMPOUND,
+      "Root tag must be a compound but was %s",
+      type
+    );
+    NetworkNbt.skipString(reader);
+    return NetworkNbt.readPayload(reader, type, 0).asCompound();
+  }
+
+  /**
+   * writes the compound tag as a root tag with an empty name.
+   *
+   * @param writer the writer to write.
+   * @param tag the tag to write.
+   *
+   * @throws IllegalArgumentException if a tag has an unknown type or is nested too deep.
+   */
+  public static void writeCompound(
+    @NotNull final PacketBuffer writer,
+    @NotNull final CompoundTag tag
+  ) {
+    writer.writeByte(NetworkNbt.COMPOUND);
+    writer.writeUnsignedVarInt(0);
+    NetworkNbt.writePayload(writer, tag, 0);
+  }
+
+  /**
+   * checks the depth of a list or a compound.
+   *
+   * @param depth the depth to check.
+   */
+  private static void checkDepth(final int depth) {
+    Preconditions.checkArgument(
+      depth < NetworkNbt.MAX_DEPTH,
+      "Tag is nested deeper than %s",
+      NetworkNbt.MAX_DEPTH
+    );
+  }
+
+  /**
+   * reads a zigzag var int length of elements that take at least one byte each.
+   *
+   * @param reader the reader to read.
+   *
+   * @return length.
+   */
+  private static int elements(@NotNull final PacketBuffer reader) {
+    return NetworkNbt.readable(reader, NetworkNbt.length(reader));
+  }
+
+  /**
+   * checks that the elements can be read, so a forged length can not allocate more than the buffer holds.
+   *
+   * @param reader the reader to check.
+   * @param length the length of elements that take at least one byte each.
+   *
+   * @return length.
+   */
+  private static int readable(
+    @NotNull final PacketBuffer reader,
+    final int length
+  ) {
+    Preconditions.checkArgument(
+      reader.buffer().isReadable(length),
+      "Tried to read %s elements but only has %s readable bytes",
+      length,
+      reader.remaining()
+    );
+    return length;
+  }
+
+  /**
+   * reads a zigzag var int length.
+   *
+   * @param reader the reader to read.
+   *
+   * @return length.
+   */
+  private static int length(@NotNull final PacketBuffer reader) {
+    final var length = reader.readVarInt();
+    Preconditions.checkArgument(length >= 0, "Negative length %s", length);
+    return length;
+  }
+
+  /**
+   * reads the payload of the tag.
+   *
+   * @param reader the reader to read.
+   * @param type the type of the tag.
+   * @param depth the depth of the tag.
+   *
+   * @return tag.
+   */
+  @NotNull
+  private static Tag readPayload(
+    @NotNull final PacketBuffer reader,
+    final int type,
+    final int depth
+  ) {
+    return switch (type) {
+      case NetworkNbt.BYTE -> Tag.createByte(reader.readByte());
+      case NetworkNbt.SHORT -> Tag.createShort(reader.readShortLE());
+      case NetworkNbt.INT -> Tag.createInt(reader.readVarInt());
+      case NetworkNbt.LONG -> Tag.createLong(reader.readVarLong());
+      case NetworkNbt.FLOAT -> Tag.createFloat(reader.readFloatLE());
+      case NetworkNbt.DOUBLE -> Tag.createDouble(reader.readDoubleLE());
+      case NetworkNbt.BYTE_ARRAY -> Tag.createByteArray(
+        reader.readBytes(NetworkNbt.elements(reader))
+      );
+      case NetworkNbt.STRING -> Tag.createString(NetworkNbt.readString(reader));
+      case NetworkNbt.LIST -> {
+        NetworkNbt.checkDepth(depth);
+        final var elementType = reader.readUnsignedByte();
+        final var length = NetworkNbt.length(reader);
+        // end elements have no payload, a forged count must not allocate.
+        final var count = elementType == NetworkNbt.END
+          ? 0
+          : NetworkNbt.readable(reader, length);
+        final var elements = new ArrayList<Tag>(count);
+        for (var index = 0; index < count; index++) {
+          elements.add(NetworkNbt.readPayload(reader, elementType, depth + 1));
+        }
+        yield Tag.createList(elements, (byte) elementType);
+      }
+      case NetworkNbt.COMPOUND -> {
+        NetworkNbt.checkDepth(depth);
+        final var compound = Tag.createCompound();
+        int entryType;
+        while ((entryType = reader.readUnsignedByte()) != NetworkNbt.END) {
+          final var name = NetworkNbt.readString(reader);
+          compound.set(
+            name,
+            NetworkNbt.readPayload(reader, entryType, depth + 1)
+          );
+        }
+        yield compound;
+      }
+      case NetworkNbt.INT_ARRAY -> {
+        final var array = new int[NetworkNbt.elements(reader)];
+        for (var index = 0; index < array.length; index++) {
+          array[index] = reader.readVarInt();
+        }
+        yield Tag.createIntArray(array);
+      }
+      case NetworkNbt.LONG_ARRAY -> {
+        final var array = new long[NetworkNbt.elements(reader)];
+        for (var index = 0; index < array.length; index++) {
+          array[index] = reader.readVarLong();
+        }
+        yield Tag.createLongArray(array);
+      }
+      default -> throw new IllegalArgumentException(
+        "Unknown tag type %s".formatted(type)
+      );
+    };
+  }
+
+  /**
+   * reads a string with an unsigned var int length.
+   *
+   * @param reader the reader to read.
+   *
+   * @return string.
+   */
+  @NotNull
+  private static String readString(@NotNull final PacketBuffer reader) {
+    final var length = reader.readUnsignedVarInt();
+    Preconditions.checkArgument(length >= 0, "Negative length %s", length);
+    final var buffer = reader.buffer();
+    final var index = buffer.readerIndex();
+    final var string = buffer.toString(index, length, StandardCharsets.UTF_8);
+    buffer.readerIndex(index + length);
+    return string;
+  }
+
+  /**
+   * skips the payload of the tag.
+   *
+   * @param reader the reader to skip.
+   * @param type the type of the tag.
+   * @param depth the depth of the tag.
+   */
+  private static void skipPayload(
+    @NotNull final PacketBuffer reader,
+    final int type,
+    final int depth
+  ) {
+    final var buffer = reader.buffer();
+    switch (type) {
+      case NetworkNbt.END -> {}
+      case NetworkNbt.BYTE -> buffer.skipBytes(Byte.BYTES);
+      case NetworkNbt.SHORT -> buffer.skipBytes(Short.BYTES);
+      case NetworkNbt.INT -> reader.readVarInt();
+      case NetworkNbt.LONG -> reader.readVarLong();
+      case NetworkNbt.FLOAT -> buffer.skipBytes(Float.BYTES);
+      case NetworkNbt.DOUBLE -> buffer.skipBytes(Double.BYTES);
+      case NetworkNbt.BYTE_ARRAY -> buffer.skipBytes(NetworkNbt.length(reader));
+      case NetworkNbt.STRING -> NetworkNbt.skipString(reader);
+      case NetworkNbt.LIST -> {
+        NetworkNbt.checkDepth(depth);
+        final var elementType = reader.readUnsignedByte();
+        final var count = NetworkNbt.length(reader);
+        // end elements have no payload, a forged count must not spin.
+        if (elementType != NetworkNbt.END) {
+          for (var index = 0; index < count; index++) {
+            NetworkNbt.skipPayload(reader, elementType, depth + 1);
+          }
+        }
+      }
+      case NetworkNbt.COMPOUND -> {
+        NetworkNbt.checkDepth(depth);
+        int entryType;
+        while ((entryType = reader.readUnsignedByte()) != NetworkNbt.END) {
+          NetworkNbt.skipString(reader);
+          NetworkNbt.skipPayload(reader, entryType, depth + 1);
+        }
+      }
+      case NetworkNbt.INT_ARRAY -> {
+        final var count = NetworkNbt.length(reader);
+        for (var index = 0; index < count; index++) {
+          reader.readVarInt();
+        }
+      }
+      case NetworkNbt.LONG_ARRAY -> {
+        final var count = NetworkNbt.length(reader);
+        for (var index = 0; index < count; index++) {
+          reader.readVarLong();
+        }
+      }
+      default -> throw new IllegalArgumentException(
+        "Unknown tag type %s".formatted(type)
+      );
+    }
+  }
+
+  /**
+   * skips a string without decoding it.
+   *
+   * @param reader the reader to skip.
+   */
+  private static void skipString(@NotNull final PacketBuffer reader) {
+    final var length = reader.readUnsignedVarInt();
+    Preconditions.checkArgument(length >= 0, "Negative length %s", length);
+    reader.buffer().skipBytes(length);
+  }
+
+  /**
+   * writes the payload of the tag.
+   *
+   * @param writer the writer to write.
+   * @param tag the tag to write.
+   * @param depth the depth of the tag.
+   */
+  private static void writePayload(
+    @NotNull final PacketBuffer writer,
+    @NotNull final Tag tag,
+    final int depth
+  ) {
+    final int type = tag.getId();
+    switch (type) {
+      case NetworkNbt.BYTE -> writer.writeByte(tag.asByte().byteValue());
+      case NetworkNbt.SHORT -> writer.writeShortLE(tag.asShort().shortValue());
+      case NetworkNbt.INT -> writer.writeVarInt(tag.asInt().intValue());
+      case NetworkNbt.LONG -> writer.writeVarLong(tag.asLong().longValue());
+      case NetworkNbt.FLOAT -> writer.writeFloatLE(tag.asFloat().floatValue());
+      case NetworkNbt.DOUBLE -> writer.writeDoubleLE(
+        tag.asDouble().doubleValue()
+      );
+      case NetworkNbt.BYTE_ARRAY -> {
+        final var array = tag.asByteArray().value();
+        writer.writeVarInt(array.length);
+        writer.writeBytes(array);
+      }
+      case NetworkNbt.STRING -> NetworkNbt.writeString(
+        writer,
+        tag.asString().value()
+      );
+      case NetworkNbt.LIST -> {
+        NetworkNbt.checkDepth(depth);
+        final var list = tag.asList();
+        final var elements = list.all();
+        writer.writeByte(
+          elements.isEmpty() ? NetworkNbt.END : list.getListType()
+        );
+        writer.writeVarInt(elements.size());
+        for (final var element : elements) {
+          NetworkNbt.writePayload(writer, element, depth + 1);
+        }
+      }
+      case NetworkNbt.COMPOUND -> {
+        NetworkNbt.checkDepth(depth);
+        final Map<String, Tag> entries = tag.asCompound().all();
+        for (final var entry : entries.entrySet()) {
+          final var value = entry.getValue();
+          writer.writeByte(value.getId());
+          NetworkNbt.writeString(writer, entry.getKey());
+          NetworkNbt.writePayload(writer, value, depth + 1);
+        }
+        writer.writeByte(NetworkNbt.END);
+      }
+      case NetworkNbt.INT_ARRAY -> {
+        final var array = tag.asIntArray().value();
+        writer.writeVarInt(array.length);
+        for (final var value : array) {
+          writer.writeVarInt(value);
+        }
+      }
+      case NetworkNbt.LONG_ARRAY -> {
+        final var array = tag.asLongArray().value();
+        writer.writeVarInt(array.length);
+        for (final var value : array) {
+          writer.writeVarLong(value);
+        }
+      }
+      default -> throw new IllegalArgumentException(
+        "Unknown tag type %s".formatted(type)
+      );
+    }
+  }
+
+  /**
+   * writes a string with an unsigned var int length.
+   *
+   * @param writer the writer to write.
+   * @param string the string to write.
+   */
+  private static void writeString(
+    @NotNull final PacketBuffer writer,
+    @NotNull final String string
+  ) {
+    final var length = ByteBufUtil.utf8Bytes(string);
+    writer.writeUnsignedVarInt(length);
+    ByteBufUtil.reserveAndWriteUtf8(writer.buffer(), string, length);
+  }
+}
@@ -0,0 +1,4 @@
+/**
+ * the package that contains network nbt classes.
+ */
+package io.github.shiruka.network.nbt;
@@ -0,0 +1,170 @@
+package io.github.shiruka.network.options;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * an interface to determine event loop selection strategies for child channels.
+ */
+public interface EventLoopStrategy {
+  /**
+   * creates a strategy that selects the loop which has the fewest children.
+   *
+   * @return least loaded strategy.
+   */
+  @NotNull
+  static EventLoopStrategy leastLoaded() {
+    return new LeastLoaded();
+  }
+
+  /**
+   * obtains the strategy that selects the loop of the socket which owns the child.
+   * <p>
+   * inbound and outbound datagrams never cross threads with this strategy.
+   *
+   * @return parent strategy.
+   */
+  @NotNull
+  static EventLoopStrategy parent() {
+    return Parent.INSTANCE;
+  }
+
+  /**
+   * obtains the strategy that keeps the loop offered by the bootstrap's child group.
+   *
+   * @return round-robin strategy.
+   */
+  @NotNull
+  static EventLoopStrategy roundRobin() {
+    return RoundRobin.INSTANCE;
+  }
+
+  /**
+   * releases the loop when the child that is assigned to it closes.
+   *
+   * @param loop the loop to release.
+   */
+  default void release(@NotNull final EventLoop loop) {}
+
+  /**
+   * selects the event loop of a child.
+   *
+   * @param parent the parent of the child.
+   * @param offered the loop which is offered by the child group.
+   *
+   * @return selected event loop.
+   */
+  @NotNull
+  EventLoop select(@NotNull Channel parent, @NotNull EventLoop offered);
+
+  /**
+   * a class that represents least loaded strategies.
+   */
+  final class LeastLoaded implements EventLoopStrategy {
+
+    /**
+     * the child counts of the loops.
+     */
+    private final Map<EventLoop, AtomicInteger> loads = new ConcurrentHashMap<>();
+
+    /**
+     * ctor.
+     */
+    private LeastLoaded() {}
+
+    @Override
+    public void release(@NotNull final EventLoop loop) {
+      final var load = this.loads.get(loop);
+      if (load != null) {
+        load.decrementAndGet();
+      }
+    }
+
+    @NotNull
+    @Override
+    public EventLoop select(
+      @NotNull final Channel parent,
+      @NotNull final EventLoop offered
+    ) {
+      var selected = offered;
+      var min = this.load(offered).get();
+      for (final var executor : offered.parent()) {
+        if (executor instanceof EventLoop loop) {
+          final var load = this.load(loop).get();
+          if (load < min) {
+            min = load;
+            selected = loop;
+          }
+        }
+      }
+      this.load(selected).incrementAndGet();
+      return selected;
+    }
+
+    /**
+     * obtains the load of the loop.
+     *
+     * @param loop the loop to obtain.
+     *
+     * @return load.
+     */
+    @NotNull
+    private AtomicInteger load(@NotNull final EventLoop loop) {
+      return this.loads.computeIfAbsent(loop, key -> new AtomicInteger());
+    }
+  }
+
+  /**
+   * a class that represents parent strategies.
+   */
+  final class Parent implements EventLoopStrategy {
+
+    /**
+     * the instance.
+     */
+    private static final EventLoopStrategy INSTANCE = new Parent();
+
+    /**
+     * ctor.
+     */
+    private Parent() {}
+
+    @NotNull
+    @Override
+    public EventLoop select(
+      @NotNull final Channel parent,
+      @NotNull final EventLoop offered
+    ) {
+      return parent.eventLoop();
+    }
+  }
+
+  /**
+   * a class that represents round-robin strategies.
+   */
+  final class RoundRobin implements EventLoopStrategy {
+
+    /**
+     * the instance.
+     */
+    private static final EventLoopStrategy INSTANCE = new RoundRobin();
+
+    /**
+     * ctor.
+     */
+    private RoundRobin() {}
+
+    @NotNull
+    @Override
+    public EventLoop select(
+      @NotNull final Channel parent,
+      @NotNull final EventLoop offered
+    ) {
+      return offered;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package io.github.shiruka.network.options;
 
 import io.github.shiruka.network.Identifier;
+import io.github.shiruka.network.stats.RakNetMetrics;
 import io.netty.channel.ChannelOption;
 import io.netty.util.AttributeKey;
 
@@ -13,6 +14,18 @@ public interface RakNetChannelOptions {
    */
   ChannelOption<Long> CLIENT_ID = ChannelOption.valueOf("RN_CLIENT_ID");
 
+  /**
+   * the clock.
+   */
+  ChannelOption<RakNetClock> CLOCK = ChannelOption.valueOf("RN_CLOCK");
+
+  /**
+   * the event loop strategy.
+   */
+  ChannelOption<EventLoopStrategy> EVENT_LOOP_STRATEGY = ChannelOption.valueOf(
+    "RN_EVENT_LOOP_STRATEGY"
+  );
+
   /**
    * the magic.
    */
@@ -25,6 +38,11 @@ public interface RakNetChannelOptions {
     "RN_MAX_CONNECTIONS"
   );
 
+  /**
+   * the metrics.
+   */
+  ChannelOption<RakNetMetrics> METRICS = ChannelOption.valueOf("RN_METRICS");
+
   /**
    * the mtu.
    */
@@ -37,6 +55,11 @@ public interface RakNetChannelOptions {
     "RN_PROTOCOL_VERSION"
   );
 
+  /**
+   * the rate limit.
+   */
+  ChannelOption<RateLimit> RATE_LIMIT = ChannelOption.valueOf("RN_RATE_LIMIT");
+
   /**
    * the retry delay nanos.
    */
@@ -61,6 +84,13 @@ public interface RakNetChannelOptions {
     "RN_SERVER_IDENTIFIER"
   );
 
+  /**
+   * the stateless handshake.
+   */
+  ChannelOption<Boolean> STATELESS_HANDSHAKE = ChannelOption.valueOf(
+    "RN_STATELESS_HANDSHAKE"
+  );
+
   /**
    * the writable.
    */
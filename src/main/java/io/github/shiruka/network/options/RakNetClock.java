@@ -0,0 +1,125 @@
+package io.github.shiruka.network.options;
+
+import io.netty.util.concurrent.EventExecutor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * an interface to determine clocks that time and schedule the protocol work of channels.
+ * <p>
+ * handlers read the time and schedule their timers through {@link RakNetConfig#clock()}, so a {@link VirtualClock}
+ * can drive retransmissions, pings and flush ticks without waiting on the wall clock.
+ */
+public interface RakNetClock {
+  /**
+   * obtains the clock that reads the system time and schedules on the event loops.
+   *
+   * @return system clock.
+   */
+  @NotNull
+  static RakNetClock system() {
+    return SystemClock.INSTANCE;
+  }
+
+  /**
+   * obtains the current time in milliseconds since the epoch.
+   *
+   * @return current time millis.
+   */
+  long currentTimeMillis();
+
+  /**
+   * obtains the monotonic time in nanoseconds.
+   *
+   * @return nano time.
+   */
+  long nanoTime();
+
+  /**
+   * schedules the task to run once after the delay.
+   *
+   * @param executor the executor which owns the task.
+   * @param task the task to schedule.
+   * @param delay the delay to schedule.
+   * @param unit the unit of the delay.
+   *
+   * @return scheduled future.
+   */
+  @NotNull
+  ScheduledFuture<?> schedule(
+    @NotNull EventExecutor executor,
+    @NotNull Runnable task,
+    long delay,
+    @NotNull TimeUnit unit
+  );
+
+  /**
+   * schedules the task to run periodically.
+   *
+   * @param executor the executor which owns the task.
+   * @param task the task to schedule.
+   * @param initialDelay the initial delay to schedule.
+   * @param period the period to schedule.
+   * @param unit the unit of the delay and the period.
+   *
+   * @return scheduled future.
+   */
+  @NotNull
+  ScheduledFuture<?> scheduleAtFixedRate(
+    @NotNull EventExecutor executor,
+    @NotNull Runnable task,
+    long initialDelay,
+    long period,
+    @NotNull TimeUnit unit
+  );
+
+  /**
+   * a class that represents system clocks.
+   */
+  final class SystemClock implements RakNetClock {
+
+    /**
+     * the instance.
+     */
+    private static final RakNetClock INSTANCE = new SystemClock();
+
+    /**
+     * ctor.
+     */
+    private SystemClock() {}
+
+    @Override
+    public long currentTimeMillis() {
+      return System.currentTimeMillis();
+    }
+
+    @Override
+    public long nanoTime() {
+      return System.nanoTime();
+    }
+
+    @NotNull
+    @Override
+    public ScheduledFuture<?> schedule(
+      @NotNull final EventExecutor executor,
+      @NotNull final Runnable task,
+      final long delay,
+      @NotNull final TimeUnit unit
+    ) {
+      return executor.schedule(task, delay, unit);
+    }
+
+    @NotNull
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(
+      @NotNull final EventExecutor executor,
+      @NotNull final Runnable task,
+      final long initialDelay,
+      final long period,
+      @NotNull final TimeUnit unit
+    ) {
+      return executor.scheduleAtFixedRate(task, initialDelay, period, unit);
+    }
+  }
+}
@@ -26,15 +26,13 @@ import io.github.shiruka.network.packets.ServerHandshake;
 import io.github.shiruka.network.packets.UnconnectedPing;
 import io.github.shiruka.network.packets.UnconnectedPong;
 import io.netty.buffer.ByteBufAllocator;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
-import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -51,6 +49,16 @@ public interface RakNetCodec {
     return Impl.INSTANCE;
   }
 
+  /**
+   * creates a codec builder which contains the rak net packets.
+   *
+   * @return codec builder.
+   */
+  @NotNull
+  static Builder builder() {
+    return new Builder().registerDefaults();
+  }
+
   /**
    * decodes the packet.
    *
@@ -117,39 +125,176 @@ public interface RakNetCodec {
   );
 
   /**
-   * a simple implementation of {@link RakNetCodec}.
+   * a class that represents codec builders.
    */
-  final class Impl implements RakNetCodec {
-
-    /**
-     * the instance.
-     */
-    private static final RakNetCodec INSTANCE = new Impl();
+  final class Builder {
 
     /**
      * the decoders.
      */
-    private final Int2ObjectMap<Function<PacketBuffer, ? extends Packet>> decoders = new Int2ObjectOpenHashMap<>();
+    @SuppressWarnings("unchecked")
+    private final Function<PacketBuffer, ? extends Packet>[] decoders = new Function[Impl.SIZE];
 
     /**
      * the encoders.
      */
-    private final Int2ObjectMap<BiConsumer<? extends Packet, PacketBuffer>> encoders = new Int2ObjectOpenHashMap<>();
+    @SuppressWarnings("unchecked")
+    private final BiConsumer<? extends Packet, PacketBuffer>[] encoders = new BiConsumer[Impl.SIZE];
 
     /**
      * the framed packet ids.
      */
-    private final IntSet framedPacketIds = new IntOpenHashSet();
+    private final boolean[] framed = new boolean[Impl.SIZE];
 
     /**
      * the id from class.
      */
     private final Object2IntMap<Class<?>> idFromClass = new Object2IntOpenHashMap<>();
 
+    /**
+     * the size hints.
+     */
+    @SuppressWarnings("unchecked")
+    private final ToIntFunction<? extends Packet>[] sizeHints = new ToIntFunction[Impl.SIZE];
+
     /**
      * ctor.
      */
-    private Impl() {
+    private Builder() {}
+
+    /**
+     * decodes simply.
+     *
+     * @param supplier the supplier to decode.
+     * @param <T> type of the packet class.
+     *
+     * @return decode function.
+     */
+    @NotNull
+    private static <T extends Packet> Function<PacketBuffer, T> decodeSimple(
+      @NotNull final Supplier<T> supplier
+    ) {
+      return buf -> {
+        final var packet = supplier.get();
+        buf.skip(1);
+        packet.decode(buf);
+        return packet;
+      };
+    }
+
+    /**
+     * encodes simply.
+     *
+     * @param id the id to encode.
+     * @param <T> type of the packet class.
+     *
+     * @return encode function.
+     */
+    @NotNull
+    private static <T extends Packet> BiConsumer<T, PacketBuffer> encodeSimple(
+      final int id
+    ) {
+      return (packet, buffer) -> {
+        buffer.writeByte(id);
+        packet.encode(buffer);
+      };
+    }
+
+    /**
+     * builds an immutable codec.
+     *
+     * @return codec.
+     */
+    @NotNull
+    public RakNetCodec build() {
+      return new Impl(this);
+    }
+
+    /**
+     * registers the packet.
+     *
+     * @param id the id to register.
+     * @param cls the cls to register.
+     * @param supplier the supplier to register.
+     * @param <T> type of the packet class.
+     *
+     * @return {@code this} for the builder chain.
+     */
+    @NotNull
+    public <T extends Packet> Builder register(
+      final int id,
+      @NotNull final Class<T> cls,
+      @NotNull final Supplier<T> supplier
+    ) {
+      return this.register(
+          id,
+          cls,
+          Builder.decodeSimple(supplier),
+          Builder.encodeSimple(id)
+        );
+    }
+
+    /**
+     * registers the packet with a size hint, the size hint includes the packet id.
+     *
+     * @param id the id to register.
+     * @param cls the cls to register.
+     * @param supplier the supplier to register.
+     * @param sizeHint the size hint to register.
+     * @param <T> type of the packet class.
+     *
+     * @return {@code this} for the builder chain.
+     */
+    @NotNull
+    public <T extends Packet> Builder register(
+      final int id,
+      @NotNull final Class<T> cls,
+      @NotNull final Supplier<T> supplier,
+      @NotNull final ToIntFunction<T> sizeHint
+    ) {
+      this.register(id, cls, supplier);
+      this.sizeHints[id] = sizeHint;
+      return this;
+    }
+
+    /**
+     * registers the packet.
+     *
+     * @param id the id to register.
+     * @param cls the cls to register.
+     * @param decoder the decoder to register.
+     * @param encoder the encoder to register.
+     * @param <T> type of the packet class.
+     *
+     * @return {@code this} for the builder chain.
+     */
+    @NotNull
+    public <T extends Packet> Builder register(
+      final int id,
+      @NotNull final Class<? extends Packet> cls,
+      @NotNull final Function<PacketBuffer, T> decoder,
+      @NotNull final BiConsumer<T, PacketBuffer> encoder
+    ) {
+      Preconditions.checkArgument(
+        id >= 0 && id < Impl.SIZE,
+        "Packet id must be in between 0-%s",
+        Impl.SIZE - 1
+      );
+      this.idFromClass.put(cls, id);
+      this.decoders[id] = decoder;
+      this.encoders[id] = encoder;
+      this.sizeHints[id] = null;
+      this.framed[id] = FramedPacket.class.isAssignableFrom(cls);
+      return this;
+    }
+
+    /**
+     * registers the rak net packets.
+     *
+     * @return {@code this} for the builder chain.
+     */
+    @NotNull
+    private Builder registerDefaults() {
       this.register(
           Ids.CONNECTED_PING,
           ConnectedPing.class,
@@ -249,55 +394,83 @@ public interface RakNetCodec {
       }
       this.register(Ids.NACK, Nack.class, Nack::new);
       this.register(Ids.ACK, Ack.class, Ack::new);
-      this.idFromClass.defaultReturnValue(-1);
+      return this;
     }
+  }
+
+  /**
+   * a simple implementation of {@link RakNetCodec}.
+   * <p>
+   * packets are dispatched through arrays which are indexed by the packet id and the packet classes are mapped to
+   * their ids through a {@link ClassValue}, so lookups do not hash the id or the class on each packet.
+   */
+  final class Impl implements RakNetCodec {
 
     /**
-     * decodes simply.
-     *
-     * @param supplier the supplier to decode.
-     * @param <T> type of the packet class.
-     *
-     * @return decode function.
+     * the instance.
      */
-    @NotNull
-    private static <T extends Packet> Function<PacketBuffer, T> decodeSimple(
-      @NotNull final Supplier<T> supplier
-    ) {
-      return buf -> {
-        final var packet = supplier.get();
-        buf.skip(1);
-        packet.decode(buf);
-        return packet;
-      };
-    }
+    private static final RakNetCodec INSTANCE = RakNetCodec.builder().build();
 
     /**
-     * encodes simply.
-     *
-     * @param id the id to encode.
-     * @param <T> type of the packet class.
+     * the packet id count.
+     */
+    private static final int SIZE = 256;
+
+    /**
+     * the decoders.
+     */
+    private final Function<PacketBuffer, ? extends Packet>[] decoders;
+
+    /**
+     * the encoders.
+     */
+    private final BiConsumer<? extends Packet, PacketBuffer>[] encoders;
+
+    /**
+     * the framed packet ids.
+     */
+    private final boolean[] framed;
+
+    /**
+     * the id from class.
+     */
+    private final ClassValue<Integer> idFromClass;
+
+    /**
+     * the size hints.
+     */
+    private final ToIntFunction<? extends Packet>[] sizeHints;
+
+    /**
+     * ctor.
      *
-     * @return encode function.
+     * @param builder the builder.
      */
-    @NotNull
-    private static <T extends Packet> BiConsumer<T, PacketBuffer> encodeSimple(
-      final int id
-    ) {
-      return (packet, buffer) -> {
-        buffer.writeByte(id);
-        packet.encode(buffer);
-      };
+    private Impl(@NotNull final Builder builder) {
+      this.decoders = builder.decoders.clone();
+      this.encoders = builder.encoders.clone();
+      this.framed = builder.framed.clone();
+      this.sizeHints = builder.sizeHints.clone();
+      final var ids = Object2IntMaps.unmodifiable(
+        new Object2IntOpenHashMap<>(builder.idFromClass)
+      );
+      this.idFromClass =
+        new ClassValue<>() {
+          @Override
+          protected Integer computeValue(final Class<?> type) {
+            return ids.getOrDefault(type, -1);
+          }
+        };
     }
 
     @NotNull
     @Override
     public Packet decode(@NotNull final PacketBuffer buffer) {
       final var packetId = buffer.unsignedByte(buffer.readerIndex());
-      final var decoder = this.decoders.get(packetId);
+      final var decoder = this.decoders[packetId];
       Preconditions.checkArgument(
         decoder != null,
-        "Unknown decoder for packet id %",
+        "Unknown decoder for packet id %s",
         packetId
       );
       return decoder.apply(buffer);
@@ -307,10 +480,10 @@ public interface RakNetCodec {
     @Override
     public FramedPacket decode(@NotNull final Frame.Data data) {
       final var packetId = data.packetId();
-      final var decoder = this.decoders.get(packetId);
-      if (decoder == null || !this.framedPacketIds.contains(packetId)) {
+      if (!this.framed[packetId]) {
         return data.retain();
       }
+      final var decoder = this.decoders[packetId];
       final var buffer = data.createData();
       try {
         return ((FramedPacket) decoder.apply(buffer)).reliability(
@@ -332,7 +505,7 @@ public interface RakNetCodec {
         return data.retain();
       }
       final var out = new PacketBuffer(
-        allocator.ioBuffer(packet.initialSizeHint())
+        allocator.ioBuffer(this.sizeHint(packet))
       );
       try {
         this.encode(packet, out);
@@ -350,22 +523,21 @@ public interface RakNetCodec {
       @NotNull final Packet packet,
       @NotNull final PacketBuffer buffer
     ) {
+      final var packetId = this.packetIdFor(packet.getClass());
       Preconditions.checkArgument(
-        this.idFromClass.containsKey(packet.getClass()),
+        packetId != -1,
         "Unknown encoder for %s!",
         packet.getClass()
       );
-      final var packetId = this.packetIdFor(packet.getClass());
       //noinspection unchecked
-      final var encoder = (BiConsumer<Packet, PacketBuffer>) this.encoders.get(
-          packetId
-        );
+      final var encoder =
+        (BiConsumer<Packet, PacketBuffer>) this.encoders[packetId];
       encoder.accept(packet, buffer);
     }
 
     @Override
     public int packetIdFor(@NotNull final Class<? extends Packet> type) {
-      return this.idFromClass.getInt(type);
+      return this.idFromClass.get(type);
     }
 
     @NotNull
@@ -378,7 +550,7 @@ public interface RakNetCodec {
         return set.produce(allocator);
       }
       final var buffer = new PacketBuffer(
-        allocator.ioBuffer(packet.initialSizeHint())
+        allocator.ioBuffer(this.sizeHint(packet))
       );
       try {
         this.encode(packet, buffer);
@@ -389,47 +561,22 @@ public interface RakNetCodec {
     }
 
     /**
-     * registers the packet.
+     * obtains the size hint of the packet.
      *
-     * @param id the id to register.
-     * @param cls the cls to register.
-     * @param supplier the supplier to register.
-     * @param <T> type of the packet class.
-     */
-    private <T extends Packet> void register(
-      final int id,
-      @NotNull final Class<T> cls,
-      @NotNull final Supplier<T> supplier
-    ) {
-      this.register(
-          id,
-          cls,
-          Impl.decodeSimple(supplier),
-          Impl.encodeSimple(id)
-        );
-    }
-
-    /**
-     * registers the packet.
+     * @param packet the packet to obtain.
      *
-     * @param id the id to register.
-     * @param cls the cls to register.
-     * @param decoder the decoder to register.
-     * @param encoder the encoder to register.
-     * @param <T> type of the packet class.
+     * @return registered size hint, or {@link Packet#initialSizeHint()} if the packet has no registered size hint.
      */
-    private <T extends Packet> void register(
-      final int id,
-      @NotNull final Class<? extends Packet> cls,
-      @NotNull final Function<PacketBuffer, T> decoder,
-      @NotNull final BiConsumer<T, PacketBuffer> encoder
-    ) {
-      this.idFromClass.put(cls, id);
-      this.decoders.put(id, decoder);
-      this.encoders.put(id, encoder);
-      if (FramedPacket.class.isAssignableFrom(cls)) {
-        this.framedPacketIds.add(id);
+    private int sizeHint(@NotNull final Packet packet) {
+      final var packetId = this.packetIdFor(packet.getClass());
+      if (packetId == -1) {
+        return packet.initialSizeHint();
       }
+      //noinspection unchecked
+      final var sizeHint = (ToIntFunction<Packet>) this.sizeHints[packetId];
+      return sizeHint == null
+        ? packet.initialSizeHint()
+        : sizeHint.applyAsInt(packet);
     }
   }
 }
@@ -1,23 +1,23 @@
 package io.github.shiruka.network.options;
 
-import io.github.shiruka.network.BlockedAddress;
 import io.github.shiruka.network.Constants;
 import io.github.shiruka.network.Identifier;
+import io.github.shiruka.network.stats.ConnectionStats;
+import io.github.shiruka.network.stats.RakNetMetrics;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelConfig;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultChannelConfig;
-import java.net.InetAddress;
 import java.util.Arrays;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * an interface to determine configurations for rak net.
@@ -76,6 +76,24 @@ public interface RakNetConfig extends ChannelConfig {
    */
   long clientId();
 
+  /**
+   * obtains the clock.
+   *
+   * @return clock.
+   */
+  @NotNull
+  RakNetClock clock();
+
+  /**
+   * sets the clock.
+   *
+   * @param clock the clock to set.
+   *
+   * @return {@code this} for the builder chain.
+   */
+  @NotNull
+  RakNetConfig clock(@NotNull RakNetClock clock);
+
   /**
    * obtains the codec.
    *
@@ -120,6 +138,24 @@ public interface RakNetConfig extends ChannelConfig {
    */
   int defaultPendingFrameSets();
 
+  /**
+   * obtains the event loop strategy.
+   *
+   * @return event loop strategy.
+   */
+  @NotNull
+  EventLoopStrategy eventLoopStrategy();
+
+  /**
+   * sets the event loop strategy.
+   *
+   * @param eventLoopStrategy the event loop strategy to set.
+   *
+   * @return {@code this} for the builder chain.
+   */
+  @NotNull
+  RakNetConfig eventLoopStrategy(@NotNull EventLoopStrategy eventLoopStrategy);
+
   /**
    * obtains the magic.
    *
@@ -189,6 +225,27 @@ public interface RakNetConfig extends ChannelConfig {
   @NotNull
   RakNetConfig maxQueuedBytes(int maxQueuedBytes);
 
+  /**
+   * obtains the metrics that aggregate every connection of the server.
+   * <p>
+   * client channels default to {@link RakNetMetrics#shared()}, set the {@code RN_METRICS} option to give a client its
+   * own metrics or to share one instance between a group of clients.
+   *
+   * @return metrics.
+   */
+  @NotNull
+  RakNetMetrics metrics();
+
+  /**
+   * sets the metrics.
+   *
+   * @param metrics the metrics to set.
+   *
+   * @return {@code this} for the builder chain.
+   */
+  @NotNull
+  RakNetConfig metrics(@NotNull RakNetMetrics metrics);
+
   /**
    * obtains the mtu.
    *
@@ -223,6 +280,27 @@ public interface RakNetConfig extends ChannelConfig {
    */
   int protocolVersion();
 
+  /**
+   * obtains the rate limit of unconnected traffic.
+   * <p>
+   * the rate limit is {@link RateLimit#disabled()} by default, servers which face the internet should opt in with
+   * {@link RateLimit#simple()} or their own limits.
+   *
+   * @return rate limit.
+   */
+  @NotNull
+  RateLimit rateLimit();
+
+  /**
+   * sets the rate limit of unconnected traffic.
+   *
+   * @param rateLimit the rate limit to set.
+   *
+   * @return {@code this} for the builder chain.
+   */
+  @NotNull
+  RakNetConfig rateLimit(@NotNull RateLimit rateLimit);
+
   /**
    * obtains the retry delay nanos.
    *
@@ -296,6 +374,34 @@ public interface RakNetConfig extends ChannelConfig {
   @NotNull
   RakNetConfig serverIdentifier(@NotNull Identifier serverIdentifier);
 
+  /**
+   * checks if the handshake is stateless.
+   * <p>
+   * stateless servers reply connection request 1 with a cookie and create the child only when a connection request 2
+   * echoes a valid cookie.
+   *
+   * @return {@code true} if the handshake is stateless.
+   */
+  boolean statelessHandshake();
+
+  /**
+   * sets the stateless handshake.
+   *
+   * @param statelessHandshake the stateless handshake to set.
+   *
+   * @return {@code this} for the builder chain.
+   */
+  @NotNull
+  RakNetConfig statelessHandshake(boolean statelessHandshake);
+
+  /**
+   * obtains the statistics of the connection.
+   *
+   * @return connection stats.
+   */
+  @NotNull
+  ConnectionStats stats();
+
   /**
    * updates rtt nanos.
    *
@@ -319,9 +425,10 @@ public interface RakNetConfig extends ChannelConfig {
     );
 
     /**
-     * the blocked addresses.
+     * the stats.
      */
-    private volatile Map<InetAddress, BlockedAddress> blockedAddresses = new ConcurrentHashMap<>();
+    @NotNull
+    private final ConnectionStats stats = new ConnectionStats();
 
     /**
      * the client id.
@@ -329,6 +436,12 @@ public interface RakNetConfig extends ChannelConfig {
     @Getter
     private volatile long clientId = Constants.RANDOM.nextLong();
 
+    /**
+     * the clock.
+     */
+    @NotNull
+    private volatile RakNetClock clock = RakNetClock.system();
+
     /**
      * the codec.
      */
@@ -340,6 +453,12 @@ public interface RakNetConfig extends ChannelConfig {
      */
     private volatile int defaultPendingFrameSets = 32;
 
+    /**
+     * the event loop strategy.
+     */
+    @NotNull
+    private volatile EventLoopStrategy eventLoopStrategy = EventLoopStrategy.parent();
+
     /**
      * the magic.
      */
@@ -362,6 +481,13 @@ public interface RakNetConfig extends ChannelConfig {
      */
     private volatile int maxQueuedBytes = 3 * 1024 * 1024;
 
+    /**
+     * the metrics, created on first use since child channels take the metrics of their parent and client channels
+     * take the shared metrics.
+     */
+    @Nullable
+    private volatile RakNetMetrics metrics;
+
     /**
      * the mtu.
      */
@@ -378,6 +504,12 @@ public interface RakNetConfig extends ChannelConfig {
      */
     private volatile int[] protocolVersions = new int[] { 9, 10 };
 
+    /**
+     * the rate limit.
+     */
+    @NotNull
+    private volatile RateLimit rateLimit = RateLimit.disabled();
+
     /**
      * the retry delay nanos.
      */
@@ -399,6 +531,11 @@ public interface RakNetConfig extends ChannelConfig {
     @Getter
     private volatile Identifier serverIdentifier = Identifier.simple("");
 
+    /**
+     * the stateless handshake.
+     */
+    private volatile boolean statelessHandshake;
+
     /**
      * ctor.
      *
@@ -415,6 +552,22 @@ public interface RakNetConfig extends ChannelConfig {
         .anyMatch(version -> version == protocolVersion);
     }
 
+    @NotNull
+    @Override
+    public final RakNetMetrics metrics() {
+      var metrics = this.metrics;
+      if (metrics == null) {
+        synchronized (this) {
+          metrics = this.metrics;
+          if (metrics == null) {
+            metrics = new RakNetMetrics();
+            this.metrics = metrics;
+          }
+        }
+      }
+      return metrics;
+    }
+
     @Override
     public final long rttNanos() {
       return Math.max((long) this.rttStats.getMean(), 1);
@@ -448,7 +601,12 @@ public interface RakNetConfig extends ChannelConfig {
           RakNetChannelOptions.RETRY_DELAY_NANOS,
           RakNetChannelOptions.CLIENT_ID,
           RakNetChannelOptions.MAX_CONNECTIONS,
-          RakNetChannelOptions.SERVER_IDENTIFIER
+          RakNetChannelOptions.SERVER_IDENTIFIER,
+          RakNetChannelOptions.EVENT_LOOP_STRATEGY,
+          RakNetChannelOptions.RATE_LIMIT,
+          RakNetChannelOptions.STATELESS_HANDSHAKE,
+          RakNetChannelOptions.CLOCK,
+          RakNetChannelOptions.METRICS
         );
     }
 
@@ -473,6 +631,16 @@ public interface RakNetConfig extends ChannelConfig {
         return (T) (Integer) this.maxConnections;
       } else if (option == RakNetChannelOptions.SERVER_IDENTIFIER) {
         return (T) this.serverIdentifier;
+      } else if (option == RakNetChannelOptions.EVENT_LOOP_STRATEGY) {
+        return (T) this.eventLoopStrategy;
+      } else if (option == RakNetChannelOptions.RATE_LIMIT) {
+        return (T) this.rateLimit;
+      } else if (option == RakNetChannelOptions.STATELESS_HANDSHAKE) {
+        return (T) (Boolean) this.statelessHandshake;
+      } else if (option == RakNetChannelOptions.CLOCK) {
+        return (T) this.clock;
+      } else if (option == RakNetChannelOptions.METRICS) {
+        return (T) this.metrics();
       }
       return super.getOption(option);
     }
@@ -497,6 +665,16 @@ public interface RakNetConfig extends ChannelConfig {
         this.maxConnections = (Integer) value;
       } else if (option == RakNetChannelOptions.SERVER_IDENTIFIER) {
         this.serverIdentifier = (Identifier) value;
+      } else if (option == RakNetChannelOptions.EVENT_LOOP_STRATEGY) {
+        this.eventLoopStrategy = (EventLoopStrategy) value;
+      } else if (option == RakNetChannelOptions.RATE_LIMIT) {
+        this.rateLimit = (RateLimit) value;
+      } else if (option == RakNetChannelOptions.STATELESS_HANDSHAKE) {
+        this.statelessHandshake = (Boolean) value;
+      } else if (option == RakNetChannelOptions.CLOCK) {
+        this.clock = (RakNetClock) value;
+      } else if (option == RakNetChannelOptions.METRICS) {
+        this.metrics = (RakNetMetrics) value;
       } else {
         return super.setOption(option, value);
       }
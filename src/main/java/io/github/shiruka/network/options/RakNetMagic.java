@@ -2,7 +2,12 @@ package io.github.shiruka.network.options;
 
 import com.google.common.base.Preconditions;
 import io.github.shiruka.network.PacketBuffer;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -11,6 +16,8 @@ import org.jetbrains.annotations.NotNull;
 public interface RakNetMagic {
   /**
    * creates a simple rak net magic.
+   * <p>
+   * returns the shared default magic without allocating when the buffer carries it.
    *
    * @param buffer the buffer to create.
    *
@@ -18,6 +25,10 @@ public interface RakNetMagic {
    */
   @NotNull
   static RakNetMagic from(@NotNull final PacketBuffer buffer) {
+    if (Impl.matches(buffer.buffer(), Impl.DEFAULT)) {
+      buffer.skip(Impl.DEFAULT.length);
+      return Impl.INSTANCE;
+    }
     final var magicData = new byte[16];
     buffer.readBytes(magicData);
     return RakNetMagic.from(magicData);
@@ -97,10 +108,48 @@ public interface RakNetMagic {
     /**
      * the instance.
      */
-    private static final RakNetMagic INSTANCE = RakNetMagic.from(Impl.DEFAULT);
+    private static final RakNetMagic INSTANCE = new Impl(Impl.DEFAULT);
+
+    /**
+     * the big-endian long view of byte arrays.
+     */
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(
+      long[].class,
+      ByteOrder.BIG_ENDIAN
+    );
+
+    /**
+     * checks if the readable bytes of the buffer start with the 16 bytes magic.
+     *
+     * @param buffer the buffer to check.
+     * @param magic the magic to check.
+     *
+     * @return {@code true} if the buffer starts with the magic.
+     */
+    private static boolean matches(
+      @NotNull final ByteBuf buffer,
+      final byte@NotNull[] magic
+    ) {
+      if (magic.length != 16 || buffer.readableBytes() < 16) {
+        return false;
+      }
+      final var index = buffer.readerIndex();
+      return (
+        buffer.getLong(index) == (long) Impl.LONGS.get(magic, 0) &&
+        buffer.getLong(index + 8) == (long) Impl.LONGS.get(magic, 8)
+      );
+    }
 
     @Override
     public void read(@NotNull final PacketBuffer buffer) {
+      if (this.magic.length == 16 && buffer.remaining() >= 16) {
+        Preconditions.checkArgument(
+          Impl.matches(buffer.buffer(), this.magic),
+          "Incorrect RakNet magic value"
+        );
+        buffer.skip(16);
+        return;
+      }
       for (final var data : this.magic) {
         Preconditions.checkArgument(
           buffer.readByte() == data,
@@ -111,6 +160,13 @@ public interface RakNetMagic {
 
     @Override
     public void verify(@NotNull final RakNetMagic magic) {
+      if (magic instanceof Impl impl) {
+        Preconditions.checkArgument(
+          Arrays.equals(this.magic, impl.magic),
+          "Incorrect RakNet magic value"
+        );
+        return;
+      }
       final var buffer = new PacketBuffer(Unpooled.buffer(16));
       this.write(buffer);
       magic.read(buffer);
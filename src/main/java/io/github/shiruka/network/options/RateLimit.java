@@ -0,0 +1,127 @@
+package io.github.shiruka.network.options;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a record class that represents rate limits of unconnected traffic.
+ * <p>
+ * every source address and every prefix of the source address has its own token bucket, a datagram is dropped when
+ * either of the buckets is empty. responses to a source are limited by the bytes which are received from it.
+ * <p>
+ * a rate or an amplification ratio of 0 disables the corresponding limit. servers are not limited unless they opt in
+ * through the {@code RN_RATE_LIMIT} option.
+ *
+ * @param hostRate the datagrams per second which are allowed from a single address.
+ * @param hostBurst the datagrams which are allowed at once from a single address.
+ * @param prefixRate the datagrams per second which are allowed from a single prefix.
+ * @param prefixBurst the datagrams which are allowed at once from a single prefix.
+ * @param ipv4PrefixLength the prefix length for IPv4 addresses.
+ * @param ipv6PrefixLength the prefix length for IPv6 addresses.
+ * @param amplificationRatio the maximum response bytes for each request byte.
+ * @param tableSize the entries of the bucket tables, must be a power of two, 0 disables every limit.
+ */
+public record RateLimit(
+  int hostRate,
+  int hostBurst,
+  int prefixRate,
+  int prefixBurst,
+  int ipv4PrefixLength,
+  int ipv6PrefixLength,
+  double amplificationRatio,
+  int tableSize
+) {
+  /**
+   * the disabled rate limit.
+   */
+  private static final RateLimit DISABLED = new RateLimit(
+    0,
+    0,
+    0,
+    0,
+    32,
+    128,
+    0.0d,
+    0
+  );
+
+  /**
+   * the simple rate limit.
+   */
+  private static final RateLimit SIMPLE = new RateLimit(
+    10,
+    20,
+    100,
+    200,
+    24,
+    48,
+    10.0d,
+    16384
+  );
+
+  /**
+   * ctor.
+   */
+  public RateLimit {
+    Preconditions.checkArgument(
+      hostRate >= 0 && prefixRate >= 0,
+      "Rates must be greater than or equal to 0"
+    );
+    Preconditions.checkArgument(
+      hostBurst >= hostRate && prefixBurst >= prefixRate,
+      "Bursts must be greater than or equal to their rates"
+    );
+    Preconditions.checkArgument(
+      ipv4PrefixLength >= 0 && ipv4PrefixLength <= 32,
+      "IPv4 prefix length must be in between 0-32"
+    );
+    Preconditions.checkArgument(
+      ipv6PrefixLength >= 0 && ipv6PrefixLength <= 128,
+      "IPv6 prefix length must be in between 0-128"
+    );
+    Preconditions.checkArgument(
+      amplificationRatio >= 0.0d,
+      "Amplification ratio must be greater than or equal to 0"
+    );
+    Preconditions.checkArgument(
+      tableSize == 0 || tableSize >= 4 && Integer.bitCount(tableSize) == 1,
+      "Table size must be 0 or a power of two which is at least 4"
+    );
+  }
+
+  /**
+   * obtains the rate limit which does not limit anything.
+   *
+   * @return disabled rate limit.
+   */
+  @NotNull
+  public static RateLimit disabled() {
+    return RateLimit.DISABLED;
+  }
+
+  /**
+   * obtains the rate limit which suits most public servers.
+   *
+   * @return simple rate limit.
+   */
+  @NotNull
+  public static RateLimit simple() {
+    return RateLimit.SIMPLE;
+  }
+
+  /**
+   * checks if the rate limit is enabled.
+   *
+   * @return {@code true} if the rate limit is enabled.
+   */
+  public boolean enabled() {
+    return (
+      this.tableSize > 0 &&
+      (
+        this.hostRate > 0 ||
+        this.prefixRate > 0 ||
+        this.amplificationRatio > 0.0d
+      )
+    );
+  }
+}
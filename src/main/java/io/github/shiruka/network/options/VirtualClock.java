@@ -0,0 +1,279 @@
+package io.github.shiruka.network.options;
+
+import com.google.common.base.Preconditions;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.internal.PlatformDependent;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents clocks which only move when they are advanced.
+ * <p>
+ * scheduled tasks run on the thread that calls {@link #advance(long, TimeUnit)}, in deadline order and with the clock
+ * set to their deadline, so channels that are driven by the same thread, such as embedded channels, see exactly the
+ * same sequence of events on every run. the clock is not thread-safe.
+ * <p>
+ * a task that throws fails its future and, like a periodic task on an event loop, is not rescheduled. the failure is
+ * rethrown from {@link #advance(long, TimeUnit)} with the clock left at the deadline of the task, the later tasks stay
+ * scheduled for the next advance.
+ */
+public final class VirtualClock implements RakNetClock {
+
+  /**
+   * the epoch millis at nano time zero.
+   */
+  private final long epochMillis;
+
+  /**
+   * the tasks.
+   */
+  private final Queue<Task> tasks = new PriorityQueue<>();
+
+  /**
+   * the nano time.
+   */
+  private long nanos;
+
+  /**
+   * the sequence of the scheduled tasks, breaks the deadline ties.
+   */
+  private long sequence;
+
+  /**
+   * ctor.
+   *
+   * @param epochMillis the epoch millis at nano time zero.
+   */
+  public VirtualClock(final long epochMillis) {
+    this.epochMillis = epochMillis;
+  }
+
+  /**
+   * ctor.
+   */
+  public VirtualClock() {
+    this(0L);
+  }
+
+  /**
+   * advances the clock and runs the tasks which become due.
+   *
+   * @param duration the duration to advance.
+   * @param unit the unit of the duration.
+   *
+   * @return ran task count.
+   *
+   * @throws RuntimeException if a task throws, the exception of the task is rethrown as it is.
+   */
+  public int advance(final long duration, @NotNull final TimeUnit unit) {
+    Preconditions.checkArgument(
+      duration >= 0,
+      "Duration must be greater than or equal to 0"
+    );
+    final var target = this.nanos + unit.toNanos(duration);
+    var ran = 0;
+    while (true) {
+      final var task = this.tasks.peek();
+      if (task == null || task.deadline > target) {
+        break;
+      }
+      this.tasks.poll();
+      this.nanos = Math.max(this.nanos, task.deadline);
+      task.fire();
+      ran++;
+    }
+    this.nanos = target;
+    return ran;
+  }
+
+  @Override
+  public long currentTimeMillis() {
+    return this.epochMillis + TimeUnit.NANOSECONDS.toMillis(this.nanos);
+  }
+
+  @Override
+  public long nanoTime() {
+    return this.nanos;
+  }
+
+  /**
+   * obtains the nano time of the next scheduled task.
+   *
+   * @return next deadline, {@link Long#MAX_VALUE} if there is no scheduled task.
+   */
+  public long nextDeadlineNanos() {
+    final var task = this.tasks.peek();
+    return task == null ? Long.MAX_VALUE : task.deadline;
+  }
+
+  /**
+   * obtains the scheduled task count.
+   *
+   * @return scheduled task count.
+   */
+  public int pendingTasks() {
+    return this.tasks.size();
+  }
+
+  @NotNull
+  @Override
+  public ScheduledFuture<?> schedule(
+    @NotNull final EventExecutor executor,
+    @NotNull final Runnable task,
+    final long delay,
+    @NotNull final TimeUnit unit
+  ) {
+    return this.enqueue(task, unit.toNanos(delay), 0L);
+  }
+
+  @NotNull
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(
+    @NotNull final EventExecutor executor,
+    @NotNull final Runnable task,
+    final long initialDelay,
+    final long period,
+    @NotNull final TimeUnit unit
+  ) {
+    Preconditions.checkArgument(period > 0, "Period must be greater than 0");
+    return this.enqueue(task, unit.toNanos(initialDelay), unit.toNanos(period));
+  }
+
+  @Override
+  public String toString() {
+    return "VirtualClock(nanos=%d, tasks=%d)".formatted(
+        this.nanos,
+        this.tasks.size()
+      );
+  }
+
+  /**
+   * enqueues the task.
+   *
+   * @param runnable the runnable to enqueue.
+   * @param delay the delay nanos to enqueue.
+   * @param period the period nanos to enqueue, 0 for one-shot tasks.
+   *
+   * @return enqueued task.
+   */
+  @NotNull
+  private Task enqueue(
+    @NotNull final Runnable runnable,
+    final long delay,
+    final long period
+  ) {
+    final var task = new Task(
+      runnable,
+      this.nanos + Math.max(delay, 0L),
+      period,
+      this.sequence++
+    );
+    this.tasks.offer(task);
+    return task;
+  }
+
+  /**
+   * a class that represents tasks which are scheduled on virtual time.
+   */
+  private final class Task
+    extends FutureTask<Object>
+    implements ScheduledFuture<Object> {
+
+    /**
+     * the period nanos, 0 for one-shot tasks.
+     */
+    private final long period;
+
+    /**
+     * the sequence.
+     */
+    private final long sequence;
+
+    /**
+     * the deadline nanos.
+     */
+    private long deadline;
+
+    /**
+     * the failure of the last run.
+     */
+    private Throwable failure;
+
+    /**
+     * ctor.
+     *
+     * @param runnable the runnable.
+     * @param deadline the deadline.
+     * @param period the period.
+     * @param sequence the sequence.
+     */
+    private Task(
+      @NotNull final Runnable runnable,
+      final long deadline,
+      final long period,
+      final long sequence
+    ) {
+      super(runnable, null);
+      this.deadline = deadline;
+      this.period = period;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+      final var cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled) {
+        VirtualClock.this.tasks.remove(this);
+      }
+      return cancelled;
+    }
+
+    @Override
+    public int compareTo(@NotNull final Delayed other) {
+      if (other instanceof Task task) {
+        final var compare = Long.compare(this.deadline, task.deadline);
+        return compare != 0
+          ? compare
+          : Long.compare(this.sequence, task.sequence);
+      }
+      return Long.compare(
+        this.getDelay(TimeUnit.NANOSECONDS),
+        other.getDelay(TimeUnit.NANOSECONDS)
+      );
+    }
+
+    @Override
+    public long getDelay(@NotNull final TimeUnit unit) {
+      return unit.convert(
+        this.deadline - VirtualClock.this.nanos,
+        TimeUnit.NANOSECONDS
+      );
+    }
+
+    @Override
+    protected void setException(final Throwable t) {
+      this.failure = t;
+      super.setException(t);
+    }
+
+    /**
+     * runs the task and reschedules it if it is periodic.
+     */
+    private void fire() {
+      if (this.period == 0L) {
+        this.run();
+      } else if (this.runAndReset()) {
+        this.deadline += this.period;
+        VirtualClock.this.tasks.offer(this);
+      }
+      if (this.failure != null) {
+        PlatformDependent.throwException(this.failure);
+      }
+    }
+  }
+}
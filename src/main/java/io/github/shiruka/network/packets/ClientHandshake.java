@@ -61,21 +61,6 @@ public final class ClientHandshake extends FramedPacket.Base {
     this.nExtraAddresses = nExtraAddresses;
   }
 
-  /**
-   * ctor.
-   *
-   * @param pongTimestamp the pong timestamp.
-   * @param address the address.
-   * @param nExtraAddresses the n extra addresses.
-   */
-  public ClientHandshake(
-    final long pongTimestamp,
-    @NotNull final InetSocketAddress address,
-    final int nExtraAddresses
-  ) {
-    this(pongTimestamp, System.nanoTime(), address, nExtraAddresses);
-  }
-
   /**
    * ctor.
    */
@@ -1,6 +1,8 @@
 package io.github.shiruka.network.packets;
 
 import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.codec.Encode;
+import io.github.shiruka.network.codec.GenerateCodec;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -9,6 +11,7 @@ import org.jetbrains.annotations.NotNull;
 /**
  * a class that represents connected ping packets.
  */
+@GenerateCodec
 @Getter
 @Setter
 @Accessors(fluent = true)
@@ -17,6 +20,7 @@ public final class ConnectedPing extends FramedPacket.Base {
   /**
    * the timestamp of the sender.
    */
+  @Encode(order = 0)
   private long timestamp;
 
   /**
@@ -35,11 +39,16 @@ public final class ConnectedPing extends FramedPacket.Base {
 
   @Override
   public void decode(@NotNull final PacketBuffer buffer) {
-    this.timestamp = buffer.readLong();
+    ConnectedPingCodec.decode(this, buffer);
   }
 
   @Override
   public void encode(@NotNull final PacketBuffer buffer) {
-    buffer.writeLong(this.timestamp);
+    ConnectedPingCodec.encode(this, buffer);
+  }
+
+  @Override
+  public int initialSizeHint() {
+    return ConnectedPingCodec.size(this);
   }
 }
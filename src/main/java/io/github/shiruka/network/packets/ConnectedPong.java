@@ -1,6 +1,8 @@
 package io.github.shiruka.network.packets;
 
 import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.codec.Encode;
+import io.github.shiruka.network.codec.GenerateCodec;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -9,6 +11,7 @@ import org.jetbrains.annotations.NotNull;
 /**
  * a class that represents connected pong packets.
  */
+@GenerateCodec
 @Getter
 @Setter
 @Accessors(fluent = true)
@@ -17,11 +20,13 @@ public final class ConnectedPong extends FramedPacket.Base {
   /**
    * the timestamp of the sender of the ping.
    */
+  @Encode(order = 0)
   public long timestamp;
 
   /**
    * the timestamp of the sender of the pong.
    */
+  @Encode(order = 1)
   public long timestampPong;
 
   /**
@@ -51,7 +56,7 @@ public final class ConnectedPong extends FramedPacket.Base {
     final long timestamp,
     @NotNull final Reliability reliability
   ) {
-    this(timestamp, System.nanoTime(), reliability);
+    this(timestamp, 0L, reliability);
   }
 
   /**
@@ -82,24 +87,27 @@ public final class ConnectedPong extends FramedPacket.Base {
 
   @Override
   public void decode(@NotNull final PacketBuffer buffer) {
-    this.timestamp = buffer.readLong();
-    this.timestampPong = buffer.readLong();
+    ConnectedPongCodec.decode(this, buffer);
   }
 
   @Override
   public void encode(@NotNull final PacketBuffer buffer) {
-    this.timestamp = buffer.readLong();
-    if (buffer.isReadable()) {
-      this.timestampPong = buffer.readLong();
-    }
+    ConnectedPongCodec.encode(this, buffer);
+  }
+
+  @Override
+  public int initialSizeHint() {
+    return ConnectedPongCodec.size(this);
   }
 
   /**
    * obtains the rtt.
    *
+   * @param now the nano time of the clock which stamped the ping.
+   *
    * @return rtt.
    */
-  public long rtt() {
-    return System.nanoTime() - this.timestamp;
+  public long rtt(final long now) {
+    return now - this.timestamp;
   }
 }
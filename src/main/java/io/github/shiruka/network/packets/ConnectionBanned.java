@@ -2,6 +2,8 @@ package io.github.shiruka.network.packets;
 
 import io.github.shiruka.network.Packet;
 import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.codec.Encode;
+import io.github.shiruka.network.codec.GenerateCodec;
 import io.github.shiruka.network.options.RakNetMagic;
 import java.util.Objects;
 import lombok.Getter;
@@ -13,6 +15,7 @@ import org.jetbrains.annotations.Nullable;
 /**
  * a class that represents connection banned packets.
  */
+@GenerateCodec
 @Setter
 @Accessors(fluent = true)
 public final class ConnectionBanned implements Packet {
@@ -20,12 +23,14 @@ public final class ConnectionBanned implements Packet {
   /**
    * the magic.
    */
+  @Encode(order = 0)
   @Nullable
   private RakNetMagic magic;
 
   /**
    * the server id.
    */
+  @Encode(order = 1)
   @Getter
   private long serverId;
 
@@ -50,14 +55,17 @@ public final class ConnectionBanned implements Packet {
 
   @Override
   public void decode(@NotNull final PacketBuffer buffer) {
-    this.magic = RakNetMagic.from(buffer);
-    this.serverId = buffer.readLong();
+    ConnectionBannedCodec.decode(this, buffer);
   }
 
   @Override
   public void encode(@NotNull final PacketBuffer buffer) {
-    this.magic().write(buffer);
-    buffer.writeLong(this.serverId);
+    ConnectionBannedCodec.encode(this, buffer);
+  }
+
+  @Override
+  public int initialSizeHint() {
+    return ConnectionBannedCodec.size(this);
   }
 
   /**
@@ -1,15 +1,30 @@
 package io.github.shiruka.network.packets;
 
-import com.google.common.base.Preconditions;
 import io.github.shiruka.network.PacketBuffer;
 import io.github.shiruka.network.options.RakNetMagic;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * a class that represents connection reply 1 packets.
  */
+@Getter
+@Setter
+@Accessors(fluent = true)
 public final class ConnectionReply1 extends ConnectionReply {
 
+  /**
+   * the cookie which must be echoed by {@link ConnectionRequest2}.
+   */
+  private int cookie;
+
+  /**
+   * the security.
+   */
+  private boolean security;
+
   /**
    * ctor.
    */
@@ -30,14 +45,33 @@ public final class ConnectionReply1 extends ConnectionReply {
     super(magic, mtu, serverId);
   }
 
+  /**
+   * ctor.
+   *
+   * @param magic the magic.
+   * @param mtu the mtu.
+   * @param serverId the server id.
+   * @param cookie the cookie.
+   */
+  public ConnectionReply1(
+    @NotNull final RakNetMagic magic,
+    final int mtu,
+    final long serverId,
+    final int cookie
+  ) {
+    super(magic, mtu, serverId);
+    this.cookie = cookie;
+    this.security = true;
+  }
+
   @Override
   public void decode(@NotNull final PacketBuffer buffer) {
     this.magic(RakNetMagic.from(buffer));
     this.serverId(buffer.readLong());
-    Preconditions.checkArgument(
-      !buffer.readBoolean(),
-      "No security support yet"
-    );
+    this.security = buffer.readBoolean();
+    if (this.security) {
+      this.cookie = buffer.readInt();
+    }
     this.mtu(buffer.readShort());
   }
 
@@ -45,7 +79,10 @@ public final class ConnectionReply1 extends ConnectionReply {
   public void encode(@NotNull final PacketBuffer buffer) {
     this.magic().write(buffer);
     buffer.writeLong(this.serverId());
-    buffer.writeBoolean(ConnectionReply.NEEDS_SECURITY);
+    buffer.writeBoolean(this.security);
+    if (this.security) {
+      buffer.writeInt(this.cookie);
+    }
     buffer.writeShort(this.mtu());
   }
 }
@@ -18,6 +18,21 @@ import org.jetbrains.annotations.NotNull;
 @Accessors(fluent = true)
 public final class ConnectionRequest2 implements Packet.Client {
 
+  /**
+   * the encoded IPv4 address length.
+   */
+  private static final int IPV4_LENGTH = 7;
+
+  /**
+   * the encoded IPv6 address length.
+   */
+  private static final int IPV6_LENGTH = 29;
+
+  /**
+   * the cookie and the challenge flag length.
+   */
+  private static final int SECURITY_LENGTH = Integer.BYTES + 1;
+
   /**
    * the address.
    */
@@ -30,6 +45,12 @@ public final class ConnectionRequest2 implements Packet.Client {
   @Getter
   private long clientId;
 
+  /**
+   * the cookie.
+   */
+  @Getter
+  private int cookie;
+
   /**
    * the magic.
    */
@@ -42,6 +63,12 @@ public final class ConnectionRequest2 implements Packet.Client {
   @Getter
   private int mtu;
 
+  /**
+   * the security.
+   */
+  @Getter
+  private boolean security;
+
   /**
    * ctor.
    */
@@ -67,6 +94,27 @@ public final class ConnectionRequest2 implements Packet.Client {
     this.mtu = mtu;
   }
 
+  /**
+   * ctor.
+   *
+   * @param address the address.
+   * @param clientId the client id.
+   * @param magic the magic.
+   * @param mtu the mtu.
+   * @param cookie the cookie which is received from {@link ConnectionReply1}.
+   */
+  public ConnectionRequest2(
+    @NotNull final InetSocketAddress address,
+    final long clientId,
+    @NotNull final RakNetMagic magic,
+    final int mtu,
+    final int cookie
+  ) {
+    this(address, clientId, magic, mtu);
+    this.cookie = cookie;
+    this.security = true;
+  }
+
   /**
    * obtains the address.
    *
@@ -80,6 +128,20 @@ public final class ConnectionRequest2 implements Packet.Client {
   @Override
   public void decode(@NotNull final PacketBuffer buffer) {
     this.magic = RakNetMagic.from(buffer);
+    // the cookie is sent only if the server asked for it,
+    // so it is detected by the length of the rest.
+    final var rest =
+      buffer.remaining() -
+      Short.BYTES -
+      Long.BYTES -
+      ConnectionRequest2.SECURITY_LENGTH;
+    this.security =
+      rest == ConnectionRequest2.IPV4_LENGTH ||
+      rest == ConnectionRequest2.IPV6_LENGTH;
+    if (this.security) {
+      this.cookie = buffer.readInt();
+      buffer.readBoolean();
+    }
     this.address = buffer.readAddress();
     this.mtu = buffer.readUnsignedShort();
     this.clientId = buffer.readLong();
@@ -88,6 +150,10 @@ public final class ConnectionRequest2 implements Packet.Client {
   @Override
   public void encode(@NotNull final PacketBuffer buffer) {
     this.magic().write(buffer);
+    if (this.security) {
+      buffer.writeInt(this.cookie);
+      buffer.writeBoolean(false);
+    }
     buffer.writeAddress(this.address());
     buffer.writeShort(this.mtu);
     buffer.writeLong(this.clientId);
@@ -854,7 +854,7 @@ public final class Frame extends AbstractReferenceCounted {
       final var out = Set.RECYCLER.get();
       assert out.refCnt() == 0;
       assert out.tracker() == null;
-      out.sentTime(System.nanoTime());
+      out.sentTime(0L);
       out.sequenceId(0);
       out.tracker(Set.LEAK_DETECTOR.track(out));
       out.setRefCnt(1);
@@ -2,6 +2,9 @@ package io.github.shiruka.network.packets;
 
 import io.github.shiruka.network.Packet;
 import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.codec.Encode;
+import io.github.shiruka.network.codec.Encoding;
+import io.github.shiruka.network.codec.GenerateCodec;
 import io.github.shiruka.network.options.RakNetMagic;
 import java.util.Objects;
 import javax.annotation.Nullable;
@@ -13,6 +16,7 @@ import org.jetbrains.annotations.NotNull;
 /**
  * a class that represents invalid version packets.
  */
+@GenerateCodec
 @Setter
 @Accessors(fluent = true)
 public final class InvalidVersion implements Packet {
@@ -20,18 +24,21 @@ public final class InvalidVersion implements Packet {
   /**
    * the magic.
    */
+  @Encode(order = 1)
   @Nullable
   private RakNetMagic magic;
 
   /**
    * the server.
    */
+  @Encode(order = 2)
   @Getter
   private long serverId;
 
   /**
    * the version.
    */
+  @Encode(order = 0, value = Encoding.UNSIGNED_BYTE)
   @Getter
   private int version;
 
@@ -69,16 +76,17 @@ public final class InvalidVersion implements Packet {
 
   @Override
   public void decode(@NotNull final PacketBuffer buffer) {
-    this.version = buffer.readUnsignedByte();
-    this.magic = RakNetMagic.from(buffer);
-    this.serverId = buffer.readLong();
+    InvalidVersionCodec.decode(this, buffer);
   }
 
   @Override
   public void encode(@NotNull final PacketBuffer buffer) {
-    buffer.writeByte(this.version);
-    this.magic().write(buffer);
-    buffer.writeLong(this.serverId);
+    InvalidVersionCodec.encode(this, buffer);
+  }
+
+  @Override
+  public int initialSizeHint() {
+    return InvalidVersionCodec.size(this);
   }
 
   /**
@@ -2,6 +2,8 @@ package io.github.shiruka.network.packets;
 
 import io.github.shiruka.network.Packet;
 import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.codec.Encode;
+import io.github.shiruka.network.codec.GenerateCodec;
 import io.github.shiruka.network.options.RakNetMagic;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,6 +13,7 @@ import org.jetbrains.annotations.NotNull;
 /**
  * a class that represents no free connection packets.
  */
+@GenerateCodec
 @Getter
 @Setter
 @Accessors(fluent = true)
@@ -19,12 +22,14 @@ public final class NoFreeConnections implements Packet {
   /**
    * the magic.
    */
+  @Encode(order = 0)
   @NotNull
   private RakNetMagic magic;
 
   /**
    * the server id.
    */
+  @Encode(order = 1)
   private long serverId;
 
   /**
@@ -48,13 +53,16 @@ public final class NoFreeConnections implements Packet {
 
   @Override
   public void decode(@NotNull final PacketBuffer buffer) {
-    this.magic = RakNetMagic.from(buffer);
-    this.serverId = buffer.readLong();
+    NoFreeConnectionsCodec.decode(this, buffer);
   }
 
   @Override
   public void encode(@NotNull final PacketBuffer buffer) {
-    this.magic.write(buffer);
-    buffer.writeLong(this.serverId);
+    NoFreeConnectionsCodec.encode(this, buffer);
+  }
+
+  @Override
+  public int initialSizeHint() {
+    return NoFreeConnectionsCodec.size(this);
   }
 }
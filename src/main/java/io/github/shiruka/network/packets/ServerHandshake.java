@@ -1,6 +1,9 @@
 package io.github.shiruka.network.packets;
 
+import io.github.shiruka.network.Constants;
 import io.github.shiruka.network.PacketBuffer;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import java.net.InetSocketAddress;
 import java.util.Objects;
 import lombok.Getter;
@@ -16,6 +19,18 @@ import org.jetbrains.annotations.Nullable;
 @Accessors(fluent = true)
 public final class ServerHandshake extends FramedPacket.Base {
 
+  /**
+   * the default n extra addresses.
+   */
+  private static final int DEFAULT_EXTRA_ADDRESSES = 20;
+
+  /**
+   * the encoded null addresses of the default n extra addresses, they never change so they are written once.
+   */
+  private static final byte[] DEFAULT_EXTRA_ADDRESS_BYTES = ServerHandshake.encodeExtraAddresses(
+    ServerHandshake.DEFAULT_EXTRA_ADDRESSES
+  );
+
   /**
    * the client address.
    */
@@ -28,6 +43,12 @@ public final class ServerHandshake extends FramedPacket.Base {
   @Getter
   private int nExtraAddresses;
 
+  /**
+   * the server timestamp.
+   */
+  @Getter
+  private long serverTimestamp;
+
   /**
    * the timestamp.
    */
@@ -46,16 +67,19 @@ public final class ServerHandshake extends FramedPacket.Base {
    *
    * @param clientAddress the client address.
    * @param timestamp the timestamp.
+   * @param serverTimestamp the server timestamp.
    * @param nExtraAddresses the n extra address.
    */
   public ServerHandshake(
     @NotNull final InetSocketAddress clientAddress,
     final long timestamp,
+    final long serverTimestamp,
     final int nExtraAddresses
   ) {
     super(Reliability.RELIABLE);
     this.clientAddress = clientAddress;
     this.timestamp = timestamp;
+    this.serverTimestamp = serverTimestamp;
     this.nExtraAddresses = nExtraAddresses;
   }
 
@@ -64,12 +88,38 @@ public final class ServerHandshake extends FramedPacket.Base {
    *
    * @param clientAddress the client address.
    * @param timestamp the timestamp.
+   * @param serverTimestamp the server timestamp.
    */
   public ServerHandshake(
     @NotNull final InetSocketAddress clientAddress,
-    final long timestamp
+    final long timestamp,
+    final long serverTimestamp
   ) {
-    this(clientAddress, timestamp, 20);
+    this(
+      clientAddress,
+      timestamp,
+      serverTimestamp,
+      ServerHandshake.DEFAULT_EXTRA_ADDRESSES
+    );
+  }
+
+  /**
+   * encodes the null addresses.
+   *
+   * @param nExtraAddresses the n extra addresses to encode.
+   *
+   * @return encoded null addresses.
+   */
+  private static byte@NotNull[] encodeExtraAddresses(final int nExtraAddresses) {
+    final var buffer = new PacketBuffer(Unpooled.buffer());
+    try {
+      for (var index = 0; index < nExtraAddresses; index++) {
+        buffer.writeAddress(Constants.NULL_ADDRESS);
+      }
+      return ByteBufUtil.getBytes(buffer.buffer());
+    } finally {
+      buffer.release();
+    }
   }
 
   /**
@@ -94,17 +144,30 @@ public final class ServerHandshake extends FramedPacket.Base {
       buffer.readAddress();
     }
     this.timestamp = buffer.readLong();
-    this.timestamp = buffer.readLong();
+    this.serverTimestamp = buffer.readLong();
   }
 
   @Override
   public void encode(@NotNull final PacketBuffer buffer) {
     buffer.writeAddress(this.clientAddress());
     buffer.writeShort(0);
-    for (var index = 0; index < this.nExtraAddresses; index++) {
-      buffer.writeAddress();
+    if (this.nExtraAddresses == ServerHandshake.DEFAULT_EXTRA_ADDRESSES) {
+      buffer.writeBytes(ServerHandshake.DEFAULT_EXTRA_ADDRESS_BYTES);
+    } else {
+      for (var index = 0; index < this.nExtraAddresses; index++) {
+        buffer.writeAddress();
+      }
     }
     buffer.writeLong(this.timestamp);
-    buffer.writeLong(System.currentTimeMillis());
+    buffer.writeLong(this.serverTimestamp);
+  }
+
+  @Override
+  public int initialSizeHint() {
+    final var extraAddresses =
+      this.nExtraAddresses == ServerHandshake.DEFAULT_EXTRA_ADDRESSES
+        ? ServerHandshake.DEFAULT_EXTRA_ADDRESS_BYTES.length
+        : this.nExtraAddresses * 29;
+    return 1 + 29 + 2 + extraAddresses + 16;
   }
 }
@@ -2,6 +2,8 @@ package io.github.shiruka.network.packets;
 
 import io.github.shiruka.network.Packet;
 import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.codec.Encode;
+import io.github.shiruka.network.codec.GenerateCodec;
 import io.github.shiruka.network.options.RakNetMagic;
 import java.util.Objects;
 import lombok.Getter;
@@ -13,6 +15,7 @@ import org.jetbrains.annotations.Nullable;
 /**
  * a class that represents unconnected ping packets.
  */
+@GenerateCodec
 @Setter
 @Accessors(fluent = true)
 public final class UnconnectedPing implements Packet {
@@ -20,18 +23,21 @@ public final class UnconnectedPing implements Packet {
   /**
    * the client id.
    */
+  @Encode(order = 2)
   @Getter
   private long clientId;
 
   /**
    * the magic.
    */
+  @Encode(order = 1)
   @Nullable
   private RakNetMagic magic;
 
   /**
    * the timestamp of the sender.
    */
+  @Encode(order = 0)
   @Getter
   private long timestamp;
 
@@ -59,16 +65,17 @@ public final class UnconnectedPing implements Packet {
 
   @Override
   public void decode(@NotNull final PacketBuffer buffer) {
-    this.timestamp = buffer.readLong();
-    this.magic = RakNetMagic.from(buffer);
-    this.clientId = buffer.readLong();
+    UnconnectedPingCodec.decode(this, buffer);
   }
 
   @Override
   public void encode(@NotNull final PacketBuffer buffer) {
-    buffer.writeLong(this.timestamp);
-    this.magic().write(buffer);
-    buffer.writeLong(this.clientId);
+    UnconnectedPingCodec.encode(this, buffer);
+  }
+
+  @Override
+  public int initialSizeHint() {
+    return UnconnectedPingCodec.size(this);
   }
 
   /**
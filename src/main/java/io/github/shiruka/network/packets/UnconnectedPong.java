@@ -4,7 +4,7 @@ import io.github.shiruka.network.Identifier;
 import io.github.shiruka.network.Packet;
 import io.github.shiruka.network.PacketBuffer;
 import io.github.shiruka.network.options.RakNetMagic;
-import java.nio.charset.StandardCharsets;
+import io.netty.buffer.ByteBufUtil;
 import java.util.Objects;
 import lombok.Getter;
 import lombok.Setter;
@@ -82,10 +82,10 @@ public final class UnconnectedPong implements Packet {
     buffer.writeLong(this.timestamp);
     buffer.writeLong(this.serverId);
     this.magic().write(buffer);
-    final var serverInfo =
-      this.identifier().build().getBytes(StandardCharsets.UTF_8);
-    buffer.writeShort(serverInfo.length);
-    buffer.writeBytes(serverInfo);
+    final var serverInfo = this.identifier().build();
+    final var length = ByteBufUtil.utf8Bytes(serverInfo);
+    buffer.writeShort(length);
+    ByteBufUtil.reserveAndWriteUtf8(buffer.buffer(), serverInfo, length);
   }
 
   /**
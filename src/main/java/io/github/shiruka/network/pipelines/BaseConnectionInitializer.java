@@ -1,19 +1,19 @@
 package io.github.shiruka.network.pipelines;
 
 import io.github.shiruka.network.Packet;
+import io.github.shiruka.network.jfr.HandshakeStageEvent;
 import io.github.shiruka.network.options.RakNetConfig;
 import io.github.shiruka.network.packets.ConnectionFailed;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.ConnectTimeoutException;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.util.concurrent.ScheduledFuture;
 import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -50,12 +50,21 @@ public abstract class BaseConnectionInitializer
   @Nullable
   private ScheduledFuture<?> sendTimer;
 
+  /**
+   * the nano time that the state is set.
+   */
+  private long stageTime;
+
+  /**
+   * the nano time that the handler is added.
+   */
+  private long startTime;
+
   /**
    * the state.
    */
   @NotNull
   @Getter
-  @Setter
   private State state = State.CR1;
 
   /**
@@ -86,25 +95,24 @@ public abstract class BaseConnectionInitializer
 
   @Override
   public final void handlerAdded(final ChannelHandlerContext ctx) {
+    final var clock = RakNetConfig.cast(ctx).clock();
+    this.startTime = clock.nanoTime();
+    this.stageTime = this.startTime;
     this.sendTimer =
-      ctx
-        .channel()
-        .eventLoop()
-        .scheduleAtFixedRate(
-          () -> this.sendRequest(ctx),
-          0,
-          200,
-          TimeUnit.MILLISECONDS
-        );
+      clock.scheduleAtFixedRate(
+        ctx.executor(),
+        () -> this.sendRequest(ctx),
+        0,
+        200,
+        TimeUnit.MILLISECONDS
+      );
     this.connectTimer =
-      ctx
-        .channel()
-        .eventLoop()
-        .schedule(
-          this::doTimeout,
-          ctx.channel().config().getConnectTimeoutMillis(),
-          TimeUnit.MILLISECONDS
-        );
+      clock.schedule(
+        ctx.executor(),
+        this::doTimeout,
+        ctx.channel().config().getConnectTimeoutMillis(),
+        TimeUnit.MILLISECONDS
+      );
     this.sendRequest(ctx);
   }
 
@@ -121,6 +129,16 @@ public abstract class BaseConnectionInitializer
    */
   protected final void finish(@NotNull final ChannelHandlerContext ctx) {
     final var channel = ctx.channel();
+    final var config = RakNetConfig.cast(ctx);
+    final var now = config.clock().nanoTime();
+    config.metrics().recordHandshake(now - this.startTime);
+    HandshakeStageEvent.commit(
+      channel,
+      this.state.name(),
+      "CONNECTED",
+      now - this.stageTime,
+      now - this.startTime
+    );
     this.connectPromise.trySuccess();
     this.removeHandler(ctx);
     channel.pipeline().fireChannelActive();
@@ -140,6 +158,28 @@ public abstract class BaseConnectionInitializer
    */
   protected abstract void sendRequest(@NotNull ChannelHandlerContext ctx);
 
+  /**
+   * sets the state.
+   *
+   * @param ctx the ctx to set.
+   * @param state the state to set.
+   */
+  protected final void state(
+    @NotNull final ChannelHandlerContext ctx,
+    @NotNull final State state
+  ) {
+    final var now = RakNetConfig.cast(ctx).clock().nanoTime();
+    HandshakeStageEvent.commit(
+      ctx.channel(),
+      this.state.name(),
+      state.name(),
+      now - this.stageTime,
+      now - this.startTime
+    );
+    this.state = state;
+    this.stageTime = now;
+  }
+
   /**
    * obtains the connect timer.
    *
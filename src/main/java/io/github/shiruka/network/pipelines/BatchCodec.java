@@ -0,0 +1,222 @@
+package io.github.shiruka.network.pipelines;
+
+import com.google.common.base.Preconditions;
+import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.options.RakNetConfig;
+import io.github.shiruka.network.packets.Frame;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents batch codec pipelines.
+ * <p>
+ * the messages which are written within a flush tick are coalesced into one payload, every message is prefixed with
+ * its length as an unsigned var int. the pending batch is kept across the flushes of the callers and written on the
+ * next {@link FlushTickHandler.Tick}, so {@code writeAndFlush} per message is batched as well. a batch is written
+ * early when the next message does not fit into the maximum size or the channel is closed, a message which is bigger
+ * than the maximum size is sent alone. the received batches are split into retained
+ * slices of the received buffer, so the messages are not copied.
+ * <p>
+ * add the handler after {@link UserDataCodec} on both ends of the connection:
+ * <pre>{@code
+ * channel.pipeline().addAfter(UserDataCodec.NAME, BatchCodec.NAME, new BatchCodec());
+ * }</pre>
+ */
+public final class BatchCodec extends ChannelDuplexHandler {
+
+  /**
+   * the name.
+   */
+  public static final String NAME = "rn-batch-codec";
+
+  /**
+   * the initial capacity of batches.
+   */
+  private static final int INITIAL_CAPACITY = 256;
+
+  /**
+   * the maximum size, 0 fits the batches into a single datagram of the mtu.
+   */
+  private final int maxSize;
+
+  /**
+   * the promises of the pending batch.
+   */
+  private final List<ChannelPromise> promises = new ArrayList<>();
+
+  /**
+   * the pending batch.
+   */
+  @Nullable
+  private PacketBuffer batch;
+
+  /**
+   * ctor.
+   */
+  public BatchCodec() {
+    this(0);
+  }
+
+  /**
+   * ctor.
+   *
+   * @param maxSize the max size, 0 fits the batches into a single datagram of the mtu.
+   */
+  public BatchCodec(final int maxSize) {
+    Preconditions.checkArgument(
+      maxSize >= 0,
+      "Max size must not be negative"
+    );
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+    if (!(msg instanceof ByteBuf buffer)) {
+      ctx.fireChannelRead(msg);
+      return;
+    }
+    final var slices = new ArrayList<ByteBuf>();
+    try {
+      final var batch = new PacketBuffer(buffer);
+      while (batch.isReadable()) {
+        final var length = batch.readUnsignedVarInt();
+        Preconditions.checkArgument(
+          length >= 0 && length <= batch.remaining(),
+          "Batched message length %s exceeds the batch",
+          length
+        );
+        slices.add(buffer.retainedSlice(buffer.readerIndex(), length));
+        batch.skip(length);
+      }
+    } catch (final RuntimeException e) {
+      slices.forEach(ByteBuf::release);
+      throw e;
+    } finally {
+      buffer.release();
+    }
+    for (final var slice : slices) {
+      ctx.fireChannelRead(slice);
+    }
+  }
+
+  @Override
+  public void close(
+    final ChannelHandlerContext ctx,
+    final ChannelPromise promise
+  ) {
+    if (this.batch != null) {
+      this.writeBatch(ctx);
+      ctx.flush();
+    }
+    ctx.close(promise);
+  }
+
+  @Override
+  public void handlerRemoved(final ChannelHandlerContext ctx) {
+    if (this.batch != null) {
+      this.batch.release();
+      this.batch = null;
+    }
+    final var cause = new ClosedChannelException();
+    this.promises.forEach(promise -> promise.tryFailure(cause));
+    this.promises.clear();
+  }
+
+  @Override
+  public void write(
+    final ChannelHandlerContext ctx,
+    final Object msg,
+    final ChannelPromise promise
+  ) {
+    if (!(msg instanceof ByteBuf buffer)) {
+      this.writeBatch(ctx);
+      ctx.write(msg, promise);
+      return;
+    }
+    try {
+      final var length = buffer.readableBytes();
+      final var size = PacketBuffer.unsignedVarIntSize(length) + length;
+      if (this.batch != null && this.batch.size() + size > this.maxSize(ctx)) {
+        this.writeBatch(ctx);
+      }
+      if (this.batch == null) {
+        this.batch =
+          new PacketBuffer(
+            ctx.alloc().ioBuffer(Math.max(BatchCodec.INITIAL_CAPACITY, size))
+          );
+      }
+      this.batch.writeUnsignedVarInt(length);
+      this.batch.buffer().writeBytes(buffer, buffer.readerIndex(), length);
+      this.promises.add(promise);
+    } finally {
+      buffer.release();
+    }
+    // the held batch does not reach the reliability handler, so the tick
+    // is checked here instead.
+    FlushTickHandler.checkFlushTick(ctx.channel());
+  }
+
+  @Override
+  public void userEventTriggered(
+    final ChannelHandlerContext ctx,
+    final Object evt
+  ) {
+    if (evt instanceof FlushTickHandler.Tick) {
+      this.writeBatch(ctx);
+    }
+    ctx.fireUserEventTriggered(evt);
+  }
+
+  /**
+   * obtains the maximum size of a batch.
+   *
+   * @param ctx the ctx to obtain.
+   *
+   * @return maximum size.
+   */
+  private int maxSize(@NotNull final ChannelHandlerContext ctx) {
+    if (this.maxSize > 0) {
+      return this.maxSize;
+    }
+    return (
+      RakNetConfig.cast(ctx).mtu() -
+      Frame.Set.HEADER_SIZE -
+      Frame.HEADER_SIZE -
+      1
+    );
+  }
+
+  /**
+   * writes the pending batch and completes its promises with it.
+   *
+   * @param ctx the ctx to write.
+   */
+  private void writeBatch(@NotNull final ChannelHandlerContext ctx) {
+    final var pending = this.batch;
+    if (pending == null) {
+      return;
+    }
+    this.batch = null;
+    final var batchPromises = List.copyOf(this.promises);
+    this.promises.clear();
+    ctx
+      .write(pending.buffer())
+      .addListener(future -> {
+        for (final var promise : batchPromises) {
+          if (future.isSuccess()) {
+            promise.trySuccess();
+          } else {
+            promise.tryFailure(future.cause());
+          }
+        }
+      });
+  }
+}
@@ -1,12 +1,13 @@
 package io.github.shiruka.network.pipelines;
 
+import io.github.shiruka.network.jfr.ConnectionCloseEvent;
+import io.github.shiruka.network.options.RakNetConfig;
 import io.github.shiruka.network.packets.ClientDisconnect;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.util.ReferenceCountUtil;
-import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -29,6 +30,10 @@ public final class DisconnectHandler extends ChannelDuplexHandler {
   public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
     if (msg instanceof ClientDisconnect) {
       ReferenceCountUtil.release(msg);
+      ConnectionCloseEvent.cause(
+        ctx.channel(),
+        ConnectionCloseEvent.Cause.REMOTE_DISCONNECT
+      );
       ctx.pipeline().remove(this);
       ctx.channel().flush().close();
     } else {
@@ -47,10 +52,12 @@ public final class DisconnectHandler extends ChannelDuplexHandler {
       return;
     }
     final var disconnectPromise = ctx.newPromise();
-    final var timeout = channel
-      .eventLoop()
+    final var timeout = RakNetConfig
+      .cast(channel)
+      .clock()
       .schedule(
-        (Callable<Boolean>) disconnectPromise::trySuccess,
+        ctx.executor(),
+        disconnectPromise::trySuccess,
         1,
         TimeUnit.SECONDS
       );
@@ -1,9 +1,10 @@
 package io.github.shiruka.network.pipelines;
 
+import io.github.shiruka.network.options.RakNetConfig;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import org.jetbrains.annotations.NotNull;
 
@@ -38,7 +39,7 @@ public final class FlushTickHandler extends ChannelDuplexHandler {
   /**
    * the last tick accum.
    */
-  private long lastTickAccum = System.nanoTime();
+  private long lastTickAccum;
 
   /**
    * the tick accum.
@@ -93,16 +94,16 @@ public final class FlushTickHandler extends ChannelDuplexHandler {
   @Override
   public void handlerAdded(final ChannelHandlerContext ctx) {
     assert this.flushTask == null;
+    final var clock = RakNetConfig.cast(ctx).clock();
+    this.lastTickAccum = clock.nanoTime();
     this.flushTask =
-      ctx
-        .channel()
-        .eventLoop()
-        .scheduleAtFixedRate(
-          () -> FlushTickHandler.checkFlushTick(ctx.channel()),
-          0,
-          50,
-          TimeUnit.MILLISECONDS
-        );
+      clock.scheduleAtFixedRate(
+        ctx.executor(),
+        () -> FlushTickHandler.checkFlushTick(ctx.channel()),
+        0,
+        50,
+        TimeUnit.MILLISECONDS
+      );
   }
 
   @Override
@@ -117,10 +118,11 @@ public final class FlushTickHandler extends ChannelDuplexHandler {
    * @param channel the channel to flush.
    */
   private void maybeFlush(final Channel channel) {
-    final var curTime = System.nanoTime();
+    final var curTime = RakNetConfig.cast(channel).clock().nanoTime();
     this.tickAccum += curTime - this.lastTickAccum;
     this.lastTickAccum = curTime;
     if (this.tickAccum >= FlushTickHandler.TICK_RESOLUTION) {
+      channel.pipeline().fireUserEventTriggered(Tick.INSTANCE);
       channel.flush();
       final var nFlushes = (int) (
         this.tickAccum / FlushTickHandler.TICK_RESOLUTION
@@ -138,4 +140,16 @@ public final class FlushTickHandler extends ChannelDuplexHandler {
    * @param flushes the flushes.
    */
   public record MissedFlushes(int flushes) {}
+
+  /**
+   * a record class that represents flush ticks, fired right before a tick flushes the channel.
+   * <p>
+   * handlers which hold their writes across flushes write them on the tick.
+   */
+  public record Tick() {
+    /**
+     * the instance.
+     */
+    public static final Tick INSTANCE = new Tick();
+  }
 }
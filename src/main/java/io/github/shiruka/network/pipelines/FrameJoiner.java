@@ -2,6 +2,7 @@ package io.github.shiruka.network.pipelines;
 
 import io.github.shiruka.network.Constants;
 import io.github.shiruka.network.PacketBuffer;
+import io.github.shiruka.network.jfr.SplitReassemblyEvent;
 import io.github.shiruka.network.options.RakNetConfig;
 import io.github.shiruka.network.packets.Frame;
 import io.github.shiruka.network.packets.FramedPacket;
@@ -52,8 +53,9 @@ public final class FrameJoiner extends MessageToMessageDecoder<Frame> {
       final var partial = this.pendingPackets.get(splitId);
       final var splitCount = frame.splitCount();
       final var totalSize = splitCount * frame.roughPacketSize();
+      final var config = RakNetConfig.cast(ctx);
       frame.touch("Is split");
-      if (totalSize > RakNetConfig.cast(ctx).maxQueuedBytes()) {
+      if (totalSize > config.maxQueuedBytes()) {
         throw new TooLongFrameException("Fragmented frame too large");
       } else if (partial == null) {
         if (splitCount > Constants.MAX_PACKET_LOSS) {
@@ -61,17 +63,32 @@ public final class FrameJoiner extends MessageToMessageDecoder<Frame> {
             "Too big packet loss: frame join elements"
           );
         }
-        this.pendingPackets.put(splitId, Builder.create(ctx.alloc(), frame));
+        this.pendingPackets.put(
+            splitId,
+            Builder.create(ctx.alloc(), frame, config.clock().nanoTime())
+          );
       } else {
         partial.add(frame);
         if (partial.isDone()) {
           this.pendingPackets.remove(splitId);
-          out.add(partial.finish());
+          final var reassemblyTime =
+            config.clock().nanoTime() - partial.startTime;
+          final var packet = partial.finish();
+          config.metrics().recordSplitReassembly(reassemblyTime);
+          SplitReassemblyEvent.commit(
+            ctx.channel(),
+            splitId,
+            splitCount,
+            packet.roughPacketSize(),
+            reassemblyTime
+          );
+          out.add(packet);
         }
       }
       if (this.pendingPackets.size() > Constants.MAX_PACKET_LOSS) {
         throw new DecoderException("Too big packet loss: pending frame joins");
       }
+      config.stats().pendingSplits(this.pendingPackets.size());
     }
   }
 
@@ -85,6 +102,11 @@ public final class FrameJoiner extends MessageToMessageDecoder<Frame> {
      */
     private final Int2ObjectMap<PacketBuffer> queue;
 
+    /**
+     * the nano time of the first fragment.
+     */
+    private final long startTime;
+
     /**
      * the data.
      */
@@ -114,9 +136,11 @@ public final class FrameJoiner extends MessageToMessageDecoder<Frame> {
      * ctor.
      *
      * @param size the size.
+     * @param startTime the start time.
      */
-    private Builder(final int size) {
+    private Builder(final int size, final long startTime) {
       this.queue = new Int2ObjectOpenHashMap<>(size);
+      this.startTime = startTime;
     }
 
     /**
@@ -124,15 +148,17 @@ public final class FrameJoiner extends MessageToMessageDecoder<Frame> {
      *
      * @param alloc the alloc to create.
      * @param frame the frame to create.
+     * @param startTime the start time to create.
      *
      * @return builder.
      */
     @NotNull
     private static Builder create(
       @NotNull final ByteBufAllocator alloc,
-      @NotNull final Frame frame
+      @NotNull final Frame frame,
+      final long startTime
     ) {
-      final var out = new Builder(frame.splitCount());
+      final var out = new Builder(frame.splitCount(), startTime);
       out.init(alloc, frame);
       return out;
     }
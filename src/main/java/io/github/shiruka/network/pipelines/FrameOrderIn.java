@@ -1,6 +1,7 @@
 package io.github.shiruka.network.pipelines;
 
 import io.github.shiruka.network.Constants;
+import io.github.shiruka.network.options.RakNetConfig;
 import io.github.shiruka.network.packets.Frame;
 import io.github.shiruka.network.packets.FramedPacket;
 import io.github.shiruka.network.utils.Integers;
@@ -28,14 +29,20 @@ public final class FrameOrderIn extends MessageToMessageDecoder<Frame> {
    */
   private final OrderedChannelPacketQueue[] channels = new OrderedChannelPacketQueue[8];
 
+  /**
+   * the frames that are buffered in the channels.
+   */
+  private int buffered;
+
   {
-    Arrays.fill(this.channels, new OrderedChannelPacketQueue());
+    Arrays.setAll(this.channels, index -> new OrderedChannelPacketQueue());
   }
 
   @Override
   public void handlerRemoved(final ChannelHandlerContext ctx) throws Exception {
     super.handlerRemoved(ctx);
     Arrays.stream(this.channels).forEach(OrderedChannelPacketQueue::clear);
+    this.buffered = 0;
   }
 
   @Override
@@ -44,15 +51,25 @@ public final class FrameOrderIn extends MessageToMessageDecoder<Frame> {
     final Frame frame,
     final List<Object> out
   ) {
-    if (frame.reliability().isSequenced()) {
-      frame.touch("Sequenced");
-      this.channels[frame.orderChannel()].decodeSequenced(frame, out);
-    } else if (frame.reliability().isOrdered()) {
-      frame.touch("Ordered");
-      this.channels[frame.orderChannel()].decodeOrdered(frame, out);
-    } else {
+    final var reliability = frame.reliability();
+    if (!reliability.isSequenced() && !reliability.isOrdered()) {
       frame.touch("No order");
       out.add(frame.retainedFrameData());
+      return;
+    }
+    final var channel = this.channels[frame.orderChannel()];
+    final var before = channel.queue.size();
+    if (reliability.isSequenced()) {
+      frame.touch("Sequenced");
+      channel.decodeSequenced(frame, out);
+    } else {
+      frame.touch("Ordered");
+      channel.decodeOrdered(frame, out);
+    }
+    final var after = channel.queue.size();
+    if (after != before) {
+      this.buffered += after - before;
+      RakNetConfig.cast(ctx).stats().reorderBuffered(this.buffered);
     }
   }
 
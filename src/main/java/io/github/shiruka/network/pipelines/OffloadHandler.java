@@ -0,0 +1,252 @@
+package io.github.shiruka.network.pipelines;
+
+import com.google.common.base.Preconditions;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.internal.PlatformDependent;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents offload handler pipelines.
+ * <p>
+ * hands the messages of a connection to a serial executor, so blocking handlers do not stall the event loop. the
+ * messages of a connection are handled one by one in the order they are read, on virtual threads if the runtime
+ * supports them and on a cached pool of platform threads otherwise.
+ * <p>
+ * auto read is turned off when the queue reaches its capacity and on again when half of it is drained, meanwhile
+ * {@link ReliabilityHandler} holds the frame sets of the connection and keeps reading acks and nacks. the queued
+ * messages are released without being handled once the handler is removed or the channel is inactive.
+ * <p>
+ * add the handler after {@link UserDataCodec} or {@link FramedPacketCodec}:
+ * <pre>{@code
+ * channel.pipeline().addLast(OffloadHandler.NAME, new OffloadHandler<>(ByteBuf.class, (ch, msg) -> {}));
+ * }</pre>
+ *
+ * @param <T> type of the messages.
+ */
+public final class OffloadHandler<T> extends ChannelInboundHandlerAdapter {
+
+  /**
+   * the name.
+   */
+  public static final String NAME = "rn-offload";
+
+  /**
+   * the default capacity.
+   */
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  /**
+   * the executor.
+   */
+  private static final Executor EXECUTOR = OffloadHandler.newExecutor();
+
+  /**
+   * the capacity.
+   */
+  private final int capacity;
+
+  /**
+   * the handler.
+   */
+  @NotNull
+  private final Handler<T> handler;
+
+  /**
+   * the queue, consumed by the owner of {@link #running}.
+   */
+  private final Queue<Object> queue = PlatformDependent.newMpscQueue();
+
+  /**
+   * the released.
+   */
+  private volatile boolean released;
+
+  /**
+   * the running.
+   */
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  /**
+   * the size.
+   */
+  private final AtomicInteger size = new AtomicInteger();
+
+  /**
+   * the type.
+   */
+  @NotNull
+  private final Class<T> type;
+
+  /**
+   * the paused.
+   */
+  private volatile boolean paused;
+
+  /**
+   * ctor.
+   *
+   * @param type the type.
+   * @param handler the handler.
+   */
+  public OffloadHandler(
+    @NotNull final Class<T> type,
+    @NotNull final Handler<T> handler
+  ) {
+    this(type, handler, OffloadHandler.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * ctor.
+   *
+   * @param type the type.
+   * @param handler the handler.
+   * @param capacity the capacity.
+   */
+  public OffloadHandler(
+    @NotNull final Class<T> type,
+    @NotNull final Handler<T> handler,
+    final int capacity
+  ) {
+    Preconditions.checkArgument(
+      capacity > 1,
+      "Capacity must be greater than 1"
+    );
+    this.type = type;
+    this.handler = handler;
+    this.capacity = capacity;
+  }
+
+  /**
+   * creates the executor, uses virtual threads if the runtime supports them.
+   *
+   * @return executor.
+   */
+  @NotNull
+  private static Executor newExecutor() {
+    try {
+      return (Executor) Executors.class
+        .getMethod("newVirtualThreadPerTaskExecutor")
+        .invoke(null);
+    } catch (final ReflectiveOperationException | RuntimeException e) {
+      return Executors.newCachedThreadPool(
+        new DefaultThreadFactory(OffloadHandler.NAME, true)
+      );
+    }
+  }
+
+  @Override
+  public void channelInactive(final ChannelHandlerContext ctx) {
+    this.release(ctx);
+    ctx.fireChannelInactive();
+  }
+
+  @Override
+  public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+    if (!this.type.isInstance(msg) || this.released) {
+      ctx.fireChannelRead(msg);
+      return;
+    }
+    this.queue.offer(msg);
+    if (this.size.incrementAndGet() >= this.capacity && !this.paused) {
+      this.paused = true;
+      ctx.channel().config().setAutoRead(false);
+      // the drain may have passed the half before the pause.
+      this.resume(ctx);
+    }
+    if (this.running.compareAndSet(false, true)) {
+      OffloadHandler.EXECUTOR.execute(() -> this.drain(ctx));
+    }
+  }
+
+  @Override
+  public void handlerRemoved(final ChannelHandlerContext ctx) {
+    this.release(ctx);
+  }
+
+  /**
+   * handles the queued messages in order.
+   *
+   * @param ctx the ctx to drain.
+   */
+  private void drain(@NotNull final ChannelHandlerContext ctx) {
+    do {
+      Object msg;
+      while ((msg = this.queue.poll()) != null) {
+        try {
+          if (!this.released) {
+            this.handler.handle(ctx.channel(), this.type.cast(msg));
+          }
+        } catch (final Throwable e) {
+          ctx.executor().execute(() -> ctx.fireExceptionCaught(e));
+        } finally {
+          ReferenceCountUtil.release(msg);
+        }
+        if (this.size.decrementAndGet() == this.capacity / 2 && this.paused) {
+          ctx.executor().execute(() -> this.resume(ctx));
+        }
+      }
+      this.running.set(false);
+    } while (!this.queue.isEmpty() && this.running.compareAndSet(false, true));
+  }
+
+  /**
+   * releases the queued messages and turns auto read on again.
+   *
+   * @param ctx the ctx to release.
+   */
+  private void release(@NotNull final ChannelHandlerContext ctx) {
+    if (this.released) {
+      return;
+    }
+    this.released = true;
+    if (this.paused) {
+      this.paused = false;
+      ctx.channel().config().setAutoRead(true);
+    }
+    // a running drain releases the rest of the queue itself.
+    if (this.running.compareAndSet(false, true)) {
+      this.drain(ctx);
+    }
+  }
+
+  /**
+   * resumes reading.
+   *
+   * @param ctx the ctx to resume.
+   */
+  private void resume(@NotNull final ChannelHandlerContext ctx) {
+    if (
+      !this.released && this.paused && this.size.get() <= this.capacity / 2
+    ) {
+      this.paused = false;
+      ctx.channel().config().setAutoRead(true);
+    }
+  }
+
+  /**
+   * an interface to determine blocking message handlers.
+   *
+   * @param <T> type of the messages.
+   */
+  @FunctionalInterface
+  public interface Handler<T> {
+    /**
+     * handles the message, the message is released after the method returns.
+     *
+     * @param channel the channel to handle.
+     * @param msg the message to handle.
+     *
+     * @throws Exception if something goes wrong when handling the message.
+     */
+    void handle(@NotNull Channel channel, @NotNull T msg) throws Exception;
+  }
+}
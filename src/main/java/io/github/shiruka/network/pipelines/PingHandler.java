@@ -1,5 +1,6 @@
 package io.github.shiruka.network.pipelines;
 
+import io.github.shiruka.network.options.RakNetConfig;
 import io.github.shiruka.network.packets.ConnectedPing;
 import io.github.shiruka.network.packets.ConnectedPong;
 import io.netty.channel.ChannelHandler;
@@ -28,6 +29,12 @@ public final class PingHandler
     final ChannelHandlerContext ctx,
     final ConnectedPing ping
   ) {
-    ctx.write(new ConnectedPong(ping.timestamp(), ping.reliability()));
+    ctx.write(
+      new ConnectedPong(
+        ping.timestamp(),
+        RakNetConfig.cast(ctx).clock().nanoTime(),
+        ping.reliability()
+      )
+    );
   }
 }
@@ -1,9 +1,10 @@
 package io.github.shiruka.network.pipelines;
 
+import io.github.shiruka.network.options.RakNetConfig;
 import io.github.shiruka.network.packets.ConnectedPing;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import org.jetbrains.annotations.Nullable;
 
@@ -25,16 +26,15 @@ public final class PingProducer implements ChannelHandler {
 
   @Override
   public void handlerAdded(final ChannelHandlerContext ctx) {
+    final var clock = RakNetConfig.cast(ctx).clock();
     this.pingTask =
-      ctx
-        .channel()
-        .eventLoop()
-        .scheduleAtFixedRate(
-          () -> ctx.writeAndFlush(new ConnectedPing()),
-          0,
-          200,
-          TimeUnit.MILLISECONDS
-        );
+      clock.scheduleAtFixedRate(
+        ctx.executor(),
+        () -> ctx.writeAndFlush(new ConnectedPing(clock.nanoTime())),
+        0,
+        200,
+        TimeUnit.MILLISECONDS
+      );
   }
 
   @Override
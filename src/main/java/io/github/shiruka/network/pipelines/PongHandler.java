@@ -30,7 +30,10 @@ public final class PongHandler
   ) {
     if (!pong.reliability().isReliable()) {
       final var config = RakNetConfig.cast(ctx);
-      config.updateRTTNanos(pong.rtt());
+      final var rtt = pong.rtt(config.clock().nanoTime());
+      config.updateRTTNanos(rtt);
+      config.metrics().recordRtt(rtt);
+      config.stats().rtt(config.rttNanos(), config.rttStdDevNanos());
     }
   }
 }
@@ -33,9 +33,11 @@ public final class RawPacketCodec
     final Packet in,
     final List<Object> out
   ) {
-    out.add(
-      RakNetConfig.cast(ctx).codec().produceEncoded(in, ctx.alloc()).buffer()
-    );
+    final var config = RakNetConfig.cast(ctx);
+    final var encoded = config.codec().produceEncoded(in, ctx.alloc()).buffer();
+    config.stats().datagramOut(encoded.readableBytes());
+    config.metrics().datagramOut(encoded.readableBytes());
+    out.add(encoded);
   }
 
   @Override
@@ -47,8 +49,11 @@ public final class RawPacketCodec
     if (in.readableBytes() == 0) {
       return;
     }
+    final var config = RakNetConfig.cast(ctx);
+    config.stats().datagramIn(in.readableBytes());
+    config.metrics().datagramIn(in.readableBytes());
     try {
-      out.add(RakNetConfig.cast(ctx).codec().decode(new PacketBuffer(in)));
+      out.add(config.codec().decode(new PacketBuffer(in)));
     } catch (final CorruptedFrameException ignored) {}
   }
 }
@@ -1,6 +1,10 @@
 package io.github.shiruka.network.pipelines;
 
 import io.github.shiruka.network.Constants;
+import io.github.shiruka.network.jfr.BackPressureEvent;
+import io.github.shiruka.network.jfr.CongestionWindowEvent;
+import io.github.shiruka.network.jfr.ConnectionCloseEvent;
+import io.github.shiruka.network.jfr.RetransmissionEvent;
 import io.github.shiruka.network.options.RakNetChannelOptions;
 import io.github.shiruka.network.options.RakNetConfig;
 import io.github.shiruka.network.packets.Ack;
@@ -20,11 +24,17 @@ import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
 import it.unimi.dsi.fastutil.ints.IntSortedSet;
 import it.unimi.dsi.fastutil.objects.ObjectRBTreeSet;
 import it.unimi.dsi.fastutil.objects.ObjectSortedSet;
+import java.util.ArrayDeque;
+import java.util.Queue;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
  * a class that represents reliability handler pipelines.
+ * <p>
+ * the frame sets that arrive while auto read is off are acked and held, up to the max pending frame sets, and read
+ * once auto read is on again. the frame sets over the limit are neither acked nor nacked, so the peer sends them
+ * again after its timeout. acks and nacks are always read.
  */
 public final class ReliabilityHandler extends ChannelDuplexHandler {
 
@@ -45,6 +55,11 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
     Frame.COMPARATOR
   );
 
+  /**
+   * the frame sets that are held while auto read is off.
+   */
+  private final Queue<Frame.Set> heldFrameSets = new ArrayDeque<>();
+
   /**
    * the nack set.
    */
@@ -60,6 +75,16 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
    */
   private int burstTokens;
 
+  /**
+   * the frames that are queued by writes.
+   */
+  private long frames;
+
+  /**
+   * the bytes of the pending frame sets.
+   */
+  private long inFlightBytes;
+
   /**
    * the last received sequence id.
    */
@@ -75,6 +100,16 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
    */
   private int resendGauge;
 
+  /**
+   * the reading held frame sets.
+   */
+  private boolean readingHeldFrameSets;
+
+  /**
+   * the reliable frames that are queued again after a nack or an expired ack.
+   */
+  private long resentFrames;
+
   @Override
   public void channelRead(
     @NotNull final ChannelHandlerContext ctx,
@@ -114,6 +149,14 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
   @Override
   public void handlerRemoved(final ChannelHandlerContext ctx) {
     this.clearQueue(null);
+    this.heldFrameSets.forEach(Frame.Set::release);
+    this.heldFrameSets.clear();
+  }
+
+  @Override
+  public void read(final ChannelHandlerContext ctx) {
+    this.readHeldFrameSets(ctx);
+    ctx.read();
   }
 
   @Override
@@ -124,6 +167,7 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
   ) {
     if (msg instanceof Frame frame) {
       this.queueFrame(ctx, frame);
+      this.frames++;
       frame.promise(promise);
     } else {
       ctx.write(msg, promise);
@@ -136,17 +180,41 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
     FlushTickHandler.checkFlushTick(ctx.channel());
   }
 
+  /**
+   * obtains the frames that are queued by writes.
+   * <p>
+   * the counters are not thread-safe, they should be read on the event loop of the channel.
+   *
+   * @return frames.
+   */
+  public long frames() {
+    return this.frames;
+  }
+
+  /**
+   * obtains the reliable frames that are sent again.
+   *
+   * @return resent frames.
+   */
+  public long resentFrames() {
+    return this.resentFrames;
+  }
+
   @Override
   public void flush(final ChannelHandlerContext ctx) {
     if (!ctx.channel().isOpen()) {
       ctx.flush();
       return;
     }
+    this.readHeldFrameSets(ctx);
+    // a single clock read per flush, the sets produced by it share the time.
+    final var now = RakNetConfig.cast(ctx).clock().nanoTime();
     this.sendResponses(ctx);
-    this.recallExpiredFrameSets(ctx);
+    this.recallExpiredFrameSets(ctx, now);
     this.updateBurstTokens(ctx, 1);
-    this.produceFrameSets(ctx);
+    this.produceFrameSets(ctx, now);
     this.updateBackPressure(ctx);
+    this.updateInFlight(ctx);
     if (this.pendingFrameSets.size() > Constants.MAX_PACKET_LOSS) {
       throw new DecoderException("Too big packet loss: resend queue!");
     }
@@ -191,6 +259,7 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
     this.frameQueue.clear();
     this.pendingFrameSets.values().forEach(Frame.Set::release);
     this.pendingFrameSets.clear();
+    this.inFlightBytes = 0L;
   }
 
   /**
@@ -207,10 +276,12 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
    *
    * @param ctx the ctx to produce.
    * @param maxSize the max size to produce.
+   * @param now the nano time to stamp.
    */
   private void produceFrameSet(
     @NotNull final ChannelHandlerContext ctx,
-    final int maxSize
+    final int maxSize,
+    final long now
   ) {
     final var itr = this.frameQueue.iterator();
     final var frameSet = Frame.Set.create();
@@ -231,9 +302,14 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
       frameSet.addPacket(frame);
     }
     if (!frameSet.isEmpty()) {
+      frameSet.sentTime(now);
       frameSet.sequenceId(this.nextSendSequenceId);
       this.nextSendSequenceId = Integers.B3.plus(this.nextSendSequenceId, 1);
       this.pendingFrameSets.put(frameSet.sequenceId(), frameSet);
+      this.inFlightBytes += frameSet.roughSize();
+      final var config = RakNetConfig.cast(ctx);
+      config.stats().frameSetSent();
+      config.metrics().frameSetSent(frameSet.roughSize());
       frameSet.touch("Added to pending FrameSet list");
       ctx
         .write(frameSet.retain())
@@ -248,8 +324,12 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
    * produces frame sets.
    *
    * @param ctx the ctx to produce.
+   * @param now the nano time to stamp.
    */
-  private void produceFrameSets(@NotNull final ChannelHandlerContext ctx) {
+  private void produceFrameSets(
+    @NotNull final ChannelHandlerContext ctx,
+    final long now
+  ) {
     final var config = RakNetConfig.cast(ctx);
     final var maxSize =
       config.mtu() - Frame.Set.HEADER_SIZE - Frame.HEADER_SIZE;
@@ -259,7 +339,7 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
       this.pendingFrameSets.size() < maxPendingFrameSets &&
       !this.frameQueue.isEmpty()
     ) {
-      this.produceFrameSet(ctx, maxSize);
+      this.produceFrameSet(ctx, maxSize, now);
     }
   }
 
@@ -295,6 +375,9 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
     @NotNull final Ack ack
   ) {
     //    var ackdBytes = 0;
+    final var config = RakNetConfig.cast(ctx);
+    final var now = config.clock().nanoTime();
+    var acked = 0;
     var nIterations = 0;
     for (final var entry : ack.entries()) {
       final var max = Integers.B3.plus(entry.idFinish(), 1);
@@ -302,6 +385,9 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
         final var frameSet = this.pendingFrameSets.remove(id);
         if (frameSet != null) {
           //          ackdBytes += frameSet.roughSize();
+          this.inFlightBytes -= frameSet.roughSize();
+          acked++;
+          config.metrics().recordAckDelay(now - frameSet.sentTime());
           this.adjustResendGauge(ctx, 1);
           frameSet.succeed();
           frameSet.release();
@@ -311,6 +397,11 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
         }
       }
     }
+    if (acked > 0) {
+      config.stats().frameSetsAcked(acked);
+      config.metrics().frameSetsAcked(acked);
+    }
+    this.updateInFlight(ctx);
   }
 
   /**
@@ -323,6 +414,11 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
     @NotNull final ChannelHandlerContext ctx,
     @NotNull final Frame.Set frameSet
   ) {
+    final var config = RakNetConfig.cast(ctx);
+    final var hold = !config.isAutoRead() || !this.heldFrameSets.isEmpty();
+    if (hold && this.heldFrameSets.size() >= config.maxPendingFrameSets()) {
+      return;
+    }
     final var packetSeqId = frameSet.sequenceId();
     this.ackSet.add(packetSeqId);
     this.nackSet.remove(packetSeqId);
@@ -335,10 +431,45 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
           Integers.B3.plus(this.lastReceivedSequenceId, 1);
       }
     }
+    if (hold) {
+      this.heldFrameSets.add(frameSet.retain());
+      this.readHeldFrameSets(ctx);
+      return;
+    }
     frameSet.createFrames(ctx::fireChannelRead);
     ctx.fireChannelReadComplete();
   }
 
+  /**
+   * reads the held frame sets in order until auto read is off again.
+   *
+   * @param ctx the ctx to read.
+   */
+  private void readHeldFrameSets(@NotNull final ChannelHandlerContext ctx) {
+    if (this.readingHeldFrameSets || this.heldFrameSets.isEmpty()) {
+      return;
+    }
+    final var config = RakNetConfig.cast(ctx);
+    this.readingHeldFrameSets = true;
+    try {
+      var read = false;
+      while (config.isAutoRead() && !this.heldFrameSets.isEmpty()) {
+        final var frameSet = this.heldFrameSets.poll();
+        try {
+          frameSet.createFrames(ctx::fireChannelRead);
+        } finally {
+          frameSet.release();
+        }
+        read = true;
+      }
+      if (read) {
+        ctx.fireChannelReadComplete();
+      }
+    } finally {
+      this.readingHeldFrameSets = false;
+    }
+  }
+
   /**
    * reads nack.
    *
@@ -350,6 +481,7 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
     @NotNull final Nack nack
   ) {
     //    var bytesNACKd = 0;
+    var nacked = 0;
     var nIterations = 0;
     for (final var entry : nack.entries()) {
       final var max = Integers.B3.plus(entry.idFinish(), 1);
@@ -357,7 +489,8 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
         final var frameSet = this.pendingFrameSets.remove(id);
         if (frameSet != null) {
           //          bytesNACKd += frameSet.roughSize();
-          this.recallFrameSet(ctx, frameSet);
+          nacked++;
+          this.recallFrameSet(ctx, frameSet, RetransmissionEvent.Reason.NACK);
         }
         if (nIterations++ > Constants.MAX_PACKET_LOSS) {
           throw new DecoderException(
@@ -366,33 +499,47 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
         }
       }
     }
+    if (nacked > 0) {
+      final var config = RakNetConfig.cast(ctx);
+      config.stats().frameSetsNacked(nacked);
+      config.metrics().frameSetsNacked(nacked);
+    }
+    this.updateInFlight(ctx);
   }
 
   /**
    * recalls expired frame sets.
    *
    * @param ctx the ctx to recall.
+   * @param now the nano time to compare.
    */
   private void recallExpiredFrameSets(
-    @NotNull final ChannelHandlerContext ctx
+    @NotNull final ChannelHandlerContext ctx,
+    final long now
   ) {
     final var config = RakNetConfig.cast(ctx);
     final var packetItr = this.pendingFrameSets.values().iterator();
     final var deadline =
-      System.nanoTime() -
+      now -
       (
         config.rttNanos() +
         2 *
         config.rttStdDevNanos() +
         config.retryDelayNanos()
       );
+    var timedOut = 0;
     while (packetItr.hasNext()) {
       final var frameSet = packetItr.next();
       if (frameSet.sentTime() < deadline) {
         packetItr.remove();
-        this.recallFrameSet(ctx, frameSet);
+        timedOut++;
+        this.recallFrameSet(ctx, frameSet, RetransmissionEvent.Reason.TIMEOUT);
       }
     }
+    if (timedOut > 0) {
+      config.stats().frameSetsTimedOut(timedOut);
+      config.metrics().frameSetsTimedOut(timedOut);
+    }
   }
 
   /**
@@ -400,17 +547,28 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
    *
    * @param ctx the ctx to recall.
    * @param frameSet the frame set to recall.
+   * @param reason the reason to recall.
    */
   private void recallFrameSet(
     @NotNull final ChannelHandlerContext ctx,
-    @NotNull final Frame.Set frameSet
+    @NotNull final Frame.Set frameSet,
+    @NotNull final RetransmissionEvent.Reason reason
   ) {
+    RetransmissionEvent.commit(
+      ctx.channel(),
+      reason,
+      frameSet.sequenceId(),
+      frameSet.roughSize(),
+      frameSet.sentTime()
+    );
     try {
+      this.inFlightBytes -= frameSet.roughSize();
       this.adjustResendGauge(ctx, -1);
       frameSet.touch("Recalled");
       frameSet.createFrames(frame -> {
         if (frame.reliability().isReliable()) {
           this.queueFrame(ctx, frame);
+          this.resentFrames++;
         } else {
           final var promise = frame.promise();
           if (promise != null) {
@@ -453,6 +611,7 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
   private void updateBackPressure(@NotNull final ChannelHandlerContext ctx) {
     final var config = RakNetConfig.cast(ctx);
     final var queuedBytes = this.getQueuedBytes();
+    config.stats().queue(this.frameQueue.size(), queuedBytes);
     final var oldWritable = ctx
       .channel()
       .attr(RakNetChannelOptions.WRITABLE)
@@ -460,6 +619,10 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
     var newWritable = oldWritable;
     if (queuedBytes > config.maxQueuedBytes()) {
       final var exception = new CodecException("Frame queue is too large!");
+      ConnectionCloseEvent.cause(
+        ctx.channel(),
+        ConnectionCloseEvent.Cause.QUEUE_OVERFLOW
+      );
       this.clearQueue(exception);
       ctx.close();
       throw exception;
@@ -473,6 +636,12 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
         .channel()
         .attr(RakNetChannelOptions.WRITABLE)
         .set(newWritable ? Boolean.TRUE : Boolean.FALSE);
+      BackPressureEvent.commit(
+        ctx.channel(),
+        newWritable,
+        this.frameQueue.size(),
+        queuedBytes
+      );
       ctx.fireChannelWritabilityChanged();
     }
   }
@@ -488,6 +657,7 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
     final int nTicks
   ) {
     final var config = RakNetConfig.cast(ctx);
+    final var previousBurstTokens = this.burstTokens;
     final var burstUnused = this.pendingFrameSets.size() < this.burstTokens / 2;
     if (this.resendGauge > 1 && !burstUnused) {
       this.burstTokens += nTicks;
@@ -496,5 +666,30 @@ public final class ReliabilityHandler extends ChannelDuplexHandler {
     }
     this.burstTokens =
       Math.max(Math.min(this.burstTokens, config.maxPendingFrameSets()), 0);
+    if (this.burstTokens != previousBurstTokens) {
+      CongestionWindowEvent.commit(
+        ctx.channel(),
+        previousBurstTokens,
+        this.burstTokens,
+        this.pendingFrameSets.size(),
+        this.resendGauge
+      );
+    }
+  }
+
+  /**
+   * updates the in flight gauges of the stats.
+   *
+   * @param ctx the ctx to update.
+   */
+  private void updateInFlight(@NotNull final ChannelHandlerContext ctx) {
+    RakNetConfig
+      .cast(ctx)
+      .stats()
+      .inFlight(
+        this.pendingFrameSets.size(),
+        this.inFlightBytes,
+        this.burstTokens
+      );
   }
 }
@@ -8,6 +8,7 @@ import io.github.shiruka.network.pipelines.ReliableFrameHandling;
 import io.github.shiruka.network.server.channels.RakNetServerChannel;
 import io.github.shiruka.network.server.pipelines.ConnectionInitializer;
 import io.github.shiruka.network.server.pipelines.ConnectionListener;
+import io.github.shiruka.network.server.pipelines.CookieListener;
 import io.github.shiruka.network.server.pipelines.PingListener;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
@@ -77,7 +78,8 @@ public interface RakNetServer {
       channel
         .pipeline()
         .addLast(PingListener.NAME, new PingListener())
-        .addLast(ConnectionListener.NAME, new ConnectionListener());
+        .addLast(ConnectionListener.NAME, new ConnectionListener())
+        .addLast(CookieListener.NAME, new CookieListener());
       channel
         .eventLoop()
         .execute(() ->
@@ -0,0 +1,107 @@
+package io.github.shiruka.network.server.channels;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * a class that counts datagrams which cross threads between the server socket and its children.
+ */
+@Accessors(fluent = true)
+public final class HandoffCounter {
+
+  /**
+   * the nanos in one second.
+   */
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+  /**
+   * the inbound handoffs.
+   */
+  private final LongAdder inbound = new LongAdder();
+
+  /**
+   * the outbound handoffs.
+   */
+  private final LongAdder outbound = new LongAdder();
+
+  /**
+   * the inbound handoffs per second.
+   */
+  @Getter
+  private volatile long inboundPerSecond;
+
+  /**
+   * the last inbound total.
+   */
+  private long lastInbound;
+
+  /**
+   * the last outbound total.
+   */
+  private long lastOutbound;
+
+  /**
+   * the last tick.
+   */
+  private long lastTick = System.nanoTime();
+
+  /**
+   * the outbound handoffs per second.
+   */
+  @Getter
+  private volatile long outboundPerSecond;
+
+  /**
+   * obtains the total inbound handoffs.
+   *
+   * @return total inbound handoffs.
+   */
+  public long inboundTotal() {
+    return this.inbound.sum();
+  }
+
+  /**
+   * obtains the total outbound handoffs.
+   *
+   * @return total outbound handoffs.
+   */
+  public long outboundTotal() {
+    return this.outbound.sum();
+  }
+
+  /**
+   * increments the inbound handoffs.
+   */
+  void inbound() {
+    this.inbound.increment();
+  }
+
+  /**
+   * increments the outbound handoffs.
+   */
+  void outbound() {
+    this.outbound.increment();
+  }
+
+  /**
+   * updates the per second rates.
+   */
+  void tick() {
+    final var now = System.nanoTime();
+    final var elapsed = now - this.lastTick;
+    if (elapsed <= 0) {
+      return;
+    }
+    final var inboundTotal = this.inboundTotal();
+    final var outboundTotal = this.outboundTotal();
+    this.inboundPerSecond =
+      (inboundTotal - this.lastInbound) * HandoffCounter.SECOND / elapsed;
+    this.outboundPerSecond =
+      (outboundTotal - this.lastOutbound) * HandoffCounter.SECOND / elapsed;
+    this.lastInbound = inboundTotal;
+    this.lastOutbound = outboundTotal;
+    this.lastTick = now;
+  }
+}
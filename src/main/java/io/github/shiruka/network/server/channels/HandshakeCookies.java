@@ -0,0 +1,209 @@
+package io.github.shiruka.network.server.channels;
+
+import io.github.shiruka.network.Constants;
+import io.github.shiruka.network.options.RakNetClock;
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents stateless handshake cookies.
+ * <p>
+ * a cookie is a truncated HMAC over the address, the protocol version and the current time bucket, the lowest byte
+ * carries the protocol version so the child can be created from the echoed cookie without keeping any state.
+ * <p>
+ * the class is not thread-safe, it must be used from the event loop of the server.
+ */
+public final class HandshakeCookies {
+
+  /**
+   * the time bucket duration, cookies are valid for one or two buckets.
+   */
+  public static final long BUCKET_MILLIS = TimeUnit.SECONDS.toMillis(5L);
+
+  /**
+   * the algorithm.
+   */
+  private static final String ALGORITHM = "HmacSHA256";
+
+  /**
+   * the input length, address bytes, port, time bucket and protocol version.
+   */
+  private static final int INPUT_LENGTH =
+    Constants.IPV6_ADDRESS_LENGTH + Short.BYTES + Long.BYTES + 1;
+
+  /**
+   * the secret length.
+   */
+  private static final int SECRET_LENGTH = 32;
+
+  /**
+   * the digest.
+   */
+  private final byte[] digest;
+
+  /**
+   * the mac.
+   */
+  @NotNull
+  private final Mac mac;
+
+  /**
+   * the input.
+   */
+  private final byte[] input = new byte[HandshakeCookies.INPUT_LENGTH];
+
+  /**
+   * ctor.
+   */
+  public HandshakeCookies() {
+    this(HandshakeCookies.newSecret());
+  }
+
+  /**
+   * ctor.
+   *
+   * @param secret the secret.
+   */
+  public HandshakeCookies(final byte@NotNull[] secret) {
+    try {
+      this.mac = Mac.getInstance(HandshakeCookies.ALGORITHM);
+      this.mac.init(new SecretKeySpec(secret, HandshakeCookies.ALGORITHM));
+    } catch (final GeneralSecurityException e) {
+      throw new IllegalStateException("Failed to create the cookie mac", e);
+    }
+    this.digest = new byte[this.mac.getMacLength()];
+  }
+
+  /**
+   * creates a random secret.
+   *
+   * @return secret.
+   */
+  private static byte@NotNull[] newSecret() {
+    final var secret = new byte[HandshakeCookies.SECRET_LENGTH];
+    Constants.RANDOM.nextBytes(secret);
+    return secret;
+  }
+
+  /**
+   * writes the value into the input.
+   *
+   * @param input the input to write.
+   * @param offset the offset to write.
+   * @param value the value to write.
+   * @param bytes the byte count of the value.
+   *
+   * @return next offset.
+   */
+  private static int write(
+    final byte@NotNull[] input,
+    final int offset,
+    final long value,
+    final int bytes
+  ) {
+    for (var index = 0; index < bytes; index++) {
+      input[offset + index] =
+        (byte) (value >>> (bytes - 1 - index) * Byte.SIZE);
+    }
+    return offset + bytes;
+  }
+
+  /**
+   * creates a cookie for the address.
+   *
+   * @param address the address to create.
+   * @param protocolVersion the protocol version to create.
+   * @param clock the clock to create.
+   *
+   * @return cookie.
+   */
+  public int create(
+    @NotNull final InetSocketAddress address,
+    final int protocolVersion,
+    @NotNull final RakNetClock clock
+  ) {
+    return this.create(
+        address,
+        protocolVersion,
+        clock.currentTimeMillis() / HandshakeCookies.BUCKET_MILLIS
+      );
+  }
+
+  /**
+   * verifies the cookie which is echoed by the address.
+   *
+   * @param address the address to verify.
+   * @param cookie the cookie to verify.
+   * @param clock the clock to verify.
+   *
+   * @return protocol version of the cookie, {@code -1} if the cookie is not valid.
+   */
+  public int verify(
+    @NotNull final InetSocketAddress address,
+    final int cookie,
+    @NotNull final RakNetClock clock
+  ) {
+    final var protocolVersion = cookie & 0xFF;
+    final var bucket =
+      clock.currentTimeMillis() / HandshakeCookies.BUCKET_MILLIS;
+    if (
+      this.create(address, protocolVersion, bucket) == cookie ||
+      this.create(address, protocolVersion, bucket - 1) == cookie
+    ) {
+      return protocolVersion;
+    }
+    return -1;
+  }
+
+  /**
+   * creates a cookie for the address in the bucket.
+   *
+   * @param address the address to create.
+   * @param protocolVersion the protocol version to create.
+   * @param bucket the time bucket to create.
+   *
+   * @return cookie.
+   */
+  private int create(
+    @NotNull final InetSocketAddress address,
+    final int protocolVersion,
+    final long bucket
+  ) {
+    final var inetAddress = address.getAddress();
+    var offset = 0;
+    if (inetAddress instanceof Inet4Address) {
+      offset =
+        HandshakeCookies.write(this.input, offset, inetAddress.hashCode(), 4);
+    } else if (inetAddress != null) {
+      final var bytes = inetAddress.getAddress();
+      System.arraycopy(bytes, 0, this.input, offset, bytes.length);
+      offset += bytes.length;
+    }
+    offset =
+      HandshakeCookies.write(
+        this.input,
+        offset,
+        address.getPort(),
+        Short.BYTES
+      );
+    offset = HandshakeCookies.write(this.input, offset, bucket, Long.BYTES);
+    offset = HandshakeCookies.write(this.input, offset, protocolVersion, 1);
+    this.mac.update(this.input, 0, offset);
+    try {
+      this.mac.doFinal(this.digest, 0);
+    } catch (final GeneralSecurityException e) {
+      throw new IllegalStateException("Failed to create the cookie", e);
+    }
+    return (
+      (this.digest[0] & 0xFF) << 24 |
+      (this.digest[1] & 0xFF) << 16 |
+      (this.digest[2] & 0xFF) << 8 |
+      protocolVersion & 0xFF
+    );
+  }
+}
@@ -1,10 +1,12 @@
 package io.github.shiruka.network.server.channels;
 
 import io.github.shiruka.network.Constants;
+import io.github.shiruka.network.jfr.ConnectionCloseEvent;
 import io.github.shiruka.network.options.RakNetChannelOptions;
 import io.github.shiruka.network.options.RakNetConfig;
 import io.github.shiruka.network.server.RakNetServer;
 import io.github.shiruka.network.server.pipelines.ConnectionInitializer;
+import io.github.shiruka.network.stats.ConnectionStats;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.AbstractChannel;
 import io.netty.channel.ChannelHandlerContext;
@@ -13,15 +15,19 @@ import io.netty.channel.ChannelMetadata;
 import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.ConnectTimeoutException;
 import io.netty.channel.EventLoop;
+import io.netty.channel.RecvByteBufAllocator;
 import io.netty.channel.socket.DatagramPacket;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.Accessors;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * a class that represents rak net child channels.
@@ -40,6 +46,11 @@ public class RakNetChildChannel extends AbstractChannel {
   @NotNull
   private final InetSocketAddress address;
 
+  /**
+   * the awaiting writability.
+   */
+  final AtomicBoolean awaitingWritability = new AtomicBoolean();
+
   /**
    * the config.
    */
@@ -59,6 +70,14 @@ public class RakNetChildChannel extends AbstractChannel {
   @Getter
   private volatile boolean isOpen = true;
 
+  /**
+   * the loop aware unsafe.
+   * <p>
+   * initialized lazily since the pipeline asks for it while the super constructor runs.
+   */
+  @Nullable
+  private Unsafe loopAwareUnsafe;
+
   /**
    * ctor.
    *
@@ -74,6 +93,9 @@ public class RakNetChildChannel extends AbstractChannel {
     this.config = RakNetConfig.simple(this);
     this.connectPromise = this.newPromise();
     this.config.serverId(parent.config().serverId());
+    this.config.codec(parent.config().codec());
+    this.config.clock(parent.config().clock());
+    this.config.metrics(parent.config().metrics());
     this.pipeline().addLast(new WriteHandler(this));
     this.addDefaultPipeline();
   }
@@ -95,7 +117,25 @@ public class RakNetChildChannel extends AbstractChannel {
   @Override
   public boolean isWritable() {
     final var result = this.attr(RakNetChannelOptions.WRITABLE).get();
-    return (result == null || result) && this.parent().isWritable();
+    if (result != null && !result) {
+      return false;
+    }
+    final var parent = this.parent();
+    if (parent.isWritable()) {
+      return true;
+    }
+    parent.awaitWritable(this);
+    return false;
+  }
+
+  /**
+   * takes a snapshot of the connection statistics, can be called from any thread.
+   *
+   * @return connection stats.
+   */
+  @NotNull
+  public ConnectionStats.Snapshot stats() {
+    return this.config.stats().snapshot();
   }
 
   @Override
@@ -113,6 +153,14 @@ public class RakNetChildChannel extends AbstractChannel {
     return (RakNetServerChannel) super.parent();
   }
 
+  @Override
+  public Unsafe unsafe() {
+    if (this.loopAwareUnsafe == null) {
+      this.loopAwareUnsafe = new LoopAwareUnsafe(super.unsafe());
+    }
+    return this.loopAwareUnsafe;
+  }
+
   @Override
   protected AbstractChannel.AbstractUnsafe newUnsafe() {
     return new AbstractChannel.AbstractUnsafe() {
@@ -172,9 +220,16 @@ public class RakNetChildChannel extends AbstractChannel {
     this.pipeline().addLast(RakNetServer.DefaultChildInitializer.INSTANCE);
     this.connectPromise.addListener(future -> {
         if (!future.isSuccess()) {
+          ConnectionCloseEvent.cause(
+            this,
+            future.cause() instanceof ConnectTimeoutException
+              ? ConnectionCloseEvent.Cause.HANDSHAKE_TIMEOUT
+              : ConnectionCloseEvent.Cause.HANDSHAKE_FAILED
+          );
           RakNetChildChannel.this.close();
         }
       });
+    this.closeFuture().addListener(future -> ConnectionCloseEvent.commit(this));
     this.pipeline()
       .addLast(
         new ChannelInitializer<RakNetChildChannel>() {
@@ -193,6 +248,109 @@ public class RakNetChildChannel extends AbstractChannel {
       );
   }
 
+  /**
+   * a class that represents unsafe implementations which assign the event loop through
+   * {@link RakNetConfig#eventLoopStrategy()}.
+   */
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  private final class LoopAwareUnsafe implements Unsafe {
+
+    /**
+     * the delegate.
+     */
+    @NotNull
+    private final Unsafe delegate;
+
+    @Override
+    public RecvByteBufAllocator.Handle recvBufAllocHandle() {
+      return this.delegate.recvBufAllocHandle();
+    }
+
+    @Override
+    public SocketAddress localAddress() {
+      return this.delegate.localAddress();
+    }
+
+    @Override
+    public SocketAddress remoteAddress() {
+      return this.delegate.remoteAddress();
+    }
+
+    @Override
+    public void register(
+      final EventLoop eventLoop,
+      final ChannelPromise promise
+    ) {
+      final var channel = RakNetChildChannel.this;
+      final var strategy = channel.parent().config().eventLoopStrategy();
+      final var selected = strategy.select(channel.parent(), eventLoop);
+      channel.closeFuture().addListener(future -> strategy.release(selected));
+      this.delegate.register(selected, promise);
+    }
+
+    @Override
+    public void bind(
+      final SocketAddress localAddress,
+      final ChannelPromise promise
+    ) {
+      this.delegate.bind(localAddress, promise);
+    }
+
+    @Override
+    public void connect(
+      final SocketAddress remoteAddress,
+      final SocketAddress localAddress,
+      final ChannelPromise promise
+    ) {
+      this.delegate.connect(remoteAddress, localAddress, promise);
+    }
+
+    @Override
+    public void disconnect(final ChannelPromise promise) {
+      this.delegate.disconnect(promise);
+    }
+
+    @Override
+    public void close(final ChannelPromise promise) {
+      this.delegate.close(promise);
+    }
+
+    @Override
+    public void closeForcibly() {
+      this.delegate.closeForcibly();
+    }
+
+    @Override
+    public void deregister(final ChannelPromise promise) {
+      this.delegate.deregister(promise);
+    }
+
+    @Override
+    public void beginRead() {
+      this.delegate.beginRead();
+    }
+
+    @Override
+    public void write(final Object msg, final ChannelPromise promise) {
+      this.delegate.write(msg, promise);
+    }
+
+    @Override
+    public void flush() {
+      this.delegate.flush();
+    }
+
+    @Override
+    public ChannelPromise voidPromise() {
+      return this.delegate.voidPromise();
+    }
+
+    @Override
+    public ChannelOutboundBuffer outboundBuffer() {
+      return this.delegate.outboundBuffer();
+    }
+  }
+
   /**
    * a class that represents write handlers.
    */
@@ -223,9 +381,16 @@ public class RakNetChildChannel extends AbstractChannel {
       if (msg instanceof ByteBuf) {
         this.needsFlush = true;
         promise.trySuccess();
-        this.channel.parent()
+        final var parent = this.channel.parent();
+        if (!parent.eventLoop().inEventLoop()) {
+          parent.handoffs().outbound();
+        }
+        parent
           .write(new DatagramPacket((ByteBuf) msg, this.channel.address))
           .addListener(Constants.INTERNAL_WRITE_LISTENER);
+        if (!parent.isWritable()) {
+          parent.awaitWritable(this.channel);
+        }
       } else {
         ctx.write(msg, promise);
       }
@@ -1,49 +1,96 @@
 package io.github.shiruka.network.server.channels;
 
 import com.google.common.base.Preconditions;
+import io.github.shiruka.network.BlockList;
 import io.github.shiruka.network.BlockedAddress;
 import io.github.shiruka.network.PacketBuffer;
 import io.github.shiruka.network.channels.DatagramChannelProxy;
+import io.github.shiruka.network.jfr.ConnectionCloseEvent;
+import io.github.shiruka.network.options.RakNetConfig;
 import io.github.shiruka.network.packets.NoFreeConnections;
 import io.github.shiruka.network.server.RakNetServer;
+import io.github.shiruka.network.stats.RakNetMetrics;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
 import io.netty.channel.ServerChannel;
 import io.netty.channel.socket.DatagramChannel;
 import io.netty.channel.socket.DatagramPacket;
 import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.PromiseCombiner;
+import io.netty.util.internal.PlatformDependent;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
  * a class that represents rak net server channels.
  */
+@Accessors(fluent = true)
 public class RakNetServerChannel
   extends DatagramChannelProxy
   implements ServerChannel {
 
   /**
-   * the blocked addresses.
+   * the block list.
    */
-  private final Map<InetSocketAddress, BlockedAddress> blockedAddresses = new HashMap<>();
+  private final BlockList blockList = new BlockList();
 
   /**
    * the child channels(clients).
    */
   private final Map<SocketAddress, RakNetChildChannel> children = new HashMap<>();
 
+  /**
+   * the handshake cookies.
+   */
+  @NotNull
+  @Getter
+  private final HandshakeCookies cookies = new HandshakeCookies();
+
+  /**
+   * the handoffs.
+   */
+  @NotNull
+  @Getter
+  private final HandoffCounter handoffs = new HandoffCounter();
+
+  /**
+   * the children which wait for the socket to become writable.
+   */
+  private final Queue<RakNetChildChannel> writabilityWaiters = PlatformDependent.newMpscQueue();
+
+  /**
+   * the writability propagation scheduled.
+   */
+  private final AtomicBoolean writabilityScheduled = new AtomicBoolean();
+
+  /**
+   * the rate limiter.
+   */
+  @Nullable
+  private RateLimiter rateLimiter;
+
   /**
    * ctor.
    */
@@ -77,11 +124,15 @@ public class RakNetServerChannel
 
   /**
    * blocks the address.
+   * <p>
+   * the blocked time of a timed block is expected from {@link RakNetConfig#clock()} of the server.
    *
    * @param address the address to block.
    */
   public void blockAddress(@NotNull final BlockedAddress address) {
-    this.blockedAddresses.put(address.address(), address);
+    this.runInEventLoop(() ->
+      this.blockList.add(address, this.config().clock().currentTimeMillis())
+    );
   }
 
   /**
@@ -95,7 +146,11 @@ public class RakNetServerChannel
   public Optional<BlockedAddress> blockedAddress(
     @NotNull final InetSocketAddress address
   ) {
-    return Optional.ofNullable(this.blockedAddresses.get(address));
+    Preconditions.checkState(
+      !this.isRegistered() || this.eventLoop().inEventLoop(),
+      "Method must be called from the server eventLoop!"
+    );
+    return Optional.ofNullable(this.blockList.find(address));
   }
 
   /**
@@ -130,13 +185,30 @@ public class RakNetServerChannel
   public void gracefulClose(@NotNull final ChannelPromise promise) {
     final var combined = new PromiseCombiner(this.eventLoop());
     final var childrenClosed = this.newPromise();
-    this.children.values().forEach(child -> combined.add(child.close()));
+    this.children.values()
+      .forEach(child -> {
+        ConnectionCloseEvent.cause(
+          child,
+          ConnectionCloseEvent.Cause.SERVER_CLOSED
+        );
+        combined.add(child.close());
+      });
     combined.finish(childrenClosed);
     childrenClosed.addListener(f ->
       this.parent().close(this.wrapPromise(promise))
     );
   }
 
+  /**
+   * takes a snapshot of the metrics of every connection, can be called from any thread.
+   *
+   * @return server metrics.
+   */
+  @NotNull
+  public RakNetMetrics.Snapshot metrics() {
+    return this.config().metrics().snapshot();
+  }
+
   /**
    * creates a new child channel.
    *
@@ -150,12 +222,34 @@ public class RakNetServerChannel
   }
 
   /**
-   * unblocks the address.
+   * obtains the rate limiter of unconnected traffic.
+   * <p>
+   * the limiter is recreated when {@link RakNetConfig#rateLimit()} changes, must be called from the server eventLoop.
    *
-   * @param address the address to block.
+   * @return rate limiter, {@code null} if the rate limit is disabled.
+   */
+  @Nullable
+  public RateLimiter rateLimiter() {
+    final var limit = this.config().rateLimit();
+    if (!limit.enabled()) {
+      this.rateLimiter = null;
+    } else if (this.rateLimiter == null || this.rateLimiter.limit() != limit) {
+      this.rateLimiter = new RateLimiter(limit);
+    }
+    return this.rateLimiter;
+  }
+
+  /**
+   * unblocks the port of the address.
+   * <p>
+   * only the block of the exact address and port is removed, use {@link #unblockHost(InetAddress)} or
+   * {@link #unblockSubnet(InetAddress, int)} for the blocks of {@link BlockedAddress#host} and
+   * {@link BlockedAddress#subnet}.
+   *
+   * @param address the address to unblock.
    */
   public void unblockAddress(@NotNull final InetSocketAddress address) {
-    this.blockedAddresses.remove(address);
+    this.unblockAddress(new BlockedAddress(address, ""));
   }
 
   /**
@@ -164,7 +258,94 @@ public class RakNetServerChannel
    * @param address the address to unblock.
    */
   public void unblockAddress(@NotNull final BlockedAddress address) {
-    this.unblockAddress(address.address());
+    this.runInEventLoop(() -> this.blockList.remove(address));
+  }
+
+  /**
+   * unblocks every port of the host.
+   * <p>
+   * removes the host wide block and the port specific blocks of the host, the subnet blocks which contain the host
+   * are kept.
+   *
+   * @param address the address to unblock.
+   */
+  public void unblockHost(@NotNull final InetAddress address) {
+    this.unblockSubnet(address, address.getAddress().length * Byte.SIZE);
+  }
+
+  /**
+   * unblocks every block inside the subnet, whatever its port or its own prefix length is.
+   * <p>
+   * the blocks of wider subnets which contain the subnet are kept.
+   *
+   * @param address the address to unblock.
+   * @param prefixLength the prefix length to unblock.
+   */
+  public void unblockSubnet(
+    @NotNull final InetAddress address,
+    final int prefixLength
+  ) {
+    final var maxPrefixLength = address.getAddress().length * Byte.SIZE;
+    Preconditions.checkArgument(
+      prefixLength >= 0 && prefixLength <= maxPrefixLength,
+      "Prefix length must be in between 0-%s",
+      maxPrefixLength
+    );
+    this.runInEventLoop(() -> this.blockList.removeAll(address, prefixLength));
+  }
+
+  /**
+   * registers the child to be notified once the socket becomes writable.
+   *
+   * @param child the child to register.
+   */
+  void awaitWritable(@NotNull final RakNetChildChannel child) {
+    if (child.awaitingWritability.compareAndSet(false, true)) {
+      this.writabilityWaiters.offer(child);
+    }
+    // the socket may have become writable before the child was queued.
+    if (this.isWritable()) {
+      this.scheduleWritability();
+    }
+  }
+
+  /**
+   * notifies the waiting children if the socket is writable.
+   * <p>
+   * children are grouped by their event loops, so every loop runs a single task for its children.
+   */
+  private void propagateWritability() {
+    this.writabilityScheduled.set(false);
+    if (!this.isWritable() || this.writabilityWaiters.isEmpty()) {
+      return;
+    }
+    final Map<EventLoop, List<RakNetChildChannel>> batches =
+      new IdentityHashMap<>();
+    RakNetChildChannel child;
+    while ((child = this.writabilityWaiters.poll()) != null) {
+      batches
+        .computeIfAbsent(child.eventLoop(), loop -> new ArrayList<>())
+        .add(child);
+    }
+    batches.forEach((loop, children) ->
+      loop.execute(() -> {
+        for (final var waiter : children) {
+          waiter.awaitingWritability.set(false);
+          if (waiter.isOpen()) {
+            waiter.pipeline().fireChannelWritabilityChanged();
+          }
+        }
+      })
+    );
+  }
+
+  /**
+   * schedules a writability propagation, flips in the same loop iteration result in a single propagation.
+   */
+  private void scheduleWritability() {
+    if (this.writabilityScheduled.compareAndSet(false, true)) {
+      this.eventLoop().execute(this::propagateWritability);
+    }
   }
 
   /**
@@ -176,6 +357,19 @@ public class RakNetServerChannel
       .addLast(RakNetServer.DefaultDatagramInitializer.INSTANCE);
   }
 
+  /**
+   * runs the task in the event loop, runs it directly if the channel is not registered yet.
+   *
+   * @param task the task to run.
+   */
+  private void runInEventLoop(@NotNull final Runnable task) {
+    if (!this.isRegistered() || this.eventLoop().inEventLoop()) {
+      task.run();
+    } else {
+      this.eventLoop().execute(task);
+    }
+  }
+
   /**
    * a class that represents server handlers.
    */
@@ -188,6 +382,51 @@ public class RakNetServerChannel
     @NotNull
     private final RakNetServerChannel channel;
 
+    /**
+     * the block list tick task.
+     */
+    @Nullable
+    private ScheduledFuture<?> blockListTask;
+
+    /**
+     * the handoff tick task.
+     */
+    @Nullable
+    private ScheduledFuture<?> handoffTask;
+
+    @Override
+    public void handlerAdded(final ChannelHandlerContext ctx) {
+      final var clock = this.channel.config().clock();
+      this.blockListTask =
+        clock.scheduleAtFixedRate(
+          ctx.executor(),
+          this.channel.blockList::tick,
+          BlockList.TICK_MILLIS,
+          BlockList.TICK_MILLIS,
+          TimeUnit.MILLISECONDS
+        );
+      this.handoffTask =
+        clock.scheduleAtFixedRate(
+          ctx.executor(),
+          this.channel.handoffs::tick,
+          1,
+          1,
+          TimeUnit.SECONDS
+        );
+    }
+
+    @Override
+    public void handlerRemoved(final ChannelHandlerContext ctx) {
+      if (this.blockListTask != null) {
+        this.blockListTask.cancel(false);
+        this.blockListTask = null;
+      }
+      if (this.handoffTask != null) {
+        this.handoffTask.cancel(false);
+        this.handoffTask = null;
+      }
+    }
+
     @Override
     public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
       if (!(msg instanceof DatagramPacket datagram)) {
@@ -196,40 +435,82 @@ public class RakNetServerChannel
       }
       final var content = datagram.content();
       final var sender = datagram.sender();
-      if (
-        this.channel.blockedAddress(sender)
-          .map(BlockedAddress::shouldUnblock)
-          .isPresent()
-      ) {
+      if (this.channel.blockList.isBlocked(sender)) {
         datagram.release();
         return;
       }
       try {
         final var child = this.channel.children.get(sender);
+        if (child == null) {
+          final var limiter = this.channel.rateLimiter();
+          if (
+            limiter != null &&
+            !limiter.tryAcquire(
+              sender,
+              content.readableBytes(),
+              this.channel.config().clock().nanoTime()
+            )
+          ) {
+            return;
+          }
+        }
         if (child == null && datagram.recipient() != null) {
           ctx.fireChannelRead(datagram.retain());
-        } else if (
-          child != null && child.isOpen() && child.config().isAutoRead()
-        ) {
+        } else if (child != null && child.isOpen()) {
           final var retained = content.retain();
-          child
-            .eventLoop()
-            .execute(() ->
+          final var childLoop = child.eventLoop();
+          if (childLoop.inEventLoop()) {
+            child
+              .pipeline()
+              .fireChannelRead(retained)
+              .fireChannelReadComplete();
+          } else {
+            this.channel.handoffs.inbound();
+            childLoop.execute(() ->
               child
                 .pipeline()
                 .fireChannelRead(retained)
                 .fireChannelReadComplete()
             );
+          }
         }
       } finally {
         datagram.release();
       }
     }
 
+    @Override
+    public void write(
+      final ChannelHandlerContext ctx,
+      final Object msg,
+      final ChannelPromise promise
+    ) {
+      if (msg instanceof DatagramPacket datagram) {
+        final var recipient = datagram.recipient();
+        final var limiter = this.channel.rateLimiter();
+        if (
+          limiter != null &&
+          !this.channel.children.containsKey(recipient) &&
+          !limiter.tryRespond(
+            recipient,
+            datagram.content().readableBytes(),
+            this.channel.config().clock().nanoTime()
+          )
+        ) {
+          // dropped responses are lost like any other datagram.
+          datagram.release();
+          promise.trySuccess();
+          return;
+        }
+      }
+      ctx.write(msg, promise);
+    }
+
     @Override
     public void channelWritabilityChanged(final ChannelHandlerContext ctx) {
-      this.channel.children.values()
-        .forEach(ch -> ch.pipeline().fireChannelWritabilityChanged());
+      if (this.channel.isWritable()) {
+        this.channel.scheduleWritability();
+      }
       ctx.fireChannelWritabilityChanged();
     }
 
@@ -282,14 +563,17 @@ public class RakNetServerChannel
         if (existingChild == null) {
           final var child =
             this.channel.newChild((InetSocketAddress) remoteAddress);
+          final var metrics = this.channel.config().metrics();
+          metrics.connectionOpened();
           child
             .closeFuture()
-            .addListener(v ->
+            .addListener(v -> {
+              metrics.connectionClosed();
               this.channel.eventLoop()
                 .execute(() ->
                   this.channel.children.remove(remoteAddress, child)
-                )
-            );
+                );
+            });
           this.channel.pipeline()
             .fireChannelRead(child)
             .fireChannelReadComplete();
@@ -0,0 +1,404 @@
+package io.github.shiruka.network.server.channels;
+
+import io.github.shiruka.network.Constants;
+import io.github.shiruka.network.options.RateLimit;
+import it.unimi.dsi.fastutil.HashCommon;
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents token bucket rate limiters of unconnected traffic.
+ * <p>
+ * buckets live in fixed-size tables of primitive arrays, every key hashes to a set of {@link #WAYS} slots and a miss
+ * evicts the least recently refilled slot of the set, so the memory stays bounded under spoofed floods.
+ * <p>
+ * the class is not thread-safe, it must be used from the event loop of the server.
+ */
+@Accessors(fluent = true)
+public final class RateLimiter {
+
+  /**
+   * the tag of IPv4 host keys.
+   */
+  private static final long HOST_TAG = 1L << Integer.SIZE;
+
+  /**
+   * the tag of IPv6 host keys.
+   */
+  private static final long IPV6_HOST_TAG = 1L << 62;
+
+  /**
+   * the tag of IPv6 prefix keys.
+   */
+  private static final long IPV6_PREFIX_TAG = 2L << 62;
+
+  /**
+   * the tag of IPv4 prefix keys.
+   */
+  private static final long PREFIX_TAG = 2L << Integer.SIZE;
+
+  /**
+   * the units of a single token, one token refills in one second with a rate of one.
+   */
+  private static final long TOKEN = TimeUnit.SECONDS.toNanos(1L);
+
+  /**
+   * the slots of a set.
+   */
+  private static final int WAYS = 4;
+
+  /**
+   * the credit cap of a host.
+   */
+  private final long creditCap;
+
+  /**
+   * the IPv4 prefix mask.
+   */
+  private final long ipv4Mask;
+
+  /**
+   * the host table.
+   */
+  @NotNull
+  private final Table hosts;
+
+  /**
+   * the rate limit.
+   */
+  @NotNull
+  @Getter
+  private final RateLimit limit;
+
+  /**
+   * the prefix table.
+   */
+  @NotNull
+  private final Table prefixes;
+
+  /**
+   * the dropped requests.
+   */
+  @Getter
+  private long droppedRequests;
+
+  /**
+   * the dropped responses.
+   */
+  @Getter
+  private long droppedResponses;
+
+  /**
+   * ctor.
+   *
+   * @param limit the limit.
+   */
+  public RateLimiter(@NotNull final RateLimit limit) {
+    this.limit = limit;
+    this.creditCap =
+      (long) (limit.amplificationRatio() * Constants.DEFAULT_MTU);
+    this.ipv4Mask =
+      RateLimiter.mask(limit.ipv4PrefixLength()) >>> Integer.SIZE;
+    this.hosts =
+      new Table(
+        limit.tableSize(),
+        limit.hostRate(),
+        limit.hostBurst(),
+        limit.amplificationRatio() > 0.0d
+      );
+    this.prefixes =
+      new Table(
+        limit.tableSize(),
+        limit.prefixRate(),
+        limit.prefixBurst(),
+        false
+      );
+  }
+
+  /**
+   * folds the IPv6 address into a key.
+   *
+   * @param address the address to fold.
+   * @param prefixLength the prefix length of the address.
+   * @param tag the tag of the key.
+   *
+   * @return key.
+   */
+  private static long fold(
+    final byte@NotNull[] address,
+    final int prefixLength,
+    final long tag
+  ) {
+    var high = 0L;
+    var low = 0L;
+    for (var index = 0; index < Long.BYTES; index++) {
+      high = high << Byte.SIZE | address[index] & 0xFF;
+      low = low << Byte.SIZE | address[index + Long.BYTES] & 0xFF;
+    }
+    if (prefixLength <= Long.SIZE) {
+      high &= RateLimiter.mask(prefixLength);
+      low = 0L;
+    } else {
+      low &= RateLimiter.mask(prefixLength - Long.SIZE);
+    }
+    return HashCommon.mix(high) ^ low | tag;
+  }
+
+  /**
+   * creates a mask which keeps the first bits.
+   *
+   * @param bits the bits to keep.
+   *
+   * @return mask.
+   */
+  private static long mask(final int bits) {
+    return bits == 0 ? 0L : -1L << Long.SIZE - bits;
+  }
+
+  /**
+   * takes a token from the buckets of the sender.
+   * <p>
+   * the request bytes are credited to the sender to limit the responses.
+   *
+   * @param sender the sender to take.
+   * @param bytes the bytes of the request.
+   * @param now the current nano time.
+   *
+   * @return {@code true} if the request is allowed.
+   */
+  public boolean tryAcquire(
+    @NotNull final InetSocketAddress sender,
+    final int bytes,
+    final long now
+  ) {
+    final var address = sender.getAddress();
+    if (address == null) {
+      return true;
+    }
+    final long hostKey;
+    final long prefixKey;
+    if (address instanceof Inet4Address) {
+      // Inet4Address#hashCode is the address itself,
+      // so it skips the array copy of getAddress.
+      final var bits = address.hashCode() & 0xFFFFFFFFL;
+      hostKey = RateLimiter.HOST_TAG | bits;
+      prefixKey = RateLimiter.PREFIX_TAG | bits & this.ipv4Mask;
+    } else {
+      final var bytesOfAddress = address.getAddress();
+      hostKey =
+        RateLimiter.fold(bytesOfAddress, 128, RateLimiter.IPV6_HOST_TAG);
+      prefixKey =
+        RateLimiter.fold(
+          bytesOfAddress,
+          this.limit.ipv6PrefixLength(),
+          RateLimiter.IPV6_PREFIX_TAG
+        );
+    }
+    final var prefix = this.prefixes.slot(prefixKey, now, true);
+    final var host = this.hosts.slot(hostKey, now, true);
+    if (!this.prefixes.hasToken(prefix) || !this.hosts.hasToken(host)) {
+      this.droppedRequests++;
+      return false;
+    }
+    this.prefixes.takeToken(prefix);
+    this.hosts.takeToken(host);
+    if (this.hosts.credits != null) {
+      final var credit =
+        this.hosts.credits[host] +
+        (long) (bytes * this.limit.amplificationRatio());
+      this.hosts.credits[host] = Math.min(credit, this.creditCap);
+    }
+    return true;
+  }
+
+  /**
+   * spends the credits of the recipient for a response.
+   *
+   * @param recipient the recipient to spend.
+   * @param bytes the bytes of the response.
+   * @param now the current nano time.
+   *
+   * @return {@code true} if the response is allowed.
+   */
+  public boolean tryRespond(
+    @NotNull final InetSocketAddress recipient,
+    final int bytes,
+    final long now
+  ) {
+    final var credits = this.hosts.credits;
+    final var address = recipient.getAddress();
+    if (credits == null || address == null) {
+      return true;
+    }
+    final long hostKey;
+    if (address instanceof Inet4Address) {
+      hostKey = RateLimiter.HOST_TAG | address.hashCode() & 0xFFFFFFFFL;
+    } else {
+      hostKey =
+        RateLimiter.fold(address.getAddress(), 128, RateLimiter.IPV6_HOST_TAG);
+    }
+    final var host = this.hosts.slot(hostKey, now, false);
+    if (host == -1 || credits[host] < bytes) {
+      this.droppedResponses++;
+      return false;
+    }
+    credits[host] -= bytes;
+    return true;
+  }
+
+  /**
+   * a class that represents bucket tables.
+   */
+  private static final class Table {
+
+    /**
+     * the burst in units.
+     */
+    private final long burst;
+
+    /**
+     * the credits.
+     */
+    private final long@Nullable[] credits;
+
+    /**
+     * the keys.
+     */
+    private final long[] keys;
+
+    /**
+     * the mask.
+     */
+    private final int mask;
+
+    /**
+     * the rate in units per nano.
+     */
+    private final long rate;
+
+    /**
+     * the elapsed nanos which fill an empty bucket.
+     */
+    private final long refillNanos;
+
+    /**
+     * the last refill times.
+     */
+    private final long[] stamps;
+
+    /**
+     * the tokens in units.
+     */
+    private final long[] tokens;
+
+    /**
+     * ctor.
+     *
+     * @param size the size.
+     * @param rate the rate.
+     * @param burst the burst.
+     * @param credits the credits.
+     */
+    private Table(
+      final int size,
+      final int rate,
+      final int burst,
+      final boolean credits
+    ) {
+      this.burst = burst * RateLimiter.TOKEN;
+      this.rate = rate;
+      this.refillNanos = rate == 0 ? 0L : this.burst / rate;
+      this.mask = size - 1;
+      this.keys = new long[size];
+      this.stamps = new long[size];
+      this.tokens = new long[size];
+      this.credits = credits ? new long[size] : null;
+    }
+
+    /**
+     * checks if the slot has a token.
+     *
+     * @param slot the slot to check.
+     *
+     * @return {@code true} if the slot has a token or the table does not limit.
+     */
+    private boolean hasToken(final int slot) {
+      return this.rate == 0 || this.tokens[slot] >= RateLimiter.TOKEN;
+    }
+
+    /**
+     * finds the slot of the key and refills its bucket.
+     *
+     * @param key the key to find.
+     * @param now the current nano time.
+     * @param create the create.
+     *
+     * @return slot, {@code -1} if the key is not found and {@code create} is {@code false}.
+     */
+    private int slot(final long key, final long now, final boolean create) {
+      final var set =
+        (int) HashCommon.mix(key) & this.mask & -RateLimiter.WAYS;
+      var victim = set;
+      for (var slot = set; slot < set + RateLimiter.WAYS; slot++) {
+        if (this.keys[slot] == key) {
+          this.refill(slot, now);
+          return slot;
+        }
+        if (this.keys[slot] == 0L) {
+          victim = slot;
+        } else if (
+          this.keys[victim] != 0L &&
+          this.stamps[slot] - this.stamps[victim] < 0L
+        ) {
+          victim = slot;
+        }
+      }
+      if (!create) {
+        return -1;
+      }
+      this.keys[victim] = key;
+      this.stamps[victim] = now;
+      this.tokens[victim] = this.burst;
+      if (this.credits != null) {
+        this.credits[victim] = 0L;
+      }
+      return victim;
+    }
+
+    /**
+     * refills the bucket of the slot.
+     *
+     * @param slot the slot to refill.
+     * @param now the current nano time.
+     */
+    private void refill(final int slot, final long now) {
+      final var elapsed = now - this.stamps[slot];
+      if (elapsed <= 0L) {
+        return;
+      }
+      this.stamps[slot] = now;
+      if (elapsed >= this.refillNanos) {
+        this.tokens[slot] = this.burst;
+      } else {
+        this.tokens[slot] =
+          Math.min(this.burst, this.tokens[slot] + elapsed * this.rate);
+      }
+    }
+
+    /**
+     * takes a token from the slot.
+     *
+     * @param slot the slot to take.
+     */
+    private void takeToken(final int slot) {
+      if (this.rate != 0) {
+        this.tokens[slot] -= RateLimiter.TOKEN;
+      }
+    }
+  }
+}
@@ -2,6 +2,7 @@ package io.github.shiruka.network.server.pipelines;
 
 import io.github.shiruka.network.Constants;
 import io.github.shiruka.network.Packet;
+import io.github.shiruka.network.jfr.ConnectionCloseEvent;
 import io.github.shiruka.network.options.RakNetConfig;
 import io.github.shiruka.network.packets.ClientHandshake;
 import io.github.shiruka.network.packets.ConnectionFailed;
@@ -76,6 +77,10 @@ public final class ConnectionInitializer extends BaseConnectionInitializer {
     if (msg instanceof Packet.Client client) {
       this.processClientId(ctx, client.clientId());
     } else if (msg instanceof ConnectionFailed) {
+      ConnectionCloseEvent.cause(
+        ctx.channel(),
+        ConnectionCloseEvent.Cause.CONNECTION_FAILED
+      );
       throw new IllegalStateException("Connection failed");
     }
     switch (this.state()) {
@@ -87,6 +92,10 @@ public final class ConnectionInitializer extends BaseConnectionInitializer {
           }
           this.seenFirst = true;
           if (!config.containsProtocolVersion(request1.protocolVersion())) {
+            ConnectionCloseEvent.cause(
+              ctx.channel(),
+              ConnectionCloseEvent.Cause.HANDSHAKE_FAILED
+            );
             ctx
               .writeAndFlush(
                 new InvalidVersion(config.magic(), config.serverId())
@@ -100,7 +109,7 @@ public final class ConnectionInitializer extends BaseConnectionInitializer {
           if (!this.mtuFixed) {
             config.mtu(request2.mtu());
           }
-          this.state(State.CR2);
+          this.state(ctx, State.CR2);
         }
         break;
       case CR2:
@@ -109,11 +118,12 @@ public final class ConnectionInitializer extends BaseConnectionInitializer {
             .writeAndFlush(
               new ServerHandshake(
                 (InetSocketAddress) ctx.channel().remoteAddress(),
-                request.timestamp()
+                request.timestamp(),
+                config.clock().currentTimeMillis()
               )
             )
             .addListener(Constants.INTERNAL_WRITE_LISTENER);
-          this.state(State.CR3);
+          this.state(ctx, State.CR3);
           BaseConnectionInitializer.startPing(ctx);
         }
         break;
@@ -202,12 +212,20 @@ public final class ConnectionInitializer extends BaseConnectionInitializer {
     @Override
     public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
       if (msg instanceof Packet.Client || msg instanceof ConnectionRequest1) {
+        ConnectionCloseEvent.cause(
+          ctx.channel(),
+          ConnectionCloseEvent.Cause.RESTARTED
+        );
         ctx
           .writeAndFlush(new ConnectionFailed(RakNetConfig.cast(ctx).magic()))
           .addListener(ChannelFutureListener.CLOSE);
         ReferenceCountUtil.safeRelease(msg);
       } else if (msg instanceof ConnectionFailed) {
         ReferenceCountUtil.safeRelease(msg);
+        ConnectionCloseEvent.cause(
+          ctx.channel(),
+          ConnectionCloseEvent.Cause.CONNECTION_FAILED
+        );
         ctx.close();
       } else {
         ctx.fireChannelRead(msg);
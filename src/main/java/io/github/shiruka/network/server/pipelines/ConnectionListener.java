@@ -1,8 +1,10 @@
 package io.github.shiruka.network.server.pipelines;
 
 import io.github.shiruka.network.options.RakNetConfig;
+import io.github.shiruka.network.packets.ConnectionReply1;
 import io.github.shiruka.network.packets.ConnectionRequest1;
 import io.github.shiruka.network.packets.InvalidVersion;
+import io.github.shiruka.network.server.RakNetServer;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.util.ReferenceCountUtil;
@@ -42,7 +44,24 @@ public final class ConnectionListener
       );
       return;
     }
-    ReferenceCountUtil.retain(request);
+    if (config.statelessHandshake()) {
+      final var cookie = RakNetServer
+        .cast(ctx)
+        .cookies()
+        .create(sender, request.protocolVersion(), config.clock());
+      ConnectionListener.sendResponse(
+        ctx,
+        sender,
+        new ConnectionReply1(
+          config.magic(),
+          request.mtu(),
+          config.serverId(),
+          cookie
+        )
+      );
+      return;
+    }
+    final var datagram = this.retainDatagram();
     ctx
       .channel()
       .connect(sender)
@@ -50,9 +69,9 @@ public final class ConnectionListener
         ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE,
         future -> {
           if (future.isSuccess()) {
-            ConnectionListener.resendRequest(ctx, sender, request);
+            ConnectionListener.forwardRequest(ctx, datagram);
           } else {
-            ReferenceCountUtil.safeRelease(request);
+            ReferenceCountUtil.safeRelease(datagram);
           }
         }
       );
@@ -0,0 +1,66 @@
+package io.github.shiruka.network.server.pipelines;
+
+import io.github.shiruka.network.options.RakNetConfig;
+import io.github.shiruka.network.packets.ConnectionRequest2;
+import io.github.shiruka.network.server.RakNetServer;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.ReferenceCountUtil;
+import java.net.InetSocketAddress;
+
+/**
+ * a class that represents cookie listener pipelines.
+ * <p>
+ * creates the child of a stateless handshake when the connection request 2 echoes a valid cookie.
+ */
+public final class CookieListener extends UdpPacketHandler<ConnectionRequest2> {
+
+  /**
+   * the name.
+   */
+  public static final String NAME = "rn-cookie-init";
+
+  /**
+   * ctor.
+   */
+  public CookieListener() {
+    super(ConnectionRequest2.class);
+  }
+
+  @Override
+  protected void handle(
+    final ChannelHandlerContext ctx,
+    final InetSocketAddress sender,
+    final ConnectionRequest2 request
+  ) {
+    final var config = RakNetConfig.cast(ctx);
+    if (!config.statelessHandshake() || !request.security()) {
+      return;
+    }
+    final var server = RakNetServer.cast(ctx);
+    final var protocolVersion = server
+      .cookies()
+      .verify(sender, request.cookie(), config.clock());
+    if (
+      protocolVersion == -1 || !config.containsProtocolVersion(protocolVersion)
+    ) {
+      return;
+    }
+    final var datagram = this.retainDatagram();
+    ctx
+      .channel()
+      .connect(sender)
+      .addListeners(
+        ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE,
+        future -> {
+          final var child = server.getChildChannel(sender);
+          if (future.isSuccess() && child != null) {
+            RakNetConfig.cast(child).protocolVersion(protocolVersion);
+            CookieListener.forwardRequest(ctx, datagram);
+          } else {
+            ReferenceCountUtil.safeRelease(datagram);
+          }
+        }
+      );
+  }
+}
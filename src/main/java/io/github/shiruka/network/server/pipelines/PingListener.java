@@ -1,16 +1,27 @@
 package io.github.shiruka.network.server.pipelines;
 
+import io.github.shiruka.network.Identifier;
+import io.github.shiruka.network.PacketBuffer;
 import io.github.shiruka.network.options.RakNetConfig;
+import io.github.shiruka.network.options.RakNetMagic;
 import io.github.shiruka.network.packets.UnconnectedPing;
 import io.github.shiruka.network.packets.UnconnectedPong;
 import io.github.shiruka.network.server.RakNetServer;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.util.ReferenceCountUtil;
+import io.netty.channel.socket.DatagramPacket;
 import java.net.InetSocketAddress;
-import lombok.SneakyThrows;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * a class that represents ping listener pipelines.
+ * <p>
+ * the pong is encoded once and copied for every ping with the timestamp of the ping. the encoded pong is rebuilt when
+ * the server identifier, the magic or the server id of the config changes, when {@link #invalidate()} is called, or
+ * once the refresh interval passes so dynamic fields of the identifier such as the player count stay up to date.
  */
 public final class PingListener extends UdpPacketHandler<UnconnectedPing> {
 
@@ -19,14 +30,85 @@ public final class PingListener extends UdpPacketHandler<UnconnectedPing> {
    */
   public static final String NAME = "rn-ping-init";
 
+  /**
+   * the default refresh interval.
+   */
+  private static final long DEFAULT_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(
+    1L
+  );
+
+  /**
+   * the timestamp index in the encoded pong, right after the packet id.
+   */
+  private static final int TIMESTAMP_INDEX = 1;
+
+  /**
+   * the refresh interval.
+   */
+  private final long refreshNanos;
+
+  /**
+   * the build time of the encoded pong.
+   */
+  private long builtAt;
+
+  /**
+   * the identifier of the encoded pong.
+   */
+  @Nullable
+  private Identifier identifier;
+
+  /**
+   * the magic of the encoded pong.
+   */
+  @Nullable
+  private RakNetMagic magic;
+
+  /**
+   * the encoded pong.
+   */
+  @Nullable
+  private ByteBuf pong;
+
+  /**
+   * the server id of the encoded pong.
+   */
+  private long serverId;
+
+  /**
+   * the stale.
+   */
+  private volatile boolean stale;
+
   /**
    * ctor.
    */
   public PingListener() {
+    this(PingListener.DEFAULT_REFRESH_NANOS);
+  }
+
+  /**
+   * ctor.
+   *
+   * @param refreshNanos the refresh interval in nanos.
+   */
+  public PingListener(final long refreshNanos) {
     super(UnconnectedPing.class);
+    this.refreshNanos = refreshNanos;
+  }
+
+  @Override
+  public void handlerRemoved(final ChannelHandlerContext ctx) {
+    this.release();
+  }
+
+  /**
+   * marks the encoded pong as stale, so the next ping rebuilds it.
+   */
+  public void invalidate() {
+    this.stale = true;
   }
 
-  @SneakyThrows
   @Override
   protected void handle(
     final ChannelHandlerContext ctx,
@@ -38,13 +120,70 @@ public final class PingListener extends UdpPacketHandler<UnconnectedPing> {
     if (connections.size() >= config.maxConnections()) {
       return;
     }
-    ReferenceCountUtil.retain(ping);
-    final var pong = new UnconnectedPong(
-      config.serverIdentifier(),
-      config.magic(),
-      config.serverId(),
-      ping.timestamp()
+    final var pong = this.pong(ctx, config);
+    final var length = pong.readableBytes();
+    final var buffer = ctx.alloc().ioBuffer(length);
+    buffer.writeBytes(pong, pong.readerIndex(), length);
+    buffer.setLong(PingListener.TIMESTAMP_INDEX, ping.timestamp());
+    ctx
+      .writeAndFlush(new DatagramPacket(buffer, sender))
+      .addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+  }
+
+  /**
+   * obtains the encoded pong, rebuilds it if it is stale.
+   *
+   * @param ctx the ctx to obtain.
+   * @param config the config to obtain.
+   *
+   * @return encoded pong without timestamp.
+   */
+  @NotNull
+  private ByteBuf pong(
+    @NotNull final ChannelHandlerContext ctx,
+    @NotNull final RakNetConfig config
+  ) {
+    final var now = config.clock().nanoTime();
+    if (
+      this.pong != null &&
+      !this.stale &&
+      this.identifier == config.serverIdentifier() &&
+      this.magic == config.magic() &&
+      this.serverId == config.serverId() &&
+      now - this.builtAt < this.refreshNanos
+    ) {
+      return this.pong;
+    }
+    this.stale = false;
+    this.release();
+    this.identifier = config.serverIdentifier();
+    this.magic = config.magic();
+    this.serverId = config.serverId();
+    this.builtAt = now;
+    final var packet = new UnconnectedPong(
+      this.identifier,
+      this.magic,
+      this.serverId,
+      0L
     );
-    PingListener.sendResponse(ctx, sender, pong);
+    final var buffer = ctx.alloc().ioBuffer(packet.initialSizeHint());
+    try {
+      config.codec().encode(packet, new PacketBuffer(buffer));
+    } catch (final Exception e) {
+      buffer.release();
+      throw e;
+    }
+    this.pong = buffer;
+    return buffer;
+  }
+
+  /**
+   * releases the encoded pong.
+   */
+  private void release() {
+    if (this.pong != null) {
+      this.pong.release();
+      this.pong = null;
+    }
   }
 }
@@ -11,10 +11,13 @@ import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.socket.DatagramPacket;
 import io.netty.util.ReferenceCountUtil;
 import java.net.InetSocketAddress;
+import java.util.Objects;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * an abstract class that represents udp packet handler pipelines.
@@ -32,6 +35,13 @@ public abstract class UdpPacketHandler<T extends Packet>
   @NotNull
   private final Class<T> type;
 
+  /**
+   * the datagram that is being handled.
+   */
+  @Nullable
+  @Getter(AccessLevel.NONE)
+  private DatagramPacket datagram;
+
   /**
    * the packet id.
    */
@@ -51,6 +61,21 @@ public abstract class UdpPacketHandler<T extends Packet>
     this.type = type;
   }
 
+  /**
+   * forwards the datagram to the server channel, so it reaches the child that is connected to its sender.
+   * <p>
+   * the datagram is released.
+   *
+   * @param ctx the ctx to forward.
+   * @param datagram the datagram to forward.
+   */
+  protected static void forwardRequest(
+    @NotNull final ChannelHandlerContext ctx,
+    @NotNull final DatagramPacket datagram
+  ) {
+    ctx.pipeline().fireChannelRead(datagram).fireChannelReadComplete();
+  }
+
   /**
    * resends the packet.
    *
@@ -124,14 +149,19 @@ public abstract class UdpPacketHandler<T extends Packet>
     final ChannelHandlerContext ctx,
     final DatagramPacket msg
   ) {
+    final var content = msg.content();
+    final var readerIndex = content.readerIndex();
     //noinspection unchecked
     final var packet = (T) RakNetConfig
       .cast(ctx)
       .codec()
-      .decode(new PacketBuffer(msg.content()));
+      .decode(new PacketBuffer(content));
+    content.readerIndex(readerIndex);
+    this.datagram = msg;
     try {
       this.handle(ctx, msg.sender(), packet);
     } finally {
+      this.datagram = null;
       ReferenceCountUtil.release(packet);
     }
   }
@@ -146,6 +176,24 @@ public abstract class UdpPacketHandler<T extends Packet>
     );
   }
 
+  /**
+   * retains the datagram that is being handled, so it can be forwarded as is instead of encoding the decoded packet
+   * again.
+   * <p>
+   * the recipient is dropped, so the server channel does not hand the datagram to the listeners again.
+   *
+   * @return retained datagram.
+   */
+  @NotNull
+  protected final DatagramPacket retainDatagram() {
+    final var current = Objects.requireNonNull(this.datagram, "datagram");
+    return new DatagramPacket(
+      current.content().retainedDuplicate(),
+      null,
+      current.sender()
+    );
+  }
+
   /**
    * handles the packet.
    *
@@ -0,0 +1,379 @@
+package io.github.shiruka.network.stats;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents statistics of a connection.
+ * <p>
+ * the pipelines of the connection update the counters and the gauges with plain writes on its event loop. each update
+ * is bracketed by a version that is odd while the update runs, so {@link #snapshot()} can be called from any thread
+ * and retries, without locking, until it copies the fields between two updates.
+ */
+public final class ConnectionStats {
+
+  /**
+   * the version handle.
+   */
+  private static final VarHandle VERSION;
+
+  static {
+    try {
+      VERSION =
+        MethodHandles
+          .lookup()
+          .findVarHandle(ConnectionStats.class, "version", long.class);
+    } catch (final ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * the burst tokens.
+   */
+  private int burstTokens;
+
+  /**
+   * the bytes in.
+   */
+  private long bytesIn;
+
+  /**
+   * the bytes out.
+   */
+  private long bytesOut;
+
+  /**
+   * the datagrams in.
+   */
+  private long datagramsIn;
+
+  /**
+   * the datagrams out.
+   */
+  private long datagramsOut;
+
+  /**
+   * the frame sets acked.
+   */
+  private long frameSetsAcked;
+
+  /**
+   * the frame sets nacked.
+   */
+  private long frameSetsNacked;
+
+  /**
+   * the frame sets sent.
+   */
+  private long frameSetsSent;
+
+  /**
+   * the frame sets timed out.
+   */
+  private long frameSetsTimedOut;
+
+  /**
+   * the in flight bytes.
+   */
+  private long inFlightBytes;
+
+  /**
+   * the in flight frame sets.
+   */
+  private int inFlightFrameSets;
+
+  /**
+   * the pending splits.
+   */
+  private int pendingSplits;
+
+  /**
+   * the queued bytes.
+   */
+  private long queuedBytes;
+
+  /**
+   * the queued frames.
+   */
+  private int queuedFrames;
+
+  /**
+   * the reorder buffered frames.
+   */
+  private int reorderBuffered;
+
+  /**
+   * the rtt nanos.
+   */
+  private long rttNanos;
+
+  /**
+   * the rtt standard deviation nanos.
+   */
+  private long rttStdDevNanos;
+
+  /**
+   * the version, odd while an update runs.
+   */
+  @SuppressWarnings("unused")
+  private volatile long version;
+
+  /**
+   * records a received datagram.
+   *
+   * @param bytes the bytes to record.
+   */
+  public void datagramIn(final int bytes) {
+    this.begin();
+    this.datagramsIn++;
+    this.bytesIn += bytes;
+    this.end();
+  }
+
+  /**
+   * records a sent datagram.
+   *
+   * @param bytes the bytes to record.
+   */
+  public void datagramOut(final int bytes) {
+    this.begin();
+    this.datagramsOut++;
+    this.bytesOut += bytes;
+    this.end();
+  }
+
+  /**
+   * records acked frame sets.
+   *
+   * @param count the count to record.
+   */
+  public void frameSetsAcked(final int count) {
+    this.begin();
+    this.frameSetsAcked += count;
+    this.end();
+  }
+
+  /**
+   * records nacked frame sets.
+   *
+   * @param count the count to record.
+   */
+  public void frameSetsNacked(final int count) {
+    this.begin();
+    this.frameSetsNacked += count;
+    this.end();
+  }
+
+  /**
+   * records a sent frame set.
+   */
+  public void frameSetSent() {
+    this.begin();
+    this.frameSetsSent++;
+    this.end();
+  }
+
+  /**
+   * records frame sets that are recalled because their ack did not arrive in time.
+   *
+   * @param count the count to record.
+   */
+  public void frameSetsTimedOut(final int count) {
+    this.begin();
+    this.frameSetsTimedOut += count;
+    this.end();
+  }
+
+  /**
+   * updates the in flight gauges.
+   *
+   * @param frameSets the frame sets that wait for an ack.
+   * @param bytes the bytes of the frame sets.
+   * @param burstTokens the burst tokens.
+   */
+  public void inFlight(
+    final int frameSets,
+    final long bytes,
+    final int burstTokens
+  ) {
+    this.begin();
+    this.inFlightFrameSets = frameSets;
+    this.inFlightBytes = bytes;
+    this.burstTokens = burstTokens;
+    this.end();
+  }
+
+  /**
+   * updates the pending splits gauge.
+   *
+   * @param pendingSplits the split packets that are being reassembled.
+   */
+  public void pendingSplits(final int pendingSplits) {
+    this.begin();
+    this.pendingSplits = pendingSplits;
+    this.end();
+  }
+
+  /**
+   * updates the queue gauges.
+   *
+   * @param frames the frames that wait for a frame set.
+   * @param bytes the bytes of the frames.
+   */
+  public void queue(final int frames, final long bytes) {
+    this.begin();
+    this.queuedFrames = frames;
+    this.queuedBytes = bytes;
+    this.end();
+  }
+
+  /**
+   * updates the reorder buffer gauge.
+   *
+   * @param reorderBuffered the frames that wait for a missing ordered frame.
+   */
+  public void reorderBuffered(final int reorderBuffered) {
+    this.begin();
+    this.reorderBuffered = reorderBuffered;
+    this.end();
+  }
+
+  /**
+   * updates the rtt gauges.
+   *
+   * @param rttNanos the rtt nanos.
+   * @param rttStdDevNanos the rtt standard deviation nanos.
+   */
+  public void rtt(final long rttNanos, final long rttStdDevNanos) {
+    this.begin();
+    this.rttNanos = rttNanos;
+    this.rttStdDevNanos = rttStdDevNanos;
+    this.end();
+  }
+
+  /**
+   * takes a consistent snapshot, can be called from any thread.
+   *
+   * @return snapshot.
+   */
+  @NotNull
+  public Snapshot snapshot() {
+    while (true) {
+      final var before = (long) ConnectionStats.VERSION.getAcquire(this);
+      if ((before & 1L) == 0L) {
+        final var snapshot = new Snapshot(
+          this.bytesIn,
+          this.bytesOut,
+          this.datagramsIn,
+          this.datagramsOut,
+          this.frameSetsSent,
+          this.frameSetsAcked,
+          this.frameSetsNacked,
+          this.frameSetsTimedOut,
+          this.inFlightFrameSets,
+          this.inFlightBytes,
+          this.queuedFrames,
+          this.queuedBytes,
+          this.burstTokens,
+          this.rttNanos,
+          this.rttStdDevNanos,
+          this.pendingSplits,
+          this.reorderBuffered
+        );
+        VarHandle.loadLoadFence();
+        if ((long) ConnectionStats.VERSION.getOpaque(this) == before) {
+          return snapshot;
+        }
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return this.snapshot().toString();
+  }
+
+  /**
+   * starts an update, the fields must not be written before the odd version is visible.
+   */
+  private void begin() {
+    ConnectionStats.VERSION.setOpaque(this, this.version + 1L);
+    VarHandle.storeStoreFence();
+  }
+
+  /**
+   * ends the update, publishes the written fields with the even version.
+   */
+  private void end() {
+    ConnectionStats.VERSION.setRelease(this, this.version + 1L);
+  }
+
+  /**
+   * a record class that represents snapshots of connection statistics.
+   *
+   * @param bytesIn the bytes in.
+   * @param bytesOut the bytes out.
+   * @param datagramsIn the datagrams in.
+   * @param datagramsOut the datagrams out.
+   * @param frameSetsSent the frame sets sent.
+   * @param frameSetsAcked the frame sets acked.
+   * @param frameSetsNacked the frame sets nacked.
+   * @param frameSetsTimedOut the frame sets timed out.
+   * @param inFlightFrameSets the in flight frame sets.
+   * @param inFlightBytes the in flight bytes.
+   * @param queuedFrames the queued frames.
+   * @param queuedBytes the queued bytes.
+   * @param burstTokens the burst tokens.
+   * @param rttNanos the rtt nanos.
+   * @param rttStdDevNanos the rtt standard deviation nanos.
+   * @param pendingSplits the pending splits.
+   * @param reorderBuffered the reorder buffered frames.
+   */
+  public record Snapshot(
+    long bytesIn,
+    long bytesOut,
+    long datagramsIn,
+    long datagramsOut,
+    long frameSetsSent,
+    long frameSetsAcked,
+    long frameSetsNacked,
+    long frameSetsTimedOut,
+    int inFlightFrameSets,
+    long inFlightBytes,
+    int queuedFrames,
+    long queuedBytes,
+    int burstTokens,
+    long rttNanos,
+    long rttStdDevNanos,
+    int pendingSplits,
+    int reorderBuffered
+  ) {
+    /**
+     * obtains the share of the sent frame sets that were nacked or timed out.
+     *
+     * @return loss ratio in between 0-1.
+     */
+    public double lossRatio() {
+      if (this.frameSetsSent == 0L) {
+        return 0.0d;
+      }
+      return Math.min(
+        1.0d,
+        (double) (this.frameSetsNacked + this.frameSetsTimedOut) /
+        this.frameSetsSent
+      );
+    }
+
+    /**
+     * obtains the rtt variance.
+     *
+     * @return rtt variance in square nanos.
+     */
+    public double rttVarianceNanos() {
+      return (double) this.rttStdDevNanos * this.rttStdDevNanos;
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package io.github.shiruka.network.stats;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents log-linear histograms of non-negative values.
+ * <p>
+ * each power of two range is split into {@value #SUB_BUCKETS} linear buckets, so a percentile is off by at most about
+ * 3%. recording is lock-free and may run on any number of event loops, the buckets are striped by thread so the loops
+ * do not fight over the same cache lines. reading merges the stripes and is meant for the pull side only.
+ */
+public final class LogLinearHistogram {
+
+  /**
+   * the linear buckets of each power of two.
+   */
+  private static final int SUB_BUCKETS = 32;
+
+  /**
+   * the bits of the linear buckets.
+   */
+  private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(
+    LogLinearHistogram.SUB_BUCKETS
+  );
+
+  /**
+   * the buckets of a stripe.
+   */
+  private static final int BUCKETS =
+    (64 - LogLinearHistogram.SUB_BUCKET_BITS + 1) *
+    LogLinearHistogram.SUB_BUCKETS;
+
+  /**
+   * the counts of every stripe, one after another.
+   */
+  private final AtomicLongArray counts;
+
+  /**
+   * the max.
+   */
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+  /**
+   * the stripe mask.
+   */
+  private final int stripeMask;
+
+  /**
+   * the sum.
+   */
+  private final LongAdder sum = new LongAdder();
+
+  /**
+   * ctor.
+   *
+   * @param stripes the stripes, a power of two.
+   */
+  public LogLinearHistogram(final int stripes) {
+    Preconditions.checkArgument(
+      stripes > 0 && Integer.bitCount(stripes) == 1,
+      "Stripes must be a power of 2"
+    );
+    this.counts = new AtomicLongArray(stripes * LogLinearHistogram.BUCKETS);
+    this.stripeMask = stripes - 1;
+  }
+
+  /**
+   * ctor.
+   */
+  public LogLinearHistogram() {
+    this(1);
+  }
+
+  /**
+   * obtains the highest value of the bucket.
+   *
+   * @param index the index to obtain.
+   *
+   * @return highest value.
+   */
+  private static long highest(final int index) {
+    if (index < LogLinearHistogram.SUB_BUCKETS) {
+      return index;
+    }
+    final var exponent = index / LogLinearHistogram.SUB_BUCKETS - 1;
+    final var mantissa =
+      index % LogLinearHistogram.SUB_BUCKETS + LogLinearHistogram.SUB_BUCKETS;
+    return ((mantissa + 1L) << exponent) - 1L;
+  }
+
+  /**
+   * obtains the bucket index of the value.
+   *
+   * @param value the value to obtain.
+   *
+   * @return bucket index.
+   */
+  private static int index(final long value) {
+    if (value < LogLinearHistogram.SUB_BUCKETS) {
+      return (int) value;
+    }
+    final var exponent =
+      63 -
+      Long.numberOfLeadingZeros(value) -
+      LogLinearHistogram.SUB_BUCKET_BITS;
+    final var mantissa =
+      (int) (value >>> exponent) - LogLinearHistogram.SUB_BUCKETS;
+    return (exponent + 1) * LogLinearHistogram.SUB_BUCKETS + mantissa;
+  }
+
+  /**
+   * obtains the value at the percentile of the merged counts.
+   *
+   * @param merged the merged to obtain.
+   * @param count the count of the merged.
+   * @param percentile the percentile to obtain, between 0 and 100.
+   *
+   * @return value, {@code 0} if nothing is recorded.
+   */
+  private static long valueAt(
+    final long[] merged,
+    final long count,
+    final double percentile
+  ) {
+    if (count == 0L) {
+      return 0L;
+    }
+    final var rank = Math.max(1L, (long) Math.ceil(count * percentile / 100.0));
+    var seen = 0L;
+    for (var index = 0; index < merged.length; index++) {
+      seen += merged[index];
+      if (seen >= rank) {
+        return LogLinearHistogram.highest(index);
+      }
+    }
+    return LogLinearHistogram.highest(merged.length - 1);
+  }
+
+  /**
+   * obtains the recorded values.
+   *
+   * @return count.
+   */
+  public long count() {
+    var count = 0L;
+    for (final var bucket : this.merged()) {
+      count += bucket;
+    }
+    return count;
+  }
+
+  /**
+   * obtains the highest recorded value.
+   *
+   * @return max.
+   */
+  public long max() {
+    return this.max.get();
+  }
+
+  /**
+   * obtains the value at the percentile.
+   *
+   * @param percentile the percentile to obtain, between 0 and 100.
+   *
+   * @return value, {@code 0} if nothing is recorded.
+   */
+  public long percentile(final double percentile) {
+    final var merged = this.merged();
+    var count = 0L;
+    for (final var bucket : merged) {
+      count += bucket;
+    }
+    return LogLinearHistogram.valueAt(merged, count, percentile);
+  }
+
+  /**
+   * records the value, negative values are recorded as 0.
+   *
+   * @param value the value to record.
+   */
+  public void record(final long value) {
+    final var clamped = Math.max(0L, value);
+    final var stripe = (int) Thread.currentThread().getId() & this.stripeMask;
+    this.counts.getAndIncrement(
+        stripe * LogLinearHistogram.BUCKETS + LogLinearHistogram.index(clamped)
+      );
+    this.sum.add(clamped);
+    this.max.accumulate(clamped);
+  }
+
+  /**
+   * clears the recorded values.
+   * <p>
+   * the values that are recorded while clearing may be partly kept.
+   */
+  public void reset() {
+    for (var index = 0; index < this.counts.length(); index++) {
+      this.counts.set(index, 0L);
+    }
+    this.sum.reset();
+    this.max.reset();
+  }
+
+  /**
+   * takes a snapshot of the count, the mean and the common percentiles.
+   *
+   * @return snapshot.
+   */
+  @NotNull
+  public Snapshot snapshot() {
+    final var merged = this.merged();
+    var count = 0L;
+    for (final var bucket : merged) {
+      count += bucket;
+    }
+    return new Snapshot(
+      count,
+      this.sum.sum(),
+      this.max.get(),
+      LogLinearHistogram.valueAt(merged, count, 50.0),
+      LogLinearHistogram.valueAt(merged, count, 90.0),
+      LogLinearHistogram.valueAt(merged, count, 99.0),
+      LogLinearHistogram.valueAt(merged, count, 99.9)
+    );
+  }
+
+  /**
+   * merges the stripes.
+   *
+   * @return merged counts.
+   */
+  private long[] merged() {
+    final var merged = new long[LogLinearHistogram.BUCKETS];
+    for (var index = 0; index < this.counts.length(); index++) {
+      merged[index % LogLinearHistogram.BUCKETS] += this.counts.get(index);
+    }
+    return merged;
+  }
+
+  /**
+   * a record class that represents snapshots of histograms.
+   *
+   * @param count the count.
+   * @param sum the sum.
+   * @param max the max.
+   * @param p50 the 50th percentile.
+   * @param p90 the 90th percentile.
+   * @param p99 the 99th percentile.
+   * @param p999 the 99.9th percentile.
+   */
+  public record Snapshot(
+    long count,
+    long sum,
+    long max,
+    long p50,
+    long p90,
+    long p99,
+    long p999
+  ) {
+    /**
+     * obtains the mean.
+     *
+     * @return mean, {@code 0} if nothing is recorded.
+     */
+    public double mean() {
+      return this.count == 0L ? 0.0d : (double) this.sum / this.count;
+    }
+  }
+}
@@ -0,0 +1,500 @@
+package io.github.shiruka.network.stats;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents metrics which aggregate every connection of a server.
+ * <p>
+ * the server and its children share one instance through {@code RakNetConfig#metrics()}, client channels share
+ * {@link #shared()} unless the {@code RN_METRICS} option gives them their own instance. counters are
+ * {@link LongAdder}s and distributions are striped {@link LogLinearHistogram}s, so recording is lock-free and costs a
+ * few uncontended atomic adds on any event loop. {@link #snapshot()} and the jmx view are the pull side.
+ */
+public final class RakNetMetrics {
+
+  /**
+   * the jmx domain.
+   */
+  private static final String DOMAIN = "io.github.shiruka.network";
+
+  /**
+   * the stripes of the histograms, the next power of two of the processors up to 16.
+   */
+  private static final int STRIPES = Math.min(
+    16,
+    Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1)
+  );
+
+  /**
+   * the ack delays.
+   */
+  private final LogLinearHistogram ackDelay = new LogLinearHistogram(
+    RakNetMetrics.STRIPES
+  );
+
+  /**
+   * the bytes in.
+   */
+  private final LongAdder bytesIn = new LongAdder();
+
+  /**
+   * the bytes out.
+   */
+  private final LongAdder bytesOut = new LongAdder();
+
+  /**
+   * the connections closed.
+   */
+  private final LongAdder connectionsClosed = new LongAdder();
+
+  /**
+   * the connections opened.
+   */
+  private final LongAdder connectionsOpened = new LongAdder();
+
+  /**
+   * the datagrams in.
+   */
+  private final LongAdder datagramsIn = new LongAdder();
+
+  /**
+   * the datagrams out.
+   */
+  private final LongAdder datagramsOut = new LongAdder();
+
+  /**
+   * the frame set sizes.
+   */
+  private final LogLinearHistogram frameSetSize = new LogLinearHistogram(
+    RakNetMetrics.STRIPES
+  );
+
+  /**
+   * the frame sets acked.
+   */
+  private final LongAdder frameSetsAcked = new LongAdder();
+
+  /**
+   * the frame sets nacked.
+   */
+  private final LongAdder frameSetsNacked = new LongAdder();
+
+  /**
+   * the frame sets sent.
+   */
+  private final LongAdder frameSetsSent = new LongAdder();
+
+  /**
+   * the frame sets timed out.
+   */
+  private final LongAdder frameSetsTimedOut = new LongAdder();
+
+  /**
+   * the handshake durations.
+   */
+  private final LogLinearHistogram handshake = new LogLinearHistogram(
+    RakNetMetrics.STRIPES
+  );
+
+  /**
+   * the rtt samples.
+   */
+  private final LogLinearHistogram rtt = new LogLinearHistogram(
+    RakNetMetrics.STRIPES
+  );
+
+  /**
+   * the split reassembly times.
+   */
+  private final LogLinearHistogram splitReassembly = new LogLinearHistogram(
+    RakNetMetrics.STRIPES
+  );
+
+  /**
+   * the jmx name, {@code null} if the metrics are not registered.
+   */
+  @Nullable
+  private volatile ObjectName objectName;
+
+  /**
+   * obtains the metrics that client channels share by default, created on first use.
+   *
+   * @return shared metrics.
+   */
+  @NotNull
+  public static RakNetMetrics shared() {
+    return Shared.INSTANCE;
+  }
+
+  /**
+   * records a closed connection.
+   */
+  public void connectionClosed() {
+    this.connectionsClosed.increment();
+  }
+
+  /**
+   * records an opened connection.
+   */
+  public void connectionOpened() {
+    this.connectionsOpened.increment();
+  }
+
+  /**
+   * records a received datagram.
+   *
+   * @param bytes the bytes to record.
+   */
+  public void datagramIn(final int bytes) {
+    this.datagramsIn.increment();
+    this.bytesIn.add(bytes);
+  }
+
+  /**
+   * records a sent datagram.
+   *
+   * @param bytes the bytes to record.
+   */
+  public void datagramOut(final int bytes) {
+    this.datagramsOut.increment();
+    this.bytesOut.add(bytes);
+  }
+
+  /**
+   * records a sent frame set.
+   *
+   * @param bytes the bytes to record.
+   */
+  public void frameSetSent(final int bytes) {
+    this.frameSetsSent.increment();
+    this.frameSetSize.record(bytes);
+  }
+
+  /**
+   * records acked frame sets.
+   *
+   * @param count the count to record.
+   */
+  public void frameSetsAcked(final int count) {
+    this.frameSetsAcked.add(count);
+  }
+
+  /**
+   * records nacked frame sets.
+   *
+   * @param count the count to record.
+   */
+  public void frameSetsNacked(final int count) {
+    this.frameSetsNacked.add(count);
+  }
+
+  /**
+   * records frame sets that are recalled because their ack did not arrive in time.
+   *
+   * @param count the count to record.
+   */
+  public void frameSetsTimedOut(final int count) {
+    this.frameSetsTimedOut.add(count);
+  }
+
+  /**
+   * records the time in between sending a frame set and receiving its ack.
+   *
+   * @param nanos the nanos to record.
+   */
+  public void recordAckDelay(final long nanos) {
+    this.ackDelay.record(nanos);
+  }
+
+  /**
+   * records the time in between the first request of a connection and its completed handshake.
+   *
+   * @param nanos the nanos to record.
+   */
+  public void recordHandshake(final long nanos) {
+    this.handshake.record(nanos);
+  }
+
+  /**
+   * records an rtt sample.
+   *
+   * @param nanos the nanos to record.
+   */
+  public void recordRtt(final long nanos) {
+    this.rtt.record(nanos);
+  }
+
+  /**
+   * records the time in between the first and the last fragment of a split packet.
+   *
+   * @param nanos the nanos to record.
+   */
+  public void recordSplitReassembly(final long nanos) {
+    this.splitReassembly.record(nanos);
+  }
+
+  /**
+   * registers the jmx view of the metrics to the platform mbean server.
+   *
+   * @param name the name to register, e.g. the bound address of the server.
+   *
+   * @return registered name.
+   *
+   * @throws IllegalStateException if the metrics are already registered or the registration fails.
+   */
+  @NotNull
+  public synchronized ObjectName register(@NotNull final String name) {
+    if (this.objectName != null) {
+      throw new IllegalStateException(
+        "Metrics are already registered as %s".formatted(this.objectName)
+      );
+    }
+    try {
+      final var objectName = new ObjectName(
+        "%s:type=RakNetMetrics,name=%s".formatted(
+            RakNetMetrics.DOMAIN,
+            ObjectName.quote(name)
+          )
+      );
+      ManagementFactory
+        .getPlatformMBeanServer()
+        .registerMBean(
+          new StandardMBean(new Jmx(), RakNetMetricsMXBean.class, true),
+          objectName
+        );
+      this.objectName = objectName;
+      return objectName;
+    } catch (final JMException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * takes a snapshot of the counters and the histograms.
+   * <p>
+   * the values are read one by one, the counters that change meanwhile may be slightly ahead of each other.
+   *
+   * @return snapshot.
+   */
+  @NotNull
+  public Snapshot snapshot() {
+    return new Snapshot(
+      this.bytesIn.sum(),
+      this.bytesOut.sum(),
+      this.datagramsIn.sum(),
+      this.datagramsOut.sum(),
+      this.connectionsOpened.sum(),
+      this.connectionsClosed.sum(),
+      this.frameSetsSent.sum(),
+      this.frameSetsAcked.sum(),
+      this.frameSetsNacked.sum(),
+      this.frameSetsTimedOut.sum(),
+      this.rtt.snapshot(),
+      this.ackDelay.snapshot(),
+      this.frameSetSize.snapshot(),
+      this.handshake.snapshot(),
+      this.splitReassembly.snapshot()
+    );
+  }
+
+  @Override
+  public String toString() {
+    return this.snapshot().toString();
+  }
+
+  /**
+   * unregisters the jmx view of the metrics, does nothing if the metrics are not registered.
+   */
+  public synchronized void unregister() {
+    final var objectName = this.objectName;
+    if (objectName == null) {
+      return;
+    }
+    this.objectName = null;
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (final InstanceNotFoundException ignored) {
+      // already unregistered through the mbean server.
+    } catch (final JMException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * a record class that represents snapshots of metrics.
+   *
+   * @param bytesIn the bytes in.
+   * @param bytesOut the bytes out.
+   * @param datagramsIn the datagrams in.
+   * @param datagramsOut the datagrams out.
+   * @param connectionsOpened the connections opened.
+   * @param connectionsClosed the connections closed.
+   * @param frameSetsSent the frame sets sent.
+   * @param frameSetsAcked the frame sets acked.
+   * @param frameSetsNacked the frame sets nacked.
+   * @param frameSetsTimedOut the frame sets timed out.
+   * @param rtt the rtt samples in nanos.
+   * @param ackDelay the ack delays in nanos.
+   * @param frameSetSize the frame set sizes in bytes.
+   * @param handshake the handshake durations in nanos.
+   * @param splitReassembly the split reassembly times in nanos.
+   */
+  public record Snapshot(
+    long bytesIn,
+    long bytesOut,
+    long datagramsIn,
+    long datagramsOut,
+    long connectionsOpened,
+    long connectionsClosed,
+    long frameSetsSent,
+    long frameSetsAcked,
+    long frameSetsNacked,
+    long frameSetsTimedOut,
+    @NotNull LogLinearHistogram.Snapshot rtt,
+    @NotNull LogLinearHistogram.Snapshot ackDelay,
+    @NotNull LogLinearHistogram.Snapshot frameSetSize,
+    @NotNull LogLinearHistogram.Snapshot handshake,
+    @NotNull LogLinearHistogram.Snapshot splitReassembly
+  ) {
+    /**
+     * obtains the open connections.
+     *
+     * @return active connections.
+     */
+    public long connectionsActive() {
+      return this.connectionsOpened - this.connectionsClosed;
+    }
+  }
+
+  /**
+   * a class that represents the jmx view of the metrics.
+   */
+  private final class Jmx implements RakNetMetricsMXBean {
+
+    @Override
+    public long getAckDelayP50Nanos() {
+      return RakNetMetrics.this.ackDelay.percentile(50.0);
+    }
+
+    @Override
+    public long getAckDelayP99Nanos() {
+      return RakNetMetrics.this.ackDelay.percentile(99.0);
+    }
+
+    @Override
+    public long getBytesIn() {
+      return RakNetMetrics.this.bytesIn.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+      return RakNetMetrics.this.bytesOut.sum();
+    }
+
+    @Override
+    public long getConnectionsActive() {
+      return (
+        RakNetMetrics.this.connectionsOpened.sum() -
+        RakNetMetrics.this.connectionsClosed.sum()
+      );
+    }
+
+    @Override
+    public long getConnectionsClosed() {
+      return RakNetMetrics.this.connectionsClosed.sum();
+    }
+
+    @Override
+    public long getConnectionsOpened() {
+      return RakNetMetrics.this.connectionsOpened.sum();
+    }
+
+    @Override
+    public long getDatagramsIn() {
+      return RakNetMetrics.this.datagramsIn.sum();
+    }
+
+    @Override
+    public long getDatagramsOut() {
+      return RakNetMetrics.this.datagramsOut.sum();
+    }
+
+    @Override
+    public long getFrameSetSizeP50() {
+      return RakNetMetrics.this.frameSetSize.percentile(50.0);
+    }
+
+    @Override
+    public long getFrameSetSizeP99() {
+      return RakNetMetrics.this.frameSetSize.percentile(99.0);
+    }
+
+    @Override
+    public long getFrameSetsAcked() {
+      return RakNetMetrics.this.frameSetsAcked.sum();
+    }
+
+    @Override
+    public long getFrameSetsNacked() {
+      return RakNetMetrics.this.frameSetsNacked.sum();
+    }
+
+    @Override
+    public long getFrameSetsSent() {
+      return RakNetMetrics.this.frameSetsSent.sum();
+    }
+
+    @Override
+    public long getFrameSetsTimedOut() {
+      return RakNetMetrics.this.frameSetsTimedOut.sum();
+    }
+
+    @Override
+    public long getHandshakeP50Nanos() {
+      return RakNetMetrics.this.handshake.percentile(50.0);
+    }
+
+    @Override
+    public long getHandshakeP99Nanos() {
+      return RakNetMetrics.this.handshake.percentile(99.0);
+    }
+
+    @Override
+    public long getRttP50Nanos() {
+      return RakNetMetrics.this.rtt.percentile(50.0);
+    }
+
+    @Override
+    public long getRttP99Nanos() {
+      return RakNetMetrics.this.rtt.percentile(99.0);
+    }
+
+    @Override
+    public long getSplitReassemblyP50Nanos() {
+      return RakNetMetrics.this.splitReassembly.percentile(50.0);
+    }
+
+    @Override
+    public long getSplitReassemblyP99Nanos() {
+      return RakNetMetrics.this.splitReassembly.percentile(99.0);
+    }
+  }
+
+  /**
+   * a class that holds the shared metrics, so servers which never load it do not allocate them.
+   */
+  private static final class Shared {
+
+    /**
+     * the instance.
+     */
+    private static final RakNetMetrics INSTANCE = new RakNetMetrics();
+  }
+}
@@ -0,0 +1,155 @@
+package io.github.shiruka.network.stats;
+
+/**
+ * an interface to determine the jmx view of {@link RakNetMetrics}.
+ * <p>
+ * every attribute is computed when it is read, the histogram attributes merge their stripes on each read.
+ */
+public interface RakNetMetricsMXBean {
+  /**
+   * obtains the 50th percentile of the ack delays.
+   *
+   * @return ack delay p50 nanos.
+   */
+  long getAckDelayP50Nanos();
+
+  /**
+   * obtains the 99th percentile of the ack delays.
+   *
+   * @return ack delay p99 nanos.
+   */
+  long getAckDelayP99Nanos();
+
+  /**
+   * obtains the received bytes.
+   *
+   * @return bytes in.
+   */
+  long getBytesIn();
+
+  /**
+   * obtains the sent bytes.
+   *
+   * @return bytes out.
+   */
+  long getBytesOut();
+
+  /**
+   * obtains the open connections.
+   *
+   * @return active connections.
+   */
+  long getConnectionsActive();
+
+  /**
+   * obtains the closed connections.
+   *
+   * @return closed connections.
+   */
+  long getConnectionsClosed();
+
+  /**
+   * obtains the opened connections.
+   *
+   * @return opened connections.
+   */
+  long getConnectionsOpened();
+
+  /**
+   * obtains the received datagrams.
+   *
+   * @return datagrams in.
+   */
+  long getDatagramsIn();
+
+  /**
+   * obtains the sent datagrams.
+   *
+   * @return datagrams out.
+   */
+  long getDatagramsOut();
+
+  /**
+   * obtains the 50th percentile of the frame set sizes.
+   *
+   * @return frame set size p50 bytes.
+   */
+  long getFrameSetSizeP50();
+
+  /**
+   * obtains the 99th percentile of the frame set sizes.
+   *
+   * @return frame set size p99 bytes.
+   */
+  long getFrameSetSizeP99();
+
+  /**
+   * obtains the acked frame sets.
+   *
+   * @return frame sets acked.
+   */
+  long getFrameSetsAcked();
+
+  /**
+   * obtains the nacked frame sets.
+   *
+   * @return frame sets nacked.
+   */
+  long getFrameSetsNacked();
+
+  /**
+   * obtains the sent frame sets.
+   *
+   * @return frame sets sent.
+   */
+  long getFrameSetsSent();
+
+  /**
+   * obtains the timed out frame sets.
+   *
+   * @return frame sets timed out.
+   */
+  long getFrameSetsTimedOut();
+
+  /**
+   * obtains the 50th percentile of the handshake durations.
+   *
+   * @return handshake p50 nanos.
+   */
+  long getHandshakeP50Nanos();
+
+  /**
+   * obtains the 99th percentile of the handshake durations.
+   *
+   * @return handshake p99 nanos.
+   */
+  long getHandshakeP99Nanos();
+
+  /**
+   * obtains the 50th percentile of the rtt samples.
+   *
+   * @return rtt p50 nanos.
+   */
+  long getRttP50Nanos();
+
+  /**
+   * obtains the 99th percentile of the rtt samples.
+   *
+   * @return rtt p99 nanos.
+   */
+  long getRttP99Nanos();
+
+  /**
+   * obtains the 50th percentile of the split reassembly times.
+   *
+   * @return split reassembly p50 nanos.
+   */
+  long getSplitReassemblyP50Nanos();
+
+  /**
+   * obtains the 99th percentile of the split reassembly times.
+   *
+   * @return split reassembly p99 nanos.
+   */
+  long getSplitReassemblyP99Nanos();
+}
@@ -0,0 +1,4 @@
+/**
+ * the package that contains connection statistics and server metrics classes.
+ */
+package io.github.shiruka.network.stats;